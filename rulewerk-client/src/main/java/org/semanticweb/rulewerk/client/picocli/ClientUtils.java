@@ -20,7 +20,7 @@ package org.semanticweb.rulewerk.client.picocli;
  * #L%
  */
 
-import java.util.Iterator;
+import java.io.PrintStream;
 
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
@@ -81,13 +81,26 @@ public final class ClientUtils {
 	 * @param reasoner  reasoner to query on
 	 */
 	public static void printOutQueryAnswers(final PositiveLiteral queryAtom, final Reasoner reasoner) {
-		System.out.println("Answers to query " + queryAtom + " :");
+		printOutQueryAnswers(queryAtom, reasoner, System.out);
+	}
+
+	/**
+	 * Prints out the answers given by {@code reasoner} to the query
+	 * ({@code queryAtom}) to the given stream.
+	 *
+	 * @param queryAtom query to be answered
+	 * @param reasoner  reasoner to query on
+	 * @param out       stream to print to
+	 */
+	public static void printOutQueryAnswers(final PositiveLiteral queryAtom, final Reasoner reasoner,
+			final PrintStream out) {
+		out.println("Answers to query " + queryAtom + " :");
 		try (final QueryResultIterator answers = reasoner.answerQuery(queryAtom, true)) {
-			answers.forEachRemaining(answer -> System.out.println(" - " + answer));
+			answers.forEachRemaining(answer -> out.println(" - " + answer));
 
-			System.out.println("Query answers are: " + answers.getCorrectness());
+			out.println("Query answers are: " + answers.getCorrectness());
 		}
-		System.out.println();
+		out.println();
 	}
 
 	/**
@@ -98,27 +111,26 @@ public final class ClientUtils {
 	 * @param reasoner  reasoner to query on
 	 *
 	 * @return number of answers to the given query
+	 * @throws ArithmeticException if the number of answers exceeds
+	 *                             {@link Integer#MAX_VALUE}; use
+	 *                             {@link #countQueryAnswers(PositiveLiteral, Reasoner)}
+	 *                             for large answer sets
 	 */
 	public static int getQueryAnswerCount(final PositiveLiteral queryAtom, final Reasoner reasoner) {
-		try (final QueryResultIterator answers = reasoner.answerQuery(queryAtom, true)) {
-			return iteratorSize(answers);
-		}
+		return Math.toIntExact(countQueryAnswers(queryAtom, reasoner));
 	}
 
 	/**
-	 * Returns the size of an iterator.
+	 * Returns the number of answers returned by {@code reasoner} to the query
+	 * ({@code queryAtom}), without iterating over the answers.
+	 *
+	 * @param queryAtom query to be answered
+	 * @param reasoner  reasoner to query on
 	 *
-	 * @FIXME This is an inefficient way of counting results. It should be done at a
-	 *        lower level instead
-	 * @param Iterator<T> to iterate over
-	 * @return number of elements in iterator
+	 * @return number of answers to the given query
 	 */
-	private static <T> int iteratorSize(final Iterator<T> iterator) {
-		int size = 0;
-		for (; iterator.hasNext(); ++size) {
-			iterator.next();
-		}
-		return size;
+	public static long countQueryAnswers(final PositiveLiteral queryAtom, final Reasoner reasoner) {
+		return reasoner.countQueryAnswers(queryAtom, true).getCount();
 	}
 
 }
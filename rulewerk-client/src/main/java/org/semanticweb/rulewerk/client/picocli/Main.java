@@ -22,6 +22,7 @@ package org.semanticweb.rulewerk.client.picocli;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Arrays;
 
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
@@ -35,17 +36,18 @@ import picocli.CommandLine.Command;
 
 /**
  * Class with main method that is a command with subcommands {@code shell}
- * (default) and {@code materialize}.
+ * (default), {@code materialize} and {@code serve}.
  * 
  * @author Irina Dragoste
  *
  */
 @Command(name = "", description = "A command line client for Rulewerk.", subcommands = { InteractiveShellClient.class,
-		RulewerkClientMaterialize.class })
+		RulewerkClientMaterialize.class, RulewerkServe.class })
 public class Main {
 
 	public static String INTERACTIVE_SHELL_COMMAND = "shell";
 	public static String COMMAND_LINE_CLIENT_COMMAND = "materialize";
+	public static String SERVER_COMMAND = "serve";
 	public static String HELP_COMMAND = "help";
 
 	/**
@@ -56,6 +58,8 @@ public class Main {
 	 * shell.</li>
 	 * <li>argument "materialize" can be used with different options to complete
 	 * several materialization and querying tasks from the command line.</li>
+	 * <li>argument "serve" materializes a knowledge base once and answers the
+	 * commands of clients that connect to a local port.</li>
 	 * <li>help</li>
 	 * </ul>
 	 * 
@@ -71,7 +75,10 @@ public class Main {
 		} else {
 			if (COMMAND_LINE_CLIENT_COMMAND.equals(args[0])) {
 				final CommandLine commandline = new CommandLine(new RulewerkClientMaterialize());
-				commandline.execute(args);
+				commandline.execute(Arrays.copyOfRange(args, 1, args.length));
+			} else if (SERVER_COMMAND.equals(args[0])) {
+				final CommandLine commandline = new CommandLine(new RulewerkServe());
+				commandline.execute(Arrays.copyOfRange(args, 1, args.length));
 			} else {
 				displayHelp(args, System.out);
 			}
@@ -85,6 +92,8 @@ public class Main {
 
 		if (HELP_COMMAND.equals(args[0]) && args.length > 1 && COMMAND_LINE_CLIENT_COMMAND.equals(args[1])) {
 			(new CommandLine(new RulewerkClientMaterialize())).usage(printStream);
+		} else if (HELP_COMMAND.equals(args[0]) && args.length > 1 && SERVER_COMMAND.equals(args[1])) {
+			(new CommandLine(new RulewerkServe())).usage(printStream);
 		} else {
 			(new CommandLine(new Main())).usage(printStream);
 		}
@@ -20,17 +20,29 @@ package org.semanticweb.rulewerk.client.picocli;
  * #L%
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
 import org.semanticweb.rulewerk.core.reasoner.Algorithm;
 import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
 import org.semanticweb.rulewerk.core.reasoner.LogLevel;
 import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.reasoner.vlog.PartitionedVLogReasoner;
 import org.semanticweb.rulewerk.reasoner.vlog.VLogReasoner;
 import org.semanticweb.rulewerk.parser.ParsingException;
 import org.semanticweb.rulewerk.parser.RuleParser;
@@ -73,6 +85,15 @@ public class RulewerkClientMaterialize implements Runnable {
 	@Option(names = "--query", description = "Positive not-ground Literals to query after materialization in rls syntax. RulewerkClient will print the size of its extension", required = true)
 	private List<String> queryStrings = new ArrayList<>();
 
+	@Option(names = "--threads", description = "Number of threads used for reasoning and for answering and exporting queries. 1 by default", required = false)
+	private int threads = 1;
+
+	@Option(names = "--partition", description = "Materialise independent parts of the rules separately, in parallel with the given number of threads. False by default", required = false)
+	private boolean partition = false;
+
+	@Option(names = "--relevant-only", description = "Only load rules, facts and data sources that can contribute to the answers of the queries. False by default", required = false)
+	private boolean relevantOnly = false;
+
 	@ArgGroup(exclusive = false)
 	private final PrintQueryResults printQueryResults = new PrintQueryResults();
 
@@ -99,7 +120,7 @@ public class RulewerkClientMaterialize implements Runnable {
 		/* Print configuration */
 		this.printConfiguration();
 
-		try (Reasoner reasoner = new VLogReasoner(this.kb)) {
+		try (Reasoner reasoner = this.partition ? new PartitionedVLogReasoner(this.kb) : new VLogReasoner(this.kb)) {
 
 			this.materialize(reasoner);
 			// TODO if (saveModel.saveModel) { this.saveModel(); }
@@ -119,6 +140,9 @@ public class RulewerkClientMaterialize implements Runnable {
 		if (this.saveQueryResults.isSaveResults() && !this.saveQueryResults.isDirectoryValid()) {
 			this.printErrorMessageAndExit(SaveQueryResults.wrongDirectoryErrorMessage);
 		}
+		if (this.threads <= 0) {
+			this.printErrorMessageAndExit("The number of threads must be positive.");
+		}
 		// TODO
 		// if (!saveModel.isConfigurationValid()) {
 		// printMessageAndExit(SaveModel.configurationErrorMessage);
@@ -160,10 +184,17 @@ public class RulewerkClientMaterialize implements Runnable {
 		reasoner.setLogLevel(this.logLevel);
 		// chaseAlgorithm
 		reasoner.setAlgorithm(this.chaseAlgorithm);
+		// threads
+		reasoner.setNumberOfThreads(this.threads);
 		// timeout
 		if (this.timeout > 0) {
 			reasoner.setReasoningTimeout(this.timeout);
 		}
+		// relevantOnly
+		if (this.relevantOnly) {
+			reasoner.setRelevantPredicates(
+					this.queries.stream().map(PositiveLiteral::getPredicate).collect(Collectors.toList()));
+		}
 
 		System.out.println("Executing the chase ...");
 		try {
@@ -177,23 +208,167 @@ public class RulewerkClientMaterialize implements Runnable {
 
 	// TODO private void saveModel() {...}
 
+	/**
+	 * Answers the queries with up to {@link #threads} threads. The output of each
+	 * query is printed in the order of the queries while it is produced; see
+	 * {@link QueryOutput}.
+	 */
 	private void answerQueries(final Reasoner reasoner) {
 		if (!this.queries.isEmpty()) {
 			System.out.println("Answering queries ...");
-			for (final PositiveLiteral query : this.queries) {
-				if (this.saveQueryResults.isSaveResults()) {
-					// Save the query results
-					this.doSaveQueryResults(reasoner, query);
+			if (this.saveQueryResults.isSaveResults()) {
+				this.saveQueryResults.mkdir();
+			}
+			final ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, this.queries.size()));
+			try {
+				final List<QueryOutput> outputs = new ArrayList<>();
+				final List<Future<?>> results = new ArrayList<>();
+				for (final PositiveLiteral query : this.queries) {
+					final QueryOutput output = new QueryOutput();
+					outputs.add(output);
+					results.add(executor.submit(() -> this.answerQuery(reasoner, query, output)));
 				}
-
-				if (this.printQueryResults.isSizeOnly()) {
-					// print number of facts in results
-					this.doPrintResults(reasoner, query);
-				} else if (this.printQueryResults.isComplete()) {
-					// print facts
-					ClientUtils.printOutQueryAnswers(query, reasoner);
+				for (int i = 0; i < outputs.size(); i++) {
+					outputs.get(i).print();
+					results.get(i).get();
 				}
+			} catch (final ExecutionException e) {
+				this.printErrorMessageAndExit("Failed to answer query.\n" + e.getCause().getMessage());
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Output and error messages of answering a single query. They are handed over
+	 * to the printing thread in chunks through a bounded queue, so that the
+	 * answers of a query are not kept in memory: a query whose output is not
+	 * printed yet waits when the queue is full. Since queries are started in
+	 * order, the query whose output is printed is always running or done.
+	 */
+	private static class QueryOutput {
+		static final int CHUNK_SIZE = 8192;
+		static final int MAX_PENDING_CHUNKS = 16;
+		private static final Chunk END = new Chunk(null, new byte[0]);
+
+		private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS);
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE);
+		private PrintStream bufferTarget;
+
+		final PrintStream outStream = new PrintStream(new TargetStream(System.out));
+		final PrintStream errStream = new PrintStream(new TargetStream(System.err));
+
+		private static class Chunk {
+			final PrintStream target;
+			final byte[] bytes;
+
+			Chunk(final PrintStream target, final byte[] bytes) {
+				this.target = target;
+				this.bytes = bytes;
+			}
+		}
+
+		/**
+		 * Writes to the buffer of the query output, for printing to the given
+		 * stream.
+		 */
+		private class TargetStream extends OutputStream {
+			private final PrintStream target;
+
+			TargetStream(final PrintStream target) {
+				this.target = target;
+			}
+
+			@Override
+			public void write(final int b) throws IOException {
+				this.write(new byte[] { (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+				QueryOutput.this.write(this.target, bytes, offset, length);
+			}
+		}
+
+		private void write(final PrintStream target, final byte[] bytes, final int offset, final int length)
+				throws InterruptedIOException {
+			if (target != this.bufferTarget) {
+				this.flushBuffer();
+				this.bufferTarget = target;
+			}
+			this.buffer.write(bytes, offset, length);
+			if (this.buffer.size() >= CHUNK_SIZE) {
+				this.flushBuffer();
+			}
+		}
+
+		private void flushBuffer() throws InterruptedIOException {
+			if (this.buffer.size() > 0) {
+				this.put(new Chunk(this.bufferTarget, this.buffer.toByteArray()));
+				this.buffer.reset();
+			}
+		}
+
+		private void put(final Chunk chunk) throws InterruptedIOException {
+			try {
+				this.chunks.put(chunk);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for query output to be printed.");
+			}
+		}
+
+		/**
+		 * Hands over the remaining output; must be called when the query has been
+		 * answered, also if answering failed.
+		 */
+		void finish() {
+			this.outStream.flush();
+			this.errStream.flush();
+			try {
+				this.flushBuffer();
+				this.put(END);
+			} catch (final InterruptedIOException e) {
+				// the printing thread has given up
+			}
+		}
+
+		/**
+		 * Prints the output as it is handed over, until the query has been
+		 * answered.
+		 */
+		void print() throws InterruptedException {
+			Chunk chunk;
+			while ((chunk = this.chunks.take()) != END) {
+				chunk.target.write(chunk.bytes, 0, chunk.bytes.length);
+			}
+			System.out.flush();
+			System.err.flush();
+		}
+	}
+
+	private void answerQuery(final Reasoner reasoner, final PositiveLiteral query, final QueryOutput output) {
+		try {
+			final long startTime = System.nanoTime();
+			if (this.saveQueryResults.isSaveResults()) {
+				// Save the query results
+				this.doSaveQueryResults(reasoner, query, output.errStream);
+			}
+
+			if (this.printQueryResults.isSizeOnly()) {
+				// print number of facts in results
+				this.doPrintResults(reasoner, query, output.outStream);
+			} else if (this.printQueryResults.isComplete()) {
+				// print facts
+				ClientUtils.printOutQueryAnswers(query, reasoner, output.outStream);
 			}
+			output.outStream.println("Query " + query + " answered in " + (System.nanoTime() - startTime) / 1000000
+					+ " ms.");
+		} finally {
+			output.finish();
 		}
 	}
 
@@ -212,6 +387,9 @@ public class RulewerkClientMaterialize implements Runnable {
 		System.out.println("  --log-level: " + this.logLevel);
 		System.out.println("  --chase-algorithm: " + this.chaseAlgorithm);
 		System.out.println("  --timeout: " + ((this.timeout > 0) ? this.timeout : "none"));
+		System.out.println("  --relevant-only: " + this.relevantOnly);
+		System.out.println("  --threads: " + this.threads);
+		System.out.println("  --partition: " + this.partition);
 
 		/* Print what to do with the result */
 		this.printQueryResults.printConfiguration();
@@ -219,18 +397,17 @@ public class RulewerkClientMaterialize implements Runnable {
 		// TODO saveModel.printConfiguration();
 	}
 
-	private void doSaveQueryResults(final Reasoner reasoner, final PositiveLiteral query) {
-		this.saveQueryResults.mkdir();
+	private void doSaveQueryResults(final Reasoner reasoner, final PositiveLiteral query, final PrintStream err) {
 		try {
 			reasoner.exportQueryAnswersToCsv(query, this.queryOputputPath(query), true);
 		} catch (final IOException e) {
-			System.err.println("Can't save query: \"\"\"" + query + "\"\"\".");
-			System.err.println(e.getMessage());
+			err.println("Can't save query: \"\"\"" + query + "\"\"\".");
+			err.println(e.getMessage());
 		}
 	}
 
-	private void doPrintResults(final Reasoner reasoner, final PositiveLiteral query) {
-		System.out.println("Number of query answers in " + query + ": " + reasoner.countQueryAnswers(query).getCount());
+	private void doPrintResults(final Reasoner reasoner, final PositiveLiteral query, final PrintStream out) {
+		out.println("Number of query answers in " + query + ": " + ClientUtils.countQueryAnswers(query, reasoner));
 	}
 
 	private String queryOputputPath(final PositiveLiteral query) {
@@ -0,0 +1,121 @@
+package org.semanticweb.rulewerk.client.picocli;
+
+/*-
+ * #%L
+ * Rulewerk Client
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.semanticweb.rulewerk.client.server.QueryServer;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.reasoner.Algorithm;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.parser.DefaultParserConfiguration;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+import org.semanticweb.rulewerk.reasoner.vlog.VLogReasoner;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Class to implement a command that materialises a knowledge base once and
+ * then answers queries and other commands of many clients over a local socket.
+ */
+@Command(name = "serve", description = "Materialise the given rule files once, and answer shell commands of clients connecting to a local port")
+public class RulewerkServe implements Runnable {
+
+	@Option(names = "--rule-file", description = "Rule file(s) in {@link https://github.com/knowsys/rulewerk/wiki/Rule-syntax-grammar} syntax", required = false)
+	private final List<String> ruleFiles = new ArrayList<>();
+
+	@Option(names = "--port", description = "Local port to listen on. 7070 by default; 0 for any free port.", required = false)
+	private int port = 7070;
+
+	@Option(names = "--threads", description = "Maximal number of commands executed at the same time. Number of available processors by default.", required = false)
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Option(names = "--chase-algorithm", description = "Chase algorithm. RESTRICTED_CHASE (default) or SKOLEM_CHASE.", required = false)
+	private Algorithm chaseAlgorithm = Algorithm.RESTRICTED_CHASE;
+
+	@Option(names = "--timeout", description = "Timeout of reasoning in seconds. Infinite by default", required = false)
+	private int timeout = 0;
+
+	@Override
+	public void run() {
+		ClientUtils.configureLogging();
+		if (this.threads <= 0) {
+			this.printErrorMessageAndExit("Number of threads must be positive.");
+		}
+		// fail early on unreadable rule files
+		try {
+			this.loadKnowledgeBase();
+		} catch (final RulewerkRuntimeException e) {
+			this.printErrorMessageAndExit(e.getMessage());
+		}
+
+		System.out.println("Executing the chase ...");
+		try (final QueryServer server = new QueryServer(this::loadKnowledgeBase, this::createReasoner,
+				new DefaultParserConfiguration(), this.threads)) {
+			Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+			server.start(this.port);
+			System.out.println("Listening on port " + server.getPort() + ". Send one command per line, "
+					+ QueryServer.EXIT_COMMAND + " to disconnect.");
+			server.awaitTermination();
+		} catch (final IOException e) {
+			this.printErrorMessageAndExit("Failed to open port " + this.port + ": " + e.getMessage());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private KnowledgeBase loadKnowledgeBase() {
+		final KnowledgeBase knowledgeBase = new KnowledgeBase();
+		for (final String ruleFile : this.ruleFiles) {
+			try {
+				RuleParser.parseInto(knowledgeBase, new FileInputStream(ruleFile));
+			} catch (final FileNotFoundException e) {
+				throw new RulewerkRuntimeException("File not found: " + ruleFile + "\n " + e.getMessage(), e);
+			} catch (final ParsingException e) {
+				throw new RulewerkRuntimeException(
+						"Failed to parse rule file: " + ruleFile + "\n " + e.getMessage(), e);
+			}
+		}
+		return knowledgeBase;
+	}
+
+	private VLogReasoner createReasoner(final KnowledgeBase knowledgeBase) {
+		final VLogReasoner reasoner = new VLogReasoner(knowledgeBase);
+		reasoner.setAlgorithm(this.chaseAlgorithm);
+		if (this.timeout > 0) {
+			reasoner.setReasoningTimeout(this.timeout);
+		}
+		return reasoner;
+	}
+
+	private void printErrorMessageAndExit(final String message) {
+		System.err.println(message);
+		System.out.println("Exiting the program.");
+		System.exit(1);
+	}
+
+}
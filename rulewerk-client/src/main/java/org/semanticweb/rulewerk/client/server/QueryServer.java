@@ -0,0 +1,330 @@
+package org.semanticweb.rulewerk.client.server;
+
+/*-
+ * #%L
+ * Rulewerk Client
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.commands.CommandExecutionException;
+import org.semanticweb.rulewerk.commands.Interpreter;
+import org.semanticweb.rulewerk.commands.Interpreter.KnowledgeBaseProvider;
+import org.semanticweb.rulewerk.commands.Interpreter.ReasonerProvider;
+import org.semanticweb.rulewerk.commands.SimpleStyledPrinter;
+import org.semanticweb.rulewerk.commands.StyledPrinter;
+import org.semanticweb.rulewerk.core.model.api.Command;
+import org.semanticweb.rulewerk.parser.ParserConfiguration;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A server that answers {@link Interpreter} commands of many clients with a
+ * single, long-lived reasoner. The reasoner is created and materialised once,
+ * when the server is constructed. Clients connect to a local TCP port and send
+ * one command per line, in the syntax of the interactive shell (the leading
+ * {@code @} and the final {@code .} may be omitted). The output of each
+ * command is streamed back to the client, followed by a line
+ * {@value #RESPONSE_OK} or {@value #RESPONSE_ERROR}. The command
+ * {@value #EXIT_COMMAND} closes the connection. <br>
+ * Commands that only read the state of the reasoner, such as queries, are
+ * executed concurrently, while commands that change it are executed
+ * exclusively. At most the given number of commands is executed at the same
+ * time. Each connection is served by its own thread, which is a virtual thread
+ * if the Java runtime supports them.
+ */
+public class QueryServer implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QueryServer.class);
+
+	/**
+	 * Line sent after the output of a command that has been executed
+	 * successfully.
+	 */
+	public static final String RESPONSE_OK = "@ok";
+	/**
+	 * Line sent after the output of a command that could not be parsed or
+	 * executed.
+	 */
+	public static final String RESPONSE_ERROR = "@error";
+	/**
+	 * Name of the command that closes the connection.
+	 */
+	public static final String EXIT_COMMAND = "exit";
+
+	/**
+	 * Names of the commands that do not change the knowledge base or the
+	 * reasoner, and may thus be executed concurrently.
+	 */
+	static final Set<String> READ_ONLY_COMMANDS = Collections
+			.unmodifiableSet(new HashSet<>(Arrays.asList("query", "help", "showkb", "export", "stats")));
+
+	private final SessionStyledPrinter printer;
+	private final Interpreter interpreter;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock(true);
+	private final Semaphore commandPermits;
+	private final ExecutorService sessionExecutor;
+	private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+	private ServerSocket serverSocket;
+	private Thread acceptThread;
+
+	/**
+	 * Creates a server and materialises the knowledge base.
+	 *
+	 * @param knowledgeBaseProvider provides the knowledge base, initially and
+	 *                              whenever it is cleared by a client
+	 * @param reasonerProvider      creates the reasoner for the knowledge base
+	 * @param parserConfiguration   configuration for parsing commands
+	 * @param maxConcurrentCommands maximal number of commands that are executed
+	 *                              at the same time
+	 */
+	public QueryServer(final KnowledgeBaseProvider knowledgeBaseProvider, final ReasonerProvider reasonerProvider,
+			final ParserConfiguration parserConfiguration, final int maxConcurrentCommands) {
+		Validate.isTrue(maxConcurrentCommands > 0, "Number of concurrent commands must be positive, but was %d.",
+				maxConcurrentCommands);
+		this.printer = new SessionStyledPrinter(new SimpleStyledPrinter(new PrintWriter(System.out, true)));
+		this.interpreter = new Interpreter(knowledgeBaseProvider, reasonerProvider, this.printer,
+				parserConfiguration);
+		this.commandPermits = new Semaphore(maxConcurrentCommands, true);
+		this.sessionExecutor = newSessionExecutor();
+	}
+
+	/**
+	 * Creates an executor with one virtual thread per task, if supported by the
+	 * Java runtime, and with one (daemon) platform thread per task otherwise.
+	 */
+	static ExecutorService newSessionExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (final ReflectiveOperationException e) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			return Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, "rulewerk-session-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Starts accepting connections on the loopback interface.
+	 *
+	 * @param port the port to listen on, or {@code 0} for any free port
+	 * @throws IOException if the port cannot be opened
+	 */
+	public synchronized void start(final int port) throws IOException {
+		Validate.validState(this.serverSocket == null, "Server has already been started.");
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.acceptThread = new Thread(this::acceptConnections, "rulewerk-server-accept");
+		this.acceptThread.start();
+		LOGGER.info("Rulewerk server listening on port {}.", this.getPort());
+	}
+
+	/**
+	 * @return the port the server is listening on, or {@code -1} if it has not
+	 *         been started
+	 */
+	public synchronized int getPort() {
+		return this.serverSocket == null ? -1 : this.serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Waits until the server has been closed.
+	 *
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	public void awaitTermination() throws InterruptedException {
+		final Thread thread;
+		synchronized (this) {
+			thread = this.acceptThread;
+		}
+		if (thread != null) {
+			thread.join();
+		}
+	}
+
+	private void acceptConnections() {
+		while (!this.serverSocket.isClosed()) {
+			try {
+				final Socket socket = this.serverSocket.accept();
+				this.openSockets.add(socket);
+				this.sessionExecutor.execute(() -> this.serveConnection(socket));
+			} catch (final IOException e) {
+				if (!this.serverSocket.isClosed()) {
+					LOGGER.warn("Failed to accept connection: {}", e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void serveConnection(final Socket socket) {
+		try (final BufferedReader reader = new BufferedReader(
+				new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				final Writer writer = new BufferedWriter(
+						new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			final StyledPrinter sessionPrinter = new SimpleStyledPrinter(writer);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String commandString = normalizeCommand(line);
+				if (commandString.isEmpty()) {
+					continue;
+				}
+				final Boolean succeeded = this.runCommand(commandString, sessionPrinter);
+				if (succeeded == null) {
+					writer.write(RESPONSE_OK + "\n");
+					writer.flush();
+					break;
+				}
+				writer.write((succeeded ? RESPONSE_OK : RESPONSE_ERROR) + "\n");
+				writer.flush();
+			}
+		} catch (final IOException | RuntimeException e) {
+			LOGGER.debug("Connection closed: {}", e.getMessage());
+		} finally {
+			this.openSockets.remove(socket);
+			try {
+				socket.close();
+			} catch (final IOException e) {
+				LOGGER.debug("Failed to close connection: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Adds the leading {@code @} and the final {@code .} of a command if they
+	 * are missing, like the interactive shell does.
+	 */
+	static String normalizeCommand(final String line) {
+		String result = line.trim();
+		if (!result.isEmpty()) {
+			if (result.charAt(0) != '@') {
+				result = "@" + result;
+			}
+			if (result.charAt(result.length() - 1) != '.') {
+				result = result + " .";
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Parses and executes a command, writing its output to the given printer.
+	 *
+	 * @return {@code true} if the command was executed, {@code false} if it
+	 *         failed, and {@code null} if the connection should be closed
+	 */
+	Boolean runCommand(final String commandString, final StyledPrinter sessionPrinter) {
+		this.commandPermits.acquireUninterruptibly();
+		this.printer.setSessionPrinter(sessionPrinter);
+		try {
+			final Command command;
+			this.lock.readLock().lock();
+			try {
+				command = this.interpreter.parseCommand(commandString);
+			} finally {
+				this.lock.readLock().unlock();
+			}
+			if (EXIT_COMMAND.equals(command.getName())) {
+				return null;
+			}
+
+			final Lock commandLock = READ_ONLY_COMMANDS.contains(command.getName()) ? this.lock.readLock()
+					: this.lock.writeLock();
+			commandLock.lock();
+			try {
+				this.interpreter.runCommand(command);
+			} finally {
+				commandLock.unlock();
+			}
+			return true;
+		} catch (final ParsingException e) {
+			sessionPrinter.printNormal("Error: " + e.getMessage()
+					+ (e.getCause() == null ? "" : "\n" + e.getCause().getMessage()) + "\n");
+			return false;
+		} catch (final CommandExecutionException e) {
+			sessionPrinter.printNormal("Error: " + e.getMessage() + "\n");
+			return false;
+		} finally {
+			this.printer.removeSessionPrinter();
+			this.commandPermits.release();
+		}
+	}
+
+	/**
+	 * Stops accepting connections, closes all open connections, and closes the
+	 * reasoner.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (this.serverSocket != null) {
+				try {
+					this.serverSocket.close();
+				} catch (final IOException e) {
+					LOGGER.warn("Failed to close server socket: {}", e.getMessage());
+				}
+			}
+		}
+		for (final Socket socket : this.openSockets) {
+			try {
+				socket.close();
+			} catch (final IOException e) {
+				LOGGER.debug("Failed to close connection: {}", e.getMessage());
+			}
+		}
+		this.sessionExecutor.shutdown();
+		try {
+			this.sessionExecutor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.lock.writeLock().lock();
+		try {
+			this.interpreter.close();
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package org.semanticweb.rulewerk.client.server;
+
+/*-
+ * #%L
+ * Rulewerk Client
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Writer;
+
+import org.semanticweb.rulewerk.commands.StyledPrinter;
+
+/**
+ * A {@link StyledPrinter} that forwards its output to the printer of the
+ * session whose command is currently executed by the calling thread. This
+ * allows several sessions to share a single
+ * {@link org.semanticweb.rulewerk.commands.Interpreter}.
+ */
+class SessionStyledPrinter implements StyledPrinter {
+
+	private final ThreadLocal<StyledPrinter> sessionPrinter = new ThreadLocal<>();
+	private final StyledPrinter defaultPrinter;
+
+	/**
+	 * @param defaultPrinter printer for output outside of sessions
+	 */
+	SessionStyledPrinter(final StyledPrinter defaultPrinter) {
+		this.defaultPrinter = defaultPrinter;
+	}
+
+	void setSessionPrinter(final StyledPrinter printer) {
+		this.sessionPrinter.set(printer);
+	}
+
+	void removeSessionPrinter() {
+		this.sessionPrinter.remove();
+	}
+
+	private StyledPrinter getPrinter() {
+		final StyledPrinter printer = this.sessionPrinter.get();
+		return printer == null ? this.defaultPrinter : printer;
+	}
+
+	@Override
+	public void printNormal(final String string) {
+		this.getPrinter().printNormal(string);
+	}
+
+	@Override
+	public void printSection(final String string) {
+		this.getPrinter().printSection(string);
+	}
+
+	@Override
+	public void printEmph(final String string) {
+		this.getPrinter().printEmph(string);
+	}
+
+	@Override
+	public void printCode(final String string) {
+		this.getPrinter().printCode(string);
+	}
+
+	@Override
+	public void printImportant(final String string) {
+		this.getPrinter().printImportant(string);
+	}
+
+	@Override
+	public Writer getWriter() {
+		return this.getPrinter().getWriter();
+	}
+
+}
@@ -0,0 +1,66 @@
+package org.semanticweb.rulewerk.client.picocli;
+
+/*-
+ * #%L
+ * Rulewerk Client
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+import org.semanticweb.rulewerk.reasoner.vlog.VLogReasoner;
+
+public class ClientUtilsTest {
+
+	@Test
+	public void getQueryAnswerCount_sameAsNumberOfAnswers() throws ParsingException, IOException {
+		try (final Reasoner reasoner = new VLogReasoner(
+				RuleParser.parse("p(a) . p(b) . q(?X, !Y) :- p(?X) . q(c, d) ."))) {
+			reasoner.reason();
+
+			assertEquals(3, ClientUtils.getQueryAnswerCount(RuleParser.parsePositiveLiteral("q(?X, ?Y)"), reasoner));
+			assertEquals(0, ClientUtils.getQueryAnswerCount(RuleParser.parsePositiveLiteral("r(?X)"), reasoner));
+			assertEquals(3L, ClientUtils.countQueryAnswers(RuleParser.parsePositiveLiteral("q(?X, ?Y)"), reasoner));
+		}
+	}
+
+	@Test
+	public void printOutQueryAnswers_printsToGivenStream() throws ParsingException, IOException {
+		try (final Reasoner reasoner = new VLogReasoner(RuleParser.parse("p(a) ."))) {
+			reasoner.reason();
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("p(?X)");
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+			ClientUtils.printOutQueryAnswers(query, reasoner, new PrintStream(output, true));
+
+			final String printed = output.toString();
+			assertTrue(printed.startsWith("Answers to query " + query));
+			assertTrue(printed.contains(" - [a]"));
+		}
+	}
+
+}
@@ -0,0 +1,217 @@
+package org.semanticweb.rulewerk.client.server;
+
+/*-
+ * #%L
+ * Rulewerk Client
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.rulewerk.parser.DefaultParserConfiguration;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+import org.semanticweb.rulewerk.reasoner.vlog.VLogReasoner;
+
+public class QueryServerTest {
+
+	private static final String KNOWLEDGE_BASE = "p(a) . p(b) . q(?X) :- p(?X) .";
+
+	private QueryServer server;
+
+	static class Client implements AutoCloseable {
+		final Socket socket;
+		final BufferedReader reader;
+		final PrintWriter writer;
+
+		Client(final int port) throws IOException {
+			this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			this.reader = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8));
+			this.writer = new PrintWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8),
+					true);
+		}
+
+		/**
+		 * Sends a command and returns the lines of its output, including the final
+		 * status line.
+		 */
+		List<String> send(final String command) throws IOException {
+			this.writer.println(command);
+			final List<String> lines = new ArrayList<>();
+			String line;
+			do {
+				line = this.reader.readLine();
+				lines.add(line);
+			} while (line != null && !QueryServer.RESPONSE_OK.equals(line)
+					&& !QueryServer.RESPONSE_ERROR.equals(line));
+			return lines;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.socket.close();
+		}
+	}
+
+	static String lastLine(final List<String> lines) {
+		return lines.get(lines.size() - 1);
+	}
+
+	@Before
+	public void startServer() throws IOException {
+		this.server = new QueryServer(() -> {
+			try {
+				return RuleParser.parse(KNOWLEDGE_BASE);
+			} catch (final ParsingException e) {
+				throw new IllegalStateException(e);
+			}
+		}, VLogReasoner::new, new DefaultParserConfiguration(), 2);
+		this.server.start(0);
+	}
+
+	@After
+	public void stopServer() {
+		this.server.close();
+	}
+
+	@Test
+	public void query_materialisedOnStart_returnsAnswers() throws IOException {
+		try (final Client client = new Client(this.server.getPort())) {
+			final List<String> lines = client.send("query q(?X)");
+
+			assertEquals(QueryServer.RESPONSE_OK, lastLine(lines));
+			assertTrue(lines.stream().anyMatch(line -> line.equals("?X -> a")));
+			assertTrue(lines.stream().anyMatch(line -> line.equals("?X -> b")));
+		}
+	}
+
+	@Test
+	public void send_invalidCommands_returnsErrors() throws IOException {
+		try (final Client client = new Client(this.server.getPort())) {
+			assertEquals(QueryServer.RESPONSE_ERROR, lastLine(client.send("query q(?X")));
+			assertEquals(QueryServer.RESPONSE_ERROR, lastLine(client.send("unknowncommand")));
+			assertEquals(QueryServer.RESPONSE_OK, lastLine(client.send("@query q(?X) .")));
+		}
+	}
+
+	@Test
+	public void assert_visibleToOtherClients() throws IOException {
+		try (final Client client1 = new Client(this.server.getPort());
+				final Client client2 = new Client(this.server.getPort())) {
+			assertEquals(QueryServer.RESPONSE_OK, lastLine(client1.send("assert p(c)")));
+			assertEquals(QueryServer.RESPONSE_OK, lastLine(client1.send("reason")));
+
+			final List<String> lines = client2.send("query q(?X)");
+			assertTrue(lines.stream().anyMatch(line -> line.equals("?X -> c")));
+		}
+	}
+
+	@Test
+	public void exit_closesConnection() throws IOException {
+		try (final Client client = new Client(this.server.getPort())) {
+			assertEquals(QueryServer.RESPONSE_OK, lastLine(client.send("exit")));
+			assertEquals(null, client.reader.readLine());
+		}
+	}
+
+	@Test
+	public void query_manyConcurrentClients_allAnswered() throws Exception {
+		final ExecutorService clients = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(clients.submit((Callable<Boolean>) () -> {
+					try (final Client client = new Client(this.server.getPort())) {
+						for (int j = 0; j < 20; j++) {
+							final List<String> lines = client.send("query q(?X)");
+							if (!QueryServer.RESPONSE_OK.equals(lastLine(lines))
+									|| lines.stream().noneMatch(line -> line.equals("?X -> b"))) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (final Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	@Test
+	public void query_differentConcurrentQueries_answeredIndependently() throws Exception {
+		final String[] queries = { "query p(?X) LIMIT 1", "query COUNT q(?X)", "query q(b)", "query q(?X) OFFSET 1" };
+		final String[] expectedLines = { "1 result(s)", "2", "true", "1 result(s)" };
+		final ExecutorService clients = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				final int client = i;
+				results.add(clients.submit((Callable<Boolean>) () -> {
+					try (final Client connection = new Client(this.server.getPort())) {
+						for (int j = 0; j < 40; j++) {
+							final int query = (client + j) % queries.length;
+							final List<String> lines = connection.send(queries[query]);
+							if (!QueryServer.RESPONSE_OK.equals(lastLine(lines)) || lines.stream()
+									.noneMatch(line -> line.startsWith(expectedLines[query]))) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (final Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	@Test
+	public void normalizeCommand_addsMissingSyntax() {
+		assertEquals("@query p(?X) .", QueryServer.normalizeCommand(" query p(?X) "));
+		assertEquals("@query p(?X) .", QueryServer.normalizeCommand("@query p(?X) ."));
+		assertTrue(QueryServer.normalizeCommand("  ").isEmpty());
+		assertFalse(QueryServer.READ_ONLY_COMMANDS.contains("assert"));
+	}
+
+}
@@ -23,7 +23,10 @@ import org.semanticweb.rulewerk.core.model.api.Command;
  */
 
 /**
- * Interface for classes that interpret (execute) specific commands.
+ * Interface for classes that interpret (execute) specific commands. One
+ * instance is used for all commands of an {@link Interpreter}, possibly by
+ * several threads at once, so implementations should not keep the arguments
+ * of a command in fields.
  * 
  * @author Markus Kroetzsch
  *
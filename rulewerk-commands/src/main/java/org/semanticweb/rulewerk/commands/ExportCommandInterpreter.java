@@ -21,16 +21,19 @@ package org.semanticweb.rulewerk.commands;
  */
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 
 import org.semanticweb.rulewerk.core.model.api.Command;
 import org.semanticweb.rulewerk.core.reasoner.Correctness;
 import org.semanticweb.rulewerk.core.reasoner.Timer;
+import org.semanticweb.rulewerk.parser.BinaryKnowledgeBaseWriter;
 
 public class ExportCommandInterpreter implements CommandInterpreter {
 
 	public static final String TASK_KB = "KB";
 	public static final String TASK_INFERENCES = "INFERENCES";
+	public static final String TASK_BINARY = "BINARY";
 
 	@Override
 	public void run(final Command command, final Interpreter interpreter) throws CommandExecutionException {
@@ -43,9 +46,11 @@ public class ExportCommandInterpreter implements CommandInterpreter {
 			this.exportKb(interpreter, fileName);
 		} else if (TASK_INFERENCES.equals(task)) {
 			this.exportInferences(interpreter, fileName);
+		} else if (TASK_BINARY.equals(task)) {
+			this.exportBinaryKb(interpreter, fileName);
 		} else {
-			throw new CommandExecutionException(
-					"Unknown task " + task + ". Should be " + TASK_KB + " or " + TASK_INFERENCES);
+			throw new CommandExecutionException("Unknown task " + task + ". Should be one of " + TASK_KB + ", "
+					+ TASK_INFERENCES + ", " + TASK_BINARY);
 		}
 
 	}
@@ -53,8 +58,12 @@ public class ExportCommandInterpreter implements CommandInterpreter {
 	@Override
 	public void printHelp(final String commandName, final Interpreter interpreter) {
 		interpreter.printNormal("Usage: @" + commandName + " TASK \"file\" .\n" //
-				+ " TASK: what to export; can be KB or INFERENCES\n" //
-				+ " \"file\": path to export file (suggested extension: .rls), enclosed in quotes\n");
+				+ " TASK: what to export; one of KB, INFERENCES, BINARY:\n" //
+				+ "       KB to export the knowledge base in Rulewerk rls format\n" //
+				+ "       INFERENCES to export all inferences in Rulewerk rls format\n" //
+				+ "       BINARY to export the knowledge base in binary format\n" //
+				+ " \"file\": path to export file (suggested extension: .rls, or .rwkb for BINARY),\n" //
+				+ "         enclosed in quotes\n");
 	}
 
 	@Override
@@ -91,4 +100,18 @@ public class ExportCommandInterpreter implements CommandInterpreter {
 				+ timer.getTotalCpuTime() / 1000000 + "ms CPU time).\n");
 	}
 
+	private void exportBinaryKb(final Interpreter interpreter, final String fileName)
+			throws CommandExecutionException {
+		final Timer timer = new Timer("export");
+		try (OutputStream outputStream = interpreter.getFileOutputStream(fileName)) {
+			timer.start();
+			new BinaryKnowledgeBaseWriter(outputStream).write(interpreter.getKnowledgeBase());
+			timer.stop();
+		} catch (final IOException | UnsupportedOperationException e) {
+			throw new CommandExecutionException(e.getMessage(), e);
+		}
+		interpreter.printNormal("Exported knowledge base in binary format in " + timer.getTotalWallTime() / 1000000
+				+ "ms (" + timer.getTotalCpuTime() / 1000000 + "ms CPU time).\n");
+	}
+
 }
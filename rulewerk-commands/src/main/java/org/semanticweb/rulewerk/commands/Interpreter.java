@@ -1,5 +1,6 @@
 package org.semanticweb.rulewerk.commands;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
@@ -7,6 +8,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 
@@ -188,6 +190,8 @@ public class Interpreter implements AutoCloseable {
 		this.registerCommandInterpreter("query", new QueryCommandInterpreter());
 		this.registerCommandInterpreter("export", new ExportCommandInterpreter());
 		this.registerCommandInterpreter("showkb", new ShowKbCommandInterpreter());
+		this.registerCommandInterpreter("stats", new StatsCommandInterpreter());
+		this.registerCommandInterpreter("profile", new ProfileCommandInterpreter());
 	}
 
 	/**
@@ -251,6 +255,17 @@ public class Interpreter implements AutoCloseable {
 		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8));
 	}
 
+	/**
+	 * Returns an OutputStream to write binary data to the specified file.
+	 * 
+	 * @param fileName
+	 * @return
+	 * @throws FileNotFoundException
+	 */
+	public OutputStream getFileOutputStream(final String fileName) throws FileNotFoundException {
+		return new BufferedOutputStream(new FileOutputStream(fileName));
+	}
+
 	/**
 	 * Returns an InputStream to read from the specified file.
 	 * 
@@ -45,6 +45,7 @@ import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.rulewerk.core.model.api.Command;
 import org.semanticweb.rulewerk.core.model.api.TermType;
 import org.semanticweb.rulewerk.owlapi.OwlToRulesConverter;
+import org.semanticweb.rulewerk.parser.BinaryKnowledgeBaseReader;
 import org.semanticweb.rulewerk.parser.DefaultParserConfiguration;
 import org.semanticweb.rulewerk.parser.ParserConfiguration;
 import org.semanticweb.rulewerk.parser.ParsingException;
@@ -62,6 +63,7 @@ public class LoadCommandInterpreter implements CommandInterpreter {
 	public static final String TASK_RLS = "RULES";
 	public static final String TASK_OWL = "OWL";
 	public static final String TASK_RDF = "RDF";
+	public static final String TASK_BINARY = "BINARY";
 
 	static final String PREDICATE_ABOX = "ABOX";
 
@@ -106,9 +108,11 @@ public class LoadCommandInterpreter implements CommandInterpreter {
 			this.loadOwl(interpreter, fileName);
 		} else if (TASK_RDF.equals(task)) {
 			this.loadRdf(interpreter, fileName, rdfTriplePredicate);
+		} else if (TASK_BINARY.equals(task)) {
+			this.loadBinaryKb(interpreter, fileName);
 		} else {
-			throw new CommandExecutionException(
-					"Unknown task " + task + ". Should be one of " + TASK_RLS + ", " + TASK_OWL + ", " + TASK_RDF);
+			throw new CommandExecutionException("Unknown task " + task + ". Should be one of " + TASK_RLS + ", "
+					+ TASK_OWL + ", " + TASK_RDF + ", " + TASK_BINARY);
 		}
 
 		interpreter.printNormal("Loaded " + (interpreter.getKnowledgeBase().getFacts().size() - countFactsBefore)
@@ -133,6 +137,20 @@ public class LoadCommandInterpreter implements CommandInterpreter {
 		}
 	}
 
+	private void loadBinaryKb(final Interpreter interpreter, final String fileName)
+			throws CommandExecutionException {
+		try (InputStream inputStream = interpreter.getFileInputStream(fileName)) {
+			final File file = new File(fileName);
+			final ParserConfiguration parserConfiguration = new DefaultParserConfiguration()
+					.setImportBasePath(file.getParent());
+			BinaryKnowledgeBaseReader.readInto(interpreter.getKnowledgeBase(), inputStream, parserConfiguration);
+		} catch (final IOException e) {
+			throw new CommandExecutionException("Could not read input: " + e.getMessage(), e);
+		} catch (final ParsingException e) {
+			throw new CommandExecutionException("Failed to read binary Rulewerk file: " + e.getMessage(), e);
+		}
+	}
+
 	private void loadOwl(final Interpreter interpreter, final String fileName) throws CommandExecutionException {
 		final OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
 		OWLOntology ontology;
@@ -208,10 +226,11 @@ public class LoadCommandInterpreter implements CommandInterpreter {
 	@Override
 	public void printHelp(final String commandName, final Interpreter interpreter) {
 		interpreter.printNormal("Usage: @" + commandName + " [TASK] \"file\" [RDF predicate] .\n" //
-				+ " TASK: optional; one of RULES (default), OWL, RDF:\n" //
+				+ " TASK: optional; one of RULES (default), OWL, RDF, BINARY:\n" //
 				+ "       RULES to load a knowledge base in Rulewerk rls format\n" //
 				+ "       OWL to load an OWL ontology and convert it to facts and rules\n" //
 				+ "       RDF to load an RDF document and convert it to facts\n" //
+				+ "       BINARY to load a knowledge base in binary format (see @export)\n" //
 				+ " \"file\": path to the file to load, enclosed in quotes\n" //
 				+ " RDF predicate: optional name of the predicate used for loading RDF\n" //
 				+ "                triples (default: TRIPLE); use ABOX to load triples\n" //
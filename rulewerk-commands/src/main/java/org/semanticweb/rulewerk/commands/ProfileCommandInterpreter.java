@@ -0,0 +1,94 @@
+package org.semanticweb.rulewerk.commands;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.semanticweb.rulewerk.core.model.api.Command;
+import org.semanticweb.rulewerk.core.model.api.Terms;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+
+public class ProfileCommandInterpreter implements CommandInterpreter {
+
+	static final int DEFAULT_LIMIT = 10;
+
+	@Override
+	public void run(Command command, Interpreter interpreter) throws CommandExecutionException {
+		if (command.getArguments().size() > 1) {
+			throw new CommandExecutionException("This command supports at most one argument.");
+		}
+
+		int limit = DEFAULT_LIMIT;
+		if (command.getArguments().size() == 1) {
+			try {
+				limit = Terms.extractInt(command.getArguments().get(0).fromTerm()
+						.orElseThrow(() -> new CommandExecutionException("Invalid limit given.")));
+			} catch (IllegalArgumentException e) {
+				throw new CommandExecutionException("Invalid limit given: " + command.getArguments().get(0));
+			}
+			if (limit <= 0) {
+				throw new CommandExecutionException("Limit must be positive, but was " + limit + ".");
+			}
+		}
+
+		interpreter.printNormal("Loading and materializing inferences with rule profiling ...\n");
+
+		final Reasoner reasoner = interpreter.getReasoner();
+		final boolean ruleProfiling = reasoner.isRuleProfiling();
+		reasoner.setRuleProfiling(true);
+		try {
+			reasoner.resetReasoner();
+			reasoner.reason();
+		} catch (IOException e) {
+			throw new CommandExecutionException(e.getMessage(), e);
+		} finally {
+			reasoner.setRuleProfiling(ruleProfiling);
+		}
+
+		final List<RuleStatistics> ruleStatistics = new ArrayList<>(
+				reasoner.getReasoningStatistics().getRuleStatistics());
+		ruleStatistics.sort(Comparator.comparingDouble(RuleStatistics::getTime).reversed());
+		interpreter.printNormal("Rules with the highest application time (time, applications, derived facts):\n");
+		for (RuleStatistics statistics : ruleStatistics.subList(0, Math.min(limit, ruleStatistics.size()))) {
+			interpreter.printNormal(String.format("  %.3fms, %d, %d: ", statistics.getTime(),
+					statistics.getApplications(), statistics.getDerivedFacts()));
+			interpreter.printCode(statistics.getRule() + "\n");
+		}
+	}
+
+	@Override
+	public void printHelp(String commandName, Interpreter interpreter) {
+		interpreter.printNormal("Usage: @" + commandName + " [<limit>] .\n"
+				+ " <limit>: number of rules to show (default " + DEFAULT_LIMIT + ")\n"
+				+ "Recomputes all inferences while recording the applications of each rule,\n"
+				+ "and shows the rules that took most time.\n");
+	}
+
+	@Override
+	public String getSynopsis() {
+		return "recompute conclusions and show the most expensive rules";
+	}
+
+}
@@ -22,49 +22,76 @@ import java.io.IOException;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 
 import org.semanticweb.rulewerk.core.model.api.Argument;
 import org.semanticweb.rulewerk.core.model.api.Command;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
+import org.semanticweb.rulewerk.core.model.api.Literal;
 import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Rule;
 import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
 import org.semanticweb.rulewerk.core.model.api.Terms;
+import org.semanticweb.rulewerk.core.model.api.Variable;
 import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.model.implementation.Serializer;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
 import org.semanticweb.rulewerk.core.reasoner.Correctness;
 import org.semanticweb.rulewerk.core.reasoner.LiteralQueryResultPrinter;
 import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
 import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
 import org.semanticweb.rulewerk.core.reasoner.Timer;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryAnswerCountImpl;
 
 public class QueryCommandInterpreter implements CommandInterpreter {
 
 	public static Term KEYWORD_LIMIT = Expressions.makeAbstractConstant("LIMIT");
 	public static Term KEYWORD_COUNT = Expressions.makeAbstractConstant("COUNT");
 	public static Term KEYWORD_TOFILE = Expressions.makeAbstractConstant("EXPORTCSV");
+	public static Term KEYWORD_GROUPBY = Expressions.makeAbstractConstant("GROUPBY");
+	public static Term KEYWORD_ORDERBY = Expressions.makeAbstractConstant("ORDERBY");
+	public static Term KEYWORD_OFFSET = Expressions.makeAbstractConstant("OFFSET");
 
-	private PositiveLiteral queryLiteral;
-	private int limit;
-	private boolean doCount;
-	private String csvFile;
+	/**
+	 * Number of answers that are fetched from the reasoner at once.
+	 */
+	static final int BATCH_SIZE = 1024;
 
 	@Override
 	public void run(final Command command, final Interpreter interpreter) throws CommandExecutionException {
-		this.processArguments(command.getArguments());
+		final QueryArguments args = this.processArguments(command.getArguments());
 
-		if (this.doCount) {
-			this.printCountQueryResults(interpreter);
-		} else if (this.csvFile == null) {
-			this.printQueryResults(interpreter);
+		if (!args.aggregates.isEmpty()) {
+			this.printAggregateQueryResults(args, interpreter);
+		} else if (args.doCount) {
+			this.printCountQueryResults(args, interpreter);
+		} else if (args.csvFile == null) {
+			this.printQueryResults(args, interpreter);
 		} else {
-			this.exportQueryResults(interpreter);
+			this.exportQueryResults(args, interpreter);
 		}
 	}
 
 	@Override
 	public void printHelp(final String commandName, final Interpreter interpreter) {
 		interpreter.printNormal(
-				"Usage: @" + commandName + " [COUNT] <query literal> [LIMIT <limit>] [EXPORTCSV <\"file\">] .\n"
-						+ " query literal: positive literal, possibly with ?queryVariables\n"
+				"Usage: @" + commandName + " [COUNT] <query literal> [ORDERBY <?variables>] [OFFSET <offset>]\n"
+						+ "       [LIMIT <limit>] [EXPORTCSV <\"file\">] .\n"
+						+ "       @" + commandName
+						+ " <query literal> [GROUPBY <?variables>] <aggregates> [LIMIT <limit>] .\n"
+						+ " query literal: positive literal, possibly with ?queryVariables, or conjunctive query\n"
+						+ "                in rule syntax, e.g., ans(?X) :- p(?X, ?Y), q(?Y) (no CSV export)\n"
+						+ " ?variables: query variables by whose values the results are sorted, or whose\n"
+						+ "             values define the groups of an aggregate query\n"
+						+ " aggregates: one or more of COUNT(?V), COUNTDISTINCT(?V), MIN(?V), MAX(?V) for\n"
+						+ "             query variables ?V, computed for each group (atomic queries only)\n"
+						+ " offset: number of results to be skipped before showing results\n"
 						+ " limit: maximal number of results to be shown\n"
 						+ " \"file\": path to CSV file for exporting query results, enclosed in quotes\n");
 	}
@@ -74,19 +101,20 @@ public class QueryCommandInterpreter implements CommandInterpreter {
 		return "print or export query results";
 	}
 
-	private void processArguments(final List<Argument> arguments) throws CommandExecutionException {
+	private QueryArguments processArguments(final List<Argument> arguments) throws CommandExecutionException {
+		final QueryArguments args = new QueryArguments();
 		int pos = 0;
-		this.limit = -1;
-		this.doCount = false;
-		this.csvFile = null;
 
 		if (arguments.size() > 0 && KEYWORD_COUNT.equals(arguments.get(0).fromTerm().orElse(null))) {
-			this.doCount = true;
+			args.doCount = true;
 			pos++;
 		}
 
 		if (arguments.size() > pos && arguments.get(pos).fromPositiveLiteral().isPresent()) {
-			this.queryLiteral = arguments.get(pos).fromPositiveLiteral().get();
+			args.queryLiteral = arguments.get(pos).fromPositiveLiteral().get();
+			pos++;
+		} else if (arguments.size() > pos && arguments.get(pos).fromRule().isPresent()) {
+			this.processConjunctiveQuery(arguments.get(pos).fromRule().get(), args);
 			pos++;
 		} else {
 			throw new CommandExecutionException("A query literal must be given.");
@@ -96,7 +124,7 @@ public class QueryCommandInterpreter implements CommandInterpreter {
 			if (arguments.size() > pos + 1 && KEYWORD_LIMIT.equals(arguments.get(pos).fromTerm().orElse(null))
 					&& arguments.get(pos + 1).fromTerm().isPresent()) {
 				try {
-					this.limit = Terms.extractInt(arguments.get(pos + 1).fromTerm().get());
+					args.limit = Terms.extractInt(arguments.get(pos + 1).fromTerm().get());
 					pos += 2;
 				} catch (final IllegalArgumentException e) {
 					throw new CommandExecutionException(
@@ -105,29 +133,156 @@ public class QueryCommandInterpreter implements CommandInterpreter {
 			} else if (arguments.size() > pos + 1 && KEYWORD_TOFILE.equals(arguments.get(pos).fromTerm().orElse(null))
 					&& arguments.get(pos + 1).fromTerm().isPresent()) {
 				try {
-					this.csvFile = Terms.extractString(arguments.get(pos + 1).fromTerm().get());
+					args.csvFile = Terms.extractString(arguments.get(pos + 1).fromTerm().get());
 					pos += 2;
 				} catch (final IllegalArgumentException e) {
 					throw new CommandExecutionException(
 							"Invalid filename given: " + arguments.get(pos + 1).fromTerm().get());
 				}
+			} else if (arguments.size() > pos + 1 && KEYWORD_OFFSET.equals(arguments.get(pos).fromTerm().orElse(null))
+					&& arguments.get(pos + 1).fromTerm().isPresent()) {
+				try {
+					args.offset = Terms.extractInt(arguments.get(pos + 1).fromTerm().get());
+					pos += 2;
+				} catch (final IllegalArgumentException e) {
+					throw new CommandExecutionException(
+							"Invalid offset given: " + arguments.get(pos + 1).fromTerm().get());
+				}
+			} else if (KEYWORD_GROUPBY.equals(arguments.get(pos).fromTerm().orElse(null))) {
+				pos = this.processVariables(arguments, pos + 1, args.groupVariables);
+			} else if (KEYWORD_ORDERBY.equals(arguments.get(pos).fromTerm().orElse(null))) {
+				pos = this.processVariables(arguments, pos + 1, args.orderVariables);
+			} else if (arguments.get(pos).fromPositiveLiteral().isPresent()) {
+				args.aggregates.add(this.processAggregate(arguments.get(pos).fromPositiveLiteral().get()));
+				pos++;
 			} else {
 				throw new CommandExecutionException("Unrecognized arguments");
 			}
 		}
+
+		if (!args.groupVariables.isEmpty() && args.aggregates.isEmpty()) {
+			throw new CommandExecutionException("GROUPBY requires at least one aggregate.");
+		}
+		if (args.offset < 0) {
+			throw new CommandExecutionException("Offset must not be negative.");
+		}
+		for (final Variable variable : args.orderVariables) {
+			if (!args.queryLiteral.getArguments().contains(variable)) {
+				throw new CommandExecutionException("ORDERBY variable " + variable + " does not occur in the query.");
+			}
+		}
+		return args;
+	}
+
+	/**
+	 * Adds the ?variables starting at the given position to the list.
+	 *
+	 * @return the position after the variables
+	 */
+	private int processVariables(final List<Argument> arguments, int pos, final List<Variable> variables) {
+		while (arguments.size() > pos && arguments.get(pos).fromTerm().isPresent()
+				&& arguments.get(pos).fromTerm().get().getType() == TermType.UNIVERSAL_VARIABLE) {
+			variables.add((Variable) arguments.get(pos).fromTerm().get());
+			pos++;
+		}
+		return pos;
+	}
+
+	private Aggregate processAggregate(final PositiveLiteral literal) throws CommandExecutionException {
+		final Aggregate.Function function;
+		try {
+			function = Aggregate.Function.valueOf(literal.getPredicate().getName().toUpperCase(Locale.ROOT));
+		} catch (final IllegalArgumentException e) {
+			throw new CommandExecutionException("Unknown aggregate: " + literal.getPredicate().getName());
+		}
+		if (literal.getArguments().size() != 1
+				|| literal.getArguments().get(0).getType() != TermType.UNIVERSAL_VARIABLE) {
+			throw new CommandExecutionException("Aggregate " + function + " requires a single ?variable.");
+		}
+		return Aggregate.makeAggregate(function, (Variable) literal.getArguments().get(0));
+	}
+
+	private void processConjunctiveQuery(final Rule rule, final QueryArguments args) throws CommandExecutionException {
+		if (rule.getHead().getLiterals().size() != 1) {
+			throw new CommandExecutionException("A conjunctive query must have exactly one answer literal.");
+		}
+		args.queryLiteral = rule.getHead().getLiterals().get(0);
+		for (final Term term : args.queryLiteral.getArguments()) {
+			if (term.getType() != TermType.UNIVERSAL_VARIABLE) {
+				throw new CommandExecutionException("The answer literal of a conjunctive query may only contain ?variables.");
+			}
+		}
+		final List<PositiveLiteral> atoms = new ArrayList<>();
+		for (final Literal literal : rule.getBody()) {
+			if (literal.isNegated()) {
+				throw new CommandExecutionException("Negation is not supported in conjunctive queries.");
+			}
+			atoms.add((PositiveLiteral) literal);
+		}
+		args.queryBody = Expressions.makePositiveConjunction(atoms);
+	}
+
+	private List<Variable> getAnswerVariables(final QueryArguments args) {
+		final List<Variable> answerVariables = new ArrayList<>();
+		for (final Term term : args.queryLiteral.getArguments()) {
+			answerVariables.add((Variable) term);
+		}
+		return answerVariables;
+	}
+
+	/**
+	 * @return the distinct variables of the query literal, in order of their
+	 *         first occurrence
+	 */
+	private List<Variable> getQueryVariables(final QueryArguments args) {
+		final LinkedHashSet<Variable> variables = new LinkedHashSet<>();
+		for (final Term term : args.queryLiteral.getArguments()) {
+			if (term.getType() == TermType.UNIVERSAL_VARIABLE) {
+				variables.add((Variable) term);
+			}
+		}
+		return new ArrayList<>(variables);
+	}
+
+	private QueryResultIterator answerQuery(final QueryArguments args, final Interpreter interpreter) {
+		if (!args.orderVariables.isEmpty()) {
+			return interpreter.getReasoner().answerQuery(args.queryLiteral, this.getQueryVariables(args), false,
+					args.orderVariables, true);
+		} else if (args.queryBody == null) {
+			return interpreter.getReasoner().answerQuery(args.queryLiteral, true);
+		} else {
+			return interpreter.getReasoner().answerConjunctiveQuery(args.queryBody, this.getAnswerVariables(args), true);
+		}
+	}
+
+	private QueryAnswerCount countQueryAnswers(final QueryArguments args, final Interpreter interpreter) {
+		if (args.queryBody == null) {
+			return interpreter.getReasoner().countQueryAnswers(args.queryLiteral);
+		}
+		try (final QueryResultIterator answers = this.answerQuery(args, interpreter)) {
+			long count = 0;
+			int batchSize;
+			while ((batchSize = answers.nextBatch(BATCH_SIZE).getRowCount()) > 0) {
+				count += batchSize;
+			}
+			return new QueryAnswerCountImpl(answers.getCorrectness(), count);
+		}
 	}
 
-	private void printCountQueryResults(final Interpreter interpreter) throws CommandExecutionException {
-		if (this.limit != -1) {
+	private void printCountQueryResults(final QueryArguments args, final Interpreter interpreter) throws CommandExecutionException {
+		if (args.limit != -1) {
 			throw new CommandExecutionException("LIMIT not supported with COUNT");
 		}
-		if (this.csvFile != null) {
+		if (args.offset != 0 || !args.orderVariables.isEmpty()) {
+			throw new CommandExecutionException("OFFSET and ORDERBY not supported with COUNT");
+		}
+		if (args.csvFile != null) {
 			throw new CommandExecutionException("COUNT results cannot be exported to CSV");
 		}
 
 		final Timer timer = new Timer("query");
 		timer.start();
-		final QueryAnswerCount count = interpreter.getReasoner().countQueryAnswers(this.queryLiteral);
+		final QueryAnswerCount count = this.countQueryAnswers(args, interpreter);
 		timer.stop();
 
 		interpreter.printNormal(String.valueOf(count.getCount()) + "\n");
@@ -135,15 +290,33 @@ public class QueryCommandInterpreter implements CommandInterpreter {
 		interpreter.printNormal(" This result is " + count.getCorrectness() + ".\n");
 	}
 
-	private void printQueryResults(final Interpreter interpreter) throws CommandExecutionException {
-		final LiteralQueryResultPrinter printer = new LiteralQueryResultPrinter(this.queryLiteral, interpreter.getWriter(),
+	private void printQueryResults(final QueryArguments args, final Interpreter interpreter) throws CommandExecutionException {
+		if (!args.orderVariables.isEmpty() && args.queryBody != null) {
+			throw new CommandExecutionException("ORDERBY is not supported for conjunctive queries");
+		}
+		// ordered results only bind the query variables
+		final PositiveLiteral printedLiteral = args.orderVariables.isEmpty() ? args.queryLiteral
+				: Expressions.makePositiveLiteral(args.queryLiteral.getPredicate().getName(),
+						new ArrayList<Term>(this.getQueryVariables(args)));
+		final LiteralQueryResultPrinter printer = new LiteralQueryResultPrinter(printedLiteral, interpreter.getWriter(),
 				interpreter.getKnowledgeBase().getPrefixDeclarationRegistry());
 
 		final Timer timer = new Timer("query");
 		timer.start();
-		try (final QueryResultIterator answers = interpreter.getReasoner().answerQuery(this.queryLiteral, true)) {
-			while (printer.getResultCount() != this.limit && answers.hasNext()) {
-				printer.write(answers.next());
+		try (final QueryResultIterator answers = this.answerQuery(args, interpreter)) {
+			for (int skipped = 0; skipped < args.offset && answers.hasNext(); skipped++) {
+				answers.next();
+			}
+			while (printer.getResultCount() != args.limit) {
+				final int maxRows = args.limit == -1 ? BATCH_SIZE
+						: Math.min(BATCH_SIZE, args.limit - printer.getResultCount());
+				final QueryResultBatch batch = answers.nextBatch(maxRows);
+				if (batch.getRowCount() == 0) {
+					break;
+				}
+				for (int row = 0; row < batch.getRowCount(); row++) {
+					printer.write(batch, row);
+				}
 			}
 			timer.stop();
 
@@ -160,16 +333,73 @@ public class QueryCommandInterpreter implements CommandInterpreter {
 		}
 	}
 
-	private void exportQueryResults(final Interpreter interpreter) throws CommandExecutionException {
-		if (this.limit != -1) {
-			throw new CommandExecutionException("LIMIT not supported for CSV export");
+	private void printAggregateQueryResults(final QueryArguments args, final Interpreter interpreter) throws CommandExecutionException {
+		if (args.doCount) {
+			throw new CommandExecutionException("COUNT not supported with aggregates");
+		}
+		if (args.csvFile != null) {
+			throw new CommandExecutionException("Aggregate results cannot be exported to CSV");
+		}
+		if (args.queryBody != null) {
+			throw new CommandExecutionException("Aggregates are not supported for conjunctive queries");
+		}
+		if (args.offset != 0 || !args.orderVariables.isEmpty()) {
+			throw new CommandExecutionException("OFFSET and ORDERBY not supported with aggregates");
+		}
+
+		final Serializer serializer = new Serializer(interpreter.getWriter(),
+				interpreter.getKnowledgeBase().getPrefixDeclarationRegistry());
+		final Timer timer = new Timer("query");
+		timer.start();
+		int resultCount = 0;
+		try (final QueryResultIterator answers = interpreter.getReasoner().answerAggregateQuery(args.queryLiteral,
+				args.groupVariables, args.aggregates, true)) {
+			while (answers.hasNext() && resultCount != args.limit) {
+				this.writeAggregateResult(answers.next(), args, serializer, interpreter);
+				resultCount++;
+			}
+			timer.stop();
+
+			interpreter.printNormal(resultCount + " group(s) in " + timer.getTotalCpuTime() / 1000000 + "ms.");
+			interpreter.printNormal(" Results are " + answers.getCorrectness() + ".\n");
+		} catch (final IllegalArgumentException e) {
+			throw new CommandExecutionException(e.getMessage(), e);
+		} catch (final IOException e) {
+			throw new CommandExecutionException(e.getMessage(), e);
+		}
+	}
+
+	private void writeAggregateResult(final QueryResult result, final QueryArguments args,
+			final Serializer serializer, final Interpreter interpreter) throws IOException {
+		final List<Term> terms = result.getTerms();
+		for (int i = 0; i < terms.size(); i++) {
+			if (i > 0) {
+				interpreter.getWriter().write(", ");
+			}
+			if (i < args.groupVariables.size()) {
+				serializer.writeTerm(args.groupVariables.get(i));
+			} else {
+				interpreter.getWriter().write(args.aggregates.get(i - args.groupVariables.size()).toString());
+			}
+			interpreter.getWriter().write(" -> ");
+			serializer.writeTerm(terms.get(i));
+		}
+		interpreter.getWriter().write("\n");
+	}
+
+	private void exportQueryResults(final QueryArguments args, final Interpreter interpreter) throws CommandExecutionException {
+		if (args.limit != -1 || args.offset != 0 || !args.orderVariables.isEmpty()) {
+			throw new CommandExecutionException("LIMIT, OFFSET and ORDERBY not supported for CSV export");
+		}
+		if (args.queryBody != null) {
+			throw new CommandExecutionException("CSV export is not supported for conjunctive queries");
 		}
 
 		final Timer timer = new Timer("query");
 		timer.start();
 		Correctness correctness;
 		try {
-			correctness = interpreter.getReasoner().exportQueryAnswersToCsv(this.queryLiteral, this.csvFile, true);
+			correctness = interpreter.getReasoner().exportQueryAnswersToCsv(args.queryLiteral, args.csvFile, true);
 		} catch (final IOException e) {
 			throw new CommandExecutionException(e.getMessage(), e);
 		}
@@ -178,4 +408,33 @@ public class QueryCommandInterpreter implements CommandInterpreter {
 		interpreter.printNormal("Written query result file in " + timer.getTotalCpuTime() / 1000000 + "ms.");
 		interpreter.printNormal(" This result is " + correctness + ".\n");
 	}
+
+	/**
+	 * The arguments of one query command. They are kept separate from the
+	 * interpreter, which may run several commands concurrently.
+	 */
+	private static final class QueryArguments {
+		PositiveLiteral queryLiteral;
+		/**
+		 * Body of a conjunctive query, given in rule syntax; {@code null} for atomic
+		 * queries. The answer variables are the arguments of {@link #queryLiteral}.
+		 */
+		Conjunction<PositiveLiteral> queryBody;
+		int limit = -1;
+		int offset;
+		/**
+		 * Variables by whose values the results are sorted.
+		 */
+		final List<Variable> orderVariables = new ArrayList<>();
+		boolean doCount;
+		String csvFile;
+		/**
+		 * Variables to group by in aggregate queries.
+		 */
+		final List<Variable> groupVariables = new ArrayList<>();
+		/**
+		 * Aggregates to compute; the query is an aggregate query if this is not empty.
+		 */
+		final List<Aggregate> aggregates = new ArrayList<>();
+	}
 }
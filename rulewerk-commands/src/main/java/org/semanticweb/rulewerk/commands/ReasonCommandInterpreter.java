@@ -36,7 +36,7 @@ public class ReasonCommandInterpreter implements CommandInterpreter {
 
 		interpreter.printNormal("Loading and materializing inferences ...\n");
 
-		Timer timer = new Timer("reasoning");
+		Timer timer = Timer.getTimerForCurrentThread("reasoning", Timer.RECORD_RESOURCES);
 		timer.start();
 		try {
 			interpreter.getReasoner().reason();
@@ -46,6 +46,12 @@ public class ReasonCommandInterpreter implements CommandInterpreter {
 		timer.stop();
 		interpreter.printNormal("... finished in " + timer.getTotalWallTime() / 1000000 + "ms ("
 				+ timer.getTotalCpuTime() / 1000000 + "ms CPU time).\n");
+		final long peakResidentSetSize = timer.getPeakResidentSetSize();
+		interpreter.printNormal("Process CPU time (all threads): " + timer.getTotalProcessCpuTime() / 1000000
+				+ "ms, peak memory usage: "
+				+ (peakResidentSetSize == -1 ? "unknown" : peakResidentSetSize / (1024 * 1024) + "MB")
+				+ ", garbage collection: " + timer.getTotalGcCount() + " run(s) taking " + timer.getTotalGcTime()
+				+ "ms.\n");
 	}
 
 	@Override
@@ -0,0 +1,86 @@
+package org.semanticweb.rulewerk.commands;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.semanticweb.rulewerk.core.model.api.Command;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.reasoner.ReasoningStatistics;
+
+public class StatsCommandInterpreter implements CommandInterpreter {
+
+	@Override
+	public void run(Command command, Interpreter interpreter) throws CommandExecutionException {
+
+		if (command.getArguments().size() > 0) {
+			throw new CommandExecutionException("This command supports no arguments.");
+		}
+
+		final ReasoningStatistics statistics = interpreter.getReasoner().getReasoningStatistics();
+
+		interpreter.printNormal("Loading: " + statistics.getLoadingTime() + "ms (including "
+				+ statistics.getConversionTime() + "ms for converting facts and rules)\n");
+		interpreter.printNormal("Materialisation: " + statistics.getMaterialisationTime() + "ms\n");
+		if (statistics.getPeakMemoryUsage() >= 0) {
+			interpreter.printNormal("Peak memory usage: " + statistics.getPeakMemoryUsage() / (1024 * 1024) + "MB\n");
+		} else {
+			interpreter.printNormal("Peak memory usage: unknown\n");
+		}
+		final Map<String, Long> cyclicityCheckTimes = statistics.getCyclicityCheckTimes();
+		if (!cyclicityCheckTimes.isEmpty()) {
+			final List<String> notions = new ArrayList<>(cyclicityCheckTimes.keySet());
+			Collections.sort(notions);
+			interpreter.printNormal("Cyclicity checks: " + notions.stream()
+					.map(notion -> notion + " " + cyclicityCheckTimes.get(notion) + "ms")
+					.collect(Collectors.joining(", ")) + "\n");
+		}
+
+		final List<Predicate> predicates = new ArrayList<>(statistics.getPredicates());
+		if (predicates.isEmpty()) {
+			interpreter.printNormal("Fact counts are only available after reasoning.\n");
+			return;
+		}
+		predicates.sort(Comparator.comparing(Predicate::getName).thenComparing(Predicate::getArity));
+		interpreter.printNormal("Facts per predicate (total, asserted, derived):\n");
+		for (final Predicate predicate : predicates) {
+			interpreter.printNormal("  " + predicate.getName() + "[" + predicate.getArity() + "]: "
+					+ statistics.getFactCount(predicate) + ", " + statistics.getAssertedFactCount(predicate) + ", "
+					+ statistics.getDerivedFactCount(predicate) + "\n");
+		}
+	}
+
+	@Override
+	public void printHelp(String commandName, Interpreter interpreter) {
+		interpreter.printNormal("Usage: @" + commandName + " .\n");
+	}
+
+	@Override
+	public String getSynopsis() {
+		return "show timings, memory usage and fact counts of reasoning";
+	}
+
+}
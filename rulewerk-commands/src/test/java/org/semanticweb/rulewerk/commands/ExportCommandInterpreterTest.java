@@ -22,6 +22,8 @@ package org.semanticweb.rulewerk.commands;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.StringWriter;
@@ -35,6 +37,8 @@ import org.semanticweb.rulewerk.core.model.api.Predicate;
 import org.semanticweb.rulewerk.core.model.api.Term;
 import org.semanticweb.rulewerk.core.model.implementation.Expressions;
 import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.parser.BinaryKnowledgeBaseReader;
 import org.semanticweb.rulewerk.parser.ParsingException;
 
 public class ExportCommandInterpreterTest {
@@ -73,6 +77,40 @@ public class ExportCommandInterpreterTest {
 		interpreter.runCommand(command);
 	}
 
+	@Test
+	public void correctUseBinary_succeeds() throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Interpreter origInterpreter = InterpreterTest.getMockInterpreter(writer);
+		Interpreter interpreter = Mockito.spy(origInterpreter);
+		Mockito.doReturn(outputStream).when(interpreter).getFileOutputStream(Mockito.eq("test.rwkb"));
+		Predicate predicate = Expressions.makePredicate("p", 1);
+		Term term = Expressions.makeAbstractConstant("a");
+		Fact fact = Expressions.makeFact(predicate, term);
+		interpreter.getKnowledgeBase().addStatement(fact);
+
+		Command command = interpreter.parseCommand("@export BINARY \"test.rwkb\" .");
+		interpreter.runCommand(command);
+
+		KnowledgeBase knowledgeBase = BinaryKnowledgeBaseReader
+				.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+		assertEquals("export", command.getName());
+		assertEquals(2, command.getArguments().size());
+		assertEquals(interpreter.getKnowledgeBase().getFacts(), knowledgeBase.getFacts());
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void correctUseBinaryIoException_fails() throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		Interpreter origInterpreter = InterpreterTest.getMockInterpreter(writer);
+		Interpreter interpreter = Mockito.spy(origInterpreter);
+		Mockito.doThrow(FileNotFoundException.class).when(interpreter).getFileOutputStream(Mockito.eq("test.rwkb"));
+
+		Command command = interpreter.parseCommand("@export BINARY \"test.rwkb\" .");
+		interpreter.runCommand(command);
+	}
+
 	@Test
 	public void correctUseInferences_succeeds() throws ParsingException, CommandExecutionException, IOException {
 		StringWriter writer = new StringWriter();
@@ -23,6 +23,7 @@ package org.semanticweb.rulewerk.commands;
 import static org.junit.Assert.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,6 +39,8 @@ import org.semanticweb.rulewerk.core.model.api.Fact;
 import org.semanticweb.rulewerk.core.model.api.Predicate;
 import org.semanticweb.rulewerk.core.model.api.Term;
 import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.parser.BinaryKnowledgeBaseWriter;
 import org.semanticweb.rulewerk.parser.ParsingException;
 
 public class LoadCommandInterpreterTest {
@@ -86,6 +89,43 @@ public class LoadCommandInterpreterTest {
 		assertTrue(interpreter.getKnowledgeBase().getDataSourceDeclarations().isEmpty());
 	}
 
+	@Test
+	public void correctUseWithBinaryTask_succeeds() throws ParsingException, CommandExecutionException, IOException {
+		Predicate predicate = Expressions.makePredicate("p", 1);
+		Term term = Expressions.makeAbstractConstant("a");
+		Fact fact = Expressions.makeFact(predicate, term);
+		KnowledgeBase knowledgeBase = new KnowledgeBase();
+		knowledgeBase.addStatement(fact);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new BinaryKnowledgeBaseWriter(outputStream).write(knowledgeBase);
+
+		StringWriter writer = new StringWriter();
+		InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+		Interpreter origInterpreter = InterpreterTest.getMockInterpreter(writer);
+		Interpreter interpreter = Mockito.spy(origInterpreter);
+		Mockito.doReturn(inputStream).when(interpreter).getFileInputStream(Mockito.eq("loadtest.rwkb"));
+
+		Command command = interpreter.parseCommand("@load BINARY 'loadtest.rwkb' .");
+		interpreter.runCommand(command);
+
+		assertEquals(Arrays.asList(fact), interpreter.getKnowledgeBase().getFacts());
+		assertTrue(interpreter.getKnowledgeBase().getRules().isEmpty());
+		assertTrue(interpreter.getKnowledgeBase().getDataSourceDeclarations().isEmpty());
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void correctUseWithBinaryTaskInvalidInput_fails()
+			throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		InputStream inputStream = new ByteArrayInputStream("p(a) .".getBytes(StandardCharsets.UTF_8));
+		Interpreter origInterpreter = InterpreterTest.getMockInterpreter(writer);
+		Interpreter interpreter = Mockito.spy(origInterpreter);
+		Mockito.doReturn(inputStream).when(interpreter).getFileInputStream(Mockito.eq("loadtest.rwkb"));
+
+		Command command = interpreter.parseCommand("@load BINARY 'loadtest.rwkb' .");
+		interpreter.runCommand(command);
+	}
+
 	@Test(expected = CommandExecutionException.class)
 	public void correctUseParseError_fails() throws ParsingException, CommandExecutionException, IOException {
 		StringWriter writer = new StringWriter();
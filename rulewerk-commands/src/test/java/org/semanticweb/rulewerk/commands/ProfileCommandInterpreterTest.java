@@ -0,0 +1,148 @@
+package org.semanticweb.rulewerk.commands;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.semanticweb.rulewerk.core.model.api.Command;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ReasoningStatisticsImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RuleStatisticsImpl;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class ProfileCommandInterpreterTest {
+
+	private Interpreter getProfilingInterpreter(StringWriter writer) throws ParsingException {
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Rule cheapRule = RuleParser.parseRule("q(?X) :- p(?X) .");
+		Rule expensiveRule = RuleParser.parseRule("r(?X, ?Z) :- r(?X, ?Y), r(?Y, ?Z) .");
+		Mockito.when(interpreter.getReasoner().getReasoningStatistics())
+				.thenReturn(new ReasoningStatisticsImpl(0, 0, 0, new HashMap<>(), new HashMap<>(), -1,
+						Arrays.asList(new RuleStatisticsImpl(cheapRule, 1, 3, 0.5),
+								new RuleStatisticsImpl(expensiveRule, 4, 20, 12.25))));
+		return interpreter;
+	}
+
+	@Test
+	public void correctUse_succeeds() throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = this.getProfilingInterpreter(writer);
+		Reasoner reasoner = interpreter.getReasoner();
+
+		Command command = interpreter.parseCommand("@profile .");
+		interpreter.runCommand(command);
+
+		InOrder inOrder = Mockito.inOrder(reasoner);
+		inOrder.verify(reasoner).setRuleProfiling(true);
+		inOrder.verify(reasoner).resetReasoner();
+		inOrder.verify(reasoner).reason();
+		inOrder.verify(reasoner).setRuleProfiling(false);
+		String output = writer.toString();
+		int expensiveRulePosition = output.indexOf("r(?X, ?Z) :- r(?X, ?Y), r(?Y, ?Z) .");
+		int cheapRulePosition = output.indexOf("q(?X) :- p(?X) .");
+		assertTrue(expensiveRulePosition >= 0);
+		assertTrue(cheapRulePosition > expensiveRulePosition);
+		assertTrue(output.contains(", 4, 20: "));
+	}
+
+	@Test
+	public void correctUseWithLimit_succeeds() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = this.getProfilingInterpreter(writer);
+
+		Command command = interpreter.parseCommand("@profile 1 .");
+		interpreter.runCommand(command);
+
+		String output = writer.toString();
+		assertTrue(output.contains("r(?X, ?Z) :- r(?X, ?Y), r(?Y, ?Z) ."));
+		assertFalse(output.contains("q(?X) :- p(?X) ."));
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void correctUseReasonerException_fails() throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Mockito.when(interpreter.getReasoner().reason()).thenThrow(IOException.class);
+
+		Command command = interpreter.parseCommand("@profile .");
+		interpreter.runCommand(command);
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void wrongArgumentType_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+
+		Command command = interpreter.parseCommand("@profile \"ten\" .");
+		interpreter.runCommand(command);
+	}
+
+	@Test
+	public void nonPositiveLimit_failsBeforeReasoning() throws ParsingException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+
+		for (String limit : new String[] { "-1", "0" }) {
+			Command command = interpreter.parseCommand("@profile " + limit + " .");
+			try {
+				interpreter.runCommand(command);
+				fail("Expected a CommandExecutionException for limit " + limit);
+			} catch (CommandExecutionException e) {
+				assertTrue(e.getMessage().contains("positive"));
+			}
+		}
+		Mockito.verify(interpreter.getReasoner(), Mockito.never()).resetReasoner();
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void wrongArgumentCount_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+
+		Command command = interpreter.parseCommand("@profile 1 2 .");
+		interpreter.runCommand(command);
+	}
+
+	@Test
+	public void help_succeeds() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		CommandInterpreter commandInterpreter = new ProfileCommandInterpreter();
+		InterpreterTest.checkHelpFormat(commandInterpreter, interpreter, writer);
+	}
+
+	@Test
+	public void synopsis_succeeds() throws ParsingException, CommandExecutionException {
+		CommandInterpreter commandInterpreter = new ProfileCommandInterpreter();
+		InterpreterTest.checkSynopsisFormat(commandInterpreter);
+	}
+
+}
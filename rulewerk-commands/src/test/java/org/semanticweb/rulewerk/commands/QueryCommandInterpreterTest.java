@@ -33,6 +33,7 @@ import org.mockito.Mockito;
 import org.semanticweb.rulewerk.core.model.api.Command;
 import org.semanticweb.rulewerk.core.model.api.QueryResult;
 import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
 import org.semanticweb.rulewerk.core.reasoner.Correctness;
 import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
 import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
@@ -167,6 +168,148 @@ public class QueryCommandInterpreterTest {
 		assertTrue(writer.toString().contains(Correctness.SOUND_AND_COMPLETE.toString()));
 	}
 
+	@Test
+	public void correctUseConjunctiveQuery_succeeds() throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+
+		QueryResult r1 = new QueryResultImpl(Arrays.asList(Expressions.makeAbstractConstant("#TEST-1#")));
+		QueryResult r2 = new QueryResultImpl(Arrays.asList(Expressions.makeAbstractConstant("#TEST-2#")));
+
+		QueryResultIterator results = new TestQueryResultIterator(Arrays.asList(r1, r2));
+
+		Mockito.when(interpreter.getReasoner().answerConjunctiveQuery(Mockito.any(),
+				Mockito.eq(Arrays.asList(Expressions.makeUniversalVariable("X"))), Mockito.eq(true)))
+				.thenReturn(results);
+
+		Command command = interpreter.parseCommand("@query ans(?X) :- p(?X, ?Y), q(?Y) .");
+		interpreter.runCommand(command);
+		String output = writer.toString();
+
+		assertEquals("query", command.getName());
+		assertEquals(1, command.getArguments().size());
+		assertTrue(output.contains("#TEST-1#"));
+		assertTrue(output.contains("#TEST-2#"));
+		assertTrue(output.contains(Correctness.SOUND_AND_COMPLETE.toString()));
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void conjunctiveQueryWithNegation_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Command command = interpreter.parseCommand("@query ans(?X) :- p(?X, ?Y), ~q(?Y) .");
+		interpreter.runCommand(command);
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void conjunctiveQueryExport_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Command command = interpreter.parseCommand("@query ans(?X) :- p(?X, ?Y), q(?Y) EXPORTCSV \"file.csv\" .");
+		interpreter.runCommand(command);
+	}
+
+	@Test
+	public void correctUseAggregateQuery_succeeds() throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+
+		QueryResult r1 = new QueryResultImpl(
+				Arrays.asList(Expressions.makeAbstractConstant("#TEST-1#"), Expressions.makeAbstractConstant("#C1#")));
+		QueryResult r2 = new QueryResultImpl(
+				Arrays.asList(Expressions.makeAbstractConstant("#TEST-2#"), Expressions.makeAbstractConstant("#C2#")));
+
+		QueryResultIterator results = new TestQueryResultIterator(Arrays.asList(r1, r2));
+
+		Mockito.when(interpreter.getReasoner().answerAggregateQuery(Mockito.any(),
+				Mockito.eq(Arrays.asList(Expressions.makeUniversalVariable("X"))),
+				Mockito.eq(Arrays.asList(
+						Aggregate.makeAggregate(Aggregate.Function.COUNT, Expressions.makeUniversalVariable("Y")))),
+				Mockito.eq(true)))
+				.thenReturn(results);
+
+		Command command = interpreter.parseCommand("@query p(?X, ?Y) GROUPBY ?X COUNT(?Y) LIMIT 1 .");
+		interpreter.runCommand(command);
+		String output = writer.toString();
+
+		assertEquals("query", command.getName());
+		assertEquals(6, command.getArguments().size());
+		assertTrue(output.contains("?X -> "));
+		assertTrue(output.contains("#TEST-1#"));
+		assertTrue(output.contains(", COUNT(?Y) -> "));
+		assertTrue(output.contains("#C1#"));
+		assertFalse(output.contains("#TEST-2#"));
+		assertTrue(output.contains("1 group(s)"));
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void unknownAggregate_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Command command = interpreter.parseCommand("@query p(?X, ?Y) GROUPBY ?X SUM(?Y) .");
+		interpreter.runCommand(command);
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void groupByWithoutAggregate_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Command command = interpreter.parseCommand("@query p(?X, ?Y) GROUPBY ?X .");
+		interpreter.runCommand(command);
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void aggregateExport_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Command command = interpreter.parseCommand("@query p(?X, ?Y) MAX(?Y) EXPORTCSV \"file.csv\" .");
+		interpreter.runCommand(command);
+	}
+
+	@Test
+	public void correctUseOrderByOffset_succeeds() throws ParsingException, CommandExecutionException, IOException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+
+		QueryResult r1 = new QueryResultImpl(Arrays.asList(Expressions.makeAbstractConstant("#TEST-1#")));
+		QueryResult r2 = new QueryResultImpl(Arrays.asList(Expressions.makeAbstractConstant("#TEST-2#")));
+		QueryResult r3 = new QueryResultImpl(Arrays.asList(Expressions.makeAbstractConstant("#TEST-3#")));
+
+		QueryResultIterator results = new TestQueryResultIterator(Arrays.asList(r1, r2, r3));
+
+		Mockito.when(interpreter.getReasoner().answerQuery(Mockito.any(),
+				Mockito.eq(Arrays.asList(Expressions.makeUniversalVariable("X"))), Mockito.eq(false),
+				Mockito.eq(Arrays.asList(Expressions.makeUniversalVariable("X"))), Mockito.eq(true)))
+				.thenReturn(results);
+
+		Command command = interpreter.parseCommand("@query p(?X, c, ?X) ORDERBY ?X OFFSET 1 LIMIT 1 .");
+		interpreter.runCommand(command);
+		String output = writer.toString();
+
+		assertEquals("query", command.getName());
+		assertEquals(7, command.getArguments().size());
+		assertFalse(output.contains("#TEST-1#"));
+		assertTrue(output.contains("#TEST-2#"));
+		assertFalse(output.contains("#TEST-3#"));
+		assertTrue(output.contains("1 result(s)"));
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void orderByUnknownVariable_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Command command = interpreter.parseCommand("@query p(?X) ORDERBY ?Y .");
+		interpreter.runCommand(command);
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void orderByExport_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Command command = interpreter.parseCommand("@query p(?X) ORDERBY ?X EXPORTCSV \"file.csv\" .");
+		interpreter.runCommand(command);
+	}
+
 	@Test
 	public void correctUseExport_succeeds() throws ParsingException, CommandExecutionException, IOException {
 		StringWriter writer = new StringWriter();
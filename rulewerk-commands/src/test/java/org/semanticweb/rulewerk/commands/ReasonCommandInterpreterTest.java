@@ -47,6 +47,8 @@ public class ReasonCommandInterpreterTest {
 		interpreter.runCommand(command);
 
 		assertEquals(Correctness.SOUND_AND_COMPLETE, interpreter.getReasoner().getCorrectness());
+		assertTrue(writer.toString().contains("Process CPU time (all threads): "));
+		assertTrue(writer.toString().contains("run(s) taking "));
 	}
 	
 	@Test(expected = CommandExecutionException.class)
@@ -0,0 +1,120 @@
+package org.semanticweb.rulewerk.commands;
+
+/*-
+ * #%L
+ * Rulewerk command execution support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.semanticweb.rulewerk.core.model.api.Command;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ReasoningStatisticsImpl;
+import org.semanticweb.rulewerk.parser.ParsingException;
+
+public class StatsCommandInterpreterTest {
+
+	@Test
+	public void correctUse_succeeds() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Predicate p = Expressions.makePredicate("p", 1);
+		Predicate q = Expressions.makePredicate("q", 2);
+		Map<Predicate, Long> factCounts = new HashMap<>();
+		factCounts.put(q, 7L);
+		factCounts.put(p, 3L);
+		Map<Predicate, Long> assertedFactCounts = new HashMap<>();
+		assertedFactCounts.put(p, 3L);
+		Mockito.when(interpreter.getReasoner().getReasoningStatistics())
+				.thenReturn(new ReasoningStatisticsImpl(12, 5, 40, factCounts, assertedFactCounts, 2 * 1024 * 1024));
+
+		Command command = interpreter.parseCommand("@stats .");
+		interpreter.runCommand(command);
+
+		String output = writer.toString();
+		assertTrue(output.contains("12ms"));
+		assertTrue(output.contains("5ms"));
+		assertTrue(output.contains("40ms"));
+		assertTrue(output.contains("2MB"));
+		assertTrue(output.contains("  p[1]: 3, 3, 0\n  q[2]: 7, 0, 7\n"));
+	}
+
+	@Test
+	public void noFacts_succeeds() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Mockito.when(interpreter.getReasoner().getReasoningStatistics()).thenReturn(
+				new ReasoningStatisticsImpl(0, 0, 0, new HashMap<>(), new HashMap<>(), -1));
+
+		Command command = interpreter.parseCommand("@stats .");
+		interpreter.runCommand(command);
+
+		String output = writer.toString();
+		assertTrue(output.contains("Peak memory usage: unknown\n"));
+		assertTrue(output.contains("Fact counts are only available after reasoning.\n"));
+	}
+
+	@Test
+	public void cyclicityCheckTimes_succeeds() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		Map<String, Long> cyclicityCheckTimes = new HashMap<>();
+		cyclicityCheckTimes.put("MFC", 8L);
+		cyclicityCheckTimes.put("JA", 1L);
+		Mockito.when(interpreter.getReasoner().getReasoningStatistics())
+				.thenReturn(new ReasoningStatisticsImpl(0, 0, 0, new HashMap<>(), new HashMap<>(), -1,
+						Collections.emptyList(), cyclicityCheckTimes));
+
+		Command command = interpreter.parseCommand("@stats .");
+		interpreter.runCommand(command);
+
+		assertTrue(writer.toString().contains("Cyclicity checks: JA 1ms, MFC 8ms\n"));
+	}
+
+	@Test(expected = CommandExecutionException.class)
+	public void wrongArgumentCount_fails() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+
+		Command command = interpreter.parseCommand("@stats p(?X) .");
+		interpreter.runCommand(command);
+	}
+
+	@Test
+	public void help_succeeds() throws ParsingException, CommandExecutionException {
+		StringWriter writer = new StringWriter();
+		Interpreter interpreter = InterpreterTest.getMockInterpreter(writer);
+		CommandInterpreter commandInterpreter = new StatsCommandInterpreter();
+		InterpreterTest.checkHelpFormat(commandInterpreter, interpreter, writer);
+	}
+
+	@Test
+	public void synopsis_succeeds() throws ParsingException, CommandExecutionException {
+		CommandInterpreter commandInterpreter = new StatsCommandInterpreter();
+		InterpreterTest.checkSynopsisFormat(commandInterpreter);
+	}
+
+}
@@ -0,0 +1,56 @@
+package org.semanticweb.rulewerk.core.exceptions;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Thrown when the evaluation of a query, an export or another iteration over
+ * inferences is stopped because its deadline has passed or it has been
+ * cancelled, see {@link org.semanticweb.rulewerk.core.reasoner.QueryOptions}.
+ */
+public class QueryCancelledException extends RulewerkRuntimeException {
+
+	/**
+	 * Generated serial version ID.
+	 */
+	private static final long serialVersionUID = 4385470936417291617L;
+
+	private final boolean timedOut;
+
+	/**
+	 * Creates a new exception.
+	 *
+	 * @param message  description of the reason for stopping
+	 * @param timedOut {@code true} if the deadline has passed, {@code false} if
+	 *                 the query was cancelled explicitly
+	 */
+	public QueryCancelledException(final String message, final boolean timedOut) {
+		super(message);
+		this.timedOut = timedOut;
+	}
+
+	/**
+	 * @return {@code true} if the query was stopped because its deadline has
+	 *         passed, {@code false} if it was cancelled explicitly
+	 */
+	public boolean isTimedOut() {
+		return this.timedOut;
+	}
+}
@@ -0,0 +1,143 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+
+/**
+ * An aggregate that is computed for each group of answers of an aggregate
+ * query, see
+ * {@link Reasoner#answerAggregateQuery(org.semanticweb.rulewerk.core.model.api.PositiveLiteral, java.util.List, java.util.List, boolean)}.
+ */
+public final class Aggregate {
+
+	/**
+	 * Aggregate functions.
+	 */
+	public enum Function {
+		/**
+		 * The number of answers in a group.
+		 */
+		COUNT,
+		/**
+		 * The number of distinct values of a variable in a group.
+		 */
+		COUNTDISTINCT,
+		/**
+		 * The least value of a variable in a group.
+		 */
+		MIN,
+		/**
+		 * The greatest value of a variable in a group.
+		 */
+		MAX
+	}
+
+	private final Function function;
+	private final Variable variable;
+
+	private Aggregate(final Function function, final Variable variable) {
+		this.function = function;
+		this.variable = variable;
+	}
+
+	/**
+	 * Creates an aggregate.
+	 *
+	 * @param function the aggregate function
+	 * @param variable the aggregated variable; may only be {@code null} for
+	 *                 {@link Function#COUNT}
+	 * @return the aggregate
+	 */
+	public static Aggregate makeAggregate(final Function function, final Variable variable) {
+		Validate.notNull(function, "Aggregate function cannot be null!");
+		Validate.isTrue(variable != null || function == Function.COUNT,
+				"Aggregate function %s requires a variable!", function);
+		return new Aggregate(function, variable);
+	}
+
+	/**
+	 * @return an aggregate that counts the answers of each group
+	 */
+	public static Aggregate count() {
+		return new Aggregate(Function.COUNT, null);
+	}
+
+	/**
+	 * @param variable a variable of the query
+	 * @return an aggregate that counts the distinct values of the variable
+	 */
+	public static Aggregate countDistinct(final Variable variable) {
+		return makeAggregate(Function.COUNTDISTINCT, variable);
+	}
+
+	/**
+	 * @param variable a variable of the query
+	 * @return an aggregate for the least value of the variable
+	 */
+	public static Aggregate min(final Variable variable) {
+		return makeAggregate(Function.MIN, variable);
+	}
+
+	/**
+	 * @param variable a variable of the query
+	 * @return an aggregate for the greatest value of the variable
+	 */
+	public static Aggregate max(final Variable variable) {
+		return makeAggregate(Function.MAX, variable);
+	}
+
+	public Function getFunction() {
+		return this.function;
+	}
+
+	/**
+	 * @return the aggregated variable, or {@code null} for {@link Function#COUNT}
+	 *         without variable
+	 */
+	public Variable getVariable() {
+		return this.variable;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.function.hashCode() + (this.variable == null ? 0 : this.variable.hashCode());
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Aggregate)) {
+			return false;
+		}
+		final Aggregate other = (Aggregate) obj;
+		return this.function == other.function
+				&& (this.variable == null ? other.variable == null : this.variable.equals(other.variable));
+	}
+
+	@Override
+	public String toString() {
+		return this.function + "(" + (this.variable == null ? "" : this.variable.toString()) + ")";
+	}
+}
@@ -0,0 +1,50 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A flag for cancelling queries and other long-running iterations over the
+ * results of a {@link Reasoner} from another thread. The token is passed to
+ * the reasoner as part of the {@link QueryOptions}, and can be shared by any
+ * number of queries. Cancellation is cooperative: the operations check the
+ * token regularly and stop with a
+ * {@link org.semanticweb.rulewerk.core.exceptions.QueryCancelledException}
+ * once it has been cancelled.
+ */
+public class CancellationToken {
+
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Cancels all operations that use this token. Cannot be undone.
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	/**
+	 * @return {@code true} if {@link #cancel()} has been called
+	 */
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+}
@@ -29,6 +29,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -53,6 +54,7 @@ import org.semanticweb.rulewerk.core.model.api.Statement;
 import org.semanticweb.rulewerk.core.model.api.StatementVisitor;
 import org.semanticweb.rulewerk.core.model.implementation.MergingPrefixDeclarationRegistry;
 import org.semanticweb.rulewerk.core.model.implementation.Serializer;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.UpdateKnowledgeBaseEvent;
 
 /**
  * A knowledge base with rules, facts, and declarations for loading data from
@@ -244,6 +246,8 @@ public class KnowledgeBase implements Iterable<Statement> {
 	 * @param statements the statements to be added
 	 */
 	public void addStatements(final Collection<? extends Statement> statements) {
+		final UpdateKnowledgeBaseEvent event = new UpdateKnowledgeBaseEvent();
+		event.begin();
 		final List<Statement> addedStatements = new ArrayList<>();
 
 		for (final Statement statement : statements) {
@@ -253,6 +257,9 @@ public class KnowledgeBase implements Iterable<Statement> {
 		}
 
 		this.notifyListenersOnStatementsAdded(addedStatements);
+		event.operation = "add";
+		event.statements = addedStatements.size();
+		event.commit();
 	}
 
 	/**
@@ -261,15 +268,7 @@ public class KnowledgeBase implements Iterable<Statement> {
 	 * @param statements the statements to be added
 	 */
 	public void addStatements(final Statement... statements) {
-		final List<Statement> addedStatements = new ArrayList<>();
-
-		for (final Statement statement : statements) {
-			if (this.doAddStatement(statement)) {
-				addedStatements.add(statement);
-			}
-		}
-
-		this.notifyListenersOnStatementsAdded(addedStatements);
+		this.addStatements(Arrays.asList(statements));
 	}
 
 	/**
@@ -311,6 +310,8 @@ public class KnowledgeBase implements Iterable<Statement> {
 	 * @return number of removed statements
 	 */
 	public int removeStatements(final Collection<? extends Statement> statements) {
+		final UpdateKnowledgeBaseEvent event = new UpdateKnowledgeBaseEvent();
+		event.begin();
 		final List<Statement> removedStatements = new ArrayList<>();
 
 		for (final Statement statement : statements) {
@@ -320,6 +321,9 @@ public class KnowledgeBase implements Iterable<Statement> {
 		}
 
 		this.notifyListenersOnStatementsRemoved(removedStatements);
+		event.operation = "remove";
+		event.statements = removedStatements.size();
+		event.commit();
 		return removedStatements.size();
 	}
 
@@ -330,16 +334,7 @@ public class KnowledgeBase implements Iterable<Statement> {
 	 * @return number of removed statements
 	 */
 	public int removeStatements(final Statement... statements) {
-		final List<Statement> removedStatements = new ArrayList<>();
-
-		for (final Statement statement : statements) {
-			if (this.doRemoveStatement(statement)) {
-				removedStatements.add(statement);
-			}
-		}
-
-		this.notifyListenersOnStatementsRemoved(removedStatements);
-		return removedStatements.size();
+		return this.removeStatements(Arrays.asList(statements));
 	}
 
 	private void notifyListenersOnStatementAdded(final Statement addedStatement) {
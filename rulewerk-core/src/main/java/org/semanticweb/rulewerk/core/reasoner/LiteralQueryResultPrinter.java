@@ -89,15 +89,41 @@ public class LiteralQueryResultPrinter {
 	public void write(QueryResult queryResult) throws IOException {
 		boolean first = true;
 		for (Entry<UniversalVariable, Integer> entry : firstIndex.entrySet()) {
-			if (first) {
-				first = false;
-			} else {
-				writer.write(", ");
-			}
-			serializer.writeUniversalVariable(entry.getKey());
-			writer.write(" -> ");
-			serializer.writeTerm(queryResult.getTerms().get(entry.getValue()));
+			first = writeBinding(entry.getKey(), queryResult.getTerms().get(entry.getValue()), first);
+		}
+		finishResult(first);
+	}
+
+	/**
+	 * Writes one result of a {@link QueryResultBatch} to the specified writer, in
+	 * the same way as {@link #write(QueryResult)}, but without creating a
+	 * {@link QueryResult} object.
+	 * 
+	 * @param queryResultBatch the batch containing the result; its results must be
+	 *                         based on the query literal specified in the
+	 *                         constructor
+	 * @param row              the index of the result in the batch
+	 * @throws IOException if a problem occurred in writing
+	 */
+	public void write(QueryResultBatch queryResultBatch, int row) throws IOException {
+		boolean first = true;
+		for (Entry<UniversalVariable, Integer> entry : firstIndex.entrySet()) {
+			first = writeBinding(entry.getKey(), queryResultBatch.getTerm(row, entry.getValue()), first);
+		}
+		finishResult(first);
+	}
+
+	private boolean writeBinding(UniversalVariable variable, Term term, boolean first) throws IOException {
+		if (!first) {
+			writer.write(", ");
 		}
+		serializer.writeUniversalVariable(variable);
+		writer.write(" -> ");
+		serializer.writeTerm(term);
+		return false;
+	}
+
+	private void finishResult(boolean first) throws IOException {
 		resultCount++;
 		if (!first) {
 			writer.write("\n");
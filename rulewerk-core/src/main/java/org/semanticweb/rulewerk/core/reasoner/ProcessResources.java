@@ -0,0 +1,96 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Reads process-level resource usage from the {@code /proc} file system. The
+ * values are only available on Linux and are reported as -1 otherwise.
+ *
+ * @see Timer#getProcessCpuTime()
+ * @see Timer#getProcessPeakResidentSetSize()
+ */
+final class ProcessResources {
+
+	private static final String PROC_STAT_FILE = "/proc/self/stat";
+	private static final String PROC_STATUS_FILE = "/proc/self/status";
+	private static final String PEAK_RSS_FIELD = "VmHWM:";
+	/**
+	 * Clock ticks per second used in {@code /proc/self/stat}. This is a
+	 * compile-time constant of the Linux kernel ABI that is 100 on all common
+	 * platforms.
+	 */
+	private static final long PROC_CLOCK_TICKS_PER_SECOND = 100;
+
+	private ProcessResources() {
+	}
+
+	/**
+	 * Reads the CPU time (user and system) used by all threads of the current
+	 * process.
+	 *
+	 * @return process CPU time in nanoseconds, or -1 if not available
+	 */
+	static long readProcessCpuTime() {
+		try {
+			final List<String> lines = Files.readAllLines(Paths.get(PROC_STAT_FILE), StandardCharsets.UTF_8);
+			if (lines.isEmpty()) {
+				return -1;
+			}
+			// the command name in the second field may contain spaces, but is
+			// enclosed in parentheses
+			final String line = lines.get(0);
+			final String[] fields = line.substring(line.lastIndexOf(')') + 2).split(" ");
+			// utime and stime are fields 14 and 15 of the full line
+			final long ticks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+			return ticks * (1000000000L / PROC_CLOCK_TICKS_PER_SECOND);
+		} catch (final IOException | RuntimeException e) {
+			// not available on this platform
+			return -1;
+		}
+	}
+
+	/**
+	 * Reads the peak resident set size of the current process.
+	 *
+	 * @return peak resident set size in bytes, or -1 if not available
+	 */
+	static long readPeakResidentSetSize() {
+		try {
+			for (final String line : Files.readAllLines(Paths.get(PROC_STATUS_FILE), StandardCharsets.UTF_8)) {
+				if (line.startsWith(PEAK_RSS_FIELD)) {
+					// the value is given in kB
+					final String value = line.substring(PEAK_RSS_FIELD.length()).trim().split("\\s+")[0];
+					return Long.parseLong(value) * 1024;
+				}
+			}
+		} catch (final IOException | RuntimeException e) {
+			// not available on this platform
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,132 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.exceptions.QueryCancelledException;
+
+/**
+ * Limits for the evaluation of a query, an export of query answers, or an
+ * iteration over all inferences: a deadline, and a {@link CancellationToken}
+ * for stopping the operation from another thread. The limits are checked
+ * regularly while results are produced, and the operation stops with a
+ * {@link QueryCancelledException} when one of them is exceeded. Options are
+ * immutable; the deadline is fixed when {@link #withTimeout(long, TimeUnit)} is
+ * called.
+ */
+public final class QueryOptions {
+
+	/**
+	 * Options without any limits.
+	 */
+	public static final QueryOptions NONE = new QueryOptions(null, 0, 0);
+
+	private final CancellationToken cancellationToken;
+	/**
+	 * Deadline in terms of {@link System#nanoTime()}; only relevant if
+	 * {@link #timeoutMillis} is positive.
+	 */
+	private final long deadline;
+	private final long timeoutMillis;
+
+	private QueryOptions(final CancellationToken cancellationToken, final long deadline, final long timeoutMillis) {
+		this.cancellationToken = cancellationToken;
+		this.deadline = deadline;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * Returns options that additionally stop the operation after the given time,
+	 * counted from now.
+	 *
+	 * @param timeout the time after which the operation is stopped, must be
+	 *                positive
+	 * @param unit    the unit of the {@code timeout}
+	 * @return new options with a deadline
+	 */
+	public QueryOptions withTimeout(final long timeout, final TimeUnit unit) {
+		Validate.isTrue(timeout > 0, "Timeout must be positive, but was %d.", timeout);
+		Validate.notNull(unit, "Time unit cannot be null.");
+		return new QueryOptions(this.cancellationToken, System.nanoTime() + unit.toNanos(timeout),
+				Math.max(1, unit.toMillis(timeout)));
+	}
+
+	/**
+	 * Returns options that additionally stop the operation when the given token
+	 * is cancelled.
+	 *
+	 * @param cancellationToken the token for cancelling the operation
+	 * @return new options with the given token
+	 */
+	public QueryOptions withCancellationToken(final CancellationToken cancellationToken) {
+		Validate.notNull(cancellationToken, "Cancellation token cannot be null.");
+		return new QueryOptions(cancellationToken, this.deadline, this.timeoutMillis);
+	}
+
+	/**
+	 * @return the cancellation token, or {@code null} if there is none
+	 */
+	public CancellationToken getCancellationToken() {
+		return this.cancellationToken;
+	}
+
+	/**
+	 * @return the timeout in milliseconds, or {@code 0} if there is no deadline
+	 */
+	public long getTimeoutMillis() {
+		return this.timeoutMillis;
+	}
+
+	/**
+	 * @return {@code true} if there is a deadline or a cancellation token, i.e.,
+	 *         if operations need to check these options at all
+	 */
+	public boolean isLimited() {
+		return this.cancellationToken != null || this.timeoutMillis > 0;
+	}
+
+	/**
+	 * @return {@code true} if the operation should be stopped, because the
+	 *         deadline has passed or the token has been cancelled
+	 */
+	public boolean isExceeded() {
+		return (this.cancellationToken != null && this.cancellationToken.isCancelled())
+				|| (this.timeoutMillis > 0 && System.nanoTime() - this.deadline >= 0);
+	}
+
+	/**
+	 * Checks whether the operation should be stopped.
+	 *
+	 * @throws QueryCancelledException if the deadline has passed or the token has
+	 *                                 been cancelled
+	 */
+	public void checkNotExceeded() {
+		if (this.cancellationToken != null && this.cancellationToken.isCancelled()) {
+			throw new QueryCancelledException("Query was cancelled.", false);
+		}
+		if (this.timeoutMillis > 0 && System.nanoTime() - this.deadline >= 0) {
+			throw new QueryCancelledException("Query timed out after " + this.timeoutMillis + " ms.", true);
+		}
+	}
+
+}
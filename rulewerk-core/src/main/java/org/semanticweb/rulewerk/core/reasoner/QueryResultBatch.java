@@ -0,0 +1,69 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+
+/**
+ * A batch of consecutive query results, stored column by column. Batches are
+ * obtained from {@link QueryResultIterator#nextBatch(int)} and allow reading
+ * many results without allocating a {@link QueryResult} object per result.
+ * Batches may be reused by the iterator that produced them, so their content is
+ * only valid until the next call to {@link QueryResultIterator#nextBatch(int)}.
+ */
+public interface QueryResultBatch {
+
+	/**
+	 * Returns the number of results in this batch. A batch without results
+	 * signals that there are no more results.
+	 *
+	 * @return number of results (rows)
+	 */
+	int getRowCount();
+
+	/**
+	 * Returns the number of terms of each result, which is the arity of the query
+	 * atom.
+	 *
+	 * @return number of terms per result (columns)
+	 */
+	int getColumnCount();
+
+	/**
+	 * Returns a term of a result in this batch.
+	 *
+	 * @param row    index of the result, smaller than {@link #getRowCount()}
+	 * @param column index of the term in the result, smaller than
+	 *               {@link #getColumnCount()}
+	 * @return the term
+	 */
+	Term getTerm(int row, int column);
+
+	/**
+	 * Returns a result of this batch as a {@link QueryResult}. The result is
+	 * copied and remains valid after the batch has been reused.
+	 *
+	 * @param row index of the result, smaller than {@link #getRowCount()}
+	 * @return the result
+	 */
+	QueryResult getQueryResult(int row);
+}
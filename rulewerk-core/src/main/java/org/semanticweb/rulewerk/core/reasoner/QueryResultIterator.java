@@ -20,9 +20,12 @@ package org.semanticweb.rulewerk.core.reasoner;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultBatchImpl;
 
 /**
  * Iterator for {@link QueryResult}s.
@@ -47,6 +50,40 @@ public interface QueryResultIterator extends Iterator<QueryResult>, AutoCloseabl
 	 */
 	public Correctness getCorrectness();
 
+	/**
+	 * Returns up to {@code maxRows} further results as a column-oriented
+	 * {@link QueryResultBatch}. This allows consumers to process large numbers of
+	 * results without allocating objects for each of them. Implementations may
+	 * reuse the returned batch, so its content is only valid until the next call
+	 * of this method. Results obtained by {@link #next()} and by this method do not
+	 * overlap.
+	 * 
+	 * The default implementation copies the results obtained by {@link #next()}
+	 * into a new batch.
+	 * 
+	 * @param maxRows maximal number of results to return, must be positive
+	 * @return a batch of results, which is empty if there are no further results
+	 */
+	public default QueryResultBatch nextBatch(final int maxRows) {
+		if (maxRows <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive!");
+		}
+		final List<QueryResult> queryResults = new ArrayList<>();
+		while (queryResults.size() < maxRows && this.hasNext()) {
+			queryResults.add(this.next());
+		}
+		final QueryResultBatchImpl batch = new QueryResultBatchImpl();
+		final int columnCount = queryResults.isEmpty() ? 0 : queryResults.get(0).getTerms().size();
+		batch.clear(columnCount, queryResults.size());
+		for (final QueryResult queryResult : queryResults) {
+			final int row = batch.addRow();
+			for (int column = 0; column < columnCount; column++) {
+				batch.setTerm(row, column, queryResult.getTerms().get(column));
+			}
+		}
+		return batch;
+	}
+
 	@Override
 	public void close();
 }
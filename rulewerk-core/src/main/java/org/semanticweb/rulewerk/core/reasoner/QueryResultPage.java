@@ -0,0 +1,54 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+
+/**
+ * A page of query results, together with a cursor for requesting the next page
+ * with {@link Reasoner#getNextQueryResultPage(String, int)}. Cursors remain
+ * valid until the next page is requested with them, or until the state of the
+ * reasoner changes (e.g., by reasoning, resetting, or changes to the
+ * {@link KnowledgeBase}).
+ */
+public interface QueryResultPage {
+
+	/**
+	 * @return the results of this page, in the order of the query
+	 */
+	List<QueryResult> getQueryResults();
+
+	/**
+	 * @return a cursor for the next page, or {@code null} if this is the last page
+	 */
+	String getCursor();
+
+	/**
+	 * Returns the correctness of the query results, see
+	 * {@link QueryAnswerCount#getCorrectness()}.
+	 *
+	 * @return query result correctness
+	 */
+	Correctness getCorrectness();
+
+}
@@ -0,0 +1,120 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+
+/**
+ * A source of query results that are delivered asynchronously to
+ * {@link Subscriber}s, as obtained from
+ * {@link Reasoner#answerQueryAsync(org.semanticweb.rulewerk.core.model.api.PositiveLiteral, boolean, java.util.concurrent.Executor)}.
+ * Results are only produced as far as they have been requested by the
+ * subscriber, so that slow consumers do not cause results to be buffered, and no
+ * thread is blocked while the subscriber is not ready for more results. <br>
+ * The interfaces follow the contract of {@code java.util.concurrent.Flow} (and
+ * Reactive Streams), which is not available on all Java versions supported by
+ * Rulewerk, so that they can easily be adapted to any implementation of that
+ * contract.
+ */
+public interface QueryResultPublisher {
+
+	/**
+	 * Receives the query results of a {@link QueryResultPublisher}. The methods of
+	 * a subscriber are never called concurrently. After
+	 * {@link #onSubscribe(Subscription)}, results are delivered with
+	 * {@link #onNext(QueryResult)}, at most as many as have been requested, and
+	 * the delivery ends with either {@link #onComplete()} or
+	 * {@link #onError(Throwable)}, unless the subscription has been cancelled.
+	 */
+	interface Subscriber {
+
+		/**
+		 * Called before any other method, with the subscription that is used for
+		 * requesting results.
+		 *
+		 * @param subscription the new subscription
+		 */
+		void onSubscribe(Subscription subscription);
+
+		/**
+		 * Called with the next query result.
+		 *
+		 * @param queryResult the query result
+		 */
+		void onNext(QueryResult queryResult);
+
+		/**
+		 * Called if the query could not be answered, or if reading results failed.
+		 * No further methods are called afterwards.
+		 *
+		 * @param throwable the cause of the failure
+		 */
+		void onError(Throwable throwable);
+
+		/**
+		 * Called after all results have been delivered. No further methods are
+		 * called afterwards.
+		 */
+		void onComplete();
+	}
+
+	/**
+	 * The link between a {@link QueryResultPublisher} and one of its
+	 * {@link Subscriber}s. Its methods may be called from any thread.
+	 */
+	interface Subscription {
+
+		/**
+		 * Requests {@code n} further query results. Requests are cumulative. A
+		 * non-positive {@code n} is an error, which is signalled to the subscriber
+		 * with {@link Subscriber#onError(Throwable)}.
+		 *
+		 * @param n number of results to request; {@link Long#MAX_VALUE} for all
+		 *          results
+		 */
+		void request(long n);
+
+		/**
+		 * Stops the delivery of results and releases the resources used for
+		 * answering the query. Results that are being delivered concurrently may
+		 * still be received.
+		 */
+		void cancel();
+	}
+
+	/**
+	 * Subscribes to the query results. Each subscriber gets its own evaluation of
+	 * the query, which starts when results are first requested.
+	 *
+	 * @param subscriber the subscriber to receive the results
+	 */
+	void subscribe(Subscriber subscriber);
+
+	/**
+	 * Returns the correctness of the query results, see
+	 * {@link QueryAnswerCount#getCorrectness()}. The correctness refers to the
+	 * state of the reasoner at the time when this publisher was created.
+	 *
+	 * @return query result correctness
+	 */
+	Correctness getCorrectness();
+
+}
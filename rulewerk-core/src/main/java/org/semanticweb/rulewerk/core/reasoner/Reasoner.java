@@ -26,11 +26,18 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
+import org.semanticweb.rulewerk.core.exceptions.QueryCancelledException;
 import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
 import org.semanticweb.rulewerk.core.model.api.Constant;
 import org.semanticweb.rulewerk.core.model.api.DataSourceDeclaration;
 import org.semanticweb.rulewerk.core.model.api.ExistentialVariable;
@@ -46,6 +53,12 @@ import org.semanticweb.rulewerk.core.model.api.TermType;
 import org.semanticweb.rulewerk.core.model.api.Variable;
 import org.semanticweb.rulewerk.core.model.implementation.Expressions;
 import org.semanticweb.rulewerk.core.model.implementation.Serializer;
+import org.semanticweb.rulewerk.core.reasoner.implementation.AggregateQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.CancellableQueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ProjectionQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryAnswerCountImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultIteratorPublisher;
 
 /**
  * Interface that exposes the (existential) rule reasoning capabilities of a
@@ -110,6 +123,35 @@ public interface Reasoner extends AutoCloseable, KnowledgeBaseListener {
 	 */
 	Correctness forEachInference(InferenceAction action) throws IOException;
 
+	/**
+	 * Performs the given action for each inference, like
+	 * {@link #forEachInference(InferenceAction)}, but stops with a
+	 * {@link QueryCancelledException} when the limits of the given
+	 * {@link QueryOptions} are exceeded. The limits are checked before the first
+	 * inference and then regularly between inferences.
+	 *
+	 * @param action  The action to be performed for each inference.
+	 * @param options limits for the iteration
+	 * @return the correctness of the inferences, depending on the state of the
+	 *         reasoning (materialisation) and its {@link KnowledgeBase}.
+	 * @throws IOException
+	 */
+	default Correctness forEachInference(final InferenceAction action, final QueryOptions options)
+			throws IOException {
+		if (!options.isLimited()) {
+			return this.forEachInference(action);
+		}
+		options.checkNotExceeded();
+		final int[] inferencesUntilCheck = { CancellableQueryResultIterator.CHECK_INTERVAL };
+		return this.forEachInference((predicate, termList) -> {
+			if (--inferencesUntilCheck[0] == 0) {
+				options.checkNotExceeded();
+				inferencesUntilCheck[0] = CancellableQueryResultIterator.CHECK_INTERVAL;
+			}
+			action.accept(predicate, termList);
+		});
+	}
+
 	/**
 	 * Performs the given action for each inference, swallowing checked exceptions.
 	 *
@@ -167,6 +209,18 @@ public interface Reasoner extends AutoCloseable, KnowledgeBaseListener {
 	 */
 	Correctness getCorrectness();
 
+	/**
+	 * Returns statistics about the last loading and materialisation of the
+	 * knowledge base: the time spent in each phase, the number of asserted and
+	 * derived facts for each loaded predicate, and the peak memory usage. Fact
+	 * counts are computed from the current state of the reasoner when this method
+	 * is called, and are only available in {@link ReasonerState#MATERIALISED}
+	 * state.
+	 *
+	 * @return the reasoning statistics
+	 */
+	ReasoningStatistics getReasoningStatistics();
+
 	/**
 	 * Exports all the (explicit and implicit) facts inferred during reasoning of
 	 * the knowledge base to a desired file.
@@ -248,6 +302,66 @@ public interface Reasoner extends AutoCloseable, KnowledgeBaseListener {
 	 */
 	RuleRewriteStrategy getRuleRewriteStrategy();
 
+	/**
+	 * Sets the maximal number of threads that the reasoner may use for loading
+	 * and materialising the knowledge base. Implementations that cannot
+	 * parallelise some of these tasks perform them on a single thread. The default
+	 * value depends on the implementation.
+	 *
+	 * @param numberOfThreads a strictly positive number of threads
+	 */
+	void setNumberOfThreads(int numberOfThreads);
+
+	/**
+	 * Getter for the maximal number of threads that the reasoner may use for
+	 * loading and materialising the knowledge base.
+	 *
+	 * @return the maximal number of threads
+	 */
+	int getNumberOfThreads();
+
+	/**
+	 * Enables or disables the profiling of individual rules during
+	 * materialisation. The profile of the last materialisation is available from
+	 * {@link ReasoningStatistics#getRuleStatistics()}. Profiling may slow down
+	 * reasoning considerably, and is disabled by default.
+	 *
+	 * @param ruleProfiling {@code true} if rules should be profiled
+	 */
+	void setRuleProfiling(boolean ruleProfiling);
+
+	/**
+	 * Getter for the rule profiling setting.
+	 *
+	 * @return {@code true} if rules are profiled during materialisation
+	 */
+	boolean isRuleProfiling();
+
+	/**
+	 * Restricts loading to the parts of the knowledge base that are relevant for
+	 * the given predicates. Rules, facts and data sources that cannot contribute
+	 * to the extensions of these predicates (according to the predicate dependency
+	 * graph of the rules) are not loaded, so irrelevant data sources are never
+	 * read and reasoning works on a smaller program. Queries for predicates
+	 * outside of the relevant part of the knowledge base are answered with
+	 * {@link Correctness#SOUND_BUT_INCOMPLETE} results. <br>
+	 * Changing the relevant predicates of a loaded reasoner has the same effect
+	 * as changing its knowledge base.
+	 *
+	 * @param predicates the predicates that will be queried, or {@code null} if
+	 *                   the whole knowledge base should be loaded (default).
+	 */
+	void setRelevantPredicates(Collection<Predicate> predicates);
+
+	/**
+	 * Getter for the predicates set with
+	 * {@link #setRelevantPredicates(Collection)}.
+	 *
+	 * @return the predicates for which the knowledge base is loaded, or
+	 *         {@code null} if the whole knowledge base is loaded.
+	 */
+	Set<Predicate> getRelevantPredicates();
+
 	/**
 	 * Sets the logging level of the internal VLog C++ resource. Default value is
 	 * {@link LogLevel#WARNING}
@@ -431,6 +545,241 @@ public interface Reasoner extends AutoCloseable, KnowledgeBaseListener {
 	 */
 	QueryResultIterator answerQuery(PositiveLiteral query, boolean includeNulls);
 
+	/**
+	 * Evaluates an atomic ({@code query}) like
+	 * {@link #answerQuery(PositiveLiteral, boolean)}, within the limits of the
+	 * given {@link QueryOptions}. When the deadline passes or the cancellation
+	 * token is cancelled while the answers are being read, the returned iterator
+	 * is closed and throws a {@link QueryCancelledException}.
+	 *
+	 * @param query        a {@link PositiveLiteral} representing the query to be
+	 *                     answered.
+	 * @param includeNulls if {@code true}, answers containing terms of type
+	 *                     {@link NamedNull} will be included.
+	 * @param options      limits for the evaluation of the query
+	 * @return QueryResultIterator that iterates over distinct answers to the query.
+	 * @throws QueryCancelledException if the limits are already exceeded.
+	 */
+	default QueryResultIterator answerQuery(final PositiveLiteral query, final boolean includeNulls,
+			final QueryOptions options) {
+		options.checkNotExceeded();
+		final QueryResultIterator answers = this.answerQuery(query, includeNulls);
+		return options.isLimited() ? new CancellableQueryResultIterator(answers, options) : answers;
+	}
+
+	/**
+	 * Evaluates an atomic query ({@code query}) in a goal-directed way, without
+	 * materialising the complete knowledge base. The rules of the
+	 * {@link KnowledgeBase} are rewritten for the query, using the constants of
+	 * the {@code query} as bindings, so that only facts that are relevant for the
+	 * query are derived. The rewritten knowledge base is materialised separately,
+	 * so this method can be called in any state of the reasoner, and does not
+	 * affect its materialisation. For queries with constants, this is usually much
+	 * cheaper than materialising the complete knowledge base. <br>
+	 * The answers are the same as those returned by
+	 * {@link #answerQuery(PositiveLiteral, boolean)} after completed reasoning,
+	 * except for answers with {@link NamedNull} terms, which may differ in the
+	 * nulls that they contain. <br>
+	 * Closing the returned iterator releases the resources used for the
+	 * goal-directed evaluation.
+	 *
+	 * @param query        a {@link PositiveLiteral} representing the query to be
+	 *                     answered.
+	 * @param includeNulls if {@code true}, {@link QueryResult}s containing terms of
+	 *                     type {@link NamedNull} will be included.
+	 * @return QueryResultIterator that iterates over distinct answers to the query.
+	 *         Its {@link Correctness} is {@link Correctness#SOUND_AND_COMPLETE} if
+	 *         the goal-directed materialisation has completed.
+	 * @throws IOException if I/O exceptions occur during reasoning.
+	 */
+	QueryResultIterator answerQueryGoalDirected(PositiveLiteral query, boolean includeNulls) throws IOException;
+
+	/**
+	 * Evaluates an atomic ({@code query}) like
+	 * {@link #answerQuery(PositiveLiteral, boolean)}, but delivers the answers
+	 * asynchronously to the subscribers of the returned
+	 * {@link QueryResultPublisher}. The query is evaluated and its answers are
+	 * read on threads of the given {@code executor}, only as far as the
+	 * subscribers have requested them. Cancelling a subscription closes the
+	 * underlying {@link QueryResultIterator}. <br>
+	 * The answers are subject to the same {@link Correctness} considerations as
+	 * those of {@link #answerQuery(PositiveLiteral, boolean)}, and the state of
+	 * the reasoner should not be changed while subscriptions are active.
+	 *
+	 * @param query        a {@link PositiveLiteral} representing the query to be
+	 *                     answered.
+	 * @param includeNulls if {@code true}, answers containing terms of type
+	 *                     {@link NamedNull} will be included.
+	 * @param executor     the executor that evaluates the query and delivers the
+	 *                     answers to the subscribers.
+	 * @return a publisher of the distinct answers to the query.
+	 */
+	default QueryResultPublisher answerQueryAsync(final PositiveLiteral query, final boolean includeNulls,
+			final Executor executor) {
+		return new QueryResultIteratorPublisher(() -> this.answerQuery(query, includeNulls), executor,
+				this.getCorrectness());
+	}
+
+	/**
+	 * Evaluates an atomic ({@code query}) asynchronously like
+	 * {@link #answerQueryAsync(PositiveLiteral, boolean, Executor)}, on an
+	 * executor chosen by the reasoner. The default implementation uses the common
+	 * {@link ForkJoinPool}.
+	 *
+	 * @param query        a {@link PositiveLiteral} representing the query to be
+	 *                     answered.
+	 * @param includeNulls if {@code true}, answers containing terms of type
+	 *                     {@link NamedNull} will be included.
+	 * @return a publisher of the distinct answers to the query.
+	 */
+	default QueryResultPublisher answerQueryAsync(final PositiveLiteral query, final boolean includeNulls) {
+		return this.answerQueryAsync(query, includeNulls, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Evaluates an atomic ({@code query}) like
+	 * {@link #answerQuery(PositiveLiteral, boolean)}, but only returns the terms
+	 * bound to the given {@code answerVariables}, and optionally removes duplicate
+	 * answers. Projection and duplicate elimination work on the internal
+	 * representation of the answers, so only the returned answers are converted
+	 * to {@link Term}s. If there are too many distinct answers to keep in memory,
+	 * the remaining answers are partitioned into temporary files.
+	 *
+	 * @param query           a {@link PositiveLiteral} representing the query to be
+	 *                        answered.
+	 * @param answerVariables variables of the {@code query} whose bindings are
+	 *                        returned, in the given order.
+	 * @param distinct        if {@code true}, each answer is returned only once.
+	 * @param includeNulls    if {@code true}, answers containing terms of type
+	 *                        {@link NamedNull} will be included. Otherwise,
+	 *                        answers are only omitted if the terms bound to the
+	 *                        {@code answerVariables} contain named nulls.
+	 * @return QueryResultIterator that iterates over the projected answers.
+	 */
+	default QueryResultIterator answerQuery(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final boolean includeNulls) {
+		return this.answerQuery(query, answerVariables, distinct, Collections.emptyList(), includeNulls);
+	}
+
+	/**
+	 * Evaluates an atomic ({@code query}) with projection like
+	 * {@link #answerQuery(PositiveLiteral, List, boolean, boolean)}, and returns
+	 * the answers sorted by the terms bound to the given {@code orderVariables}.
+	 * Terms are ordered as follows: numeric literals by their value, followed by
+	 * all other terms by type and name. Answers that do not fit into memory are
+	 * sorted with the help of temporary files. The order of answers that agree on
+	 * the {@code orderVariables} is not specified, but it is the same for
+	 * repeated queries as long as the state of the reasoner does not change.
+	 *
+	 * @param query           a {@link PositiveLiteral} representing the query to be
+	 *                        answered.
+	 * @param answerVariables variables of the {@code query} whose bindings are
+	 *                        returned, in the given order.
+	 * @param distinct        if {@code true}, each answer is returned only once.
+	 * @param orderVariables  answer variables by whose bindings the answers are
+	 *                        sorted, in ascending order; if empty, the order of the
+	 *                        answers is not specified.
+	 * @param includeNulls    if {@code true}, answers containing terms of type
+	 *                        {@link NamedNull} will be included.
+	 * @return QueryResultIterator that iterates over the sorted answers.
+	 */
+	default QueryResultIterator answerQuery(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls) {
+		return ProjectionQueryEvaluator.answerQuery(this, query, answerVariables, distinct, orderVariables,
+				includeNulls);
+	}
+
+	/**
+	 * Evaluates a query like
+	 * {@link #answerQuery(PositiveLiteral, List, boolean, List, boolean)}, and
+	 * returns the first {@code pageSize} answers. If there are more answers, the
+	 * page has a cursor for reading the next page with
+	 * {@link #getNextQueryResultPage(String, int)}, which continues where the
+	 * previous page ended without evaluating the query again. Cursors are valid
+	 * until the state of the reasoner changes.
+	 *
+	 * @param query           a {@link PositiveLiteral} representing the query to be
+	 *                        answered.
+	 * @param answerVariables variables of the {@code query} whose bindings are
+	 *                        returned, in the given order.
+	 * @param distinct        if {@code true}, each answer is returned only once.
+	 * @param orderVariables  answer variables by whose bindings the answers are
+	 *                        sorted; if empty, the order of the answers is not
+	 *                        specified.
+	 * @param includeNulls    if {@code true}, answers containing terms of type
+	 *                        {@link NamedNull} will be included.
+	 * @param pageSize        the maximal number of answers per page.
+	 * @return the first page of answers.
+	 */
+	QueryResultPage answerQueryPage(PositiveLiteral query, List<Variable> answerVariables, boolean distinct,
+			List<Variable> orderVariables, boolean includeNulls, int pageSize);
+
+	/**
+	 * Returns the next page of answers of a query evaluated with
+	 * {@link #answerQueryPage(PositiveLiteral, List, boolean, List, boolean, int)}.
+	 * Each cursor can only be used once.
+	 *
+	 * @param cursor   the cursor of the previous page.
+	 * @param pageSize the maximal number of answers of the page.
+	 * @return the next page of answers.
+	 * @throws IllegalArgumentException if the cursor is unknown, has been used
+	 *                                  already, or has expired because the state
+	 *                                  of the reasoner has changed.
+	 */
+	QueryResultPage getNextQueryResultPage(String cursor, int pageSize);
+
+	/**
+	 * Evaluates a conjunctive query, i.e., a conjunction of atoms that may share
+	 * variables, on the facts that have been loaded and materialised by the
+	 * reasoner. The atoms are evaluated over the current materialisation and
+	 * joined, so the {@link KnowledgeBase} and the state of the reasoner are not
+	 * changed, and no re-materialisation is needed. <br>
+	 * An answer consists of the terms bound to the {@code answerVariables}, in the
+	 * given order; other variables are existentially quantified (projected away).
+	 * Each answer is returned once. <br>
+	 * The answers have the same {@link Correctness} as the answers to the atoms of
+	 * the query (see {@link #answerQuery(PositiveLiteral, boolean)}).
+	 *
+	 * @param query           a conjunction of {@link PositiveLiteral}s
+	 * @param answerVariables variables of the {@code query} whose bindings are
+	 *                        returned. If empty, the query is boolean, and it has a
+	 *                        single empty answer if it is entailed.
+	 * @param includeNulls    if {@code true}, answers containing terms of type
+	 *                        {@link NamedNull} will be included.
+	 * @return QueryResultIterator that iterates over distinct answers to the query.
+	 */
+	default QueryResultIterator answerConjunctiveQuery(final Conjunction<PositiveLiteral> query,
+			final List<Variable> answerVariables, final boolean includeNulls) {
+		return ConjunctiveQueryEvaluator.answerConjunctiveQuery(this, query, answerVariables, includeNulls);
+	}
+
+	/**
+	 * Evaluates an aggregate query: the answers to the atomic {@code query} (see
+	 * {@link #answerQuery(PositiveLiteral, boolean)}) are grouped by the terms
+	 * bound to the {@code groupVariables}, and the given {@link Aggregate}s are
+	 * computed for each group. Like
+	 * {@link #answerConjunctiveQuery(Conjunction, List, boolean)}, this works on
+	 * the current materialisation. If there are too many groups to keep in
+	 * memory, the answers are partitioned into temporary files. <br>
+	 * Each result consists of the terms bound to the group variables, followed by
+	 * the values of the aggregates, in the given order. Counts are
+	 * {@code xsd:integer} literals. Without group variables, there is a single
+	 * group.
+	 *
+	 * @param query          a {@link PositiveLiteral} representing the query.
+	 * @param groupVariables variables of the {@code query} whose bindings define
+	 *                       the groups.
+	 * @param aggregates     aggregates over variables of the {@code query}.
+	 * @param includeNulls   if {@code true}, answers containing terms of type
+	 *                       {@link NamedNull} will be included.
+	 * @return QueryResultIterator that iterates over one result per group, in no
+	 *         particular order.
+	 */
+	default QueryResultIterator answerAggregateQuery(final PositiveLiteral query,
+			final List<Variable> groupVariables, final List<Aggregate> aggregates, final boolean includeNulls) {
+		return AggregateQueryEvaluator.answerAggregateQuery(this, query, groupVariables, aggregates, includeNulls);
+	}
+
 	/**
 	 * * Evaluates an atomic ({@code query}), and counts the number of query answer
 	 * implicit facts loaded into the reasoner and the number of query answer
@@ -503,6 +852,37 @@ public interface Reasoner extends AutoCloseable, KnowledgeBaseListener {
 	 */
 	QueryAnswerCount countQueryAnswers(PositiveLiteral query, boolean includeNulls);
 
+	/**
+	 * Counts the answers to an atomic ({@code query}) like
+	 * {@link #countQueryAnswers(PositiveLiteral, boolean)}, within the limits of
+	 * the given {@link QueryOptions}. If there are any limits, the default
+	 * implementation counts the answers of
+	 * {@link #answerQuery(PositiveLiteral, boolean, QueryOptions)}.
+	 *
+	 * @param query        a {@link PositiveLiteral} representing the query to be
+	 *                     answered.
+	 * @param includeNulls if {@code true}, facts with {@link TermType#NAMED_NULL}
+	 *                     terms will be counted.
+	 * @param options      limits for the evaluation of the query
+	 * @return a {@link QueryAnswerCount} object that contains the query answers
+	 *         Correctness and the number query answers.
+	 * @throws QueryCancelledException if the limits are exceeded.
+	 */
+	default QueryAnswerCount countQueryAnswers(final PositiveLiteral query, final boolean includeNulls,
+			final QueryOptions options) {
+		if (!options.isLimited()) {
+			return this.countQueryAnswers(query, includeNulls);
+		}
+		try (final QueryResultIterator answers = this.answerQuery(query, includeNulls, options)) {
+			long count = 0;
+			while (answers.hasNext()) {
+				answers.next();
+				count++;
+			}
+			return new QueryAnswerCountImpl(answers.getCorrectness(), count);
+		}
+	}
+
 	// TODO add examples to query javadoc
 	/**
 	 * Evaluates an atomic query ({@code query}) on the implicit facts loaded into
@@ -564,6 +944,32 @@ public interface Reasoner extends AutoCloseable, KnowledgeBaseListener {
 	Correctness exportQueryAnswersToCsv(PositiveLiteral query, String csvFilePath, boolean includeNulls)
 			throws IOException;
 
+	/**
+	 * Writes the answers to an atomic query ({@code query}) to a
+	 * <i><b>.csv</b></i> file like
+	 * {@link #exportQueryAnswersToCsv(PositiveLiteral, String, boolean)}, within
+	 * the limits of the given {@link QueryOptions}. If the limits are exceeded
+	 * during the export, the incomplete file is deleted. The default
+	 * implementation only checks the limits before the export starts.
+	 *
+	 * @param query        a {@link PositiveLiteral} representing the query to be
+	 *                     answered.
+	 * @param csvFilePath  path to a <i><b>.csv</b></i> file where the query answers
+	 *                     will be written.
+	 * @param includeNulls if {@code true}, answers containing terms of type
+	 *                     {@link NamedNull} will be included.
+	 * @param options      limits for the export
+	 * @return the correctness of the query answers
+	 * @throws IOException             if an I/O error occurs regarding given file
+	 *                                 ({@code csvFilePath)}.
+	 * @throws QueryCancelledException if the limits are exceeded.
+	 */
+	default Correctness exportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeNulls, final QueryOptions options) throws IOException {
+		options.checkNotExceeded();
+		return this.exportQueryAnswersToCsv(query, csvFilePath, includeNulls);
+	}
+
 	/**
 	 * Resets the reasoner. All implicit facts inferred by reasoning are discarded.
 	 */
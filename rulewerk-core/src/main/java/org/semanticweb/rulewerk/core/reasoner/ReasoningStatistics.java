@@ -0,0 +1,132 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+
+/**
+ * Statistics about the last loading and materialisation of a {@link Reasoner}:
+ * the time spent in each phase, the number of facts for each loaded predicate,
+ * and the peak memory usage of the process. Times are wall-clock times in
+ * milliseconds, and are 0 for phases that have not been run yet.
+ */
+public interface ReasoningStatistics {
+
+	/**
+	 * Returns the time spent loading the knowledge base, including the time for
+	 * converting facts and rules (see {@link #getConversionTime()}) and for
+	 * reading data sources.
+	 *
+	 * @return loading time in milliseconds
+	 */
+	long getLoadingTime();
+
+	/**
+	 * Returns the part of the loading time spent converting facts and rules to the
+	 * data structures of the reasoning backend.
+	 *
+	 * @return conversion time in milliseconds
+	 */
+	long getConversionTime();
+
+	/**
+	 * Returns the time spent on the last materialisation of inferences.
+	 *
+	 * @return materialisation time in milliseconds
+	 */
+	long getMaterialisationTime();
+
+	/**
+	 * Returns the predicates of the loaded facts, data sources and rule heads.
+	 *
+	 * @return set of predicates
+	 */
+	Set<Predicate> getPredicates();
+
+	/**
+	 * Returns the number of facts for the given predicate in the current
+	 * materialisation, including facts with named nulls.
+	 *
+	 * @param predicate a predicate
+	 * @return number of facts, or 0 if the predicate is not in
+	 *         {@link #getPredicates()}
+	 */
+	long getFactCount(Predicate predicate);
+
+	/**
+	 * Returns the number of facts for the given predicate that are given
+	 * explicitly, or loaded from data sources. Facts that occur in several sources
+	 * are counted once for each source.
+	 *
+	 * @param predicate a predicate
+	 * @return number of asserted facts, or 0 if the predicate is not in
+	 *         {@link #getPredicates()}
+	 */
+	long getAssertedFactCount(Predicate predicate);
+
+	/**
+	 * Returns the number of facts for the given predicate that have been derived
+	 * by rules, i.e., {@link #getFactCount(Predicate)} minus
+	 * {@link #getAssertedFactCount(Predicate)}. This is exact unless several
+	 * sources contain the same facts.
+	 *
+	 * @param predicate a predicate
+	 * @return number of derived facts
+	 */
+	default long getDerivedFactCount(final Predicate predicate) {
+		return Math.max(0, this.getFactCount(predicate) - this.getAssertedFactCount(predicate));
+	}
+
+	/**
+	 * Returns the peak resident set size of the process, which includes memory
+	 * used by native reasoning backends.
+	 *
+	 * @return peak memory usage in bytes, or -1 if it cannot be determined on this
+	 *         platform
+	 */
+	long getPeakMemoryUsage();
+
+	/**
+	 * Returns the profile of each loaded rule during the last materialisation.
+	 * Rules are only profiled if this has been enabled with
+	 * {@link Reasoner#setRuleProfiling(boolean)}.
+	 *
+	 * @return the statistics of each rule, or an empty list if the last
+	 *         materialisation has not been profiled
+	 */
+	List<RuleStatistics> getRuleStatistics();
+
+	/**
+	 * Returns the time spent on each acyclicity and cyclicity check (see
+	 * {@link Reasoner#checkForCycles()}) that has been run for the current rules of
+	 * the knowledge base. Results of these checks are cached, so that the times
+	 * refer to the first run of each check.
+	 *
+	 * @return the time in milliseconds for each checked notion, such as "JA" or
+	 *         "MFC"
+	 */
+	Map<String, Long> getCyclicityCheckTimes();
+
+}
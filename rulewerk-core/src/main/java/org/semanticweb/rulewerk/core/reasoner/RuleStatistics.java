@@ -0,0 +1,63 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.rulewerk.core.model.api.Rule;
+
+/**
+ * Profile of the applications of a single rule during materialisation, as
+ * recorded when rule profiling is enabled with
+ * {@link Reasoner#setRuleProfiling(boolean)}.
+ */
+public interface RuleStatistics {
+
+	/**
+	 * Returns the profiled rule. Besides the rules of the knowledge base, this may
+	 * be an internal rule that the reasoner has added, e.g., to copy facts from a
+	 * data source into a predicate that also occurs in rule heads.
+	 *
+	 * @return the rule
+	 */
+	Rule getRule();
+
+	/**
+	 * Returns how often the rule has been applied. Applications that have been
+	 * skipped because the rule body has not changed are not counted.
+	 *
+	 * @return number of rule applications
+	 */
+	long getApplications();
+
+	/**
+	 * Returns the number of new facts derived by all applications of the rule.
+	 *
+	 * @return number of derived facts
+	 */
+	long getDerivedFacts();
+
+	/**
+	 * Returns the total time spent applying the rule.
+	 *
+	 * @return time in milliseconds
+	 */
+	double getTime();
+
+}
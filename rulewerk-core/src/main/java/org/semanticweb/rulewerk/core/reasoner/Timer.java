@@ -20,24 +20,42 @@ package org.semanticweb.rulewerk.core.reasoner;
  * #L%
  */
 
+import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.ThreadMXBean;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Class for keeping CPU and system times. The class has a number of features
  * that can be used to measure and aggregate times across many threads and many
  * methods.
  * 
- * @implNote This file originates from the ELK Reasoner, where more extensive thread-aware
- * timing was required. The file contains commented out functions from that source that
- * could be used to activate those features here.
+ * Besides the CPU time of a single Java thread, a timer can also record
+ * process-level resources ({@link #RECORD_PROCESS_CPUTIME},
+ * {@link #RECORD_MEMORY}). These include the CPU time of all threads of the
+ * process, in particular of native threads that are not visible to the JVM
+ * (e.g., those of the VLog reasoner), the peak resident set size, and the
+ * changes in JVM heap usage and garbage collection activity. Some of these
+ * values are only available on Linux and are reported as -1 otherwise.
+ * 
+ * Named timers can be obtained with {@link #getNamedTimer(String, int, long)}
+ * and related methods. They are kept in a global thread-safe registry, so that
+ * times measured at different places in the code (or in different threads) can
+ * be aggregated with {@link #getNamedTotalTimer(String)}.
+ * 
+ * @implNote This file originates from the ELK Reasoner, where more extensive
+ *           thread-aware timing was required.
  * 
  * @author Markus Kroetzsch
  */
 public class Timer {
 
-	//private static Logger LOGGER = LoggerFactory.getLogger(Timer.class);
+	private static Logger LOGGER = LoggerFactory.getLogger(Timer.class);
 
 	/** Flag for indicating that no times should be taken (just count runs). */
 	public static final int RECORD_NONE = 0x00000000;
@@ -47,8 +65,21 @@ public class Timer {
 	public static final int RECORD_WALLTIME = 0x00000002;
 	/** Flag for indicating that all supported times should be taken. */
 	public static final int RECORD_ALL = RECORD_CPUTIME | RECORD_WALLTIME;
+	/**
+	 * Flag for indicating that the CPU time of the whole process (all threads,
+	 * including native ones) should be taken.
+	 */
+	public static final int RECORD_PROCESS_CPUTIME = 0x00000004;
+	/**
+	 * Flag for indicating that memory usage (peak resident set size, heap usage)
+	 * and garbage collection activity should be recorded.
+	 */
+	public static final int RECORD_MEMORY = 0x00000008;
+	/** Flag for indicating that all supported times and resources should be taken. */
+	public static final int RECORD_RESOURCES = RECORD_ALL | RECORD_PROCESS_CPUTIME | RECORD_MEMORY;
 
 	static final ThreadMXBean tmxb = ManagementFactory.getThreadMXBean();
+	static final MemoryMXBean mmxb = ManagementFactory.getMemoryMXBean();
 
 	static final ConcurrentHashMap<Timer, Timer> registeredTimers = new ConcurrentHashMap<Timer, Timer>();
 
@@ -58,9 +89,18 @@ public class Timer {
 
 	protected long currentStartCpuTime = -1;
 	protected long currentStartWallTime = -1;
+	protected long currentStartProcessCpuTime = -1;
+	protected long currentStartHeapUsage = -1;
+	protected long currentStartGcCount = -1;
+	protected long currentStartGcTime = -1;
 	protected boolean isRunning = false;
 	protected long totalCpuTime = 0;
 	protected long totalWallTime = 0;
+	protected long totalProcessCpuTime = 0;
+	protected long totalHeapUsageDelta = 0;
+	protected long totalGcCount = 0;
+	protected long totalGcTime = 0;
+	protected long peakResidentSetSize = -1;
 	protected int measurements = 0;
 	protected int threadCount = 0;
 
@@ -73,9 +113,9 @@ public class Timer {
 	 * recorded.
 	 * 
 	 * The thread id can be the actual id of the thread that is measured, or 0
-	 * (invalid id) to not assign the timer to any thread. In this case, no CPU time
-	 * measurement is possible since Java does not allow us to measure the total CPU
-	 * time across all threads.
+	 * (invalid id) to not assign the timer to any thread. In this case, no thread
+	 * CPU time measurement is possible, but the CPU time of the whole process can
+	 * still be recorded with RECORD_PROCESS_CPUTIME.
 	 * 
 	 * @param name
 	 * @param todoFlags
@@ -136,6 +176,15 @@ public class Timer {
 		return threadId;
 	}
 
+	/**
+	 * Get the flags that specify what this timer records.
+	 * 
+	 * @return disjunction of constants like RECORD_CPUTIME
+	 */
+	public int getTodoFlags() {
+		return todoFlags;
+	}
+
 	/**
 	 * Get the total recorded wall clock time in nanoseconds.
 	 * 
@@ -149,6 +198,68 @@ public class Timer {
 		return totalWallTime > 0 && measurements > 0 ? totalWallTime / measurements : -1;
 	}
 
+	/**
+	 * Get the total recorded CPU time of the whole process in nanoseconds. This
+	 * includes the time of all threads, also of native threads that the JVM does
+	 * not manage.
+	 * 
+	 * @return recorded process CPU time in nanoseconds
+	 */
+	public long getTotalProcessCpuTime() {
+		return totalProcessCpuTime;
+	}
+
+	/**
+	 * Get the total change of used JVM heap memory in bytes, summed over all
+	 * start-stop cycles. The value can be negative if garbage collection freed
+	 * more memory than was allocated.
+	 * 
+	 * @return heap usage delta in bytes
+	 */
+	public long getTotalHeapUsageDelta() {
+		return totalHeapUsageDelta;
+	}
+
+	/**
+	 * Get the total number of garbage collections that happened while the timer
+	 * was running.
+	 * 
+	 * @return number of garbage collections
+	 */
+	public long getTotalGcCount() {
+		return totalGcCount;
+	}
+
+	/**
+	 * Get the total (approximate) time spent in garbage collection while the timer
+	 * was running, in milliseconds.
+	 * 
+	 * @return garbage collection time in milliseconds
+	 */
+	public long getTotalGcTime() {
+		return totalGcTime;
+	}
+
+	/**
+	 * Get the peak resident set size (physical memory) of the process in bytes,
+	 * as observed when the timer was last stopped. This value covers the whole
+	 * lifetime of the process up to that point, including native memory.
+	 * 
+	 * @return peak resident set size in bytes, or -1 if not available
+	 */
+	public long getPeakResidentSetSize() {
+		return peakResidentSetSize;
+	}
+
+	/**
+	 * Get the number of completed start-stop cycles.
+	 * 
+	 * @return number of measurements
+	 */
+	public int getMeasurements() {
+		return measurements;
+	}
+
 	/**
 	 * Return true if the timer is running.
 	 * 
@@ -167,6 +278,20 @@ public class Timer {
 		} else {
 			currentStartCpuTime = -1;
 		}
+		if ((todoFlags & RECORD_PROCESS_CPUTIME) != 0) {
+			currentStartProcessCpuTime = getProcessCpuTime();
+		} else {
+			currentStartProcessCpuTime = -1;
+		}
+		if ((todoFlags & RECORD_MEMORY) != 0) {
+			currentStartHeapUsage = mmxb.getHeapMemoryUsage().getUsed();
+			currentStartGcCount = getGcCount();
+			currentStartGcTime = getGcTime();
+		} else {
+			currentStartHeapUsage = -1;
+			currentStartGcCount = -1;
+			currentStartGcTime = -1;
+		}
 		if ((todoFlags & RECORD_WALLTIME) != 0) {
 			currentStartWallTime = System.nanoTime();
 		} else {
@@ -181,8 +306,17 @@ public class Timer {
 	public synchronized void reset() {
 		currentStartCpuTime = -1;
 		currentStartWallTime = -1;
+		currentStartProcessCpuTime = -1;
+		currentStartHeapUsage = -1;
+		currentStartGcCount = -1;
+		currentStartGcTime = -1;
 		totalCpuTime = 0;
 		totalWallTime = 0;
+		totalProcessCpuTime = 0;
+		totalHeapUsageDelta = 0;
+		totalGcCount = 0;
+		totalGcTime = 0;
+		peakResidentSetSize = -1;
 		measurements = 0;
 		isRunning = false;
 		threadCount = 0;
@@ -199,6 +333,11 @@ public class Timer {
 	public synchronized long stop() {
 		long totalTime = -1;
 
+		if ((todoFlags & RECORD_WALLTIME) != 0 && (currentStartWallTime != -1)) {
+			long wallTime = System.nanoTime();
+			totalWallTime += wallTime - currentStartWallTime;
+		}
+
 		if ((todoFlags & RECORD_CPUTIME) != 0 && (currentStartCpuTime != -1)) {
 			long cpuTime = getThreadCpuTime(threadId);
 			if (cpuTime != -1) { // may fail if thread already dead
@@ -207,9 +346,18 @@ public class Timer {
 			}
 		}
 
-		if ((todoFlags & RECORD_WALLTIME) != 0 && (currentStartWallTime != -1)) {
-			long wallTime = System.nanoTime();
-			totalWallTime += wallTime - currentStartWallTime;
+		if ((todoFlags & RECORD_PROCESS_CPUTIME) != 0 && (currentStartProcessCpuTime != -1)) {
+			long processCpuTime = getProcessCpuTime();
+			if (processCpuTime != -1) {
+				totalProcessCpuTime += processCpuTime - currentStartProcessCpuTime;
+			}
+		}
+
+		if ((todoFlags & RECORD_MEMORY) != 0 && (currentStartHeapUsage != -1)) {
+			totalHeapUsageDelta += mmxb.getHeapMemoryUsage().getUsed() - currentStartHeapUsage;
+			totalGcCount += getGcCount() - currentStartGcCount;
+			totalGcTime += getGcTime() - currentStartGcTime;
+			peakResidentSetSize = Math.max(peakResidentSetSize, getProcessPeakResidentSetSize());
 		}
 
 		if (isRunning) {
@@ -219,320 +367,355 @@ public class Timer {
 
 		currentStartWallTime = -1;
 		currentStartCpuTime = -1;
+		currentStartProcessCpuTime = -1;
+		currentStartHeapUsage = -1;
+		currentStartGcCount = -1;
+		currentStartGcTime = -1;
 
 		return totalTime;
 	}
 
-//	/**
-//	 * Print logging information for the timer. The log only shows the recorded time
-//	 * of the completed start-stop cycles. If the timer is still running, then it
-//	 * will not be stopped to add the currently measured time to the output but a
-//	 * warning will be logged.
-//	 * 
-//	 */
-//	public void log() {
-//		if (LOGGER.isInfoEnabled()) {
-//			String timerLabel;
-//			if (threadId != 0) {
-//				timerLabel = name + " (thread " + threadId + ")";
-//			} else if (threadCount > 1) {
-//				timerLabel = name + " (over " + threadCount + " threads)";
-//			} else {
-//				timerLabel = name;
-//			}
-//
-//			if (todoFlags == RECORD_NONE) {
-//				LOGGER.info("Timer " + timerLabel + " recorded " + measurements + " run(s), no times taken");
-//			} else {
-//				String labels = "";
-//				String values = "";
-//				String separator;
-//
-//				if ((todoFlags & RECORD_CPUTIME) != 0 && threadId != 0) {
-//					labels += "CPU";
-//					values += totalCpuTime / 1000000;
-//					separator = "/";
-//				} else {
-//					separator = "";
-//				}
-//				if ((todoFlags & RECORD_WALLTIME) != 0) {
-//					labels += separator + "Wall";
-//					values += separator + totalWallTime / 1000000;
-//				}
-//				if ((todoFlags & RECORD_CPUTIME) != 0 && threadId != 0) {
-//					labels += "/CPU avg";
-//					values += "/" + (float) (totalCpuTime) / measurements / 1000000;
-//				}
-//				if ((todoFlags & RECORD_WALLTIME) != 0) {
-//					labels += "/Wall avg";
-//					values += "/" + (float) (totalWallTime) / measurements / 1000000;
-//				}
-//				if (threadCount > 1) {
-//					if ((todoFlags & RECORD_CPUTIME) != 0 && threadId != 0) {
-//						labels += "/CPU per thread";
-//						values += "/" + (float) (totalCpuTime) / threadCount / 1000000;
-//					}
-//					if ((todoFlags & RECORD_WALLTIME) != 0) {
-//						labels += "/Wall per thread";
-//						values += "/" + (float) (totalWallTime) / threadCount / 1000000;
-//					}
-//				}
-//
-//				LOGGER.info(
-//						"Time for " + timerLabel + " for " + measurements + " run(s) " + labels + " (ms): " + values);
-//			}
-//
-//			if (isRunning) {
-//				LOGGER.warn("Timer " + timerLabel + " logged while it was still running");
-//			}
-//		}
-//	}
-//
-//	/**
-//	 * Start a timer of the given string name for all todos and the current thread.
-//	 * If no such timer exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 */
-//	public static void startNamedTimer(String timerName) {
-//		getNamedTimer(timerName).start();
-//	}
-//
-//	/**
-//	 * Start a timer of the given string name for the current thread. If no such
-//	 * timer exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 */
-//	public static void startNamedTimer(String timerName, int todoFlags) {
-//		getNamedTimer(timerName, todoFlags).start();
-//	}
-//
-//	/**
-//	 * Start a timer of the given string name for the current thread. If no such
-//	 * timer exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 * @param threadId  of the thread to track, or 0 if only system clock should be
-//	 *                  tracked
-//	 */
-//	public static void startNamedTimer(String timerName, int todoFlags, long threadId) {
-//		getNamedTimer(timerName, todoFlags, threadId).start();
-//	}
-//
-//	/**
-//	 * Stop a timer of the given string name for all todos and the current thread.
-//	 * If no such timer exists, -1 will be returned. Otherwise the return value is
-//	 * the CPU time that was measured.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @return CPU time if timer existed and was running, and -1 otherwise
-//	 */
-//	public static long stopNamedTimer(String timerName) {
-//		return stopNamedTimer(timerName, RECORD_ALL, Thread.currentThread().getId());
-//	}
-//
-//	/**
-//	 * Stop a timer of the given string name for the current thread. If no such
-//	 * timer exists, -1 will be returned. Otherwise the return value is the CPU time
-//	 * that was measured.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 * @return CPU time if timer existed and was running, and -1 otherwise
-//	 */
-//	public static long stopNamedTimer(String timerName, int todoFlags) {
-//		return stopNamedTimer(timerName, todoFlags, Thread.currentThread().getId());
-//	}
-//
-//	/**
-//	 * Stop a timer of the given string name for the given thread. If no such timer
-//	 * exists, -1 will be returned. Otherwise the return value is the CPU time that
-//	 * was measured.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 * @param threadId  of the thread to track, or 0 if only system clock should be
-//	 *                  tracked
-//	 * @return CPU time if timer existed and was running, and -1 otherwise
-//	 */
-//	public static long stopNamedTimer(String timerName, int todoFlags, long threadId) {
-//		Timer key = new Timer(timerName, todoFlags, threadId);
-//		if (registeredTimers.containsKey(key)) {
-//			return registeredTimers.get(key).stop();
-//		} else {
-//			return -1;
-//		}
-//	}
-//
-//	/**
-//	 * Reset a timer of the given string name for all todos and the current thread.
-//	 * If no such timer exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 */
-//	public static void resetNamedTimer(String timerName) {
-//		getNamedTimer(timerName).reset();
-//	}
-//
-//	/**
-//	 * Reset a timer of the given string name for the current thread. If no such
-//	 * timer exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 */
-//	public static void resetNamedTimer(String timerName, int todoFlags) {
-//		getNamedTimer(timerName, todoFlags).reset();
-//	}
-//
-//	/**
-//	 * Reset a timer of the given string name for the given thread. If no such timer
-//	 * exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 * @param threadId  of the thread to track, or 0 if only system clock should be
-//	 *                  tracked
-//	 */
-//	public static void resetNamedTimer(String timerName, int todoFlags, long threadId) {
-//		getNamedTimer(timerName, todoFlags, threadId).reset();
-//	}
-//
-//	/**
-//	 * Get a timer of the given string name that takes all possible times (todos)
-//	 * for the current thread. If no such timer exists yet, then it will be newly
-//	 * created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @return timer
-//	 */
-//	public static Timer getNamedTimer(String timerName) {
-//		return getNamedTimer(timerName, RECORD_ALL, Thread.currentThread().getId());
-//	}
-//
-//	/**
-//	 * Returns all registered timers
-//	 * 
-//	 * @return an iterable collection of named timers
-//	 */
-//	public static Iterable<Timer> getNamedTimers() {
-//		return registeredTimers.keySet();
-//	}
-//
-//	/**
-//	 * Get a timer of the given string name and todos for the current thread. If no
-//	 * such timer exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 * @return timer
-//	 */
-//	public static Timer getNamedTimer(String timerName, int todoFlags) {
-//		return getNamedTimer(timerName, todoFlags, Thread.currentThread().getId());
-//	}
-//
-//	/**
-//	 * Get a timer of the given string name for the given thread. If no such timer
-//	 * exists yet, then it will be newly created.
-//	 * 
-//	 * @param timerName the name of the timer
-//	 * @param todoFlags
-//	 * @param threadId  of the thread to track, or 0 if only system clock should be
-//	 *                  tracked
-//	 * @return timer
-//	 */
-//	public static Timer getNamedTimer(String timerName, int todoFlags, long threadId) {
-//		Timer key = new Timer(timerName, todoFlags, threadId);
-//		Timer previous = registeredTimers.putIfAbsent(key, key);
-//		if (previous != null) {
-//			return previous;
-//		}
-//		// else
-//		return key;
-//	}
-//
-//	/**
-//	 * Collect the total times measured by all known named timers of the given name.
-//	 * 
-//	 * @param timerName
-//	 * @return timer
-//	 */
-//	public static Timer getNamedTotalTimer(String timerName) {
-//		long totalCpuTime = 0;
-//		long totalSystemTime = 0;
-//		int measurements = 0;
-//		int threadCount = 0;
-//		int todoFlags = RECORD_NONE;
-//		Timer previousTimer = null;
-//		for (Map.Entry<Timer, Timer> entry : registeredTimers.entrySet()) {
-//			if (entry.getValue().name.equals(timerName)) {
-//				previousTimer = entry.getValue();
-//				threadCount += 1;
-//				totalCpuTime += previousTimer.totalCpuTime;
-//				totalSystemTime += previousTimer.totalWallTime;
-//				measurements += previousTimer.measurements;
-//				todoFlags |= previousTimer.todoFlags;
-//			}
-//		}
-//
-//		if (threadCount == 1) {
-//			return previousTimer;
-//		} else {
-//			Timer result = new Timer(timerName, todoFlags, 0);
-//			result.totalCpuTime = totalCpuTime;
-//			result.totalWallTime = totalSystemTime;
-//			result.measurements = measurements;
-//			result.threadCount = threadCount;
-//			return result;
-//		}
-//	}
-//
-//	public static void logAllNamedTimers(String timerName) {
-//		for (Map.Entry<Timer, Timer> entry : registeredTimers.entrySet()) {
-//			if (entry.getValue().name.equals(timerName)) {
-//				entry.getValue().log();
-//			}
-//		}
-//	}
-//
-//	@Override
-//	public int hashCode() {
-//		// Jenkins hash, see http://www.burtleburtle.net/bob/hash/doobs.html and also
-//		// http://en.wikipedia.org/wiki/Jenkins_hash_function.
-//		int hash = name.hashCode();
-//		hash += (hash << 10);
-//		hash ^= (hash >> 6);
-//		hash += Long.valueOf(threadId).hashCode();
-//		hash += (hash << 10);
-//		hash ^= (hash >> 6);
-//		hash += Integer.valueOf(todoFlags).hashCode();
-//		hash += (hash << 10);
-//		hash ^= (hash >> 6);
-//
-//		hash += (hash << 3);
-//		hash ^= (hash >> 11);
-//		hash += (hash << 15);
-//		return hash;
-//	}
-//
-//	@Override
-//	public boolean equals(Object obj) {
-//		if (this == obj) {
-//			return true;
-//		} else if (obj == null) {
-//			return false;
-//		} else if (getClass() != obj.getClass()) {
-//			return false;
-//		} else if (threadId == ((Timer) obj).threadId && todoFlags == ((Timer) obj).todoFlags
-//				&& name.equals(((Timer) obj).name)) {
-//			return true;
-//		} else {
-//			return false;
-//		}
-//	}
+	/**
+	 * Print logging information for the timer. The log only shows the recorded time
+	 * of the completed start-stop cycles. If the timer is still running, then it
+	 * will not be stopped to add the currently measured time to the output but a
+	 * warning will be logged.
+	 * 
+	 */
+	public synchronized void log() {
+		if (LOGGER.isInfoEnabled()) {
+			String timerLabel;
+			if (threadId != 0) {
+				timerLabel = name + " (thread " + threadId + ")";
+			} else if (threadCount > 1) {
+				timerLabel = name + " (over " + threadCount + " threads)";
+			} else {
+				timerLabel = name;
+			}
+
+			if (todoFlags == RECORD_NONE) {
+				LOGGER.info("Timer " + timerLabel + " recorded " + measurements + " run(s), no times taken");
+			} else {
+				String labels = "";
+				String values = "";
+				String separator;
+
+				if ((todoFlags & RECORD_CPUTIME) != 0 && threadId != 0) {
+					labels += "CPU";
+					values += totalCpuTime / 1000000;
+					separator = "/";
+				} else {
+					separator = "";
+				}
+				if ((todoFlags & RECORD_WALLTIME) != 0) {
+					labels += separator + "Wall";
+					values += separator + totalWallTime / 1000000;
+					separator = "/";
+				}
+				if ((todoFlags & RECORD_PROCESS_CPUTIME) != 0) {
+					labels += separator + "Process CPU";
+					values += separator + totalProcessCpuTime / 1000000;
+					separator = "/";
+				}
+				if ((todoFlags & RECORD_CPUTIME) != 0 && threadId != 0) {
+					labels += separator + "CPU avg";
+					values += separator + (float) (totalCpuTime) / measurements / 1000000;
+				}
+				if ((todoFlags & RECORD_WALLTIME) != 0) {
+					labels += separator + "Wall avg";
+					values += separator + (float) (totalWallTime) / measurements / 1000000;
+				}
+				if (threadCount > 1) {
+					if ((todoFlags & RECORD_CPUTIME) != 0 && threadId != 0) {
+						labels += "/CPU per thread";
+						values += "/" + (float) (totalCpuTime) / threadCount / 1000000;
+					}
+					if ((todoFlags & RECORD_WALLTIME) != 0) {
+						labels += "/Wall per thread";
+						values += "/" + (float) (totalWallTime) / threadCount / 1000000;
+					}
+				}
+
+				if (!labels.isEmpty()) {
+					LOGGER.info("Time for " + timerLabel + " for " + measurements + " run(s) " + labels + " (ms): "
+							+ values);
+				}
+				if ((todoFlags & RECORD_MEMORY) != 0) {
+					LOGGER.info("Memory for " + timerLabel + " for " + measurements + " run(s): peak RSS "
+							+ (peakResidentSetSize == -1 ? "unknown" : peakResidentSetSize / (1024 * 1024) + "MB")
+							+ ", heap delta " + totalHeapUsageDelta / (1024 * 1024) + "MB, " + totalGcCount
+							+ " GC run(s) taking " + totalGcTime + "ms");
+				}
+			}
+
+			if (isRunning) {
+				LOGGER.warn("Timer " + timerLabel + " logged while it was still running");
+			}
+		}
+	}
+
+	/**
+	 * Start a timer of the given string name for all todos and the current thread.
+	 * If no such timer exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 */
+	public static void startNamedTimer(String timerName) {
+		getNamedTimer(timerName).start();
+	}
+
+	/**
+	 * Start a timer of the given string name for the current thread. If no such
+	 * timer exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 */
+	public static void startNamedTimer(String timerName, int todoFlags) {
+		getNamedTimer(timerName, todoFlags).start();
+	}
+
+	/**
+	 * Start a timer of the given string name for the current thread. If no such
+	 * timer exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 * @param threadId  of the thread to track, or 0 if only system clock should be
+	 *                  tracked
+	 */
+	public static void startNamedTimer(String timerName, int todoFlags, long threadId) {
+		getNamedTimer(timerName, todoFlags, threadId).start();
+	}
+
+	/**
+	 * Stop a timer of the given string name for all todos and the current thread.
+	 * If no such timer exists, -1 will be returned. Otherwise the return value is
+	 * the CPU time that was measured.
+	 * 
+	 * @param timerName the name of the timer
+	 * @return CPU time if timer existed and was running, and -1 otherwise
+	 */
+	public static long stopNamedTimer(String timerName) {
+		return stopNamedTimer(timerName, RECORD_ALL, Thread.currentThread().getId());
+	}
+
+	/**
+	 * Stop a timer of the given string name for the current thread. If no such
+	 * timer exists, -1 will be returned. Otherwise the return value is the CPU time
+	 * that was measured.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 * @return CPU time if timer existed and was running, and -1 otherwise
+	 */
+	public static long stopNamedTimer(String timerName, int todoFlags) {
+		return stopNamedTimer(timerName, todoFlags, Thread.currentThread().getId());
+	}
+
+	/**
+	 * Stop a timer of the given string name for the given thread. If no such timer
+	 * exists, -1 will be returned. Otherwise the return value is the CPU time that
+	 * was measured.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 * @param threadId  of the thread to track, or 0 if only system clock should be
+	 *                  tracked
+	 * @return CPU time if timer existed and was running, and -1 otherwise
+	 */
+	public static long stopNamedTimer(String timerName, int todoFlags, long threadId) {
+		Timer timer = registeredTimers.get(new Timer(timerName, todoFlags, threadId));
+		if (timer != null) {
+			return timer.stop();
+		} else {
+			return -1;
+		}
+	}
+
+	/**
+	 * Reset a timer of the given string name for all todos and the current thread.
+	 * If no such timer exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 */
+	public static void resetNamedTimer(String timerName) {
+		getNamedTimer(timerName).reset();
+	}
+
+	/**
+	 * Reset a timer of the given string name for the current thread. If no such
+	 * timer exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 */
+	public static void resetNamedTimer(String timerName, int todoFlags) {
+		getNamedTimer(timerName, todoFlags).reset();
+	}
+
+	/**
+	 * Reset a timer of the given string name for the given thread. If no such timer
+	 * exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 * @param threadId  of the thread to track, or 0 if only system clock should be
+	 *                  tracked
+	 */
+	public static void resetNamedTimer(String timerName, int todoFlags, long threadId) {
+		getNamedTimer(timerName, todoFlags, threadId).reset();
+	}
+
+	/**
+	 * Get a timer of the given string name that takes all possible times (todos)
+	 * for the current thread. If no such timer exists yet, then it will be newly
+	 * created.
+	 * 
+	 * @param timerName the name of the timer
+	 * @return timer
+	 */
+	public static Timer getNamedTimer(String timerName) {
+		return getNamedTimer(timerName, RECORD_ALL, Thread.currentThread().getId());
+	}
+
+	/**
+	 * Returns all registered timers
+	 * 
+	 * @return an iterable collection of named timers
+	 */
+	public static Iterable<Timer> getNamedTimers() {
+		return registeredTimers.keySet();
+	}
+
+	/**
+	 * Get a timer of the given string name and todos for the current thread. If no
+	 * such timer exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 * @return timer
+	 */
+	public static Timer getNamedTimer(String timerName, int todoFlags) {
+		return getNamedTimer(timerName, todoFlags, Thread.currentThread().getId());
+	}
+
+	/**
+	 * Get a timer of the given string name for the given thread. If no such timer
+	 * exists yet, then it will be newly created.
+	 * 
+	 * @param timerName the name of the timer
+	 * @param todoFlags
+	 * @param threadId  of the thread to track, or 0 if only system clock should be
+	 *                  tracked
+	 * @return timer
+	 */
+	public static Timer getNamedTimer(String timerName, int todoFlags, long threadId) {
+		Timer key = new Timer(timerName, todoFlags, threadId);
+		Timer previous = registeredTimers.putIfAbsent(key, key);
+		if (previous != null) {
+			return previous;
+		}
+		// else
+		return key;
+	}
+
+	/**
+	 * Collect the total times measured by all known named timers of the given name.
+	 * 
+	 * @param timerName
+	 * @return timer
+	 */
+	public static Timer getNamedTotalTimer(String timerName) {
+		long totalCpuTime = 0;
+		long totalSystemTime = 0;
+		long totalProcessCpuTime = 0;
+		long totalHeapUsageDelta = 0;
+		long totalGcCount = 0;
+		long totalGcTime = 0;
+		long peakResidentSetSize = -1;
+		int measurements = 0;
+		int threadCount = 0;
+		int todoFlags = RECORD_NONE;
+		Timer previousTimer = null;
+		for (Timer timer : registeredTimers.keySet()) {
+			if (timer.name.equals(timerName)) {
+				previousTimer = timer;
+				threadCount += 1;
+				synchronized (timer) {
+					totalCpuTime += timer.totalCpuTime;
+					totalSystemTime += timer.totalWallTime;
+					totalProcessCpuTime += timer.totalProcessCpuTime;
+					totalHeapUsageDelta += timer.totalHeapUsageDelta;
+					totalGcCount += timer.totalGcCount;
+					totalGcTime += timer.totalGcTime;
+					peakResidentSetSize = Math.max(peakResidentSetSize, timer.peakResidentSetSize);
+					measurements += timer.measurements;
+				}
+				todoFlags |= timer.todoFlags;
+			}
+		}
+
+		if (threadCount == 1) {
+			return previousTimer;
+		} else {
+			Timer result = new Timer(timerName, todoFlags, 0);
+			result.totalCpuTime = totalCpuTime;
+			result.totalWallTime = totalSystemTime;
+			result.totalProcessCpuTime = totalProcessCpuTime;
+			result.totalHeapUsageDelta = totalHeapUsageDelta;
+			result.totalGcCount = totalGcCount;
+			result.totalGcTime = totalGcTime;
+			result.peakResidentSetSize = peakResidentSetSize;
+			result.measurements = measurements;
+			result.threadCount = threadCount;
+			return result;
+		}
+	}
+
+	public static void logAllNamedTimers(String timerName) {
+		for (Timer timer : registeredTimers.keySet()) {
+			if (timer.name.equals(timerName)) {
+				timer.log();
+			}
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		// Jenkins hash, see http://www.burtleburtle.net/bob/hash/doobs.html and also
+		// http://en.wikipedia.org/wiki/Jenkins_hash_function.
+		int hash = name.hashCode();
+		hash += (hash << 10);
+		hash ^= (hash >> 6);
+		hash += Long.valueOf(threadId).hashCode();
+		hash += (hash << 10);
+		hash ^= (hash >> 6);
+		hash += Integer.valueOf(todoFlags).hashCode();
+		hash += (hash << 10);
+		hash ^= (hash >> 6);
+
+		hash += (hash << 3);
+		hash ^= (hash >> 11);
+		hash += (hash << 15);
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj == null) {
+			return false;
+		} else if (getClass() != obj.getClass()) {
+			return false;
+		} else if (threadId == ((Timer) obj).threadId && todoFlags == ((Timer) obj).todoFlags
+				&& name.equals(((Timer) obj).name)) {
+			return true;
+		} else {
+			return false;
+		}
+	}
 
 	protected static long getThreadCpuTime(long threadId) {
 		if (threadId == 0) { // generally invalid
@@ -542,4 +725,48 @@ public class Timer {
 		}
 	}
 
+	/**
+	 * Get the CPU time used by the whole process so far, in nanoseconds. The value
+	 * is taken from the platform MXBean if supported, and from
+	 * {@code /proc/self/stat} otherwise.
+	 * 
+	 * @return process CPU time in nanoseconds, or -1 if not available
+	 */
+	public static long getProcessCpuTime() {
+		final OperatingSystemMXBean osmxb = ManagementFactory.getOperatingSystemMXBean();
+		if (osmxb instanceof com.sun.management.OperatingSystemMXBean) {
+			final long processCpuTime = ((com.sun.management.OperatingSystemMXBean) osmxb).getProcessCpuTime();
+			if (processCpuTime != -1) {
+				return processCpuTime;
+			}
+		}
+		return ProcessResources.readProcessCpuTime();
+	}
+
+	/**
+	 * Get the peak resident set size (physical memory) of the process so far, in
+	 * bytes. The value is taken from {@code /proc/self/status}.
+	 * 
+	 * @return peak resident set size in bytes, or -1 if not available
+	 */
+	public static long getProcessPeakResidentSetSize() {
+		return ProcessResources.readPeakResidentSetSize();
+	}
+
+	static long getGcCount() {
+		long count = 0;
+		for (final GarbageCollectorMXBean gcmxb : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gcmxb.getCollectionCount());
+		}
+		return count;
+	}
+
+	static long getGcTime() {
+		long time = 0;
+		for (final GarbageCollectorMXBean gcmxb : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gcmxb.getCollectionTime());
+		}
+		return time;
+	}
+
 }
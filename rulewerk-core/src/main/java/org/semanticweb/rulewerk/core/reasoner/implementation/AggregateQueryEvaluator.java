@@ -0,0 +1,469 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate.Function;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator.TupleSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator.Tuple;
+
+/**
+ * Evaluates aggregate queries: the answers to an atomic query are grouped by
+ * the values of some of its variables, and aggregates are computed for each
+ * group. Grouping works on numeric term ids obtained from a {@link TupleSource},
+ * and terms are only decoded for the final groups and for comparing values of
+ * {@link Function#MIN} and {@link Function#MAX} aggregates.
+ *
+ * If the number of groups, together with the values kept for
+ * {@link Function#COUNTDISTINCT} aggregates, exceeds a limit, the groups in
+ * memory and all further answers are partitioned by a hash of their group into
+ * temporary files, which are then aggregated one by one (and partitioned further
+ * if necessary). Groups are written to the files as rows that carry the number
+ * of answers they represent, so that answers are read only once.
+ */
+public class AggregateQueryEvaluator {
+
+	/**
+	 * Default maximal number of groups and distinct values that are kept in
+	 * memory at once.
+	 */
+	public static final int DEFAULT_MAX_GROUPS_IN_MEMORY = 1 << 20;
+
+	/**
+	 * Maximal number of times that answers are partitioned; partitions at this
+	 * depth are aggregated in memory regardless of their number of groups.
+	 */
+	static final int MAX_SPILL_DEPTH = 4;
+
+	private final TupleSource tupleSource;
+	private int maxGroupsInMemory = DEFAULT_MAX_GROUPS_IN_MEMORY;
+	private Path spillDirectory;
+	private int spillFileCount;
+
+	public AggregateQueryEvaluator(final TupleSource tupleSource) {
+		this.tupleSource = tupleSource;
+	}
+
+	/**
+	 * Sets the maximal number of groups that are kept in memory at once, where
+	 * each value that is kept for a {@link Function#COUNTDISTINCT} aggregate
+	 * counts as a group. Answers of queries with more groups are spilled to
+	 * temporary files.
+	 *
+	 * @param maxGroupsInMemory a positive number
+	 */
+	public void setMaxGroupsInMemory(final int maxGroupsInMemory) {
+		Validate.isTrue(maxGroupsInMemory > 0, "Maximal number of groups must be positive!");
+		this.maxGroupsInMemory = maxGroupsInMemory;
+	}
+
+	public int getMaxGroupsInMemory() {
+		return this.maxGroupsInMemory;
+	}
+
+	/**
+	 * Sets the directory for temporary files.
+	 *
+	 * @param spillDirectory a directory, or {@code null} to use the default
+	 *                       directory for temporary files
+	 */
+	public void setSpillDirectory(final Path spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	public Path getSpillDirectory() {
+		return this.spillDirectory;
+	}
+
+	/**
+	 * @return the number of temporary files that have been written so far
+	 */
+	public int getSpillFileCount() {
+		return this.spillFileCount;
+	}
+
+	/**
+	 * Answers an aggregate query on the given reasoner, using
+	 * {@link Reasoner#answerQuery(PositiveLiteral, boolean)} to obtain the answers
+	 * to the query atom.
+	 *
+	 * @param reasoner       the reasoner
+	 * @param query          the query atom
+	 * @param groupVariables the variables whose values define the groups
+	 * @param aggregates     the aggregates to compute for each group
+	 * @param includeNulls   if {@code false}, answers with named nulls are ignored
+	 * @return one result per group, see
+	 *         {@link #evaluate(PositiveLiteral, List, List, boolean)}
+	 */
+	public static QueryResultIterator answerAggregateQuery(final Reasoner reasoner, final PositiveLiteral query,
+			final List<Variable> groupVariables, final List<Aggregate> aggregates, final boolean includeNulls) {
+		final ConjunctiveQueryEvaluator.ReasonerTupleSource tupleSource = new ConjunctiveQueryEvaluator.ReasonerTupleSource(
+				reasoner);
+		final List<QueryResult> results = new AggregateQueryEvaluator(tupleSource).evaluate(query, groupVariables,
+				aggregates, includeNulls);
+		return new ListQueryResultIterator(results, tupleSource.correctness);
+	}
+
+	/**
+	 * Answers the given aggregate query.
+	 *
+	 * @param query          the query atom
+	 * @param groupVariables the variables whose values define the groups
+	 * @param aggregates     the aggregates to compute for each group
+	 * @param includeNulls   if {@code false}, answers with named nulls are ignored
+	 * @param correctness    the correctness of the results
+	 * @return an iterator over one result per group
+	 */
+	public QueryResultIterator answer(final PositiveLiteral query, final List<Variable> groupVariables,
+			final List<Aggregate> aggregates, final boolean includeNulls, final Correctness correctness) {
+		return new ListQueryResultIterator(this.evaluate(query, groupVariables, aggregates, includeNulls),
+				correctness);
+	}
+
+	/**
+	 * Computes the groups and aggregates of the given aggregate query. Each result
+	 * consists of the values of the group variables, followed by the values of
+	 * the aggregates: counts are returned as {@code xsd:integer} literals, and
+	 * minimal and maximal values are compared with {@link TermComparator}. Without
+	 * group variables, there is a single group; if there are no answers at all,
+	 * the result is a single row of zero counts if all aggregates are counts, and
+	 * empty otherwise. The order of the results is not specified.
+	 *
+	 * @param query          the query atom
+	 * @param groupVariables the variables whose values define the groups
+	 * @param aggregates     the aggregates to compute for each group
+	 * @param includeNulls   if {@code false}, answers with named nulls are ignored
+	 * @return the results
+	 */
+	public List<QueryResult> evaluate(final PositiveLiteral query, final List<Variable> groupVariables,
+			final List<Aggregate> aggregates, final boolean includeNulls) {
+		Validate.notNull(query, "Query atom must not be null!");
+		Validate.noNullElements(groupVariables, "Group variables must not be null!");
+		Validate.noNullElements(aggregates, "Aggregates must not be null!");
+
+		final Aggregation aggregation = new Aggregation(query, groupVariables, aggregates);
+		final List<QueryResult> results = new ArrayList<>();
+		try {
+			this.aggregate(action -> this.tupleSource.forEachTuple(query, includeNulls,
+					tuple -> action.accept(aggregation.project(tuple))), aggregation, 0, results);
+		} catch (final IOException e) {
+			throw new RulewerkRuntimeException("Could not use temporary files for aggregation: " + e.getMessage(), e);
+		} catch (final UncheckedIOException e) {
+			throw new RulewerkRuntimeException(
+					"Could not use temporary files for aggregation: " + e.getCause().getMessage(), e.getCause());
+		}
+
+		if (results.isEmpty() && groupVariables.isEmpty() && aggregation.onlyCounts()) {
+			final List<Term> zeros = new ArrayList<>();
+			for (int i = 0; i < aggregates.size(); i++) {
+				zeros.add(makeInteger(0));
+			}
+			results.add(new QueryResultImpl(zeros));
+		}
+		return results;
+	}
+
+	static Term makeInteger(final long value) {
+		return Expressions.makeDatatypeConstant(String.valueOf(value), PrefixDeclarationRegistry.XSD_INTEGER);
+	}
+
+	/**
+	 * Aggregates the given rows and adds the resulting groups to the results. If
+	 * the grouping exceeds the limit in memory, its groups and all remaining rows
+	 * are written to {@link SpillFile#PARTITIONS} temporary files, choosing the
+	 * file by a hash of the group of each row that depends on the depth, and the
+	 * files are aggregated one by one. Rows are aggregated in memory regardless of
+	 * the limit at depth {@link #MAX_SPILL_DEPTH}.
+	 */
+	private void aggregate(final Consumer<Consumer<long[]>> rows, final Aggregation aggregation, final int depth,
+			final List<QueryResult> results) throws IOException {
+		final Aggregation.Grouping grouping = aggregation.new Grouping();
+		final List<SpillFile> spillFiles = new ArrayList<>();
+		try {
+			rows.accept(row -> {
+				try {
+					if (!spillFiles.isEmpty()) {
+						spillFiles.get(SpillFile.partition(row, aggregation.groupSize, depth)).write(row);
+						return;
+					}
+					grouping.add(row);
+					if (depth < MAX_SPILL_DEPTH && grouping.size() > this.maxGroupsInMemory) {
+						spillFiles.addAll(SpillFile.createPartitions(this.spillDirectory, aggregation.rowSize));
+						this.spillFileCount += spillFiles.size();
+						grouping.writeTo(spillFiles, depth);
+					}
+				} catch (final IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			if (spillFiles.isEmpty()) {
+				aggregation.decode(grouping, results);
+				return;
+			}
+			for (final SpillFile spillFile : spillFiles) {
+				spillFile.finishWriting();
+			}
+			for (final SpillFile spillFile : spillFiles) {
+				this.aggregate(action -> readRows(spillFile, action), aggregation, depth + 1, results);
+				spillFile.delete();
+			}
+		} finally {
+			SpillFile.deleteAll(spillFiles);
+		}
+	}
+
+	private static void readRows(final SpillFile spillFile, final Consumer<long[]> action) {
+		try (SpillFile.Reader reader = spillFile.openReader()) {
+			long[] row;
+			while ((row = reader.read()) != null) {
+				action.accept(row);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * The aggregates of one group.
+	 */
+	private static final class GroupState {
+		long count;
+		final long[] values;
+		final Set<Long>[] distinctValues;
+
+		@SuppressWarnings("unchecked")
+		GroupState(final int aggregateCount) {
+			this.values = new long[aggregateCount];
+			this.distinctValues = new Set[aggregateCount];
+		}
+	}
+
+	/**
+	 * The layout of an aggregate query: rows consist of the ids of the group
+	 * variables, followed by one id for each aggregate (0 for counts without
+	 * variable), followed by the number of answers that the row represents.
+	 */
+	private final class Aggregation {
+		final int groupSize;
+		final int rowSize;
+		final int[] positions;
+		final Function[] functions;
+		final Map<Long, Term> termCache = new HashMap<>();
+
+		Aggregation(final PositiveLiteral query, final List<Variable> groupVariables,
+				final List<Aggregate> aggregates) {
+			final List<Term> arguments = query.getArguments();
+			this.groupSize = groupVariables.size();
+			this.rowSize = this.groupSize + aggregates.size() + 1;
+			this.positions = new int[this.rowSize - 1];
+			this.functions = new Function[aggregates.size()];
+			for (int i = 0; i < this.groupSize; i++) {
+				this.positions[i] = getPosition(arguments, groupVariables.get(i));
+			}
+			for (int i = 0; i < aggregates.size(); i++) {
+				final Aggregate aggregate = aggregates.get(i);
+				this.functions[i] = aggregate.getFunction();
+				this.positions[this.groupSize + i] = aggregate.getVariable() == null ? -1
+						: getPosition(arguments, aggregate.getVariable());
+			}
+		}
+
+		private int getPosition(final List<Term> arguments, final Variable variable) {
+			final int position = arguments.indexOf(variable);
+			if (position < 0) {
+				throw new IllegalArgumentException("Variable " + variable + " does not occur in the query.");
+			}
+			return position;
+		}
+
+		boolean onlyCounts() {
+			for (final Function function : this.functions) {
+				if (function != Function.COUNT && function != Function.COUNTDISTINCT) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		long[] project(final long[] tuple) {
+			final long[] row = new long[this.rowSize];
+			for (int i = 0; i < this.positions.length; i++) {
+				row[i] = this.positions[i] < 0 ? 0 : tuple[this.positions[i]];
+			}
+			row[this.rowSize - 1] = 1;
+			return row;
+		}
+
+		Term getTerm(final long id) {
+			return this.termCache.computeIfAbsent(id, AggregateQueryEvaluator.this.tupleSource::getTerm);
+		}
+
+		/**
+		 * Decodes the groups of the given grouping and adds them to the results.
+		 * The term cache is cleared afterwards, so that it only grows with the
+		 * number of groups in memory.
+		 */
+		void decode(final Grouping grouping, final List<QueryResult> results) {
+			for (final Map.Entry<Tuple, GroupState> entry : grouping.groups.entrySet()) {
+				final List<Term> terms = new ArrayList<>(this.rowSize);
+				for (final long id : entry.getKey().ids) {
+					terms.add(this.getTerm(id));
+				}
+				final GroupState state = entry.getValue();
+				for (int i = 0; i < this.functions.length; i++) {
+					switch (this.functions[i]) {
+					case COUNT:
+						terms.add(makeInteger(state.count));
+						break;
+					case COUNTDISTINCT:
+						terms.add(makeInteger(state.distinctValues[i].size()));
+						break;
+					default:
+						terms.add(this.getTerm(state.values[i]));
+					}
+				}
+				results.add(new QueryResultImpl(terms));
+			}
+			this.termCache.clear();
+		}
+
+		/**
+		 * Groups rows in a hash table.
+		 */
+		final class Grouping {
+			final Map<Tuple, GroupState> groups = new HashMap<>();
+			private long distinctValueCount;
+
+			/**
+			 * @return the number of groups plus the number of values kept for
+			 *         {@link Function#COUNTDISTINCT} aggregates
+			 */
+			long size() {
+				return this.groups.size() + this.distinctValueCount;
+			}
+
+			void add(final long[] row) {
+				final Tuple key = new Tuple(Arrays.copyOf(row, Aggregation.this.groupSize));
+				GroupState state = this.groups.get(key);
+				if (state == null) {
+					state = new GroupState(Aggregation.this.functions.length);
+					this.groups.put(key, state);
+					for (int i = 0; i < Aggregation.this.functions.length; i++) {
+						final long value = row[Aggregation.this.groupSize + i];
+						state.values[i] = value;
+						if (Aggregation.this.functions[i] == Function.COUNTDISTINCT) {
+							state.distinctValues[i] = new HashSet<>();
+							state.distinctValues[i].add(value);
+							this.distinctValueCount++;
+						}
+					}
+				} else {
+					for (int i = 0; i < Aggregation.this.functions.length; i++) {
+						final long value = row[Aggregation.this.groupSize + i];
+						switch (Aggregation.this.functions[i]) {
+						case COUNTDISTINCT:
+							if (state.distinctValues[i].add(value)) {
+								this.distinctValueCount++;
+							}
+							break;
+						case MIN:
+							if (value != state.values[i] && TermComparator.INSTANCE.compare(getTerm(value),
+									getTerm(state.values[i])) < 0) {
+								state.values[i] = value;
+							}
+							break;
+						case MAX:
+							if (value != state.values[i] && TermComparator.INSTANCE.compare(getTerm(value),
+									getTerm(state.values[i])) > 0) {
+								state.values[i] = value;
+							}
+							break;
+						default:
+							break;
+						}
+					}
+				}
+				state.count += row[Aggregation.this.rowSize - 1];
+			}
+
+			/**
+			 * Writes the groups to the given spill files, and removes them from memory.
+			 * Each group is written as one row that carries its count and its minimal
+			 * and maximal values, and one further row with a count of zero for each
+			 * additional value of its {@link Function#COUNTDISTINCT} aggregates.
+			 */
+			void writeTo(final List<SpillFile> spillFiles, final int depth) throws IOException {
+				final int aggregateCount = Aggregation.this.functions.length;
+				for (final Map.Entry<Tuple, GroupState> entry : this.groups.entrySet()) {
+					final GroupState state = entry.getValue();
+					final long[] row = Arrays.copyOf(entry.getKey().ids, Aggregation.this.rowSize);
+					System.arraycopy(state.values, 0, row, Aggregation.this.groupSize, aggregateCount);
+					@SuppressWarnings("unchecked")
+					final Iterator<Long>[] distinctValues = new Iterator[aggregateCount];
+					int rowCount = 1;
+					for (int i = 0; i < aggregateCount; i++) {
+						if (state.distinctValues[i] != null) {
+							distinctValues[i] = state.distinctValues[i].iterator();
+							rowCount = Math.max(rowCount, state.distinctValues[i].size());
+						}
+					}
+					final SpillFile spillFile = spillFiles
+							.get(SpillFile.partition(row, Aggregation.this.groupSize, depth));
+					for (int r = 0; r < rowCount; r++) {
+						for (int i = 0; i < aggregateCount; i++) {
+							if (distinctValues[i] != null && distinctValues[i].hasNext()) {
+								row[Aggregation.this.groupSize + i] = distinctValues[i].next();
+							}
+						}
+						row[Aggregation.this.rowSize - 1] = r == 0 ? state.count : 0;
+						spillFile.write(row);
+					}
+				}
+				this.groups.clear();
+				this.distinctValueCount = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.NoSuchElementException;
+
+import org.semanticweb.rulewerk.core.exceptions.QueryCancelledException;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryOptions;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+
+/**
+ * A {@link QueryResultIterator} that stops iterating over the results of
+ * another iterator when the limits of the given {@link QueryOptions} are
+ * exceeded. The limits are checked before every {@link #CHECK_INTERVAL}-th
+ * result and before every batch. When they are exceeded, the underlying
+ * iterator is closed and a {@link QueryCancelledException} is thrown.
+ */
+public class CancellableQueryResultIterator implements QueryResultIterator {
+
+	/**
+	 * Number of results after which the limits are checked again.
+	 */
+	public static final int CHECK_INTERVAL = 256;
+
+	private final QueryResultIterator queryResultIterator;
+	private final QueryOptions options;
+	private int resultsUntilCheck = 0;
+	private boolean closed = false;
+
+	/**
+	 * Creates an iterator that stops when the given options are exceeded.
+	 *
+	 * @param queryResultIterator the iterator to read results from
+	 * @param options             the limits of the iteration
+	 */
+	public CancellableQueryResultIterator(final QueryResultIterator queryResultIterator,
+			final QueryOptions options) {
+		this.queryResultIterator = queryResultIterator;
+		this.options = options;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.closed) {
+			return false;
+		}
+		if (this.resultsUntilCheck == 0) {
+			this.check();
+			this.resultsUntilCheck = CHECK_INTERVAL;
+		}
+		return this.queryResultIterator.hasNext();
+	}
+
+	@Override
+	public QueryResult next() {
+		if (!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		this.resultsUntilCheck--;
+		return this.queryResultIterator.next();
+	}
+
+	@Override
+	public QueryResultBatch nextBatch(final int maxRows) {
+		if (this.closed) {
+			return QueryResultIterator.super.nextBatch(maxRows);
+		}
+		this.check();
+		this.resultsUntilCheck = CHECK_INTERVAL;
+		return this.queryResultIterator.nextBatch(maxRows);
+	}
+
+	private void check() {
+		try {
+			this.options.checkNotExceeded();
+		} catch (final QueryCancelledException e) {
+			this.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		return this.queryResultIterator.getCorrectness();
+	}
+
+	@Override
+	public void close() {
+		if (!this.closed) {
+			this.closed = true;
+			this.queryResultIterator.close();
+		}
+	}
+
+}
@@ -0,0 +1,563 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+
+/**
+ * Evaluates conjunctive queries over the extensions of atomic queries, using
+ * hash joins on numeric term ids. Atoms are joined in a greedy order that
+ * prefers small extensions and avoids cartesian products. Variables that are
+ * not needed for later joins or for the answer are projected away as early as
+ * possible, and duplicates are eliminated, so that the answers are distinct.
+ *
+ * The extensions of the atoms are obtained from a {@link TupleSource}, which
+ * allows reasoners to join their internal term ids directly and to decode only
+ * the final answers.
+ */
+public class ConjunctiveQueryEvaluator {
+
+	/**
+	 * Source of the tuples of atomic queries, represented by numeric term ids.
+	 */
+	public interface TupleSource {
+
+		/**
+		 * Estimates the number of answers to the given atomic query. Used for
+		 * choosing the join order.
+		 *
+		 * @param atom an atomic query
+		 * @return the (estimated) number of answers
+		 */
+		long count(PositiveLiteral atom);
+
+		/**
+		 * Performs the given action for each answer to the given atomic query. Each
+		 * answer is given as the ids of the terms of the matching fact, one for each
+		 * position of {@code atom}.
+		 *
+		 * @param atom   an atomic query
+		 * @param action the action to perform for each answer
+		 */
+		void forEachTuple(PositiveLiteral atom, Consumer<long[]> action);
+
+		/**
+		 * Performs the given action for each answer to the given atomic query, as
+		 * {@link #forEachTuple(PositiveLiteral, Consumer)}, but optionally omits
+		 * answers that contain named nulls. The default implementation decodes the
+		 * terms of each answer to detect named nulls.
+		 *
+		 * @param atom         an atomic query
+		 * @param includeNulls if {@code false}, answers that contain named nulls are
+		 *                     omitted
+		 * @param action       the action to perform for each answer
+		 */
+		default void forEachTuple(final PositiveLiteral atom, final boolean includeNulls,
+				final Consumer<long[]> action) {
+			if (includeNulls) {
+				this.forEachTuple(atom, action);
+			} else {
+				this.forEachTuple(atom, tuple -> {
+					for (final long id : tuple) {
+						if (this.getTerm(id).getType() == TermType.NAMED_NULL) {
+							return;
+						}
+					}
+					action.accept(tuple);
+				});
+			}
+		}
+
+		/**
+		 * Returns an iterator over the answers to the given atomic query, in the same
+		 * form as {@link #forEachTuple(PositiveLiteral, boolean, Consumer)}. The
+		 * default implementation collects all answers first; sources that can
+		 * iterate lazily should override it.
+		 *
+		 * @param atom         an atomic query
+		 * @param includeNulls if {@code false}, answers that contain named nulls are
+		 *                     omitted
+		 * @return an iterator that must be closed after use
+		 */
+		default TupleIterator iterateTuples(final PositiveLiteral atom, final boolean includeNulls) {
+			final List<long[]> tuples = new ArrayList<>();
+			this.forEachTuple(atom, includeNulls, tuples::add);
+			final Iterator<long[]> iterator = tuples.iterator();
+			return new TupleIterator() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public long[] next() {
+					return iterator.next();
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+
+		/**
+		 * Decodes a term id that has been returned by
+		 * {@link #forEachTuple(PositiveLiteral, Consumer)}.
+		 *
+		 * @param id a term id
+		 * @return the corresponding term
+		 */
+		Term getTerm(long id);
+	}
+
+	/**
+	 * Iterator over the answers of an atomic query, given as tuples of term ids.
+	 */
+	public interface TupleIterator extends Iterator<long[]>, AutoCloseable {
+		@Override
+		void close();
+	}
+
+	private final TupleSource tupleSource;
+
+	public ConjunctiveQueryEvaluator(final TupleSource tupleSource) {
+		this.tupleSource = tupleSource;
+	}
+
+	/**
+	 * Answers a conjunctive query on the given reasoner, by evaluating each of its
+	 * atoms with {@link Reasoner#answerQuery(PositiveLiteral, boolean)} and joining
+	 * the results. This works for any {@link Reasoner}, but reasoners can provide
+	 * more efficient {@link TupleSource}s that work on their internal term ids.
+	 *
+	 * @param reasoner        the reasoner
+	 * @param query           the atoms of the query
+	 * @param answerVariables the variables whose bindings form the answers
+	 * @param includeNulls    if {@code false}, answers that contain named nulls
+	 *                        are omitted
+	 * @return distinct answers to the query, with the combined correctness of the
+	 *         answers to its atoms
+	 */
+	public static QueryResultIterator answerConjunctiveQuery(final Reasoner reasoner,
+			final Conjunction<PositiveLiteral> query, final List<Variable> answerVariables,
+			final boolean includeNulls) {
+		final ReasonerTupleSource tupleSource = new ReasonerTupleSource(reasoner);
+		final List<long[]> answers = new ConjunctiveQueryEvaluator(tupleSource).evaluate(query, answerVariables);
+		return new ConjunctiveQueryResultIterator(answers, tupleSource, includeNulls, tupleSource.correctness);
+	}
+
+	/**
+	 * Answers the given conjunctive query.
+	 *
+	 * @param query           the atoms of the query
+	 * @param answerVariables the variables whose bindings form the answers
+	 * @param includeNulls    if {@code false}, answers that contain named nulls
+	 *                        are omitted
+	 * @param correctness     the correctness of the answers
+	 * @return an iterator over the distinct answers
+	 */
+	public QueryResultIterator answer(final Conjunction<PositiveLiteral> query, final List<Variable> answerVariables,
+			final boolean includeNulls, final Correctness correctness) {
+		return new ConjunctiveQueryResultIterator(this.evaluate(query, answerVariables), this.tupleSource,
+				includeNulls, correctness);
+	}
+
+	/**
+	 * Computes the distinct answers to the given conjunctive query, as tuples of
+	 * term ids of the {@link TupleSource}, in the order of
+	 * {@code answerVariables}.
+	 *
+	 * @param query           the atoms of the query
+	 * @param answerVariables the variables whose bindings form the answers
+	 * @return the distinct answers
+	 */
+	public List<long[]> evaluate(final Conjunction<PositiveLiteral> query, final List<Variable> answerVariables) {
+		Validate.notNull(query, "Query must not be null!");
+		Validate.notEmpty(query.getLiterals(), "Query must contain at least one atom!");
+		Validate.notNull(answerVariables, "Answer variables must not be null!");
+		final Set<Term> queryVariables = new HashSet<>();
+		query.getVariables().forEach(queryVariables::add);
+		for (final Variable variable : answerVariables) {
+			Validate.isTrue(queryVariables.contains(variable), "Answer variable %s does not occur in the query!",
+					variable);
+		}
+
+		final Map<PositiveLiteral, Long> sizes = new HashMap<>();
+		for (final PositiveLiteral atom : query) {
+			final long size = this.tupleSource.count(atom);
+			if (size == 0) {
+				return Collections.emptyList();
+			}
+			sizes.put(atom, size);
+		}
+
+		final List<PositiveLiteral> remainingAtoms = new ArrayList<>(query.getLiterals());
+		List<Term> columns = new ArrayList<>();
+		List<long[]> rows = Collections.singletonList(new long[0]);
+
+		while (!remainingAtoms.isEmpty()) {
+			final PositiveLiteral atom = selectNextAtom(remainingAtoms, columns, sizes);
+			remainingAtoms.remove(atom);
+
+			final List<Term> joinedColumns = new ArrayList<>(columns);
+			rows = this.join(rows, columns, atom, joinedColumns);
+			columns = joinedColumns;
+			if (rows.isEmpty()) {
+				return Collections.emptyList();
+			}
+
+			final Set<Term> neededVariables = new HashSet<>(answerVariables);
+			for (final PositiveLiteral remainingAtom : remainingAtoms) {
+				remainingAtom.getVariables().forEach(neededVariables::add);
+			}
+			final List<Term> projectedColumns = new ArrayList<>();
+			for (final Term column : columns) {
+				if (neededVariables.contains(column)) {
+					projectedColumns.add(column);
+				}
+			}
+			if (projectedColumns.size() < columns.size()) {
+				rows = project(rows, columns, projectedColumns);
+				columns = projectedColumns;
+			}
+		}
+
+		return project(rows, columns, answerVariables);
+	}
+
+	/**
+	 * Selects the atom with the smallest extension among those that share a
+	 * variable with the already joined atoms, or among all remaining atoms if none
+	 * does.
+	 */
+	static PositiveLiteral selectNextAtom(final List<PositiveLiteral> remainingAtoms, final List<Term> columns,
+			final Map<PositiveLiteral, Long> sizes) {
+		PositiveLiteral best = null;
+		boolean bestConnected = false;
+		for (final PositiveLiteral atom : remainingAtoms) {
+			final boolean connected = atom.getVariables().anyMatch(columns::contains);
+			if (best == null || (connected && !bestConnected)
+					|| (connected == bestConnected && sizes.get(atom) < sizes.get(best))) {
+				best = atom;
+				bestConnected = connected;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Hash join of the given rows with the tuples of the given atom. The rows are
+	 * indexed by the values of the variables shared with the atom, and the tuples
+	 * of the atom are streamed against this index. New variables of the atom are
+	 * appended to {@code joinedColumns}.
+	 */
+	List<long[]> join(final List<long[]> rows, final List<Term> columns, final PositiveLiteral atom,
+			final List<Term> joinedColumns) {
+		final List<Integer> keyColumns = new ArrayList<>();
+		final List<Integer> keyPositions = new ArrayList<>();
+		final List<Integer> newPositions = new ArrayList<>();
+		final List<Term> atomTerms = atom.getArguments();
+		for (int position = 0; position < atomTerms.size(); position++) {
+			final Term term = atomTerms.get(position);
+			if (term.isVariable() && atomTerms.indexOf(term) == position) {
+				final int column = columns.indexOf(term);
+				if (column >= 0) {
+					keyColumns.add(column);
+					keyPositions.add(position);
+				} else {
+					newPositions.add(position);
+					joinedColumns.add(term);
+				}
+			}
+		}
+
+		final Map<Tuple, List<long[]>> index = new HashMap<>();
+		for (final long[] row : rows) {
+			final long[] key = new long[keyColumns.size()];
+			for (int i = 0; i < key.length; i++) {
+				key[i] = row[keyColumns.get(i)];
+			}
+			index.computeIfAbsent(new Tuple(key), k -> new ArrayList<>(1)).add(row);
+		}
+
+		final List<long[]> result = new ArrayList<>();
+		final long[] probe = new long[keyPositions.size()];
+		final Tuple probeKey = new Tuple(probe);
+		this.tupleSource.forEachTuple(atom, tuple -> {
+			for (int i = 0; i < probe.length; i++) {
+				probe[i] = tuple[keyPositions.get(i)];
+			}
+			probeKey.rehash();
+			final List<long[]> matches = index.get(probeKey);
+			if (matches != null) {
+				for (final long[] row : matches) {
+					final long[] joined = Arrays.copyOf(row, row.length + newPositions.size());
+					for (int i = 0; i < newPositions.size(); i++) {
+						joined[row.length + i] = tuple[newPositions.get(i)];
+					}
+					result.add(joined);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Projects the given rows to the given columns, eliminating duplicates.
+	 */
+	static List<long[]> project(final List<long[]> rows, final List<Term> columns,
+			final List<? extends Term> projectedColumns) {
+		final int[] indexes = new int[projectedColumns.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = columns.indexOf(projectedColumns.get(i));
+		}
+		final Set<Tuple> distinctRows = new LinkedHashSet<>();
+		for (final long[] row : rows) {
+			final long[] projected = new long[indexes.length];
+			for (int i = 0; i < indexes.length; i++) {
+				projected[i] = row[indexes[i]];
+			}
+			distinctRows.add(new Tuple(projected));
+		}
+		final List<long[]> result = new ArrayList<>(distinctRows.size());
+		for (final Tuple tuple : distinctRows) {
+			result.add(tuple.ids);
+		}
+		return result;
+	}
+
+	/**
+	 * Hashable wrapper for tuples of term ids.
+	 */
+	static final class Tuple {
+		final long[] ids;
+		private int hash;
+
+		Tuple(final long[] ids) {
+			this.ids = ids;
+			this.rehash();
+		}
+
+		void rehash() {
+			this.hash = Arrays.hashCode(this.ids);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Tuple)) {
+				return false;
+			}
+			return Arrays.equals(this.ids, ((Tuple) obj).ids);
+		}
+	}
+
+	/**
+	 * {@link TupleSource} that evaluates atoms on a {@link Reasoner} and assigns
+	 * ids to the returned terms.
+	 */
+	static class ReasonerTupleSource implements TupleSource {
+		private final Reasoner reasoner;
+		private final Map<Term, Long> ids = new HashMap<>();
+		private final List<Term> terms = new ArrayList<>();
+		Correctness correctness = Correctness.SOUND_AND_COMPLETE;
+
+		ReasonerTupleSource(final Reasoner reasoner) {
+			this.reasoner = reasoner;
+		}
+
+		@Override
+		public long count(final PositiveLiteral atom) {
+			final QueryAnswerCount count = this.reasoner.countQueryAnswers(atom, true);
+			this.correctness = combine(this.correctness, count.getCorrectness());
+			return count.getCount();
+		}
+
+		@Override
+		public void forEachTuple(final PositiveLiteral atom, final Consumer<long[]> action) {
+			this.forEachTuple(atom, true, action);
+		}
+
+		@Override
+		public void forEachTuple(final PositiveLiteral atom, final boolean includeNulls,
+				final Consumer<long[]> action) {
+			try (final QueryResultIterator answers = this.reasoner.answerQuery(atom, includeNulls)) {
+				this.correctness = combine(this.correctness, answers.getCorrectness());
+				while (answers.hasNext()) {
+					final List<Term> answerTerms = answers.next().getTerms();
+					final long[] tuple = new long[answerTerms.size()];
+					for (int i = 0; i < tuple.length; i++) {
+						tuple[i] = this.getId(answerTerms.get(i));
+					}
+					action.accept(tuple);
+				}
+			}
+		}
+
+		@Override
+		public TupleIterator iterateTuples(final PositiveLiteral atom, final boolean includeNulls) {
+			final QueryResultIterator answers = this.reasoner.answerQuery(atom, includeNulls);
+			this.correctness = combine(this.correctness, answers.getCorrectness());
+			return new TupleIterator() {
+				@Override
+				public boolean hasNext() {
+					return answers.hasNext();
+				}
+
+				@Override
+				public long[] next() {
+					final List<Term> answerTerms = answers.next().getTerms();
+					final long[] tuple = new long[answerTerms.size()];
+					for (int i = 0; i < tuple.length; i++) {
+						tuple[i] = ReasonerTupleSource.this.getId(answerTerms.get(i));
+					}
+					return tuple;
+				}
+
+				@Override
+				public void close() {
+					answers.close();
+				}
+			};
+		}
+
+		private long getId(final Term term) {
+			final Long id = this.ids.get(term);
+			if (id != null) {
+				return id;
+			}
+			final long newId = this.terms.size();
+			this.terms.add(term);
+			this.ids.put(term, newId);
+			return newId;
+		}
+
+		@Override
+		public Term getTerm(final long id) {
+			return this.terms.get((int) id);
+		}
+	}
+
+	/**
+	 * Combines two correctness values to the weaker of both.
+	 */
+	static Correctness combine(final Correctness first, final Correctness second) {
+		if (first == Correctness.INCORRECT || second == Correctness.INCORRECT) {
+			return Correctness.INCORRECT;
+		} else if (first == Correctness.SOUND_BUT_INCOMPLETE || second == Correctness.SOUND_BUT_INCOMPLETE) {
+			return Correctness.SOUND_BUT_INCOMPLETE;
+		}
+		return Correctness.SOUND_AND_COMPLETE;
+	}
+
+	/**
+	 * Iterates over answers given as tuples of term ids, decoding them on the fly.
+	 */
+	static class ConjunctiveQueryResultIterator implements QueryResultIterator {
+		private Iterator<long[]> iterator;
+		private final TupleSource tupleSource;
+		private final boolean includeNulls;
+		private final Correctness correctness;
+		private final Map<Long, Term> termCache = new HashMap<>();
+		private QueryResult next;
+
+		ConjunctiveQueryResultIterator(final Collection<long[]> answers, final TupleSource tupleSource,
+				final boolean includeNulls, final Correctness correctness) {
+			this.iterator = answers.iterator();
+			this.tupleSource = tupleSource;
+			this.includeNulls = includeNulls;
+			this.correctness = correctness;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.next == null && this.iterator.hasNext()) {
+				this.next = this.decode(this.iterator.next());
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public QueryResult next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final QueryResult result = this.next;
+			this.next = null;
+			return result;
+		}
+
+		private QueryResult decode(final long[] ids) {
+			final List<Term> terms = new ArrayList<>(ids.length);
+			for (final long id : ids) {
+				final Term term = this.termCache.computeIfAbsent(id, this.tupleSource::getTerm);
+				if (!this.includeNulls && term.getType() == TermType.NAMED_NULL) {
+					return null;
+				}
+				terms.add(term);
+			}
+			return new QueryResultImpl(terms);
+		}
+
+		@Override
+		public Correctness getCorrectness() {
+			return this.correctness;
+		}
+
+		@Override
+		public void close() {
+			this.iterator = Collections.emptyIterator();
+			this.next = null;
+		}
+	}
+
+}
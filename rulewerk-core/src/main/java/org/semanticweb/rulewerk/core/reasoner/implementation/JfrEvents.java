@@ -0,0 +1,274 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events behind {@link RulewerkEvents}. This is the
+ * only class that refers to the {@code jdk.jfr} API, and it is only loaded if
+ * that API is available.
+ */
+final class JfrEvents {
+
+	private static final String CATEGORY = "Rulewerk";
+
+	private JfrEvents() {
+	}
+
+	@Name("org.semanticweb.rulewerk.LoadKnowledgeBase")
+	@Label("Load Knowledge Base")
+	@Description("Loading of a knowledge base into a reasoner, including data sources, facts and rules")
+	@Category({ CATEGORY, "Loading" })
+	@StackTrace(false)
+	static final class LoadKnowledgeBaseEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Predicates")
+		@Description("Number of loaded predicates with facts, data sources or rules")
+		int predicates;
+		@Label("Facts")
+		@Description("Number of loaded facts, not including facts from data sources")
+		int facts;
+		@Label("Rules")
+		@Description("Number of loaded rules, including rules added internally by the reasoner")
+		int rules;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.LoadKnowledgeBaseEvent e = (RulewerkEvents.LoadKnowledgeBaseEvent) event;
+			this.predicates = e.predicates;
+			this.facts = e.facts;
+			this.rules = e.rules;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.LoadDataSources")
+	@Label("Load Data Sources")
+	@Description("Initialisation of a reasoner with its file-based and other external data sources")
+	@Category({ CATEGORY, "Loading" })
+	@StackTrace(false)
+	static final class LoadDataSourcesEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Tables")
+		@Description("Number of predicate tables initialised for data sources and in-memory data")
+		int tables;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.LoadDataSourcesEvent e = (RulewerkEvents.LoadDataSourcesEvent) event;
+			this.tables = e.tables;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.LoadFacts")
+	@Label("Load Facts")
+	@Description("Conversion and loading of the facts and in-memory data of one predicate")
+	@Category({ CATEGORY, "Loading" })
+	@StackTrace(false)
+	static final class LoadFactsEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Predicate")
+		String predicate;
+		@Label("Facts")
+		int facts;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.LoadFactsEvent e = (RulewerkEvents.LoadFactsEvent) event;
+			this.predicate = e.predicate;
+			this.facts = e.facts;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.SetRules")
+	@Label("Set Rules")
+	@Description("Conversion and loading of the rules of a knowledge base")
+	@Category({ CATEGORY, "Loading" })
+	@StackTrace(false)
+	static final class SetRulesEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Rules")
+		int rules;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.SetRulesEvent e = (RulewerkEvents.SetRulesEvent) event;
+			this.rules = e.rules;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.Materialise")
+	@Label("Materialise")
+	@Description("Computation of all inferences of a knowledge base")
+	@Category({ CATEGORY, "Reasoning" })
+	@StackTrace(false)
+	static final class MaterialiseEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Algorithm")
+		String algorithm;
+		@Label("Completed")
+		@Description("Whether reasoning has terminated before a timeout")
+		boolean completed;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.MaterialiseEvent e = (RulewerkEvents.MaterialiseEvent) event;
+			this.algorithm = e.algorithm;
+			this.completed = e.completed;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.CheckCyclicity")
+	@Label("Check Cyclicity")
+	@Description("Check of an acyclicity or cyclicity notion for the rules of a knowledge base")
+	@Category({ CATEGORY, "Reasoning" })
+	@StackTrace(false)
+	static final class CheckCyclicityEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Notion")
+		String notion;
+		@Label("Conclusive")
+		@Description("Whether the rules are acyclic (or cyclic, for MFC) according to the notion")
+		boolean conclusive;
+		@Label("Rules")
+		int rules;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.CheckCyclicityEvent e = (RulewerkEvents.CheckCyclicityEvent) event;
+			this.notion = e.notion;
+			this.conclusive = e.conclusive;
+			this.rules = e.rules;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.Query")
+	@Label("Query")
+	@Description("Evaluation of a query, not including the iteration over its answers")
+	@Category({ CATEGORY, "Querying" })
+	@StackTrace(false)
+	static final class QueryEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Query")
+		String query;
+		@Label("Include Nulls")
+		boolean includeNulls;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.QueryEvent e = (RulewerkEvents.QueryEvent) event;
+			this.query = e.query;
+			this.includeNulls = e.includeNulls;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.CountQueryAnswers")
+	@Label("Count Query Answers")
+	@Description("Counting of the answers to a query")
+	@Category({ CATEGORY, "Querying" })
+	@StackTrace(false)
+	static final class CountQueryAnswersEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Query")
+		String query;
+		@Label("Include Nulls")
+		boolean includeNulls;
+		@Label("Count")
+		long count;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.CountQueryAnswersEvent e = (RulewerkEvents.CountQueryAnswersEvent) event;
+			this.query = e.query;
+			this.includeNulls = e.includeNulls;
+			this.count = e.count;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.ExportQueryAnswers")
+	@Label("Export Query Answers")
+	@Description("Export of the answers to a query to a file")
+	@Category({ CATEGORY, "Querying" })
+	@StackTrace(false)
+	static final class ExportQueryAnswersEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Query")
+		String query;
+		@Label("File")
+		String file;
+		@Label("Size")
+		@DataAmount
+		long size;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.ExportQueryAnswersEvent e = (RulewerkEvents.ExportQueryAnswersEvent) event;
+			this.query = e.query;
+			this.file = e.file;
+			this.size = e.size;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.Parse")
+	@Label("Parse")
+	@Description("Parsing of statements into a knowledge base")
+	@Category({ CATEGORY, "Parsing" })
+	@StackTrace(false)
+	static final class ParseEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Statements")
+		int statements;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.ParseEvent e = (RulewerkEvents.ParseEvent) event;
+			this.statements = e.statements;
+			this.commit();
+		}
+	}
+
+	@Name("org.semanticweb.rulewerk.UpdateKnowledgeBase")
+	@Label("Update Knowledge Base")
+	@Description("Addition or removal of a list of statements")
+	@Category({ CATEGORY, "Knowledge Base" })
+	@StackTrace(false)
+	static final class UpdateKnowledgeBaseEvent extends Event implements RulewerkEvents.Recorder {
+		@Label("Operation")
+		String operation;
+		@Label("Statements")
+		@Description("Number of statements that have actually been added or removed")
+		int statements;
+
+		@Override
+		public void commit(final RulewerkEvents.RulewerkEvent event) {
+			final RulewerkEvents.UpdateKnowledgeBaseEvent e = (RulewerkEvents.UpdateKnowledgeBaseEvent) event;
+			this.operation = e.operation;
+			this.statements = e.statements;
+			this.commit();
+		}
+	}
+
+}
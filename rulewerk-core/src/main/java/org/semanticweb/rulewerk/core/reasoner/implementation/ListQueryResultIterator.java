@@ -0,0 +1,63 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+
+/**
+ * Iterator over query results that have already been computed.
+ */
+public class ListQueryResultIterator implements QueryResultIterator {
+
+	private Iterator<QueryResult> iterator;
+	private final Correctness correctness;
+
+	public ListQueryResultIterator(final List<QueryResult> queryResults, final Correctness correctness) {
+		this.iterator = queryResults.iterator();
+		this.correctness = correctness;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.iterator.hasNext();
+	}
+
+	@Override
+	public QueryResult next() {
+		return this.iterator.next();
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		return this.correctness;
+	}
+
+	@Override
+	public void close() {
+		this.iterator = Collections.emptyIterator();
+	}
+}
@@ -0,0 +1,127 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * A set of tuples of term ids with a fixed number of columns. Tuples are copied
+ * into one array, so that no objects are allocated per tuple, and found by open
+ * addressing with linear probing.
+ */
+public final class LongTupleHashSet {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int width;
+	/**
+	 * The tuples of the set, one after the other.
+	 */
+	private long[] tuples;
+	/**
+	 * Hash table of tuple indexes plus one; 0 marks empty slots.
+	 */
+	private int[] slots;
+	private int size;
+
+	public LongTupleHashSet(final int width) {
+		this.width = width;
+		this.tuples = new long[width * INITIAL_CAPACITY];
+		this.slots = new int[2 * INITIAL_CAPACITY];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param tuple an array whose first {@code width} ids form the tuple
+	 * @return {@code true} if the tuple is in the set
+	 */
+	public boolean contains(final long[] tuple) {
+		return this.slots[this.findSlot(tuple)] != 0;
+	}
+
+	/**
+	 * Adds the tuple to the set if it is not contained yet.
+	 *
+	 * @param tuple an array whose first {@code width} ids form the tuple; it is
+	 *              copied
+	 * @return {@code true} if the tuple was not contained in the set before
+	 */
+	public boolean add(final long[] tuple) {
+		final int slot = this.findSlot(tuple);
+		if (this.slots[slot] != 0) {
+			return false;
+		}
+		if (this.tuples.length < (this.size + 1) * this.width) {
+			this.tuples = Arrays.copyOf(this.tuples, 2 * this.tuples.length);
+		}
+		System.arraycopy(tuple, 0, this.tuples, this.size * this.width, this.width);
+		this.size++;
+		this.slots[slot] = this.size;
+		if (2 * this.size > this.slots.length) {
+			this.rehash();
+		}
+		return true;
+	}
+
+	private int findSlot(final long[] tuple) {
+		final int mask = this.slots.length - 1;
+		int slot = hash(tuple, 0, this.width) & mask;
+		while (this.slots[slot] != 0 && !this.equalsTuple(this.slots[slot] - 1, tuple)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private boolean equalsTuple(final int index, final long[] tuple) {
+		final int offset = index * this.width;
+		for (int i = 0; i < this.width; i++) {
+			if (this.tuples[offset + i] != tuple[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehash() {
+		this.slots = new int[2 * this.slots.length];
+		final int mask = this.slots.length - 1;
+		for (int index = 0; index < this.size; index++) {
+			int slot = hash(this.tuples, index * this.width, this.width) & mask;
+			while (this.slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.slots[slot] = index + 1;
+		}
+	}
+
+	private static int hash(final long[] values, final int offset, final int length) {
+		long hash = 1;
+		for (int i = offset; i < offset + length; i++) {
+			hash = hash * 0x9E3779B97F4A7C15L + values[i];
+		}
+		hash ^= hash >>> 32;
+		hash *= 0xff51afd7ed558ccdL;
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
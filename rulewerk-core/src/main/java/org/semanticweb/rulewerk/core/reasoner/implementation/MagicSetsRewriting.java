@@ -0,0 +1,462 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.model.api.DataSourceDeclaration;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Statement;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+
+/**
+ * Magic sets rewriting of a {@link KnowledgeBase} for a given query literal.
+ * The rewritten knowledge base only derives facts that are relevant for
+ * answering the query, so that materialising it is usually much cheaper than
+ * materialising the original knowledge base when the query contains constants.
+ *
+ * The binding pattern (adornment) of the query is given by its arguments: every
+ * argument that is not a variable is bound. Bindings are passed through rule
+ * bodies from left to right. For every adorned predicate {@code p^a}, the
+ * rewriting introduces a predicate {@code p##a} that holds the relevant facts of
+ * {@code p}, and a magic predicate {@code magic##p##a} that holds the bindings
+ * for which {@code p} is relevant. The following cases are treated specially:
+ * <ul>
+ * <li>Positions of head atoms that contain existential variables are treated
+ * as free, since their values cannot be bound by a query.</li>
+ * <li>Rules with several head atoms are rewritten once for every relevant head
+ * atom, keeping only that atom, unless they have existential variables. Since
+ * the head atoms of such rules share named nulls, they are not rewritten.
+ * Instead, they are kept unchanged together with all rules that they depend
+ * on, like the rules for negated predicates.</li>
+ * <li>Negated predicates are not rewritten. Instead, all rules that they depend
+ * on are kept unchanged, so that they are computed completely.</li>
+ * <li>Predicates that are used in rule heads and also have facts or data
+ * sources get an additional rule that copies the relevant facts.</li>
+ * </ul>
+ * The rewritten knowledge base yields the same query answers without named
+ * nulls as the original knowledge base. Answers that contain named nulls may
+ * differ in the names of the nulls, and, for the restricted chase, also in
+ * their number.
+ */
+public class MagicSetsRewriting {
+
+	/**
+	 * Separator used in the names of adorned and magic predicates.
+	 */
+	public static final String SEPARATOR = "##";
+
+	/**
+	 * Prefix for the names of magic predicates.
+	 */
+	public static final String MAGIC_PREFIX = "magic" + SEPARATOR;
+
+	private static final char BOUND = 'b';
+	private static final char FREE = 'f';
+
+	private final Map<Predicate, List<Rule>> rulesByHeadPredicate = new HashMap<>();
+	private final Set<Predicate> predicatesWithData = new HashSet<>();
+	/**
+	 * Head predicates of rules with several head atoms and existential variables.
+	 */
+	private final Set<Predicate> sharedNullPredicates = new HashSet<>();
+
+	private final Set<Rule> rewrittenRules = new LinkedHashSet<>();
+	private final Set<Fact> seedFacts = new LinkedHashSet<>();
+	private final Set<Predicate> completePredicates = new HashSet<>();
+	private final Set<String> processedAdornments = new HashSet<>();
+	private final Deque<AdornedPredicate> adornmentsToProcess = new ArrayDeque<>();
+
+	private final KnowledgeBase knowledgeBase;
+	private final PositiveLiteral query;
+
+	/**
+	 * A predicate together with an adornment that specifies which of its
+	 * positions are bound.
+	 */
+	static class AdornedPredicate {
+		final Predicate predicate;
+		final String adornment;
+
+		AdornedPredicate(final Predicate predicate, final String adornment) {
+			this.predicate = predicate;
+			this.adornment = adornment;
+		}
+
+		String getKey() {
+			return this.predicate.getName() + "[" + this.predicate.getArity() + "]" + this.adornment;
+		}
+	}
+
+	/**
+	 * Rewrites the given knowledge base for the given query. The original
+	 * knowledge base is not modified.
+	 *
+	 * @param knowledgeBase the knowledge base to rewrite
+	 * @param query         the query literal whose answers should be preserved
+	 */
+	public MagicSetsRewriting(final KnowledgeBase knowledgeBase, final PositiveLiteral query) {
+		Validate.notNull(knowledgeBase, "Knowledge base cannot be null.");
+		Validate.notNull(query, "Query atom cannot be null.");
+
+		for (final Rule rule : knowledgeBase.getRules()) {
+			final boolean sharesNulls = rule.getHead().getLiterals().size() > 1
+					&& rule.getExistentialVariables().findAny().isPresent();
+			for (final PositiveLiteral headLiteral : rule.getHead()) {
+				if (sharesNulls) {
+					this.sharedNullPredicates.add(headLiteral.getPredicate());
+				}
+				final List<Rule> rules = this.rulesByHeadPredicate.computeIfAbsent(headLiteral.getPredicate(),
+						predicate -> new ArrayList<>());
+				if (!rules.contains(rule)) {
+					rules.add(rule);
+				}
+			}
+		}
+		for (final Fact fact : knowledgeBase.getFacts()) {
+			this.predicatesWithData.add(fact.getPredicate());
+		}
+		for (final DataSourceDeclaration dataSourceDeclaration : knowledgeBase.getDataSourceDeclarations()) {
+			this.predicatesWithData.add(dataSourceDeclaration.getPredicate());
+		}
+
+		this.knowledgeBase = knowledgeBase;
+		this.query = this.rewriteQuery(query);
+		while (!this.adornmentsToProcess.isEmpty()) {
+			this.rewriteAdornedPredicate(this.adornmentsToProcess.pop());
+		}
+	}
+
+	/**
+	 * Returns the rewritten query literal. Its answers in the model of
+	 * {@link #getKnowledgeBase()} are the answers of the original query.
+	 *
+	 * @return rewritten query literal
+	 */
+	public PositiveLiteral getQuery() {
+		return this.query;
+	}
+
+	/**
+	 * Returns the rewritten rules, including the rules for magic predicates and
+	 * the unchanged rules that negated predicates depend on.
+	 *
+	 * @return set of rewritten rules
+	 */
+	public Set<Rule> getRules() {
+		return this.rewrittenRules;
+	}
+
+	/**
+	 * Returns the facts for magic predicates that are obtained from the constants
+	 * in the query and rules.
+	 *
+	 * @return set of seed facts
+	 */
+	public Set<Fact> getSeedFacts() {
+		return this.seedFacts;
+	}
+
+	/**
+	 * Creates a new knowledge base that contains the rewritten rules, the seed
+	 * facts, and those facts and data source declarations of the original
+	 * knowledge base that are relevant for the rewritten rules and query.
+	 *
+	 * @return new knowledge base for goal-directed query answering
+	 */
+	public KnowledgeBase getKnowledgeBase() {
+		final Set<Predicate> usedPredicates = new HashSet<>();
+		usedPredicates.add(this.query.getPredicate());
+		for (final Rule rule : this.rewrittenRules) {
+			for (final Literal literal : rule.getBody()) {
+				usedPredicates.add(literal.getPredicate());
+			}
+		}
+
+		final List<Statement> statements = new ArrayList<>();
+		for (final DataSourceDeclaration dataSourceDeclaration : this.knowledgeBase.getDataSourceDeclarations()) {
+			if (usedPredicates.contains(dataSourceDeclaration.getPredicate())) {
+				statements.add(dataSourceDeclaration);
+			}
+		}
+		for (final Fact fact : this.knowledgeBase.getFacts()) {
+			if (usedPredicates.contains(fact.getPredicate())) {
+				statements.add(fact);
+			}
+		}
+		statements.addAll(this.seedFacts);
+		statements.addAll(this.rewrittenRules);
+
+		final KnowledgeBase result = new KnowledgeBase();
+		result.addStatements(statements);
+		return result;
+	}
+
+	/**
+	 * Returns the name of the predicate that holds the relevant facts of the
+	 * given predicate for the given adornment.
+	 *
+	 * @param predicate original predicate
+	 * @param adornment string of {@code b} and {@code f} characters, one for each
+	 *                  position of the predicate
+	 * @return adorned predicate
+	 */
+	public static Predicate getAdornedPredicate(final Predicate predicate, final String adornment) {
+		return Expressions.makePredicate(predicate.getName() + SEPARATOR + adornment, predicate.getArity());
+	}
+
+	/**
+	 * Returns the magic predicate that holds the relevant bindings of the given
+	 * predicate for the given adornment. Its arity is the number of bound
+	 * positions.
+	 *
+	 * @param predicate original predicate
+	 * @param adornment string of {@code b} and {@code f} characters, one for each
+	 *                  position of the predicate
+	 * @return magic predicate
+	 */
+	public static Predicate getMagicPredicate(final Predicate predicate, final String adornment) {
+		return Expressions.makePredicate(MAGIC_PREFIX + predicate.getName() + SEPARATOR + adornment,
+				countBound(adornment));
+	}
+
+	private PositiveLiteral rewriteQuery(final PositiveLiteral queryLiteral) {
+		final Predicate predicate = queryLiteral.getPredicate();
+		if (!this.rulesByHeadPredicate.containsKey(predicate)) {
+			return queryLiteral;
+		}
+
+		final StringBuilder adornment = new StringBuilder();
+		for (final Term term : queryLiteral.getArguments()) {
+			adornment.append(term.isVariable() ? FREE : BOUND);
+		}
+		final String queryAdornment = adornment.toString();
+		this.requireAdornedPredicate(predicate, queryAdornment);
+
+		final List<Term> boundTerms = getBoundTerms(queryLiteral.getArguments(), queryAdornment);
+		if (!boundTerms.isEmpty()) {
+			this.seedFacts.add(Expressions.makeFact(getMagicPredicate(predicate, queryAdornment), boundTerms));
+		}
+		return Expressions.makePositiveLiteral(getAdornedPredicate(predicate, queryAdornment),
+				queryLiteral.getArguments());
+	}
+
+	private void requireAdornedPredicate(final Predicate predicate, final String adornment) {
+		final AdornedPredicate adornedPredicate = new AdornedPredicate(predicate, adornment);
+		if (this.processedAdornments.add(adornedPredicate.getKey())) {
+			this.adornmentsToProcess.push(adornedPredicate);
+		}
+	}
+
+	private void rewriteAdornedPredicate(final AdornedPredicate adornedPredicate) {
+		final Predicate predicate = adornedPredicate.predicate;
+		final String adornment = adornedPredicate.adornment;
+		final Predicate adornedHeadPredicate = getAdornedPredicate(predicate, adornment);
+
+		if (this.sharedNullPredicates.contains(predicate)) {
+			// the original rules compute the predicate completely, including its facts
+			this.requireCompletePredicate(predicate);
+			this.addCopyRule(predicate, adornment, adornedHeadPredicate);
+			return;
+		}
+
+		if (this.predicatesWithData.contains(predicate)) {
+			this.addCopyRule(predicate, adornment, adornedHeadPredicate);
+		}
+
+		for (final Rule rule : this.rulesByHeadPredicate.get(predicate)) {
+			for (final PositiveLiteral headLiteral : rule.getHead()) {
+				if (headLiteral.getPredicate().equals(predicate)) {
+					this.rewriteRule(rule, headLiteral, adornment, adornedHeadPredicate);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a rule that copies the facts of the given predicate that are relevant
+	 * for the given adornment to the adorned predicate.
+	 */
+	private void addCopyRule(final Predicate predicate, final String adornment, final Predicate adornedHeadPredicate) {
+		final List<Term> variables = new ArrayList<>(predicate.getArity());
+		for (int i = 0; i < predicate.getArity(); i++) {
+			variables.add(Expressions.makeUniversalVariable("X" + i));
+		}
+		final List<Literal> body = new ArrayList<>(2);
+		this.addMagicGuard(body, predicate, adornment, variables);
+		body.add(Expressions.makePositiveLiteral(predicate, variables));
+		this.rewrittenRules.add(Expressions.makeRule(
+				Expressions.makePositiveConjunction(Expressions.makePositiveLiteral(adornedHeadPredicate, variables)),
+				Expressions.makeConjunction(body)));
+	}
+
+	private void rewriteRule(final Rule rule, final PositiveLiteral headLiteral, final String adornment,
+			final Predicate adornedHeadPredicate) {
+		final List<Term> headArguments = headLiteral.getArguments();
+
+		// existential positions cannot be bound from the outside
+		final StringBuilder effectiveAdornment = new StringBuilder(adornment);
+		for (int i = 0; i < headArguments.size(); i++) {
+			if (headArguments.get(i).getType() == TermType.EXISTENTIAL_VARIABLE) {
+				effectiveAdornment.setCharAt(i, FREE);
+			}
+		}
+		final String ruleAdornment = effectiveAdornment.toString();
+		if (!ruleAdornment.equals(adornment) && countBound(ruleAdornment) > 0) {
+			this.addMagicProjectionRule(headLiteral.getPredicate(), adornment, ruleAdornment);
+		}
+
+		final Set<Term> boundVariables = new HashSet<>(getBoundTerms(headArguments, ruleAdornment));
+		final List<Literal> newBody = new ArrayList<>();
+		this.addMagicGuard(newBody, headLiteral.getPredicate(), ruleAdornment, headArguments);
+		// negated literals are not needed to restrict magic predicates, and could be
+		// unsafe in a prefix of the body
+		final List<Literal> positiveBodyPrefix = new ArrayList<>(newBody);
+
+		for (final Literal literal : rule.getBody()) {
+			final Predicate bodyPredicate = literal.getPredicate();
+			if (literal.isNegated() || !this.rulesByHeadPredicate.containsKey(bodyPredicate)) {
+				if (literal.isNegated()) {
+					this.requireCompletePredicate(bodyPredicate);
+				}
+				newBody.add(literal);
+			} else {
+				final StringBuilder bodyAdornment = new StringBuilder();
+				for (final Term term : literal.getArguments()) {
+					bodyAdornment.append(!term.isVariable() || boundVariables.contains(term) ? BOUND : FREE);
+				}
+				final String literalAdornment = bodyAdornment.toString();
+				this.requireAdornedPredicate(bodyPredicate, literalAdornment);
+
+				final List<Term> boundTerms = getBoundTerms(literal.getArguments(), literalAdornment);
+				if (!boundTerms.isEmpty()) {
+					final PositiveLiteral magicHead = Expressions
+							.makePositiveLiteral(getMagicPredicate(bodyPredicate, literalAdornment), boundTerms);
+					if (positiveBodyPrefix.isEmpty()) {
+						this.seedFacts.add(Expressions.makeFact(magicHead.getPredicate(), boundTerms));
+					} else {
+						this.rewrittenRules.add(Expressions.makeRule(Expressions.makePositiveConjunction(magicHead),
+								Expressions.makeConjunction(new ArrayList<>(positiveBodyPrefix))));
+					}
+				}
+				newBody.add(Expressions.makePositiveLiteral(getAdornedPredicate(bodyPredicate, literalAdornment),
+						literal.getArguments()));
+			}
+			if (!literal.isNegated()) {
+				positiveBodyPrefix.add(newBody.get(newBody.size() - 1));
+				literal.getUniversalVariables().forEach(boundVariables::add);
+			}
+		}
+
+		this.rewrittenRules.add(Expressions.makeRule(
+				Expressions.makePositiveConjunction(Expressions.makePositiveLiteral(adornedHeadPredicate, headArguments)),
+				Expressions.makeConjunction(newBody)));
+	}
+
+	private void addMagicGuard(final List<Literal> body, final Predicate predicate, final String adornment,
+			final List<Term> arguments) {
+		final List<Term> boundTerms = getBoundTerms(arguments, adornment);
+		if (!boundTerms.isEmpty()) {
+			body.add(Expressions.makePositiveLiteral(getMagicPredicate(predicate, adornment), boundTerms));
+		}
+	}
+
+	private void addMagicProjectionRule(final Predicate predicate, final String fromAdornment,
+			final String toAdornment) {
+		final List<Term> variables = new ArrayList<>(predicate.getArity());
+		for (int i = 0; i < predicate.getArity(); i++) {
+			variables.add(Expressions.makeUniversalVariable("X" + i));
+		}
+		this.rewrittenRules.add(Expressions.makeRule(
+				Expressions.makePositiveLiteral(getMagicPredicate(predicate, toAdornment),
+						getBoundTerms(variables, toAdornment)),
+				Expressions.makePositiveLiteral(getMagicPredicate(predicate, fromAdornment),
+						getBoundTerms(variables, fromAdornment))));
+	}
+
+	/**
+	 * Keeps all rules that the given predicate depends on unchanged, so that the
+	 * predicate is computed completely.
+	 *
+	 * @param predicate predicate that must be computed completely
+	 */
+	private void requireCompletePredicate(final Predicate predicate) {
+		final Deque<Predicate> toProcess = new ArrayDeque<>();
+		if (this.completePredicates.add(predicate)) {
+			toProcess.push(predicate);
+		}
+		while (!toProcess.isEmpty()) {
+			final List<Rule> rules = this.rulesByHeadPredicate.get(toProcess.pop());
+			if (rules == null) {
+				continue;
+			}
+			for (final Rule rule : rules) {
+				this.rewrittenRules.add(rule);
+				for (final Literal literal : rule.getBody()) {
+					if (this.completePredicates.add(literal.getPredicate())) {
+						toProcess.push(literal.getPredicate());
+					}
+				}
+				for (final PositiveLiteral headLiteral : rule.getHead()) {
+					if (this.completePredicates.add(headLiteral.getPredicate())) {
+						toProcess.push(headLiteral.getPredicate());
+					}
+				}
+			}
+		}
+	}
+
+	private static List<Term> getBoundTerms(final List<Term> arguments, final String adornment) {
+		final List<Term> result = new ArrayList<>();
+		for (int i = 0; i < arguments.size(); i++) {
+			if (adornment.charAt(i) == BOUND) {
+				result.add(arguments.get(i));
+			}
+		}
+		return result;
+	}
+
+	private static int countBound(final String adornment) {
+		int count = 0;
+		for (int i = 0; i < adornment.length(); i++) {
+			if (adornment.charAt(i) == BOUND) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,180 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+
+/**
+ * The predicate dependency graph of a set of rules. A predicate depends on all
+ * predicates that occur in the body of a rule that has the predicate in its
+ * head. Since the application of a rule with several head atoms (under the
+ * restricted chase) depends on all of them, a predicate also depends on the
+ * other head predicates of such rules.
+ *
+ * The graph can be used to slice a knowledge base down to the rules, facts and
+ * data sources that can contribute to a given set of predicates, or to split it
+ * into independent components that share no predicates.
+ */
+public class PredicateDependencyGraph {
+
+	private final Collection<Rule> rules;
+	private final Map<Predicate, List<Rule>> rulesByHeadPredicate = new HashMap<>();
+
+	/**
+	 * Builds the dependency graph of the given rules.
+	 *
+	 * @param rules the rules whose predicate dependencies are computed
+	 */
+	public PredicateDependencyGraph(final Collection<Rule> rules) {
+		this.rules = rules;
+		for (final Rule rule : rules) {
+			for (final Literal literal : rule.getHead()) {
+				this.rulesByHeadPredicate.computeIfAbsent(literal.getPredicate(), k -> new ArrayList<>()).add(rule);
+			}
+		}
+	}
+
+	/**
+	 * Computes all predicates that the given predicates (transitively) depend on,
+	 * including the given predicates themselves. Facts, data sources and rules that
+	 * only use predicates outside of this set cannot contribute to the extensions
+	 * of the given predicates.
+	 *
+	 * @param predicates the predicates of interest
+	 * @return the set of relevant predicates
+	 */
+	public Set<Predicate> getRelevantPredicates(final Collection<Predicate> predicates) {
+		final Set<Predicate> relevantPredicates = new HashSet<>(predicates);
+		final Deque<Predicate> toProcess = new ArrayDeque<>(predicates);
+		final Set<Rule> visitedRules = new HashSet<>();
+
+		while (!toProcess.isEmpty()) {
+			final Predicate predicate = toProcess.pop();
+			for (final Rule rule : this.rulesByHeadPredicate.getOrDefault(predicate, Collections.emptyList())) {
+				if (visitedRules.add(rule)) {
+					for (final Literal literal : rule.getHead()) {
+						if (relevantPredicates.add(literal.getPredicate())) {
+							toProcess.push(literal.getPredicate());
+						}
+					}
+					for (final Literal literal : rule.getBody()) {
+						if (relevantPredicates.add(literal.getPredicate())) {
+							toProcess.push(literal.getPredicate());
+						}
+					}
+				}
+			}
+		}
+		return relevantPredicates;
+	}
+
+	/**
+	 * Splits the predicates of the rules, together with the given additional
+	 * predicates (e.g. the predicates of facts and data sources), into independent
+	 * components. Two predicates are in the same component if they are connected
+	 * by rules, ignoring the direction of dependencies. Reasoning over the rules,
+	 * facts and data sources of one component is not affected by the statements of
+	 * other components.
+	 *
+	 * @param additionalPredicates predicates that should be included even if they
+	 *                             do not occur in any rule
+	 * @return the independent components, each a non-empty set of predicates
+	 */
+	public List<Set<Predicate>> getIndependentComponents(final Collection<Predicate> additionalPredicates) {
+		final Map<Predicate, Predicate> representatives = new HashMap<>();
+		for (final Predicate predicate : additionalPredicates) {
+			representatives.putIfAbsent(predicate, predicate);
+		}
+		for (final Rule rule : this.rules) {
+			final List<Literal> literals = new ArrayList<>(rule.getHead().getLiterals());
+			literals.addAll(rule.getBody().getLiterals());
+			Predicate first = null;
+			for (final Literal literal : literals) {
+				final Predicate predicate = literal.getPredicate();
+				representatives.putIfAbsent(predicate, predicate);
+				if (first == null) {
+					first = findRepresentative(representatives, predicate);
+				} else {
+					final Predicate representative = findRepresentative(representatives, predicate);
+					if (!representative.equals(first)) {
+						representatives.put(representative, first);
+					}
+				}
+			}
+		}
+
+		final Map<Predicate, Set<Predicate>> components = new LinkedHashMap<>();
+		for (final Predicate predicate : representatives.keySet()) {
+			components.computeIfAbsent(findRepresentative(representatives, predicate), k -> new HashSet<>())
+					.add(predicate);
+		}
+		return new ArrayList<>(components.values());
+	}
+
+	private static Predicate findRepresentative(final Map<Predicate, Predicate> representatives,
+			final Predicate predicate) {
+		Predicate representative = predicate;
+		while (!representatives.get(representative).equals(representative)) {
+			representative = representatives.get(representative);
+		}
+		// path compression
+		Predicate current = predicate;
+		while (!current.equals(representative)) {
+			final Predicate next = representatives.get(current);
+			representatives.put(current, representative);
+			current = next;
+		}
+		return representative;
+	}
+
+	/**
+	 * Checks whether the given rule can contribute to some of the given relevant
+	 * predicates, i.e., whether one of its head predicates is relevant.
+	 *
+	 * @param rule               the rule to check
+	 * @param relevantPredicates a set of predicates as computed by
+	 *                           {@link #getRelevantPredicates(Collection)}
+	 * @return {@code true} if the rule is relevant
+	 */
+	public static boolean isRelevant(final Rule rule, final Set<Predicate> relevantPredicates) {
+		for (final Literal literal : rule.getHead()) {
+			if (relevantPredicates.contains(literal.getPredicate())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,593 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator.ReasonerTupleSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator.TupleIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator.TupleSource;
+
+/**
+ * Evaluates atomic queries with projection to some answer variables, and
+ * optionally removes duplicate answers. Answers are projected and compared as
+ * tuples of term ids obtained from a {@link TupleSource}, and only the
+ * remaining answers are decoded, lazily while iterating.
+ *
+ * Duplicates are removed with an in-memory set of the answers returned so far.
+ * If this set reaches its size limit, answers that are not in the set are
+ * partitioned by a hash into temporary files, which are then deduplicated one
+ * by one (and partitioned further if necessary).
+ *
+ * Ordered answers are sorted by external merge sort, where sorted runs that do
+ * not fit into memory are written to temporary files. Rows are compared by the
+ * {@link TermComparator} order of their terms at the order positions, and by
+ * their ids otherwise, so that duplicates become adjacent and the order is the
+ * same for repeated queries on the same materialisation.
+ */
+public class ProjectionQueryEvaluator {
+
+	/**
+	 * Default maximal number of distinct answers (or answers to be sorted) that
+	 * are kept in memory at once.
+	 */
+	public static final int DEFAULT_MAX_TUPLES_IN_MEMORY = 1 << 22;
+
+	/**
+	 * Maximal number of times that answers are partitioned; partitions at this
+	 * depth are deduplicated in memory regardless of their size.
+	 */
+	static final int MAX_SPILL_DEPTH = 4;
+
+	/**
+	 * Maximal number of decoded terms that are cached for comparisons while
+	 * sorting.
+	 */
+	static final int MAX_CACHED_TERMS = 1 << 20;
+
+	private final TupleSource tupleSource;
+	private int maxTuplesInMemory = DEFAULT_MAX_TUPLES_IN_MEMORY;
+	private Path spillDirectory;
+	private int spillFileCount;
+
+	public ProjectionQueryEvaluator(final TupleSource tupleSource) {
+		this.tupleSource = tupleSource;
+	}
+
+	/**
+	 * Sets the maximal number of distinct answers, or of answers to be sorted,
+	 * that are kept in memory at once. Further answers are spilled to temporary
+	 * files.
+	 *
+	 * @param maxTuplesInMemory a positive number
+	 */
+	public void setMaxTuplesInMemory(final int maxTuplesInMemory) {
+		Validate.isTrue(maxTuplesInMemory > 0, "Maximal number of tuples must be positive!");
+		this.maxTuplesInMemory = maxTuplesInMemory;
+	}
+
+	public int getMaxTuplesInMemory() {
+		return this.maxTuplesInMemory;
+	}
+
+	/**
+	 * Sets the directory for temporary files.
+	 *
+	 * @param spillDirectory a directory, or {@code null} to use the default
+	 *                       directory for temporary files
+	 */
+	public void setSpillDirectory(final Path spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	public Path getSpillDirectory() {
+		return this.spillDirectory;
+	}
+
+	/**
+	 * @return the number of temporary files that have been written so far
+	 */
+	public int getSpillFileCount() {
+		return this.spillFileCount;
+	}
+
+	/**
+	 * Answers a query with projection on the given reasoner, using
+	 * {@link Reasoner#answerQuery(PositiveLiteral, boolean)} to obtain the answers
+	 * to the query atom.
+	 *
+	 * @param reasoner        the reasoner
+	 * @param query           the query atom
+	 * @param answerVariables the variables whose bindings are returned
+	 * @param distinct        if {@code true}, each answer is returned once
+	 * @param includeNulls    if {@code false}, answers with named nulls are omitted
+	 * @return an iterator over the projected answers
+	 */
+	public static QueryResultIterator answerQuery(final Reasoner reasoner, final PositiveLiteral query,
+			final List<Variable> answerVariables, final boolean distinct, final boolean includeNulls) {
+		return answerQuery(reasoner, query, answerVariables, distinct, Collections.emptyList(), includeNulls);
+	}
+
+	/**
+	 * Answers a query with projection and ordering on the given reasoner, using
+	 * {@link Reasoner#answerQuery(PositiveLiteral, boolean)} to obtain the answers
+	 * to the query atom.
+	 *
+	 * @param reasoner        the reasoner
+	 * @param query           the query atom
+	 * @param answerVariables the variables whose bindings are returned
+	 * @param distinct        if {@code true}, each answer is returned once
+	 * @param orderVariables  answer variables by whose bindings the answers are
+	 *                        sorted; if empty, the order is not specified
+	 * @param includeNulls    if {@code false}, answers with named nulls are omitted
+	 * @return an iterator over the projected answers
+	 */
+	public static QueryResultIterator answerQuery(final Reasoner reasoner, final PositiveLiteral query,
+			final List<Variable> answerVariables, final boolean distinct, final List<Variable> orderVariables,
+			final boolean includeNulls) {
+		final ReasonerTupleSource tupleSource = new ReasonerTupleSource(reasoner);
+		final ProjectionQueryEvaluator evaluator = new ProjectionQueryEvaluator(tupleSource);
+		final int[] positions = getPositions(query, answerVariables);
+		final int[] orderIndexes = getOrderIndexes(answerVariables, orderVariables);
+		final TupleIterator tuples = tupleSource.iterateTuples(query, true);
+		return evaluator.createIterator(tuples, positions, distinct, orderIndexes, includeNulls,
+				tupleSource.correctness);
+	}
+
+	/**
+	 * Answers the given query with projection. The answers of the query atom are
+	 * obtained with {@link TupleSource#iterateTuples(PositiveLiteral, boolean)}
+	 * before this method returns.
+	 *
+	 * @param query           the query atom
+	 * @param answerVariables the variables whose bindings are returned, in this
+	 *                        order
+	 * @param distinct        if {@code true}, each answer is returned once
+	 * @param includeNulls    if {@code false}, answers whose projection contains
+	 *                        named nulls are omitted
+	 * @param correctness     the correctness of the results
+	 * @return an iterator over the projected answers
+	 */
+	public QueryResultIterator answer(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final boolean includeNulls, final Correctness correctness) {
+		return this.answer(query, answerVariables, distinct, Collections.emptyList(), includeNulls, correctness);
+	}
+
+	/**
+	 * Answers the given query with projection and ordering. The answers of the
+	 * query atom are obtained with
+	 * {@link TupleSource#iterateTuples(PositiveLiteral, boolean)} before this
+	 * method returns, but they are only sorted when the first result is
+	 * requested.
+	 *
+	 * @param query           the query atom
+	 * @param answerVariables the variables whose bindings are returned, in this
+	 *                        order
+	 * @param distinct        if {@code true}, each answer is returned once
+	 * @param orderVariables  answer variables by whose bindings the answers are
+	 *                        sorted in ascending {@link TermComparator} order; if
+	 *                        empty, the order is not specified
+	 * @param includeNulls    if {@code false}, answers whose projection contains
+	 *                        named nulls are omitted
+	 * @param correctness     the correctness of the results
+	 * @return an iterator over the projected answers
+	 */
+	public QueryResultIterator answer(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls,
+			final Correctness correctness) {
+		final int[] positions = getPositions(query, answerVariables);
+		final int[] orderIndexes = getOrderIndexes(answerVariables, orderVariables);
+		return this.createIterator(this.tupleSource.iterateTuples(query, true), positions, distinct, orderIndexes,
+				includeNulls, correctness);
+	}
+
+	private QueryResultIterator createIterator(final TupleIterator tuples, final int[] positions,
+			final boolean distinct, final int[] orderIndexes, final boolean includeNulls,
+			final Correctness correctness) {
+		if (orderIndexes.length == 0) {
+			return new ProjectedQueryResultIterator(tuples, positions, distinct, includeNulls, correctness);
+		}
+		return new SortedQueryResultIterator(tuples, positions, distinct, orderIndexes, includeNulls, correctness);
+	}
+
+	private static int[] getOrderIndexes(final List<Variable> answerVariables, final List<Variable> orderVariables) {
+		Validate.noNullElements(orderVariables, "Order variables must not be null!");
+		final int[] orderIndexes = new int[orderVariables.size()];
+		for (int i = 0; i < orderIndexes.length; i++) {
+			orderIndexes[i] = answerVariables.indexOf(orderVariables.get(i));
+			if (orderIndexes[i] < 0) {
+				throw new IllegalArgumentException(
+						"Order variable " + orderVariables.get(i) + " is not an answer variable.");
+			}
+		}
+		return orderIndexes;
+	}
+
+	private static long[] project(final long[] tuple, final int[] positions) {
+		final long[] row = new long[positions.length];
+		for (int i = 0; i < row.length; i++) {
+			row[i] = tuple[positions[i]];
+		}
+		return row;
+	}
+
+	/**
+	 * Decodes the ids of the given row.
+	 *
+	 * @return the result, or {@code null} if it contains named nulls that are not
+	 *         included
+	 */
+	private QueryResult decode(final long[] row, final boolean includeNulls) {
+		final List<Term> terms = new ArrayList<>(row.length);
+		for (final long id : row) {
+			final Term term = this.tupleSource.getTerm(id);
+			if (!includeNulls && term.getType() == TermType.NAMED_NULL) {
+				return null;
+			}
+			terms.add(term);
+		}
+		return new QueryResultImpl(terms);
+	}
+
+	private static int[] getPositions(final PositiveLiteral query, final List<Variable> answerVariables) {
+		Validate.notNull(query, "Query atom must not be null!");
+		Validate.noNullElements(answerVariables, "Answer variables must not be null!");
+		final int[] positions = new int[answerVariables.size()];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = query.getArguments().indexOf(answerVariables.get(i));
+			if (positions[i] < 0) {
+				throw new IllegalArgumentException(
+						"Variable " + answerVariables.get(i) + " does not occur in the query.");
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * A spill file that remains to be deduplicated.
+	 */
+	private static final class Partition {
+		final SpillFile file;
+		final int depth;
+
+		Partition(final SpillFile file, final int depth) {
+			this.file = file;
+			this.depth = depth;
+		}
+	}
+
+	/**
+	 * Iterates over projected answers. Input is read from the tuples of the query
+	 * atom first, and then from the partitions that have been spilled while
+	 * reading the previous input.
+	 */
+	private final class ProjectedQueryResultIterator implements QueryResultIterator {
+		private final int[] positions;
+		private final boolean distinct;
+		private final boolean includeNulls;
+		private final Correctness correctness;
+
+		private TupleIterator tuples;
+		private Partition partition;
+		private SpillFile.Reader reader;
+		private int depth;
+		private LongTupleHashSet seen;
+		private List<SpillFile> spillFiles;
+		private final Deque<Partition> pendingPartitions = new ArrayDeque<>();
+
+		private QueryResult next;
+		private boolean finished;
+
+		ProjectedQueryResultIterator(final TupleIterator tuples, final int[] positions, final boolean distinct,
+				final boolean includeNulls, final Correctness correctness) {
+			this.tuples = tuples;
+			this.positions = positions;
+			this.distinct = distinct;
+			this.includeNulls = includeNulls;
+			this.correctness = correctness;
+			if (distinct) {
+				this.seen = new LongTupleHashSet(positions.length);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (this.next == null && !this.finished) {
+					final long[] row = this.computeNext();
+					if (row == null) {
+						this.close();
+					} else {
+						this.next = ProjectionQueryEvaluator.this.decode(row, this.includeNulls);
+					}
+				}
+			} catch (final IOException e) {
+				this.close();
+				throw new RulewerkRuntimeException("Could not use temporary files for query answers: " + e.getMessage(),
+						e);
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public QueryResult next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final QueryResult result = this.next;
+			this.next = null;
+			return result;
+		}
+
+		/**
+		 * @return the next row that has not been returned yet, or {@code null} if
+		 *         there are no more rows
+		 */
+		private long[] computeNext() throws IOException {
+			while (true) {
+				final long[] row = this.readInput();
+				if (row == null) {
+					if (!this.nextInput()) {
+						return null;
+					}
+				} else if (!this.distinct) {
+					return row;
+				} else if (this.spillFiles == null && (this.seen.size() < ProjectionQueryEvaluator.this.maxTuplesInMemory
+						|| this.depth >= MAX_SPILL_DEPTH)) {
+					if (this.seen.add(row)) {
+						return row;
+					}
+				} else if (!this.seen.contains(row)) {
+					if (this.spillFiles == null) {
+						this.spillFiles = SpillFile.createPartitions(ProjectionQueryEvaluator.this.spillDirectory,
+								this.positions.length);
+						ProjectionQueryEvaluator.this.spillFileCount += this.spillFiles.size();
+					}
+					this.spillFiles.get(SpillFile.partition(row, row.length, this.depth)).write(row);
+				}
+			}
+		}
+
+		private long[] readInput() throws IOException {
+			if (this.tuples != null) {
+				if (this.tuples.hasNext()) {
+					return project(this.tuples.next(), this.positions);
+				}
+				return null;
+			}
+			return this.reader == null ? null : this.reader.read();
+		}
+
+		/**
+		 * Finishes the current input and continues with the next pending partition.
+		 *
+		 * @return {@code false} if there is no more input
+		 */
+		private boolean nextInput() throws IOException {
+			this.closeInput();
+			if (this.spillFiles != null) {
+				for (final SpillFile spillFile : this.spillFiles) {
+					spillFile.finishWriting();
+					this.pendingPartitions.push(new Partition(spillFile, this.depth + 1));
+				}
+				this.spillFiles = null;
+			}
+			if (this.pendingPartitions.isEmpty()) {
+				return false;
+			}
+			this.partition = this.pendingPartitions.pop();
+			this.depth = this.partition.depth;
+			this.seen = new LongTupleHashSet(this.positions.length);
+			this.reader = this.partition.file.openReader();
+			return true;
+		}
+
+		private void closeInput() throws IOException {
+			if (this.tuples != null) {
+				this.tuples.close();
+				this.tuples = null;
+			}
+			if (this.reader != null) {
+				this.reader.close();
+				this.reader = null;
+			}
+			if (this.partition != null) {
+				this.partition.file.delete();
+				this.partition = null;
+			}
+		}
+
+		@Override
+		public Correctness getCorrectness() {
+			return this.correctness;
+		}
+
+		@Override
+		public void close() {
+			this.finished = true;
+			this.next = null;
+			this.seen = null;
+			try {
+				this.closeInput();
+			} catch (final IOException e) {
+				// temporary files are deleted below anyway
+			}
+			if (this.partition != null) {
+				this.partition.file.delete();
+				this.partition = null;
+			}
+			if (this.spillFiles != null) {
+				SpillFile.deleteAll(this.spillFiles);
+				this.spillFiles = null;
+			}
+			while (!this.pendingPartitions.isEmpty()) {
+				this.pendingPartitions.pop().file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Iterates over projected answers in sorted order. All answers are read and
+	 * sorted when the first result is requested.
+	 */
+	private final class SortedQueryResultIterator implements QueryResultIterator {
+		private final int[] positions;
+		private final boolean distinct;
+		private final int[] orderIndexes;
+		private final boolean includeNulls;
+		private final Correctness correctness;
+		private final Map<Long, Term> termCache = new HashMap<>();
+
+		private TupleIterator tuples;
+		private TupleSorter sorter;
+		private long[] previous;
+		private QueryResult next;
+		private boolean finished;
+
+		SortedQueryResultIterator(final TupleIterator tuples, final int[] positions, final boolean distinct,
+				final int[] orderIndexes, final boolean includeNulls, final Correctness correctness) {
+			this.tuples = tuples;
+			this.positions = positions;
+			this.distinct = distinct;
+			this.orderIndexes = orderIndexes;
+			this.includeNulls = includeNulls;
+			this.correctness = correctness;
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				if (this.sorter == null && !this.finished) {
+					this.sort();
+				}
+				while (this.next == null && !this.finished) {
+					final long[] row = this.sorter.next();
+					if (row == null) {
+						this.close();
+					} else if (!this.distinct || this.previous == null || !Arrays.equals(this.previous, row)) {
+						this.previous = row;
+						this.next = ProjectionQueryEvaluator.this.decode(row, this.includeNulls);
+					}
+				}
+			} catch (final IOException e) {
+				this.close();
+				throw new RulewerkRuntimeException("Could not use temporary files for query answers: " + e.getMessage(),
+						e);
+			}
+			return this.next != null;
+		}
+
+		private void sort() throws IOException {
+			this.sorter = new TupleSorter(this.positions.length, this::compare,
+					ProjectionQueryEvaluator.this.maxTuplesInMemory, ProjectionQueryEvaluator.this.spillDirectory);
+			try {
+				while (this.tuples.hasNext()) {
+					this.sorter.add(project(this.tuples.next(), this.positions));
+				}
+			} finally {
+				this.tuples.close();
+				this.tuples = null;
+				ProjectionQueryEvaluator.this.spillFileCount += this.sorter.getRunCount();
+			}
+			this.sorter.finish();
+		}
+
+		private int compare(final long[] first, final long[] second) {
+			for (final int index : this.orderIndexes) {
+				if (first[index] != second[index]) {
+					final int result = TermComparator.INSTANCE.compare(this.getTerm(first[index]),
+							this.getTerm(second[index]));
+					if (result != 0) {
+						return result;
+					}
+				}
+			}
+			for (int i = 0; i < first.length; i++) {
+				final int result = Long.compare(first[i], second[i]);
+				if (result != 0) {
+					return result;
+				}
+			}
+			return 0;
+		}
+
+		private Term getTerm(final long id) {
+			Term term = this.termCache.get(id);
+			if (term == null) {
+				if (this.termCache.size() >= MAX_CACHED_TERMS) {
+					this.termCache.clear();
+				}
+				term = ProjectionQueryEvaluator.this.tupleSource.getTerm(id);
+				this.termCache.put(id, term);
+			}
+			return term;
+		}
+
+		@Override
+		public QueryResult next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final QueryResult result = this.next;
+			this.next = null;
+			return result;
+		}
+
+		@Override
+		public Correctness getCorrectness() {
+			return this.correctness;
+		}
+
+		@Override
+		public void close() {
+			this.finished = true;
+			this.next = null;
+			this.termCache.clear();
+			if (this.tuples != null) {
+				this.tuples.close();
+				this.tuples = null;
+			}
+			if (this.sorter != null) {
+				this.sorter.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPage;
+
+/**
+ * Keeps the open {@link QueryResultIterator}s of paged queries, so that the
+ * next page of results can be read without evaluating the query again. Each
+ * page has a fresh cursor token, which can be used once. If more cursors are
+ * open than allowed, the least recently used ones are closed. Reasoners
+ * {@link #invalidate()} all cursors when their state changes.
+ *
+ * This class is thread-safe.
+ */
+public class QueryCursorRegistry {
+
+	/**
+	 * Default maximal number of open cursors.
+	 */
+	public static final int DEFAULT_MAX_OPEN_CURSORS = 64;
+
+	private final int maxOpenCursors;
+	private final Map<String, QueryResultIterator> cursors = new LinkedHashMap<>(16, 0.75f, true);
+
+	public QueryCursorRegistry() {
+		this(DEFAULT_MAX_OPEN_CURSORS);
+	}
+
+	/**
+	 * @param maxOpenCursors the maximal number of open cursors
+	 */
+	public QueryCursorRegistry(final int maxOpenCursors) {
+		Validate.isTrue(maxOpenCursors > 0, "Maximal number of open cursors must be positive!");
+		this.maxOpenCursors = maxOpenCursors;
+	}
+
+	/**
+	 * Reads the first page of the given query results. If there are more
+	 * results, the iterator is kept open for reading further pages; otherwise, it
+	 * is closed.
+	 *
+	 * @param queryResults the results of a query
+	 * @param pageSize     the maximal number of results of the page
+	 * @return the first page
+	 */
+	public QueryResultPage getFirstPage(final QueryResultIterator queryResults, final int pageSize) {
+		Validate.isTrue(pageSize > 0, "Page size must be positive!");
+		return this.readPage(queryResults, pageSize);
+	}
+
+	/**
+	 * Reads the next page of results for the given cursor. The cursor cannot be
+	 * used again afterwards.
+	 *
+	 * @param cursor   a cursor of a previous page
+	 * @param pageSize the maximal number of results of the page
+	 * @return the next page
+	 * @throws IllegalArgumentException if the cursor is unknown or no longer
+	 *                                  valid
+	 */
+	public QueryResultPage getNextPage(final String cursor, final int pageSize) {
+		Validate.notNull(cursor, "Cursor must not be null!");
+		Validate.isTrue(pageSize > 0, "Page size must be positive!");
+		final QueryResultIterator queryResults;
+		synchronized (this) {
+			queryResults = this.cursors.remove(cursor);
+		}
+		if (queryResults == null) {
+			throw new IllegalArgumentException("Unknown or expired query cursor: " + cursor);
+		}
+		return this.readPage(queryResults, pageSize);
+	}
+
+	private QueryResultPage readPage(final QueryResultIterator queryResults, final int pageSize) {
+		final List<QueryResult> page = new ArrayList<>(Math.min(pageSize, 1024));
+		try {
+			while (page.size() < pageSize && queryResults.hasNext()) {
+				page.add(queryResults.next());
+			}
+		} catch (final RuntimeException e) {
+			queryResults.close();
+			throw e;
+		}
+		if (!queryResults.hasNext()) {
+			queryResults.close();
+			return new QueryResultPageImpl(page, null, queryResults.getCorrectness());
+		}
+		final String cursor = UUID.randomUUID().toString();
+		final List<QueryResultIterator> evicted = new ArrayList<>();
+		synchronized (this) {
+			this.cursors.put(cursor, queryResults);
+			final Iterator<QueryResultIterator> iterator = this.cursors.values().iterator();
+			while (this.cursors.size() > this.maxOpenCursors) {
+				evicted.add(iterator.next());
+				iterator.remove();
+			}
+		}
+		evicted.forEach(QueryResultIterator::close);
+		return new QueryResultPageImpl(page, cursor, queryResults.getCorrectness());
+	}
+
+	/**
+	 * Closes all open cursors.
+	 */
+	public void invalidate() {
+		final List<QueryResultIterator> closed;
+		synchronized (this) {
+			closed = new ArrayList<>(this.cursors.values());
+			this.cursors.clear();
+		}
+		closed.forEach(QueryResultIterator::close);
+	}
+
+	/**
+	 * @return the number of open cursors
+	 */
+	public synchronized int getOpenCursorCount() {
+		return this.cursors.size();
+	}
+}
@@ -0,0 +1,116 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
+
+/**
+ * Implements {@link QueryResultBatch}es as one array of terms per column. The
+ * arrays are kept when the batch is {@link #clear(int, int) cleared}, so that a
+ * batch can be refilled without allocations.
+ */
+public class QueryResultBatchImpl implements QueryResultBatch {
+
+	private Term[][] columns = new Term[0][];
+	private int columnCount;
+	private int rowCount;
+
+	/**
+	 * Removes all results from this batch and prepares it for results of the
+	 * given size.
+	 *
+	 * @param columnCount number of terms per result
+	 * @param capacity    maximal number of results that will be added
+	 */
+	public void clear(final int columnCount, final int capacity) {
+		if (this.columns.length < columnCount) {
+			this.columns = Arrays.copyOf(this.columns, columnCount);
+		}
+		for (int column = 0; column < columnCount; column++) {
+			if (this.columns[column] == null || this.columns[column].length < capacity) {
+				this.columns[column] = new Term[capacity];
+			}
+		}
+		this.columnCount = columnCount;
+		this.rowCount = 0;
+	}
+
+	/**
+	 * Adds a result to this batch. The terms of the result have to be set with
+	 * {@link #setTerm(int, int, Term)}.
+	 *
+	 * @return the index of the new result
+	 */
+	public int addRow() {
+		return this.rowCount++;
+	}
+
+	/**
+	 * Sets a term of a result in this batch.
+	 *
+	 * @param row    index of the result
+	 * @param column index of the term in the result
+	 * @param term   the term
+	 */
+	public void setTerm(final int row, final int column, final Term term) {
+		this.columns[column][row] = term;
+	}
+
+	/**
+	 * Returns the terms of one column of this batch. Only the first
+	 * {@link #getRowCount()} entries of the returned array are valid.
+	 *
+	 * @param column index of the column
+	 * @return the backing array of the column
+	 */
+	public Term[] getColumn(final int column) {
+		return this.columns[column];
+	}
+
+	@Override
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return this.columnCount;
+	}
+
+	@Override
+	public Term getTerm(final int row, final int column) {
+		return this.columns[column][row];
+	}
+
+	@Override
+	public QueryResult getQueryResult(final int row) {
+		final Term[] terms = new Term[this.columnCount];
+		for (int column = 0; column < this.columnCount; column++) {
+			terms[column] = this.columns[column][row];
+		}
+		return new QueryResultImpl(Arrays.asList(terms));
+	}
+
+}
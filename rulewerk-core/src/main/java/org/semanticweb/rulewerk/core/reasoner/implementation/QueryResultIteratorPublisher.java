@@ -0,0 +1,258 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPublisher;
+
+/**
+ * A {@link QueryResultPublisher} that reads the results of a
+ * {@link QueryResultIterator} on a given {@link Executor}. The iterator of a
+ * subscription is only read while the subscriber has outstanding demand, and
+ * at most {@link #MAX_RESULTS_PER_TASK} results are delivered by one task of
+ * the executor, so that many subscriptions can share few threads. No thread is
+ * used by a subscription that waits for its subscriber to request results. The
+ * iterator is only accessed by one task at a time, and it is closed when all
+ * results have been delivered, when reading fails, when the subscription is
+ * cancelled, or when the publisher is closed.
+ */
+public class QueryResultIteratorPublisher implements QueryResultPublisher {
+
+	/**
+	 * The maximal number of results delivered by one task before the remaining
+	 * work of a subscription is handed back to the executor.
+	 */
+	public static final int MAX_RESULTS_PER_TASK = 1024;
+
+	private final Supplier<QueryResultIterator> iteratorSupplier;
+	private final Executor executor;
+	private final Correctness correctness;
+	private final Set<IteratorSubscription> openSubscriptions = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates a publisher for query results.
+	 *
+	 * @param iteratorSupplier evaluates the query; called once for each
+	 *                         subscription, on a thread of the {@code executor}.
+	 * @param executor         the executor that runs the evaluation and delivers
+	 *                         the results
+	 * @param correctness      the correctness of the query results
+	 */
+	public QueryResultIteratorPublisher(final Supplier<QueryResultIterator> iteratorSupplier, final Executor executor,
+			final Correctness correctness) {
+		Validate.notNull(iteratorSupplier, "Query result iterator supplier cannot be null.");
+		Validate.notNull(executor, "Executor cannot be null.");
+		this.iteratorSupplier = iteratorSupplier;
+		this.executor = executor;
+		this.correctness = correctness;
+	}
+
+	@Override
+	public void subscribe(final Subscriber subscriber) {
+		Validate.notNull(subscriber, "Subscriber cannot be null.");
+		final IteratorSubscription subscription = new IteratorSubscription(subscriber);
+		this.openSubscriptions.add(subscription);
+		// results are only delivered after onSubscribe has returned
+		subscription.pending.set(1);
+		subscriber.onSubscribe(subscription);
+		if (subscription.pending.decrementAndGet() != 0) {
+			subscription.execute();
+		}
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		return this.correctness;
+	}
+
+	/**
+	 * Terminates all subscriptions that have not completed, failed, or been
+	 * cancelled yet: their iterators are closed and their subscribers are
+	 * notified with {@link Subscriber#onError(Throwable)}. This happens in a task
+	 * of the executor, or immediately if the executor rejects it.
+	 *
+	 * @param cause the error passed to the subscribers
+	 */
+	public void close(final Throwable cause) {
+		Validate.notNull(cause, "Cause cannot be null.");
+		for (final IteratorSubscription subscription : this.openSubscriptions) {
+			subscription.closedCause = cause;
+			subscription.schedule();
+		}
+	}
+
+	private class IteratorSubscription implements Subscription {
+
+		private final Subscriber subscriber;
+		private final AtomicLong requested = new AtomicLong();
+		/**
+		 * Number of pending signals to the drain loop; the task that increments it
+		 * from zero owns the iterator until it decrements it back to zero.
+		 */
+		private final AtomicInteger pending = new AtomicInteger();
+
+		private volatile boolean cancelled = false;
+		private volatile Throwable invalidRequest;
+		private volatile Throwable closedCause;
+
+		// only accessed by the task that owns the subscription
+		private QueryResultIterator iterator;
+		private boolean terminated = false;
+
+		IteratorSubscription(final Subscriber subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(final long n) {
+			if (n <= 0) {
+				this.invalidRequest = new IllegalArgumentException(
+						"The number of requested results must be positive, but was " + n + ".");
+			} else {
+				this.requested.accumulateAndGet(n, (current, added) -> {
+					final long sum = current + added;
+					return sum < 0 ? Long.MAX_VALUE : sum;
+				});
+			}
+			this.schedule();
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+			this.schedule();
+		}
+
+		private void schedule() {
+			if (this.pending.getAndIncrement() == 0) {
+				this.execute();
+			}
+		}
+
+		private void execute() {
+			try {
+				QueryResultIteratorPublisher.this.executor.execute(this::drain);
+			} catch (final RuntimeException e) {
+				// the executor rejected the task: no one else owns the subscription
+				this.cancelled = true;
+				this.closeIterator();
+				if (!this.terminated) {
+					this.terminate();
+					this.subscriber.onError(this.closedCause != null ? this.closedCause : e);
+				}
+			}
+		}
+
+		private void drain() {
+			int missed = this.pending.get();
+			while (true) {
+				if (this.terminated) {
+					// nothing to do
+				} else if (this.cancelled) {
+					this.terminate();
+					this.closeIterator();
+				} else if (this.closedCause != null) {
+					this.fail(this.closedCause);
+				} else if (this.invalidRequest != null) {
+					this.fail(this.invalidRequest);
+				} else if (this.emit()) {
+					// batch limit reached, continue in a new task
+					this.execute();
+					return;
+				}
+				missed = this.pending.addAndGet(-missed);
+				if (missed == 0) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Delivers results as long as they are requested.
+		 *
+		 * @return {@code true} if more results are requested than could be delivered
+		 *         by this task
+		 */
+		private boolean emit() {
+			try {
+				if (this.iterator == null) {
+					if (this.requested.get() == 0) {
+						return false;
+					}
+					this.iterator = QueryResultIteratorPublisher.this.iteratorSupplier.get();
+				}
+				int emitted = 0;
+				while (this.requested.get() > 0) {
+					if (this.cancelled || this.closedCause != null) {
+						return false;
+					}
+					if (!this.iterator.hasNext()) {
+						this.terminate();
+						this.closeIterator();
+						this.subscriber.onComplete();
+						return false;
+					}
+					final QueryResult queryResult = this.iterator.next();
+					if (this.requested.get() != Long.MAX_VALUE) {
+						this.requested.decrementAndGet();
+					}
+					this.subscriber.onNext(queryResult);
+					emitted++;
+					if (emitted == MAX_RESULTS_PER_TASK && this.requested.get() > 0) {
+						return true;
+					}
+				}
+			} catch (final RuntimeException e) {
+				this.fail(e);
+			}
+			return false;
+		}
+
+		private void fail(final Throwable throwable) {
+			this.terminate();
+			this.closeIterator();
+			this.subscriber.onError(throwable);
+		}
+
+		private void terminate() {
+			this.terminated = true;
+			QueryResultIteratorPublisher.this.openSubscriptions.remove(this);
+		}
+
+		private void closeIterator() {
+			if (this.iterator != null) {
+				this.iterator.close();
+				this.iterator = null;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPage;
+
+public class QueryResultPageImpl implements QueryResultPage {
+
+	private final List<QueryResult> queryResults;
+	private final String cursor;
+	private final Correctness correctness;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param queryResults the results of the page
+	 * @param cursor       the cursor for the next page, or {@code null} for the
+	 *                     last page
+	 * @param correctness  the correctness of the results
+	 */
+	public QueryResultPageImpl(final List<QueryResult> queryResults, final String cursor,
+			final Correctness correctness) {
+		this.queryResults = queryResults;
+		this.cursor = cursor;
+		this.correctness = correctness;
+	}
+
+	@Override
+	public List<QueryResult> getQueryResults() {
+		return this.queryResults;
+	}
+
+	@Override
+	public String getCursor() {
+		return this.cursor;
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		return this.correctness;
+	}
+
+	@Override
+	public String toString() {
+		return this.queryResults.size() + " result(s) (" + this.correctness + ")"
+				+ (this.cursor == null ? "" : ", next page: " + this.cursor);
+	}
+
+}
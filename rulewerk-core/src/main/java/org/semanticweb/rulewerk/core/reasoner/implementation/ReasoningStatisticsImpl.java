@@ -0,0 +1,159 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.reasoner.ReasoningStatistics;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+
+public class ReasoningStatisticsImpl implements ReasoningStatistics {
+
+	private final long loadingTime;
+	private final long conversionTime;
+	private final long materialisationTime;
+	private final Map<Predicate, Long> factCounts;
+	private final Map<Predicate, Long> assertedFactCounts;
+	private final long peakMemoryUsage;
+	private final List<RuleStatistics> ruleStatistics;
+	private final Map<String, Long> cyclicityCheckTimes;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param loadingTime         loading time in milliseconds
+	 * @param conversionTime      conversion time in milliseconds
+	 * @param materialisationTime materialisation time in milliseconds
+	 * @param factCounts          number of facts for each predicate
+	 * @param assertedFactCounts  number of asserted facts for each predicate
+	 * @param peakMemoryUsage     peak memory usage in bytes, or -1
+	 */
+	public ReasoningStatisticsImpl(final long loadingTime, final long conversionTime, final long materialisationTime,
+			final Map<Predicate, Long> factCounts, final Map<Predicate, Long> assertedFactCounts,
+			final long peakMemoryUsage) {
+		this(loadingTime, conversionTime, materialisationTime, factCounts, assertedFactCounts, peakMemoryUsage,
+				Collections.emptyList());
+	}
+
+	/**
+	 * Constructor for statistics that include a rule profile.
+	 *
+	 * @param loadingTime         loading time in milliseconds
+	 * @param conversionTime      conversion time in milliseconds
+	 * @param materialisationTime materialisation time in milliseconds
+	 * @param factCounts          number of facts for each predicate
+	 * @param assertedFactCounts  number of asserted facts for each predicate
+	 * @param peakMemoryUsage     peak memory usage in bytes, or -1
+	 * @param ruleStatistics      statistics of each profiled rule
+	 */
+	public ReasoningStatisticsImpl(final long loadingTime, final long conversionTime, final long materialisationTime,
+			final Map<Predicate, Long> factCounts, final Map<Predicate, Long> assertedFactCounts,
+			final long peakMemoryUsage, final List<RuleStatistics> ruleStatistics) {
+		this(loadingTime, conversionTime, materialisationTime, factCounts, assertedFactCounts, peakMemoryUsage,
+				ruleStatistics, Collections.emptyMap());
+	}
+
+	/**
+	 * Constructor for statistics that include a rule profile and the times of
+	 * cyclicity checks.
+	 *
+	 * @param loadingTime         loading time in milliseconds
+	 * @param conversionTime      conversion time in milliseconds
+	 * @param materialisationTime materialisation time in milliseconds
+	 * @param factCounts          number of facts for each predicate
+	 * @param assertedFactCounts  number of asserted facts for each predicate
+	 * @param peakMemoryUsage     peak memory usage in bytes, or -1
+	 * @param ruleStatistics      statistics of each profiled rule
+	 * @param cyclicityCheckTimes time in milliseconds of each cyclicity check
+	 */
+	public ReasoningStatisticsImpl(final long loadingTime, final long conversionTime, final long materialisationTime,
+			final Map<Predicate, Long> factCounts, final Map<Predicate, Long> assertedFactCounts,
+			final long peakMemoryUsage, final List<RuleStatistics> ruleStatistics,
+			final Map<String, Long> cyclicityCheckTimes) {
+		this.loadingTime = loadingTime;
+		this.conversionTime = conversionTime;
+		this.materialisationTime = materialisationTime;
+		this.factCounts = Collections.unmodifiableMap(new HashMap<>(factCounts));
+		this.assertedFactCounts = Collections.unmodifiableMap(new HashMap<>(assertedFactCounts));
+		this.peakMemoryUsage = peakMemoryUsage;
+		this.ruleStatistics = Collections.unmodifiableList(new ArrayList<>(ruleStatistics));
+		this.cyclicityCheckTimes = Collections.unmodifiableMap(new HashMap<>(cyclicityCheckTimes));
+	}
+
+	@Override
+	public long getLoadingTime() {
+		return this.loadingTime;
+	}
+
+	@Override
+	public long getConversionTime() {
+		return this.conversionTime;
+	}
+
+	@Override
+	public long getMaterialisationTime() {
+		return this.materialisationTime;
+	}
+
+	@Override
+	public Set<Predicate> getPredicates() {
+		return this.factCounts.keySet();
+	}
+
+	@Override
+	public long getFactCount(final Predicate predicate) {
+		return this.factCounts.getOrDefault(predicate, 0L);
+	}
+
+	@Override
+	public long getAssertedFactCount(final Predicate predicate) {
+		return this.assertedFactCounts.getOrDefault(predicate, 0L);
+	}
+
+	@Override
+	public long getPeakMemoryUsage() {
+		return this.peakMemoryUsage;
+	}
+
+	@Override
+	public List<RuleStatistics> getRuleStatistics() {
+		return this.ruleStatistics;
+	}
+
+	@Override
+	public Map<String, Long> getCyclicityCheckTimes() {
+		return this.cyclicityCheckTimes;
+	}
+
+	@Override
+	public String toString() {
+		return "ReasoningStatistics [loadingTime=" + this.loadingTime + ", conversionTime=" + this.conversionTime
+				+ ", materialisationTime=" + this.materialisationTime + ", predicates=" + this.factCounts.size()
+				+ ", peakMemoryUsage=" + this.peakMemoryUsage + "]";
+	}
+
+}
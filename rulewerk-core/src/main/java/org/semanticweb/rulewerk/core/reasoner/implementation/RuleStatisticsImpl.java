@@ -0,0 +1,74 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+
+public class RuleStatisticsImpl implements RuleStatistics {
+
+	private final Rule rule;
+	private final long applications;
+	private final long derivedFacts;
+	private final double time;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param rule         the profiled rule
+	 * @param applications number of applications of the rule
+	 * @param derivedFacts number of facts derived by the rule
+	 * @param time         time spent applying the rule in milliseconds
+	 */
+	public RuleStatisticsImpl(final Rule rule, final long applications, final long derivedFacts, final double time) {
+		this.rule = rule;
+		this.applications = applications;
+		this.derivedFacts = derivedFacts;
+		this.time = time;
+	}
+
+	@Override
+	public Rule getRule() {
+		return this.rule;
+	}
+
+	@Override
+	public long getApplications() {
+		return this.applications;
+	}
+
+	@Override
+	public long getDerivedFacts() {
+		return this.derivedFacts;
+	}
+
+	@Override
+	public double getTime() {
+		return this.time;
+	}
+
+	@Override
+	public String toString() {
+		return "RuleStatistics [rule=" + this.rule + ", applications=" + this.applications + ", derivedFacts="
+				+ this.derivedFacts + ", time=" + this.time + "]";
+	}
+
+}
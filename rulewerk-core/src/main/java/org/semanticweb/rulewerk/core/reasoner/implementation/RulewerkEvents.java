@@ -0,0 +1,251 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Java Flight Recorder events for the phases of loading, reasoning, querying
+ * and exporting, and for bulk operations on knowledge bases. The events are
+ * only recorded if they are enabled in a running recording, e.g., with
+ * {@code -XX:StartFlightRecording}, and cause no noticeable overhead otherwise.
+ * Expensive event fields are only computed if
+ * {@link RulewerkEvent#shouldCommit()} holds. <br>
+ * The events do not depend on the {@code jdk.jfr} API: whether it is available
+ * is checked once, and if it is not, all events do nothing.
+ */
+public final class RulewerkEvents {
+
+	/**
+	 * Whether the {@code jdk.jfr} API is available in the Java runtime.
+	 */
+	static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+	private RulewerkEvents() {
+	}
+
+	private static boolean isJfrAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, RulewerkEvents.class.getClassLoader());
+			return true;
+		} catch (final ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Records an event with the Java Flight Recorder.
+	 */
+	interface Recorder {
+		void begin();
+
+		boolean shouldCommit();
+
+		void commit(RulewerkEvent event);
+	}
+
+	/**
+	 * Base class of the events. The fields of an event are only written to the
+	 * recording by {@link #commit()}.
+	 */
+	public abstract static class RulewerkEvent {
+
+		private final Recorder recorder;
+
+		RulewerkEvent() {
+			this.recorder = JFR_AVAILABLE ? this.newRecorder() : null;
+		}
+
+		abstract Recorder newRecorder();
+
+		/**
+		 * Starts the timing of the event.
+		 */
+		public void begin() {
+			if (this.recorder != null) {
+				this.recorder.begin();
+			}
+		}
+
+		/**
+		 * @return {@code true} if the event is enabled in a running recording and
+		 *         its duration exceeds the threshold of the recording
+		 */
+		public boolean shouldCommit() {
+			return this.recorder != null && this.recorder.shouldCommit();
+		}
+
+		/**
+		 * Ends the timing of the event, and writes it to the recording if
+		 * {@link #shouldCommit()} holds.
+		 */
+		public void commit() {
+			if (this.recorder != null) {
+				this.recorder.commit(this);
+			}
+		}
+	}
+
+	/**
+	 * Loading of a knowledge base into a reasoner, including data sources, facts
+	 * and rules.
+	 */
+	public static final class LoadKnowledgeBaseEvent extends RulewerkEvent {
+		public int predicates;
+		public int facts;
+		public int rules;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.LoadKnowledgeBaseEvent();
+		}
+	}
+
+	/**
+	 * Initialisation of a reasoner with its file-based and other external data
+	 * sources.
+	 */
+	public static final class LoadDataSourcesEvent extends RulewerkEvent {
+		public int tables;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.LoadDataSourcesEvent();
+		}
+	}
+
+	/**
+	 * Conversion and loading of the facts and in-memory data of one predicate.
+	 */
+	public static final class LoadFactsEvent extends RulewerkEvent {
+		public String predicate;
+		public int facts;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.LoadFactsEvent();
+		}
+	}
+
+	/**
+	 * Conversion and loading of the rules of a knowledge base.
+	 */
+	public static final class SetRulesEvent extends RulewerkEvent {
+		public int rules;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.SetRulesEvent();
+		}
+	}
+
+	/**
+	 * Computation of all inferences of a knowledge base.
+	 */
+	public static final class MaterialiseEvent extends RulewerkEvent {
+		public String algorithm;
+		public boolean completed;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.MaterialiseEvent();
+		}
+	}
+
+	/**
+	 * Check of an acyclicity or cyclicity notion for the rules of a knowledge base.
+	 */
+	public static final class CheckCyclicityEvent extends RulewerkEvent {
+		public String notion;
+		public boolean conclusive;
+		public int rules;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.CheckCyclicityEvent();
+		}
+	}
+
+	/**
+	 * Evaluation of a query, not including the iteration over its answers.
+	 */
+	public static final class QueryEvent extends RulewerkEvent {
+		public String query;
+		public boolean includeNulls;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.QueryEvent();
+		}
+	}
+
+	/**
+	 * Counting of the answers to a query.
+	 */
+	public static final class CountQueryAnswersEvent extends RulewerkEvent {
+		public String query;
+		public boolean includeNulls;
+		public long count;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.CountQueryAnswersEvent();
+		}
+	}
+
+	/**
+	 * Export of the answers to a query to a file.
+	 */
+	public static final class ExportQueryAnswersEvent extends RulewerkEvent {
+		public String query;
+		public String file;
+		public long size;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.ExportQueryAnswersEvent();
+		}
+	}
+
+	/**
+	 * Parsing of statements into a knowledge base.
+	 */
+	public static final class ParseEvent extends RulewerkEvent {
+		public int statements;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.ParseEvent();
+		}
+	}
+
+	/**
+	 * Addition or removal of a list of statements.
+	 */
+	public static final class UpdateKnowledgeBaseEvent extends RulewerkEvent {
+		public String operation;
+		public int statements;
+
+		@Override
+		Recorder newRecorder() {
+			return new JfrEvents.UpdateKnowledgeBaseEvent();
+		}
+	}
+
+}
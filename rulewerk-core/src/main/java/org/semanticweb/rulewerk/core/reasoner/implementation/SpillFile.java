@@ -0,0 +1,179 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A temporary file of rows of term ids with a fixed number of columns, used by
+ * query evaluators that partition intermediate results to disk when they do
+ * not fit into memory.
+ */
+final class SpillFile {
+
+	/**
+	 * Number of files that rows are partitioned into by
+	 * {@link #createPartitions(Path, int)}.
+	 */
+	static final int PARTITIONS = 16;
+
+	final Path path;
+	final int rowSize;
+	private DataOutputStream output;
+	private long rowCount;
+
+	/**
+	 * Creates a new temporary file.
+	 *
+	 * @param directory the directory of the file, or {@code null} for the default
+	 *                  directory for temporary files
+	 * @param rowSize   the number of ids per row
+	 * @throws IOException if the file cannot be created
+	 */
+	SpillFile(final Path directory, final int rowSize) throws IOException {
+		this.path = directory == null ? Files.createTempFile("rulewerk-spill", ".bin")
+				: Files.createTempFile(directory, "rulewerk-spill", ".bin");
+		this.rowSize = rowSize;
+		this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.path)));
+	}
+
+	/**
+	 * Creates {@link #PARTITIONS} new temporary files.
+	 */
+	static List<SpillFile> createPartitions(final Path directory, final int rowSize) throws IOException {
+		final List<SpillFile> spillFiles = new ArrayList<>(PARTITIONS);
+		try {
+			for (int i = 0; i < PARTITIONS; i++) {
+				spillFiles.add(new SpillFile(directory, rowSize));
+			}
+		} catch (final IOException e) {
+			deleteAll(spillFiles);
+			throw e;
+		}
+		return spillFiles;
+	}
+
+	/**
+	 * Chooses the partition of a row based on its first {@code length} ids, using
+	 * a different hash function for each depth, so that rows of one partition are
+	 * spread over all partitions when partitioning again.
+	 */
+	static int partition(final long[] row, final int length, final int depth) {
+		long hash = depth + 1;
+		for (int i = 0; i < length; i++) {
+			hash = hash * 0x9E3779B97F4A7C15L + row[i];
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return (int) Math.floorMod(hash, (long) PARTITIONS);
+	}
+
+	void write(final long[] row) throws IOException {
+		for (int i = 0; i < this.rowSize; i++) {
+			this.output.writeLong(row[i]);
+		}
+		this.rowCount++;
+	}
+
+	long getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Closes the file for writing; afterwards, it can be read with
+	 * {@link #openReader()}.
+	 */
+	void finishWriting() throws IOException {
+		if (this.output != null) {
+			this.output.close();
+			this.output = null;
+		}
+	}
+
+	Reader openReader() throws IOException {
+		this.finishWriting();
+		return new Reader();
+	}
+
+	/**
+	 * Deletes the file. Failures are ignored, since the file is temporary anyway.
+	 */
+	void delete() {
+		try {
+			this.finishWriting();
+		} catch (final IOException e) {
+			// the file is deleted anyway
+		}
+		try {
+			Files.deleteIfExists(this.path);
+		} catch (final IOException e) {
+			// best effort: the temporary file is left behind
+		}
+	}
+
+	static void deleteAll(final List<SpillFile> spillFiles) {
+		for (final SpillFile spillFile : spillFiles) {
+			spillFile.delete();
+		}
+	}
+
+	/**
+	 * Reads the rows of a {@link SpillFile} in the order they were written.
+	 */
+	final class Reader implements Closeable {
+		private final DataInputStream input;
+		private long remaining = SpillFile.this.rowCount;
+
+		private Reader() throws IOException {
+			this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(SpillFile.this.path)));
+		}
+
+		/**
+		 * @return the next row, or {@code null} if all rows have been read
+		 */
+		long[] read() throws IOException {
+			if (this.remaining == 0) {
+				return null;
+			}
+			this.remaining--;
+			final long[] row = new long[SpillFile.this.rowSize];
+			for (int i = 0; i < row.length; i++) {
+				row[i] = this.input.readLong();
+			}
+			return row;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.input.close();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.semanticweb.rulewerk.core.model.api.DatatypeConstant;
+import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+
+/**
+ * A total order on terms that compares numeric literals by their values.
+ * Numeric literals come first, followed by all other terms, which are ordered
+ * by their type and then by their names (IRIs, lexical values or labels).
+ * Numeric literals with equal values are ordered by their datatypes and names,
+ * so that only equal terms are considered equal.
+ */
+public final class TermComparator implements Comparator<Term> {
+
+	/**
+	 * The single instance of this comparator.
+	 */
+	public static final TermComparator INSTANCE = new TermComparator();
+
+	private static final Set<String> NUMERIC_DATATYPES = new HashSet<>(
+			Arrays.asList(PrefixDeclarationRegistry.XSD_DECIMAL, PrefixDeclarationRegistry.XSD_DOUBLE,
+					PrefixDeclarationRegistry.XSD_FLOAT, PrefixDeclarationRegistry.XSD_INTEGER,
+					PrefixDeclarationRegistry.XSD_INT, PrefixDeclarationRegistry.XSD_LONG,
+					PrefixDeclarationRegistry.XSD_SHORT, PrefixDeclarationRegistry.XSD_BYTE));
+
+	private TermComparator() {
+	}
+
+	/**
+	 * Returns the numeric value of the given term.
+	 *
+	 * @param term a term
+	 * @return the value, or {@code null} if the term is not a numeric literal with
+	 *         a valid lexical value
+	 */
+	public static BigDecimal getNumericValue(final Term term) {
+		if (term.getType() != TermType.DATATYPE_CONSTANT) {
+			return null;
+		}
+		final DatatypeConstant constant = (DatatypeConstant) term;
+		if (!NUMERIC_DATATYPES.contains(constant.getDatatype())) {
+			return null;
+		}
+		try {
+			return new BigDecimal(constant.getLexicalValue().trim());
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public int compare(final Term first, final Term second) {
+		if (first.equals(second)) {
+			return 0;
+		}
+		final BigDecimal firstValue = getNumericValue(first);
+		final BigDecimal secondValue = getNumericValue(second);
+		if (firstValue != null && secondValue != null) {
+			final int result = firstValue.compareTo(secondValue);
+			if (result != 0) {
+				return result;
+			}
+		} else if (firstValue != null) {
+			return -1;
+		} else if (secondValue != null) {
+			return 1;
+		}
+		final int result = first.getType().compareTo(second.getType());
+		if (result != 0) {
+			return result;
+		}
+		return first.getName().compareTo(second.getName());
+	}
+}
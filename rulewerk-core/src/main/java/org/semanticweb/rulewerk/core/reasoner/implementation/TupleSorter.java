@@ -0,0 +1,170 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts rows of term ids with a fixed number of columns by external merge
+ * sort: rows are sorted in memory in runs of limited size, runs are written to
+ * temporary files, and the sorted runs are merged while reading the result.
+ */
+final class TupleSorter implements AutoCloseable {
+
+	private final int width;
+	private final Comparator<long[]> comparator;
+	private final int maxRowsInMemory;
+	private final Path spillDirectory;
+
+	private final List<long[]> buffer = new ArrayList<>();
+	private final List<SpillFile> runs = new ArrayList<>();
+
+	private Iterator<long[]> bufferIterator;
+	private PriorityQueue<RunHead> runHeads;
+	private final List<SpillFile.Reader> readers = new ArrayList<>();
+
+	/**
+	 * The next row of a sorted run during merging.
+	 */
+	private static final class RunHead {
+		long[] row;
+		final SpillFile.Reader reader;
+
+		RunHead(final long[] row, final SpillFile.Reader reader) {
+			this.row = row;
+			this.reader = reader;
+		}
+	}
+
+	/**
+	 * @param width           the number of ids per row
+	 * @param comparator      the order of rows
+	 * @param maxRowsInMemory the maximal number of rows that are sorted in memory
+	 * @param spillDirectory  the directory for temporary files, or {@code null}
+	 *                        for the default directory
+	 */
+	TupleSorter(final int width, final Comparator<long[]> comparator, final int maxRowsInMemory,
+			final Path spillDirectory) {
+		this.width = width;
+		this.comparator = comparator;
+		this.maxRowsInMemory = maxRowsInMemory;
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Adds a row. Must not be called after {@link #finish()}.
+	 */
+	void add(final long[] row) throws IOException {
+		this.buffer.add(row);
+		if (this.buffer.size() >= this.maxRowsInMemory) {
+			this.writeRun();
+		}
+	}
+
+	private void writeRun() throws IOException {
+		this.buffer.sort(this.comparator);
+		final SpillFile run = new SpillFile(this.spillDirectory, this.width);
+		this.runs.add(run);
+		for (final long[] row : this.buffer) {
+			run.write(row);
+		}
+		run.finishWriting();
+		this.buffer.clear();
+	}
+
+	/**
+	 * @return the number of sorted runs that have been written to temporary files
+	 */
+	int getRunCount() {
+		return this.runs.size();
+	}
+
+	/**
+	 * Finishes adding rows; afterwards, the sorted rows can be read with
+	 * {@link #next()}.
+	 */
+	void finish() throws IOException {
+		if (this.runs.isEmpty()) {
+			this.buffer.sort(this.comparator);
+			this.bufferIterator = this.buffer.iterator();
+			return;
+		}
+		if (!this.buffer.isEmpty()) {
+			this.writeRun();
+		}
+		this.runHeads = new PriorityQueue<>(this.runs.size(), (first, second) -> this.comparator.compare(first.row,
+				second.row));
+		for (final SpillFile run : this.runs) {
+			final SpillFile.Reader reader = run.openReader();
+			this.readers.add(reader);
+			final long[] row = reader.read();
+			if (row != null) {
+				this.runHeads.add(new RunHead(row, reader));
+			}
+		}
+	}
+
+	/**
+	 * @return the next row in sorted order, or {@code null} if all rows have been
+	 *         read
+	 */
+	long[] next() throws IOException {
+		if (this.bufferIterator != null) {
+			return this.bufferIterator.hasNext() ? this.bufferIterator.next() : null;
+		}
+		final RunHead head = this.runHeads == null ? null : this.runHeads.poll();
+		if (head == null) {
+			return null;
+		}
+		final long[] row = head.row;
+		head.row = head.reader.read();
+		if (head.row != null) {
+			this.runHeads.add(head);
+		}
+		return row;
+	}
+
+	/**
+	 * Releases the rows and deletes all temporary files.
+	 */
+	@Override
+	public void close() {
+		this.buffer.clear();
+		this.bufferIterator = null;
+		this.runHeads = null;
+		for (final SpillFile.Reader reader : this.readers) {
+			try {
+				reader.close();
+			} catch (final IOException e) {
+				// the file is deleted anyway
+			}
+		}
+		this.readers.clear();
+		SpillFile.deleteAll(this.runs);
+		this.runs.clear();
+	}
+}
@@ -0,0 +1,134 @@
+package org.semanticweb.rulewerk.core.reasoner;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimerTest {
+
+	private static long burnCpu() {
+		long result = 0;
+		for (int i = 0; i < 20000000; i++) {
+			result += i % 7;
+		}
+		return result;
+	}
+
+	@Test
+	public void startStop_resourceFlags_recordsProcessCpuTime() {
+		final Timer timer = Timer.getTimerForCurrentThread("test", Timer.RECORD_RESOURCES);
+		timer.start();
+		burnCpu();
+		timer.stop();
+
+		assertEquals(1, timer.getMeasurements());
+		assertTrue(timer.getTotalWallTime() > 0);
+		assertTrue(timer.getTotalCpuTime() > 0);
+		assertTrue(timer.getTotalProcessCpuTime() > 0);
+		assertTrue(timer.getTotalGcCount() >= 0);
+		assertTrue(timer.getTotalGcTime() >= 0);
+		assertFalse(timer.isRunning());
+	}
+
+	@Test
+	public void startStop_defaultFlags_recordsNoResources() {
+		final Timer timer = new Timer("test");
+		timer.start();
+		burnCpu();
+		timer.stop();
+
+		assertEquals(0, timer.getTotalProcessCpuTime());
+		assertEquals(-1, timer.getPeakResidentSetSize());
+		assertEquals(0, timer.getTotalGcCount());
+	}
+
+	@Test
+	public void reset_clearsResources() {
+		final Timer timer = Timer.getTimerForCurrentThread("test", Timer.RECORD_RESOURCES);
+		timer.start();
+		burnCpu();
+		timer.stop();
+		timer.reset();
+
+		assertEquals(0, timer.getMeasurements());
+		assertEquals(0, timer.getTotalProcessCpuTime());
+		assertEquals(-1, timer.getPeakResidentSetSize());
+	}
+
+	@Test
+	public void getProcessCpuTime_isMonotonic() {
+		final long before = Timer.getProcessCpuTime();
+		burnCpu();
+		final long after = Timer.getProcessCpuTime();
+
+		assertTrue(before >= 0);
+		assertTrue(after >= before);
+	}
+
+	@Test
+	public void getNamedTimer_sameKey_returnsSameTimer() {
+		final Timer timer = Timer.getNamedTimer("TimerTest.same");
+
+		assertSame(timer, Timer.getNamedTimer("TimerTest.same"));
+		assertSame(timer, Timer.getNamedTimer("TimerTest.same", Timer.RECORD_ALL));
+		assertNotSame(timer, Timer.getNamedTimer("TimerTest.same", Timer.RECORD_WALLTIME));
+	}
+
+	@Test
+	public void stopNamedTimer_unknownTimer_returnsMinusOne() {
+		assertEquals(-1, Timer.stopNamedTimer("TimerTest.unknown"));
+	}
+
+	@Test
+	public void getNamedTotalTimer_severalThreads_aggregates() throws InterruptedException {
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < 2; j++) {
+					Timer.startNamedTimer("TimerTest.total", Timer.RECORD_WALLTIME);
+					Timer.stopNamedTimer("TimerTest.total", Timer.RECORD_WALLTIME);
+				}
+			}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		final Timer total = Timer.getNamedTotalTimer("TimerTest.total");
+
+		assertEquals(6, total.getMeasurements());
+		assertEquals(0, total.getThreadId());
+		assertEquals(Timer.RECORD_WALLTIME, total.getTodoFlags());
+	}
+
+}
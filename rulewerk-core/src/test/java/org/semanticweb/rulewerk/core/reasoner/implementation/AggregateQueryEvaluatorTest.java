@@ -0,0 +1,223 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluatorTest.FactTupleSource;
+
+public class AggregateQueryEvaluatorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+	private final PositiveLiteral query = Expressions.makePositiveLiteral("edge", this.x, this.y);
+
+	private final FactTupleSource tupleSource = new FactTupleSource(fact("a", "b"), fact("a", "c"), fact("b", "c"),
+			fact("c", "c"), fact("c", "d"), fact("c", "e"));
+
+	static Fact fact(final String source, final String target) {
+		return Expressions.makeFact("edge", Expressions.makeAbstractConstant(source),
+				Expressions.makeAbstractConstant(target));
+	}
+
+	static Term integer(final long value) {
+		return Expressions.makeDatatypeConstant(String.valueOf(value), PrefixDeclarationRegistry.XSD_INTEGER);
+	}
+
+	static Term constant(final String name) {
+		return Expressions.makeAbstractConstant(name);
+	}
+
+	static Set<List<Term>> toSet(final List<QueryResult> results) {
+		final Set<List<Term>> set = new HashSet<>();
+		for (final QueryResult result : results) {
+			set.add(result.getTerms());
+		}
+		return set;
+	}
+
+	@Test
+	public void evaluate_countGroupedBySource_succeeds() {
+		final List<QueryResult> results = new AggregateQueryEvaluator(this.tupleSource).evaluate(this.query,
+				Arrays.asList(this.x), Arrays.asList(Aggregate.count()), true);
+
+		final Set<List<Term>> expected = new HashSet<>(Arrays.asList(Arrays.asList(constant("a"), integer(2)),
+				Arrays.asList(constant("b"), integer(1)), Arrays.asList(constant("c"), integer(3))));
+		assertEquals(3, results.size());
+		assertEquals(expected, toSet(results));
+	}
+
+	@Test
+	public void evaluate_allAggregatesWithoutGroups_succeeds() {
+		final List<QueryResult> results = new AggregateQueryEvaluator(this.tupleSource).evaluate(this.query,
+				Collections.emptyList(), Arrays.asList(Aggregate.count(), Aggregate.countDistinct(this.y),
+						Aggregate.min(this.y), Aggregate.max(this.x)),
+				true);
+
+		assertEquals(1, results.size());
+		assertEquals(Arrays.asList(integer(6), integer(4), constant("b"), constant("c")), results.get(0).getTerms());
+	}
+
+	@Test
+	public void evaluate_minMaxOfNumbers_comparesValues() {
+		final Term nine = Expressions.makeDatatypeConstant("9", PrefixDeclarationRegistry.XSD_INTEGER);
+		final Term ten = Expressions.makeDatatypeConstant("10", PrefixDeclarationRegistry.XSD_INTEGER);
+		final Term half = Expressions.makeDatatypeConstant("0.5", PrefixDeclarationRegistry.XSD_DECIMAL);
+		final FactTupleSource numbers = new FactTupleSource(Expressions.makeFact("edge", constant("a"), ten),
+				Expressions.makeFact("edge", constant("a"), nine), Expressions.makeFact("edge", constant("a"), half));
+
+		final List<QueryResult> results = new AggregateQueryEvaluator(numbers).evaluate(this.query,
+				Collections.emptyList(), Arrays.asList(Aggregate.min(this.y), Aggregate.max(this.y)), true);
+
+		assertEquals(Arrays.asList(half, ten), results.get(0).getTerms());
+	}
+
+	@Test
+	public void evaluate_noAnswersWithoutGroups_returnsZeroCounts() {
+		final PositiveLiteral emptyQuery = Expressions.makePositiveLiteral("edge", constant("e"), this.y);
+
+		final List<QueryResult> results = new AggregateQueryEvaluator(this.tupleSource).evaluate(emptyQuery,
+				Collections.emptyList(), Arrays.asList(Aggregate.count(), Aggregate.countDistinct(this.y)), true);
+
+		assertEquals(1, results.size());
+		assertEquals(Arrays.asList(integer(0), integer(0)), results.get(0).getTerms());
+	}
+
+	@Test
+	public void evaluate_noAnswersWithMin_returnsNothing() {
+		final PositiveLiteral emptyQuery = Expressions.makePositiveLiteral("edge", constant("e"), this.y);
+
+		final List<QueryResult> results = new AggregateQueryEvaluator(this.tupleSource).evaluate(emptyQuery,
+				Collections.emptyList(), Arrays.asList(Aggregate.min(this.y)), true);
+
+		assertTrue(results.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void evaluate_unknownGroupVariable_fails() {
+		new AggregateQueryEvaluator(this.tupleSource).evaluate(this.query,
+				Arrays.asList(Expressions.makeUniversalVariable("Z")), Arrays.asList(Aggregate.count()), true);
+	}
+
+	@Test
+	public void evaluate_manyGroups_spillsToDisk() throws IOException {
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			for (int j = 0; j <= i % 5; j++) {
+				facts.add(fact("n" + i, "m" + j));
+			}
+		}
+		final FactTupleSource manyGroups = new FactTupleSource(facts.toArray(new Fact[facts.size()]));
+		final File spillDirectory = this.temporaryFolder.newFolder();
+		final AggregateQueryEvaluator evaluator = new AggregateQueryEvaluator(manyGroups);
+		evaluator.setMaxGroupsInMemory(10);
+		evaluator.setSpillDirectory(spillDirectory.toPath());
+
+		final List<QueryResult> results = evaluator.evaluate(this.query, Arrays.asList(this.x),
+				Arrays.asList(Aggregate.count(), Aggregate.max(this.y)), true);
+
+		final Set<List<Term>> expected = new HashSet<>();
+		for (int i = 0; i < 500; i++) {
+			expected.add(Arrays.asList(constant("n" + i), integer(i % 5 + 1), constant("m" + (i % 5))));
+		}
+		assertEquals(500, results.size());
+		assertEquals(expected, toSet(results));
+		assertTrue(evaluator.getSpillFileCount() > 0);
+		assertEquals(1, manyGroups.evaluatedAtoms);
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	@Test
+	public void evaluate_manyDistinctValuesInFewGroups_spillsToDisk() throws IOException {
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			facts.add(fact("n" + i % 3, "m" + i));
+			facts.add(fact("n" + i % 3, "m" + i / 2));
+		}
+		final FactTupleSource fewGroups = new FactTupleSource(facts.toArray(new Fact[facts.size()]));
+		final File spillDirectory = this.temporaryFolder.newFolder();
+		final AggregateQueryEvaluator evaluator = new AggregateQueryEvaluator(fewGroups);
+		evaluator.setMaxGroupsInMemory(50);
+		evaluator.setSpillDirectory(spillDirectory.toPath());
+
+		final List<QueryResult> results = evaluator.evaluate(this.query, Arrays.asList(this.x),
+				Arrays.asList(Aggregate.count(), Aggregate.countDistinct(this.y), Aggregate.min(this.y)), true);
+
+		final Set<List<Term>> expected = new HashSet<>();
+		for (int i = 0; i < 3; i++) {
+			final Set<String> distinct = new HashSet<>();
+			for (int j = i; j < 300; j += 3) {
+				distinct.add("m" + j);
+				distinct.add("m" + j / 2);
+			}
+			expected.add(Arrays.asList(constant("n" + i), integer(200), integer(distinct.size()),
+					constant("m" + i / 2)));
+		}
+		assertEquals(expected, toSet(results));
+		assertTrue(evaluator.getSpillFileCount() > 0);
+		assertEquals(1, fewGroups.evaluatedAtoms);
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	@Test
+	public void evaluate_withoutSpilling_writesNoFiles() {
+		final AggregateQueryEvaluator evaluator = new AggregateQueryEvaluator(this.tupleSource);
+
+		evaluator.evaluate(this.query, Arrays.asList(this.x), Arrays.asList(Aggregate.count()), true);
+
+		assertEquals(0, evaluator.getSpillFileCount());
+	}
+
+	@Test
+	public void termComparator_ordersNumbersBeforeOtherTerms() {
+		final Term two = Expressions.makeDatatypeConstant("2", PrefixDeclarationRegistry.XSD_INTEGER);
+		final Term ten = Expressions.makeDatatypeConstant("10", PrefixDeclarationRegistry.XSD_INTEGER);
+
+		assertTrue(TermComparator.INSTANCE.compare(two, ten) < 0);
+		assertTrue(TermComparator.INSTANCE.compare(ten, constant("a")) < 0);
+		assertTrue(TermComparator.INSTANCE.compare(constant("a"), constant("b")) < 0);
+		assertEquals(0, TermComparator.INSTANCE.compare(constant("a"), constant("a")));
+	}
+}
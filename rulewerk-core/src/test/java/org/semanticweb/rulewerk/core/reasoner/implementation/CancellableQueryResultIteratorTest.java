@@ -0,0 +1,96 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.exceptions.QueryCancelledException;
+import org.semanticweb.rulewerk.core.reasoner.CancellationToken;
+import org.semanticweb.rulewerk.core.reasoner.QueryOptions;
+
+public class CancellableQueryResultIteratorTest {
+
+	@Test
+	public void next_notExceeded_returnsAllResults() {
+		final QueryOptions options = QueryOptions.NONE.withTimeout(1, TimeUnit.HOURS)
+				.withCancellationToken(new CancellationToken());
+		try (final CancellableQueryResultIterator iterator = new CancellableQueryResultIterator(
+				QueryCursorRegistryTest.results(1000), options)) {
+			int count = 0;
+			while (iterator.hasNext()) {
+				iterator.next();
+				count++;
+			}
+			assertEquals(1000, count);
+		}
+	}
+
+	@Test
+	public void hasNext_cancelled_closesIterator() {
+		final CancellationToken token = new CancellationToken();
+		final QueryResultIteratorPublisherTest.ClosingTrackingIterator results = new QueryResultIteratorPublisherTest.ClosingTrackingIterator(
+				1000);
+		final CancellableQueryResultIterator iterator = new CancellableQueryResultIterator(results,
+				QueryOptions.NONE.withCancellationToken(token));
+		iterator.next();
+		token.cancel();
+
+		try {
+			while (iterator.hasNext()) {
+				iterator.next();
+			}
+			fail("Iteration should have been cancelled.");
+		} catch (final QueryCancelledException e) {
+			assertFalse(e.isTimedOut());
+		}
+		assertTrue(results.closed);
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test(expected = QueryCancelledException.class)
+	public void nextBatch_cancelled_fails() {
+		final CancellationToken token = new CancellationToken();
+		token.cancel();
+		final CancellableQueryResultIterator iterator = new CancellableQueryResultIterator(
+				QueryCursorRegistryTest.results(10), QueryOptions.NONE.withCancellationToken(token));
+
+		iterator.nextBatch(5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void withTimeout_notPositive_fails() {
+		QueryOptions.NONE.withTimeout(0, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void isLimited_none_false() {
+		assertFalse(QueryOptions.NONE.isLimited());
+		assertFalse(QueryOptions.NONE.isExceeded());
+		assertTrue(QueryOptions.NONE.withCancellationToken(new CancellationToken()).isLimited());
+	}
+
+}
@@ -0,0 +1,250 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.model.implementation.NamedNullImpl;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+
+public class ConjunctiveQueryEvaluatorTest {
+
+	/**
+	 * Tuple source over a list of facts, matching atoms naively.
+	 */
+	static class FactTupleSource implements ConjunctiveQueryEvaluator.TupleSource {
+		final List<Fact> facts;
+		final Map<Term, Long> ids = new HashMap<>();
+		final List<Term> terms = new ArrayList<>();
+		int evaluatedAtoms = 0;
+
+		FactTupleSource(final Fact... facts) {
+			this.facts = Arrays.asList(facts);
+		}
+
+		List<long[]> match(final PositiveLiteral atom) {
+			final List<long[]> result = new ArrayList<>();
+			for (final Fact fact : this.facts) {
+				if (!fact.getPredicate().equals(atom.getPredicate())) {
+					continue;
+				}
+				final Map<Term, Term> binding = new HashMap<>();
+				boolean matches = true;
+				for (int i = 0; i < atom.getArguments().size() && matches; i++) {
+					final Term queryTerm = atom.getArguments().get(i);
+					final Term factTerm = fact.getArguments().get(i);
+					if (queryTerm.isVariable()) {
+						final Term bound = binding.putIfAbsent(queryTerm, factTerm);
+						matches = bound == null || bound.equals(factTerm);
+					} else {
+						matches = queryTerm.equals(factTerm);
+					}
+				}
+				if (matches) {
+					result.add(fact.getArguments().stream().mapToLong(this::getId).toArray());
+				}
+			}
+			return result;
+		}
+
+		long getId(final Term term) {
+			return this.ids.computeIfAbsent(term, t -> {
+				this.terms.add(t);
+				return (long) this.terms.size() - 1;
+			});
+		}
+
+		@Override
+		public long count(final PositiveLiteral atom) {
+			return this.match(atom).size();
+		}
+
+		@Override
+		public void forEachTuple(final PositiveLiteral atom, final Consumer<long[]> action) {
+			this.evaluatedAtoms++;
+			this.match(atom).forEach(action);
+		}
+
+		@Override
+		public Term getTerm(final long id) {
+			return this.terms.get((int) id);
+		}
+	}
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+	private final Variable z = Expressions.makeUniversalVariable("Z");
+
+	private final FactTupleSource tupleSource = new FactTupleSource(fact("edge", "a", "b"), fact("edge", "b", "c"),
+			fact("edge", "c", "c"), fact("edge", "b", "d"), fact("label", "b", "B"), fact("label", "c", "C"));
+
+	static Fact fact(final String predicateName, final String... constantNames) {
+		final List<Term> constants = new ArrayList<>();
+		for (final String constantName : constantNames) {
+			constants.add(Expressions.makeAbstractConstant(constantName));
+		}
+		return Expressions.makeFact(predicateName, constants);
+	}
+
+	static Set<List<Term>> collect(final QueryResultIterator answers) {
+		final Set<List<Term>> result = new HashSet<>();
+		int count = 0;
+		while (answers.hasNext()) {
+			final QueryResult answer = answers.next();
+			result.add(answer.getTerms());
+			count++;
+		}
+		assertEquals("Answers must be distinct", result.size(), count);
+		return result;
+	}
+
+	static List<Term> terms(final String... constantNames) {
+		final List<Term> result = new ArrayList<>();
+		for (final String constantName : constantNames) {
+			result.add(Expressions.makeAbstractConstant(constantName));
+		}
+		return result;
+	}
+
+	private QueryResultIterator answer(final List<Variable> answerVariables, final PositiveLiteral... atoms) {
+		return new ConjunctiveQueryEvaluator(this.tupleSource).answer(Expressions.makePositiveConjunction(atoms),
+				answerVariables, true, Correctness.SOUND_AND_COMPLETE);
+	}
+
+	@Test
+	public void answer_join_succeeds() {
+		final QueryResultIterator answers = this.answer(Arrays.asList(this.x, this.z),
+				Expressions.makePositiveLiteral("edge", this.x, this.y),
+				Expressions.makePositiveLiteral("edge", this.y, this.z));
+
+		assertEquals(new HashSet<>(Arrays.asList(terms("a", "c"), terms("a", "d"), terms("b", "c"), terms("c", "c"))),
+				collect(answers));
+		assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+	}
+
+	@Test
+	public void answer_projection_distinctAnswers() {
+		final QueryResultIterator answers = this.answer(Arrays.asList(this.x),
+				Expressions.makePositiveLiteral("edge", this.x, this.y));
+
+		assertEquals(new HashSet<>(Arrays.asList(terms("a"), terms("b"), terms("c"))), collect(answers));
+	}
+
+	@Test
+	public void answer_constantsAndRepeatedVariables_succeeds() {
+		final QueryResultIterator answers = this.answer(Arrays.asList(this.x, this.y),
+				Expressions.makePositiveLiteral("edge", this.x, this.x),
+				Expressions.makePositiveLiteral("label", this.x, this.y),
+				Expressions.makePositiveLiteral("edge", Expressions.makeAbstractConstant("b"), this.x));
+
+		assertEquals(Collections.singleton(terms("c", "C")), collect(answers));
+	}
+
+	@Test
+	public void answer_unconnectedAtoms_cartesianProduct() {
+		final QueryResultIterator answers = this.answer(Arrays.asList(this.x, this.y),
+				Expressions.makePositiveLiteral("label", this.x, Expressions.makeAbstractConstant("B")),
+				Expressions.makePositiveLiteral("label", this.y, this.z));
+
+		assertEquals(new HashSet<>(Arrays.asList(terms("b", "b"), terms("b", "c"))), collect(answers));
+	}
+
+	@Test
+	public void answer_booleanQuery_singleEmptyAnswer() {
+		final QueryResultIterator answers = this.answer(Collections.emptyList(),
+				Expressions.makePositiveLiteral("edge", this.x, this.y),
+				Expressions.makePositiveLiteral("label", this.y, this.z));
+
+		assertEquals(Collections.singleton(Collections.emptyList()), collect(answers));
+	}
+
+	@Test
+	public void answer_emptyAtom_noTuplesRead() {
+		final QueryResultIterator answers = this.answer(Arrays.asList(this.x),
+				Expressions.makePositiveLiteral("edge", this.x, this.y),
+				Expressions.makePositiveLiteral("unknown", this.y));
+
+		assertFalse(answers.hasNext());
+		assertEquals(0, this.tupleSource.evaluatedAtoms);
+	}
+
+	@Test
+	public void answer_namedNullsExcluded_answersFiltered() {
+		final FactTupleSource source = new FactTupleSource(
+				Expressions.makeFact("p", Expressions.makeAbstractConstant("a"), new NamedNullImpl("n")),
+				Expressions.makeFact("p", Expressions.makeAbstractConstant("b"), Expressions.makeAbstractConstant("c")));
+		final PositiveLiteral atom = Expressions.makePositiveLiteral("p", this.x, this.y);
+
+		final QueryResultIterator withoutNulls = new ConjunctiveQueryEvaluator(source)
+				.answer(Expressions.makePositiveConjunction(atom), Arrays.asList(this.y), false, Correctness.INCORRECT);
+		assertEquals(Collections.singleton(terms("c")), collect(withoutNulls));
+		assertEquals(Correctness.INCORRECT, withoutNulls.getCorrectness());
+
+		final QueryResultIterator projectedNull = new ConjunctiveQueryEvaluator(source).answer(
+				Expressions.makePositiveConjunction(atom), Arrays.asList(this.x), false,
+				Correctness.SOUND_AND_COMPLETE);
+		assertEquals(new HashSet<>(Arrays.asList(terms("a"), terms("b"))), collect(projectedNull));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void answer_unknownAnswerVariable_fails() {
+		this.answer(Arrays.asList(this.z), Expressions.makePositiveLiteral("edge", this.x, this.y));
+	}
+
+	@Test
+	public void selectNextAtom_prefersConnectedSmallAtoms() {
+		final PositiveLiteral large = Expressions.makePositiveLiteral("edge", this.x, this.y);
+		final PositiveLiteral small = Expressions.makePositiveLiteral("label", this.z, this.z);
+		final PositiveLiteral connected = Expressions.makePositiveLiteral("label", this.y, this.z);
+		final Map<PositiveLiteral, Long> sizes = new HashMap<>();
+		sizes.put(large, 100L);
+		sizes.put(small, 1L);
+		sizes.put(connected, 10L);
+
+		assertEquals(small, ConjunctiveQueryEvaluator.selectNextAtom(Arrays.asList(large, small, connected),
+				Collections.emptyList(), sizes));
+		assertEquals(connected, ConjunctiveQueryEvaluator.selectNextAtom(Arrays.asList(large, connected),
+				Arrays.<Term>asList(this.y), sizes));
+		assertTrue(ConjunctiveQueryEvaluator.combine(Correctness.SOUND_AND_COMPLETE,
+				Correctness.SOUND_BUT_INCOMPLETE) == Correctness.SOUND_BUT_INCOMPLETE);
+	}
+
+}
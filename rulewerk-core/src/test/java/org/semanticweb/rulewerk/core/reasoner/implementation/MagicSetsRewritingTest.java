@@ -0,0 +1,196 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Constant;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+
+public class MagicSetsRewritingTest {
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+	private final Variable z = Expressions.makeUniversalVariable("Z");
+	private final Constant a = Expressions.makeAbstractConstant("a");
+	private final Constant b = Expressions.makeAbstractConstant("b");
+
+	private final Predicate edge = Expressions.makePredicate("edge", 2);
+	private final Predicate path = Expressions.makePredicate("path", 2);
+
+	private final Fact edgeAB = Expressions.makeFact(this.edge, this.a, this.b);
+	private final Rule pathBase = Expressions.makeRule(Expressions.makePositiveLiteral(this.path, this.x, this.y),
+			Expressions.makePositiveLiteral(this.edge, this.x, this.y));
+	private final Rule pathStep = Expressions.makeRule(Expressions.makePositiveLiteral(this.path, this.x, this.z),
+			Expressions.makePositiveLiteral(this.edge, this.x, this.y),
+			Expressions.makePositiveLiteral(this.path, this.y, this.z));
+
+	private KnowledgeBase getTransitiveClosureKnowledgeBase() {
+		final KnowledgeBase knowledgeBase = new KnowledgeBase();
+		knowledgeBase.addStatements(this.edgeAB, this.pathBase, this.pathStep);
+		return knowledgeBase;
+	}
+
+	@Test
+	public void rewrite_boundFirstArgument_usesMagicPredicates() {
+		final PositiveLiteral query = Expressions.makePositiveLiteral(this.path, this.a, this.y);
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(this.getTransitiveClosureKnowledgeBase(), query);
+
+		final Predicate pathBf = MagicSetsRewriting.getAdornedPredicate(this.path, "bf");
+		final Predicate magicPathBf = MagicSetsRewriting.getMagicPredicate(this.path, "bf");
+		assertEquals("path##bf", pathBf.getName());
+		assertEquals("magic##path##bf", magicPathBf.getName());
+		assertEquals(1, magicPathBf.getArity());
+
+		assertEquals(Expressions.makePositiveLiteral(pathBf, this.a, this.y), rewriting.getQuery());
+		assertEquals(new HashSet<>(Arrays.asList(Expressions.makeFact(magicPathBf, this.a))),
+				rewriting.getSeedFacts());
+
+		final Rule rewrittenBase = Expressions.makeRule(Expressions.makePositiveLiteral(pathBf, this.x, this.y),
+				Expressions.makePositiveLiteral(magicPathBf, this.x),
+				Expressions.makePositiveLiteral(this.edge, this.x, this.y));
+		final Rule magicStep = Expressions.makeRule(Expressions.makePositiveLiteral(magicPathBf, this.y),
+				Expressions.makePositiveLiteral(magicPathBf, this.x),
+				Expressions.makePositiveLiteral(this.edge, this.x, this.y));
+		final Rule rewrittenStep = Expressions.makeRule(Expressions.makePositiveLiteral(pathBf, this.x, this.z),
+				Expressions.makePositiveLiteral(magicPathBf, this.x),
+				Expressions.makePositiveLiteral(this.edge, this.x, this.y),
+				Expressions.makePositiveLiteral(pathBf, this.y, this.z));
+		assertEquals(new HashSet<>(Arrays.asList(rewrittenBase, magicStep, rewrittenStep)), rewriting.getRules());
+	}
+
+	@Test
+	public void rewrite_freeArguments_noSeedFacts() {
+		final PositiveLiteral query = Expressions.makePositiveLiteral(this.path, this.x, this.y);
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(this.getTransitiveClosureKnowledgeBase(), query);
+
+		final Predicate pathFf = MagicSetsRewriting.getAdornedPredicate(this.path, "ff");
+		assertEquals(Expressions.makePositiveLiteral(pathFf, this.x, this.y), rewriting.getQuery());
+		assertTrue(rewriting.getSeedFacts().isEmpty());
+		final Rule rewrittenBase = Expressions.makeRule(Expressions.makePositiveLiteral(pathFf, this.x, this.y),
+				Expressions.makePositiveLiteral(this.edge, this.x, this.y));
+		assertTrue(rewriting.getRules().contains(rewrittenBase));
+	}
+
+	@Test
+	public void rewrite_edbQuery_unchanged() {
+		final PositiveLiteral query = Expressions.makePositiveLiteral(this.edge, this.a, this.y);
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(this.getTransitiveClosureKnowledgeBase(), query);
+
+		assertEquals(query, rewriting.getQuery());
+		assertTrue(rewriting.getRules().isEmpty());
+		assertEquals(Arrays.asList(this.edgeAB), rewriting.getKnowledgeBase().getFacts());
+	}
+
+	@Test
+	public void rewrite_predicateWithFacts_addsCopyRule() {
+		final KnowledgeBase knowledgeBase = this.getTransitiveClosureKnowledgeBase();
+		final Fact pathBA = Expressions.makeFact(this.path, this.b, this.a);
+		knowledgeBase.addStatement(pathBA);
+		final PositiveLiteral query = Expressions.makePositiveLiteral(this.path, this.a, this.y);
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(knowledgeBase, query);
+
+		final Predicate pathBf = MagicSetsRewriting.getAdornedPredicate(this.path, "bf");
+		final Predicate magicPathBf = MagicSetsRewriting.getMagicPredicate(this.path, "bf");
+		final Variable x0 = Expressions.makeUniversalVariable("X0");
+		final Variable x1 = Expressions.makeUniversalVariable("X1");
+		final Rule copyRule = Expressions.makeRule(Expressions.makePositiveLiteral(pathBf, x0, x1),
+				Expressions.makePositiveLiteral(magicPathBf, x0), Expressions.makePositiveLiteral(this.path, x0, x1));
+
+		assertTrue(rewriting.getRules().contains(copyRule));
+		assertTrue(rewriting.getKnowledgeBase().getFacts().contains(pathBA));
+	}
+
+	@Test
+	public void rewrite_negatedPredicate_keepsOriginalRules() {
+		final KnowledgeBase knowledgeBase = this.getTransitiveClosureKnowledgeBase();
+		final Predicate node = Expressions.makePredicate("node", 1);
+		final Predicate unreachable = Expressions.makePredicate("unreachable", 2);
+		final Rule negationRule = Expressions.makeRule(Expressions.makePositiveLiteral(unreachable, this.x, this.y),
+				Expressions.makePositiveLiteral(node, this.x), Expressions.makePositiveLiteral(node, this.y),
+				Expressions.makeNegativeLiteral(this.path, this.x, this.y));
+		knowledgeBase.addStatement(negationRule);
+		final PositiveLiteral query = Expressions.makePositiveLiteral(unreachable, this.a, this.y);
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(knowledgeBase, query);
+
+		assertTrue(rewriting.getRules().contains(this.pathBase));
+		assertTrue(rewriting.getRules().contains(this.pathStep));
+	}
+
+	@Test
+	public void rewrite_existentialHeadPosition_treatedAsFree() {
+		final Predicate person = Expressions.makePredicate("person", 1);
+		final Predicate parent = Expressions.makePredicate("parent", 2);
+		final Rule rule = Expressions.makeRule(
+				Expressions.makePositiveLiteral(parent, this.x, Expressions.makeExistentialVariable("Y")),
+				Expressions.makePositiveLiteral(person, this.x));
+		final KnowledgeBase knowledgeBase = new KnowledgeBase();
+		knowledgeBase.addStatement(rule);
+		final PositiveLiteral query = Expressions.makePositiveLiteral(parent, this.x, this.a);
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(knowledgeBase, query);
+
+		final Rule rewrittenRule = Expressions.makeRule(
+				Expressions.makePositiveLiteral(MagicSetsRewriting.getAdornedPredicate(parent, "fb"), this.x,
+						Expressions.makeExistentialVariable("Y")),
+				Expressions.makePositiveLiteral(person, this.x));
+		assertTrue(rewriting.getRules().contains(rewrittenRule));
+	}
+
+	@Test
+	public void rewrite_existentialRuleWithSeveralHeadAtoms_keepsOriginalRule() {
+		final Predicate q = Expressions.makePredicate("q", 1);
+		final Predicate r = Expressions.makePredicate("r", 2);
+		final Predicate s = Expressions.makePredicate("s", 1);
+		final Predicate t = Expressions.makePredicate("t", 1);
+		final Rule existentialRule = Expressions.makeRule(
+				Expressions.makePositiveConjunction(
+						Expressions.makePositiveLiteral(r, this.x, Expressions.makeExistentialVariable("Y")),
+						Expressions.makePositiveLiteral(s, Expressions.makeExistentialVariable("Y"))),
+				Expressions.makeConjunction(Expressions.makePositiveLiteral(q, this.x)));
+		final Rule joinRule = Expressions.makeRule(Expressions.makePositiveLiteral(t, this.x),
+				Expressions.makePositiveLiteral(r, this.x, this.y), Expressions.makePositiveLiteral(s, this.y));
+		final KnowledgeBase knowledgeBase = new KnowledgeBase();
+		knowledgeBase.addStatements(existentialRule, joinRule);
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(knowledgeBase,
+				Expressions.makePositiveLiteral(t, this.x));
+
+		assertTrue(rewriting.getRules().contains(existentialRule));
+		for (final Rule rule : rewriting.getRules()) {
+			for (final PositiveLiteral headLiteral : rule.getHead()) {
+				if (headLiteral.getPredicate().getName().startsWith(s.getName() + MagicSetsRewriting.SEPARATOR)) {
+					assertEquals(1, rule.getHead().getLiterals().size());
+					assertEquals(s, rule.getBody().getLiterals().get(rule.getBody().getLiterals().size() - 1)
+							.getPredicate());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+
+public class PredicateDependencyGraphTest {
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+
+	private final Predicate p = Expressions.makePredicate("p", 1);
+	private final Predicate q = Expressions.makePredicate("q", 1);
+	private final Predicate r = Expressions.makePredicate("r", 1);
+	private final Predicate s = Expressions.makePredicate("s", 2);
+	private final Predicate t = Expressions.makePredicate("t", 1);
+	private final Predicate u = Expressions.makePredicate("u", 1);
+
+	// p(X) :- q(X), ~r(X) .
+	private final Rule pRule = Expressions.makeRule(Expressions.makePositiveLiteral(this.p, this.x),
+			Expressions.makePositiveLiteral(this.q, this.x), Expressions.makeNegativeLiteral(this.r, this.x));
+	// q(X) :- q(X) .
+	private final Rule qRule = Expressions.makeRule(Expressions.makePositiveLiteral(this.q, this.x),
+			Expressions.makePositiveLiteral(this.q, this.x));
+	// s(X, !Y), t(!Y) :- r(X) .
+	private final Rule sRule = Expressions.makeRule(
+			Expressions.makePositiveConjunction(
+					Expressions.makePositiveLiteral(this.s, this.x, Expressions.makeExistentialVariable("Y")),
+					Expressions.makePositiveLiteral(this.t, Expressions.makeExistentialVariable("Y"))),
+			Expressions.makeConjunction(Expressions.makePositiveLiteral(this.r, this.x)));
+	// u(X) :- s(X, Y) .
+	private final Rule uRule = Expressions.makeRule(Expressions.makePositiveLiteral(this.u, this.x),
+			Expressions.makePositiveLiteral(this.s, this.x, this.y));
+
+	private final PredicateDependencyGraph graph = new PredicateDependencyGraph(
+			Arrays.asList(this.pRule, this.qRule, this.sRule, this.uRule));
+
+	@Test
+	public void getRelevantPredicates_positiveAndNegativeBody_included() {
+		assertEquals(new HashSet<>(Arrays.asList(this.p, this.q, this.r)),
+				this.graph.getRelevantPredicates(Collections.singleton(this.p)));
+	}
+
+	@Test
+	public void getRelevantPredicates_otherHeadPredicates_included() {
+		assertEquals(new HashSet<>(Arrays.asList(this.t, this.s, this.r)),
+				this.graph.getRelevantPredicates(Collections.singleton(this.t)));
+		assertEquals(new HashSet<>(Arrays.asList(this.u, this.t, this.s, this.r)),
+				this.graph.getRelevantPredicates(Collections.singleton(this.u)));
+	}
+
+	@Test
+	public void getRelevantPredicates_predicateWithoutRules_onlyItself() {
+		final Predicate other = Expressions.makePredicate("other", 3);
+		assertEquals(Collections.singleton(other), this.graph.getRelevantPredicates(Collections.singleton(other)));
+	}
+
+	@Test
+	public void isRelevant_headPredicateRelevant_returnsTrue() {
+		final Set<Predicate> relevantPredicates = this.graph.getRelevantPredicates(Collections.singleton(this.p));
+		assertTrue(PredicateDependencyGraph.isRelevant(this.pRule, relevantPredicates));
+		assertTrue(PredicateDependencyGraph.isRelevant(this.qRule, relevantPredicates));
+		assertFalse(PredicateDependencyGraph.isRelevant(this.sRule, relevantPredicates));
+		assertFalse(PredicateDependencyGraph.isRelevant(this.uRule, relevantPredicates));
+	}
+
+	@Test
+	public void getIndependentComponents_connectedByRules_oneComponent() {
+		final List<Set<Predicate>> components = this.graph.getIndependentComponents(Collections.emptySet());
+		assertEquals(Arrays.asList(new HashSet<>(Arrays.asList(this.p, this.q, this.r, this.s, this.t, this.u))),
+				components);
+	}
+
+	@Test
+	public void getIndependentComponents_unrelatedRulesAndData_separateComponents() {
+		final Predicate other = Expressions.makePredicate("other", 1);
+		final PredicateDependencyGraph graph = new PredicateDependencyGraph(Arrays.asList(this.qRule, this.uRule));
+
+		final Set<Set<Predicate>> components = new HashSet<>(
+				graph.getIndependentComponents(Arrays.asList(this.q, other)));
+
+		final Set<Set<Predicate>> expected = new HashSet<>(Arrays.asList(Collections.singleton(this.q),
+				new HashSet<>(Arrays.asList(this.u, this.s)), Collections.singleton(other)));
+		assertEquals(expected, components);
+	}
+
+}
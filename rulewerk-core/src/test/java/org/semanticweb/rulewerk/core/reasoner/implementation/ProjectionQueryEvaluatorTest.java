@@ -0,0 +1,257 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.model.implementation.NamedNullImpl;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluatorTest.FactTupleSource;
+
+public class ProjectionQueryEvaluatorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+	private final PositiveLiteral query = Expressions.makePositiveLiteral("edge", this.x, this.y);
+
+	private final FactTupleSource tupleSource = new FactTupleSource(fact("a", "b"), fact("a", "c"), fact("b", "c"),
+			fact("c", "c"));
+
+	static Fact fact(final String source, final String target) {
+		return Expressions.makeFact("edge", Expressions.makeAbstractConstant(source),
+				Expressions.makeAbstractConstant(target));
+	}
+
+	static List<List<Term>> collect(final QueryResultIterator iterator) {
+		final List<List<Term>> results = new ArrayList<>();
+		iterator.forEachRemaining(result -> results.add(result.getTerms()));
+		iterator.close();
+		return results;
+	}
+
+	static List<Term> row(final String... names) {
+		final List<Term> row = new ArrayList<>();
+		for (final String name : names) {
+			row.add(Expressions.makeAbstractConstant(name));
+		}
+		return row;
+	}
+
+	@Test
+	public void answer_projectionWithoutDistinct_keepsDuplicates() {
+		final List<List<Term>> results = collect(new ProjectionQueryEvaluator(this.tupleSource).answer(this.query,
+				Arrays.asList(this.x), false, true, Correctness.SOUND_AND_COMPLETE));
+
+		assertEquals(Arrays.asList(row("a"), row("a"), row("b"), row("c")), results);
+	}
+
+	@Test
+	public void answer_projectionWithDistinct_removesDuplicates() {
+		final List<List<Term>> results = collect(new ProjectionQueryEvaluator(this.tupleSource).answer(this.query,
+				Arrays.asList(this.x), true, true, Correctness.SOUND_AND_COMPLETE));
+
+		assertEquals(Arrays.asList(row("a"), row("b"), row("c")), results);
+	}
+
+	@Test
+	public void answer_reorderedVariables_succeeds() {
+		final List<List<Term>> results = collect(new ProjectionQueryEvaluator(this.tupleSource).answer(this.query,
+				Arrays.asList(this.y, this.x), true, true, Correctness.SOUND_AND_COMPLETE));
+
+		assertEquals(Arrays.asList(row("b", "a"), row("c", "a"), row("c", "b"), row("c", "c")), results);
+	}
+
+	@Test
+	public void answer_noAnswerVariables_returnsSingleEmptyAnswer() {
+		final QueryResultIterator answers = new ProjectionQueryEvaluator(this.tupleSource).answer(this.query,
+				Collections.emptyList(), true, true, Correctness.SOUND_BUT_INCOMPLETE);
+
+		assertEquals(Correctness.SOUND_BUT_INCOMPLETE, answers.getCorrectness());
+		assertEquals(Arrays.asList(Collections.emptyList()), collect(answers));
+	}
+
+	@Test
+	public void answer_excludeNulls_onlyChecksAnswerVariables() {
+		final FactTupleSource withNulls = new FactTupleSource(
+				Expressions.makeFact("edge", Expressions.makeAbstractConstant("a"), new NamedNullImpl("n1")),
+				Expressions.makeFact("edge", new NamedNullImpl("n2"), Expressions.makeAbstractConstant("b")));
+
+		final List<List<Term>> results = collect(new ProjectionQueryEvaluator(withNulls).answer(this.query,
+				Arrays.asList(this.x), true, false, Correctness.SOUND_AND_COMPLETE));
+
+		assertEquals(Arrays.asList(row("a")), results);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void answer_unknownVariable_fails() {
+		new ProjectionQueryEvaluator(this.tupleSource).answer(this.query,
+				Arrays.asList(Expressions.makeUniversalVariable("Z")), true, true, Correctness.SOUND_AND_COMPLETE);
+	}
+
+	@Test
+	public void answer_manyDistinctAnswers_spillsToDisk() throws IOException {
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			for (int j = 0; j < 3; j++) {
+				facts.add(fact("n" + i, "m" + j));
+			}
+		}
+		Collections.shuffle(facts);
+		final File spillDirectory = this.temporaryFolder.newFolder();
+		final ProjectionQueryEvaluator evaluator = new ProjectionQueryEvaluator(
+				new FactTupleSource(facts.toArray(new Fact[facts.size()])));
+		evaluator.setMaxTuplesInMemory(5);
+		evaluator.setSpillDirectory(spillDirectory.toPath());
+
+		final List<List<Term>> results = collect(
+				evaluator.answer(this.query, Arrays.asList(this.x), true, true, Correctness.SOUND_AND_COMPLETE));
+
+		final Set<List<Term>> expected = new HashSet<>();
+		for (int i = 0; i < 300; i++) {
+			expected.add(row("n" + i));
+		}
+		assertEquals(300, results.size());
+		assertEquals(expected, new HashSet<>(results));
+		assertTrue(evaluator.getSpillFileCount() > 0);
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	@Test
+	public void close_beforeEnd_deletesSpillFiles() throws IOException {
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			facts.add(fact("n" + i, "m"));
+		}
+		final File spillDirectory = this.temporaryFolder.newFolder();
+		final ProjectionQueryEvaluator evaluator = new ProjectionQueryEvaluator(
+				new FactTupleSource(facts.toArray(new Fact[facts.size()])));
+		evaluator.setMaxTuplesInMemory(10);
+		evaluator.setSpillDirectory(spillDirectory.toPath());
+
+		final QueryResultIterator answers = evaluator.answer(this.query, Arrays.asList(this.x), true, true,
+				Correctness.SOUND_AND_COMPLETE);
+		for (int i = 0; i < 15; i++) {
+			answers.next();
+		}
+		answers.close();
+
+		assertFalse(answers.hasNext());
+		assertTrue(evaluator.getSpillFileCount() > 0);
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	@Test
+	public void longTupleHashSet_addAndContains_succeeds() {
+		final LongTupleHashSet set = new LongTupleHashSet(2);
+		for (long i = 0; i < 1000; i++) {
+			assertTrue(set.add(new long[] { i, i % 7 }));
+		}
+		for (long i = 0; i < 1000; i++) {
+			assertFalse(set.add(new long[] { i, i % 7 }));
+			assertTrue(set.contains(new long[] { i, i % 7 }));
+			assertFalse(set.contains(new long[] { i, i % 7 + 1 }));
+		}
+		assertEquals(1000, set.size());
+	}
+
+	@Test
+	public void answer_orderByValue_sortsNumbersByValue() {
+		final FactTupleSource numbers = new FactTupleSource(
+				Expressions.makeFact("edge", Expressions.makeAbstractConstant("a"), integer(10)),
+				Expressions.makeFact("edge", Expressions.makeAbstractConstant("b"), integer(9)),
+				Expressions.makeFact("edge", Expressions.makeAbstractConstant("c"), integer(100)),
+				Expressions.makeFact("edge", Expressions.makeAbstractConstant("d"), integer(9)));
+
+		final List<List<Term>> results = collect(new ProjectionQueryEvaluator(numbers).answer(this.query,
+				Arrays.asList(this.y), true, Arrays.asList(this.y), true, Correctness.SOUND_AND_COMPLETE));
+
+		assertEquals(Arrays.asList(Arrays.asList(integer(9)), Arrays.asList(integer(10)),
+				Arrays.asList(integer(100))), results);
+	}
+
+	@Test
+	public void answer_orderBySecondVariable_succeeds() {
+		final List<List<Term>> results = collect(new ProjectionQueryEvaluator(this.tupleSource).answer(this.query,
+				Arrays.asList(this.x, this.y), false, Arrays.asList(this.y, this.x), true,
+				Correctness.SOUND_AND_COMPLETE));
+
+		assertEquals(Arrays.asList(row("a", "b"), row("a", "c"), row("b", "c"), row("c", "c")), results);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void answer_orderByNonAnswerVariable_fails() {
+		new ProjectionQueryEvaluator(this.tupleSource).answer(this.query, Arrays.asList(this.x), false,
+				Arrays.asList(this.y), true, Correctness.SOUND_AND_COMPLETE);
+	}
+
+	@Test
+	public void answer_orderManyAnswers_mergesSortedRuns() throws IOException {
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			facts.add(Expressions.makeFact("edge", Expressions.makeAbstractConstant("n" + (i % 50)), integer(i % 50)));
+		}
+		Collections.shuffle(facts);
+		final File spillDirectory = this.temporaryFolder.newFolder();
+		final ProjectionQueryEvaluator evaluator = new ProjectionQueryEvaluator(
+				new FactTupleSource(facts.toArray(new Fact[facts.size()])));
+		evaluator.setMaxTuplesInMemory(7);
+		evaluator.setSpillDirectory(spillDirectory.toPath());
+
+		final List<List<Term>> results = collect(evaluator.answer(this.query, Arrays.asList(this.y), true,
+				Arrays.asList(this.y), true, Correctness.SOUND_AND_COMPLETE));
+
+		final List<List<Term>> expected = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			expected.add(Arrays.asList(integer(i)));
+		}
+		assertEquals(expected, results);
+		assertTrue(evaluator.getSpillFileCount() > 1);
+		assertEquals(0, spillDirectory.list().length);
+	}
+
+	static Term integer(final int value) {
+		return Expressions.makeDatatypeConstant(String.valueOf(value), PrefixDeclarationRegistry.XSD_INTEGER);
+	}
+}
@@ -0,0 +1,118 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPage;
+
+public class QueryCursorRegistryTest {
+
+	static List<QueryResult> resultList(final int count) {
+		final List<QueryResult> results = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			results.add(new QueryResultImpl(Collections.singletonList(Expressions.makeAbstractConstant("c" + i))));
+		}
+		return results;
+	}
+
+	static ListQueryResultIterator results(final int count) {
+		return new ListQueryResultIterator(resultList(count), Correctness.SOUND_AND_COMPLETE);
+	}
+
+	@Test
+	public void getNextPage_readsAllResultsOnce() {
+		final QueryCursorRegistry registry = new QueryCursorRegistry();
+
+		QueryResultPage page = registry.getFirstPage(results(10), 4);
+		final List<QueryResult> allResults = new ArrayList<>(page.getQueryResults());
+		assertEquals(4, page.getQueryResults().size());
+		assertEquals(1, registry.getOpenCursorCount());
+		while (page.getCursor() != null) {
+			page = registry.getNextPage(page.getCursor(), 4);
+			allResults.addAll(page.getQueryResults());
+		}
+
+		assertEquals(resultList(10), allResults);
+		assertEquals(2, page.getQueryResults().size());
+		assertEquals(0, registry.getOpenCursorCount());
+	}
+
+	@Test
+	public void getFirstPage_allResultsFit_hasNoCursor() {
+		final QueryCursorRegistry registry = new QueryCursorRegistry();
+
+		final QueryResultPage page = registry.getFirstPage(results(4), 4);
+
+		assertEquals(4, page.getQueryResults().size());
+		assertNull(page.getCursor());
+		assertEquals(Correctness.SOUND_AND_COMPLETE, page.getCorrectness());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getNextPage_usedCursor_fails() {
+		final QueryCursorRegistry registry = new QueryCursorRegistry();
+		final String cursor = registry.getFirstPage(results(10), 4).getCursor();
+		registry.getNextPage(cursor, 4);
+
+		registry.getNextPage(cursor, 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getNextPage_afterInvalidate_fails() {
+		final QueryCursorRegistry registry = new QueryCursorRegistry();
+		final String cursor = registry.getFirstPage(results(10), 4).getCursor();
+		registry.invalidate();
+
+		registry.getNextPage(cursor, 4);
+	}
+
+	@Test
+	public void getFirstPage_tooManyCursors_evictsLeastRecentlyUsed() {
+		final QueryCursorRegistry registry = new QueryCursorRegistry(2);
+		registry.getFirstPage(results(10), 1);
+		final String second = registry.getFirstPage(results(10), 1).getCursor();
+		final String third = registry.getFirstPage(results(10), 1).getCursor();
+
+		assertEquals(2, registry.getOpenCursorCount());
+		assertNotNull(registry.getNextPage(second, 1).getCursor());
+		assertNotNull(registry.getNextPage(third, 1).getCursor());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getNextPage_evictedCursor_fails() {
+		final QueryCursorRegistry registry = new QueryCursorRegistry(1);
+		final String first = registry.getFirstPage(results(10), 1).getCursor();
+		registry.getFirstPage(results(10), 1);
+
+		registry.getNextPage(first, 1);
+	}
+}
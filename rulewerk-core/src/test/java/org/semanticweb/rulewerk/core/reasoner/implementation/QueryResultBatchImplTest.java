@@ -0,0 +1,122 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Constant;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+
+public class QueryResultBatchImplTest {
+
+	static QueryResultIterator iterator(final List<QueryResult> results) {
+		final Iterator<QueryResult> iterator = results.iterator();
+		return new QueryResultIterator() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public QueryResult next() {
+				return iterator.next();
+			}
+
+			@Override
+			public Correctness getCorrectness() {
+				return Correctness.SOUND_AND_COMPLETE;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	private final Constant c1 = Expressions.makeAbstractConstant("c1");
+	private final Constant c2 = Expressions.makeAbstractConstant("c2");
+	private final Constant c3 = Expressions.makeAbstractConstant("c3");
+
+	@Test
+	public void clear_reusedBatch_keepsColumns() {
+		final QueryResultBatchImpl batch = new QueryResultBatchImpl();
+		batch.clear(2, 4);
+		final int row = batch.addRow();
+		batch.setTerm(row, 0, this.c1);
+		batch.setTerm(row, 1, this.c2);
+		final Object column = batch.getColumn(0);
+
+		assertEquals(1, batch.getRowCount());
+		assertEquals(2, batch.getColumnCount());
+		assertSame(this.c2, batch.getTerm(0, 1));
+		assertEquals(new QueryResultImpl(Arrays.asList(this.c1, this.c2)), batch.getQueryResult(0));
+
+		batch.clear(1, 3);
+		assertEquals(0, batch.getRowCount());
+		assertEquals(1, batch.getColumnCount());
+		assertSame(column, batch.getColumn(0));
+	}
+
+	@Test
+	public void nextBatch_defaultImplementation_sameResultsAsNext() {
+		final List<QueryResult> results = Arrays.asList(new QueryResultImpl(Arrays.asList(this.c1, this.c2)),
+				new QueryResultImpl(Arrays.asList(this.c2, this.c3)),
+				new QueryResultImpl(Arrays.asList(this.c3, this.c1)));
+
+		try (final QueryResultIterator iterator = iterator(results)) {
+			assertEquals(results.get(0), iterator.next());
+			final List<QueryResult> batchResults = new ArrayList<>();
+			QueryResultBatch batch;
+			while ((batch = iterator.nextBatch(1)).getRowCount() > 0) {
+				assertEquals(1, batch.getRowCount());
+				assertEquals(2, batch.getColumnCount());
+				batchResults.add(batch.getQueryResult(0));
+			}
+			assertEquals(results.subList(1, 3), batchResults);
+		}
+	}
+
+	@Test
+	public void nextBatch_noResults_emptyBatch() {
+		try (final QueryResultIterator iterator = iterator(Collections.emptyList())) {
+			assertEquals(0, iterator.nextBatch(10).getRowCount());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nextBatch_zeroRows_fails() {
+		iterator(Collections.emptyList()).nextBatch(0);
+	}
+
+}
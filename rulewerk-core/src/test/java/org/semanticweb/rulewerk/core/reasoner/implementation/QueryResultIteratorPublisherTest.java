@@ -0,0 +1,297 @@
+package org.semanticweb.rulewerk.core.reasoner.implementation;
+
+/*-
+ * #%L
+ * Rulewerk Core Components
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPublisher.Subscriber;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPublisher.Subscription;
+
+public class QueryResultIteratorPublisherTest {
+
+	/**
+	 * Executor that only runs its tasks when asked to.
+	 */
+	static class ManualExecutor implements java.util.concurrent.Executor {
+		final Deque<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(final Runnable command) {
+			this.tasks.add(command);
+		}
+
+		void runAll() {
+			while (!this.tasks.isEmpty()) {
+				this.tasks.poll().run();
+			}
+		}
+	}
+
+	static class RecordingSubscriber implements Subscriber {
+		final List<QueryResult> results = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch done = new CountDownLatch(1);
+		Subscription subscription;
+		volatile boolean completed;
+		volatile Throwable error;
+
+		@Override
+		public void onSubscribe(final Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(final QueryResult queryResult) {
+			this.results.add(queryResult);
+		}
+
+		@Override
+		public void onError(final Throwable throwable) {
+			this.error = throwable;
+			this.done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+			this.done.countDown();
+		}
+	}
+
+	static class ClosingTrackingIterator extends ListQueryResultIterator {
+		boolean closed;
+
+		ClosingTrackingIterator(final int count) {
+			super(QueryCursorRegistryTest.resultList(count), Correctness.SOUND_AND_COMPLETE);
+		}
+
+		@Override
+		public void close() {
+			this.closed = true;
+			super.close();
+		}
+	}
+
+	@Test
+	public void subscribe_withoutRequest_doesNotEvaluateQuery() {
+		final ManualExecutor executor = new ManualExecutor();
+		final List<QueryResultIterator> evaluated = new ArrayList<>();
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(() -> {
+			final QueryResultIterator iterator = QueryCursorRegistryTest.results(3);
+			evaluated.add(iterator);
+			return iterator;
+		}, executor, Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+		publisher.subscribe(subscriber);
+		executor.runAll();
+
+		assertTrue(evaluated.isEmpty());
+		assertTrue(subscriber.results.isEmpty());
+		assertFalse(subscriber.completed);
+		assertEquals(Correctness.SOUND_AND_COMPLETE, publisher.getCorrectness());
+	}
+
+	@Test
+	public void request_deliversOnlyRequestedResults() {
+		final ManualExecutor executor = new ManualExecutor();
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(
+				() -> QueryCursorRegistryTest.results(5), executor, Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(2);
+		executor.runAll();
+		assertEquals(QueryCursorRegistryTest.resultList(2), subscriber.results);
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(3);
+		executor.runAll();
+		assertEquals(QueryCursorRegistryTest.resultList(5), subscriber.results);
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(1);
+		executor.runAll();
+		assertEquals(5, subscriber.results.size());
+		assertTrue(subscriber.completed);
+	}
+
+	@Test
+	public void request_manyResults_splitsWorkIntoTasks() {
+		final ManualExecutor executor = new ManualExecutor();
+		final int count = 2 * QueryResultIteratorPublisher.MAX_RESULTS_PER_TASK + 1;
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(
+				() -> QueryCursorRegistryTest.results(count), executor, Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+
+		executor.tasks.poll().run();
+		assertEquals(QueryResultIteratorPublisher.MAX_RESULTS_PER_TASK, subscriber.results.size());
+		assertEquals(1, executor.tasks.size());
+
+		executor.runAll();
+		assertEquals(QueryCursorRegistryTest.resultList(count), subscriber.results);
+		assertTrue(subscriber.completed);
+	}
+
+	@Test
+	public void cancel_closesIterator() {
+		final ManualExecutor executor = new ManualExecutor();
+		final ClosingTrackingIterator iterator = new ClosingTrackingIterator(5);
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(() -> iterator, executor,
+				Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(1);
+		executor.runAll();
+		assertFalse(iterator.closed);
+
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(1);
+		executor.runAll();
+
+		assertTrue(iterator.closed);
+		assertEquals(1, subscriber.results.size());
+		assertFalse(subscriber.completed);
+		assertNull(subscriber.error);
+	}
+
+	@Test
+	public void complete_closesIterator() {
+		final ManualExecutor executor = new ManualExecutor();
+		final ClosingTrackingIterator iterator = new ClosingTrackingIterator(2);
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(() -> iterator, executor,
+				Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(10);
+		executor.runAll();
+
+		assertTrue(subscriber.completed);
+		assertTrue(iterator.closed);
+	}
+
+	@Test
+	public void request_nonPositive_signalsError() {
+		final ManualExecutor executor = new ManualExecutor();
+		final ClosingTrackingIterator iterator = new ClosingTrackingIterator(2);
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(() -> iterator, executor,
+				Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(1);
+		executor.runAll();
+
+		subscriber.subscription.request(0);
+		executor.runAll();
+
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+		assertTrue(iterator.closed);
+	}
+
+	@Test
+	public void close_openSubscription_signalsErrorAndClosesIterator() {
+		final ManualExecutor executor = new ManualExecutor();
+		final ClosingTrackingIterator iterator = new ClosingTrackingIterator(5);
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(() -> iterator, executor,
+				Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(1);
+		executor.runAll();
+		final IllegalStateException cause = new IllegalStateException();
+
+		publisher.close(cause);
+		subscriber.subscription.request(1);
+		executor.runAll();
+
+		assertEquals(cause, subscriber.error);
+		assertTrue(iterator.closed);
+		assertEquals(1, subscriber.results.size());
+		assertFalse(subscriber.completed);
+	}
+
+	@Test
+	public void evaluationFailure_signalsError() {
+		final ManualExecutor executor = new ManualExecutor();
+		final IllegalStateException failure = new IllegalStateException();
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(() -> {
+			throw failure;
+		}, executor, Correctness.SOUND_AND_COMPLETE);
+		final RecordingSubscriber subscriber = new RecordingSubscriber();
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(1);
+		executor.runAll();
+
+		assertEquals(failure, subscriber.error);
+		assertFalse(subscriber.completed);
+	}
+
+	@Test
+	public void subscribe_manySubscribersOnSharedThreads_deliversAllResults() throws InterruptedException {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(
+					() -> QueryCursorRegistryTest.results(5000), executor, Correctness.SOUND_AND_COMPLETE);
+			final List<RecordingSubscriber> subscribers = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				final RecordingSubscriber subscriber = new RecordingSubscriber() {
+					@Override
+					public void onNext(final QueryResult queryResult) {
+						super.onNext(queryResult);
+						this.subscription.request(1);
+					}
+				};
+				publisher.subscribe(subscriber);
+				subscriber.subscription.request(1);
+				subscribers.add(subscriber);
+			}
+
+			for (final RecordingSubscriber subscriber : subscribers) {
+				assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+				assertTrue(subscriber.completed);
+				assertEquals(QueryCursorRegistryTest.resultList(5000), subscriber.results);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
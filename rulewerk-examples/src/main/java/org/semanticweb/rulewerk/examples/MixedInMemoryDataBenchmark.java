@@ -0,0 +1,140 @@
+package org.semanticweb.rulewerk.examples;
+
+/*-
+ * #%L
+ * Rulewerk Examples
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.implementation.DataSourceDeclarationImpl;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+import org.semanticweb.rulewerk.reasoner.vlog.VLogInMemoryDataSource;
+import org.semanticweb.rulewerk.reasoner.vlog.VLogReasoner;
+
+/**
+ * This benchmark measures loading and reasoning for a predicate whose data is
+ * given partly as facts and partly by several in-memory data sources. All
+ * in-memory data of a predicate is loaded into one VLog table. If the predicate
+ * is not derived by any rule, this table is used directly. Otherwise, the mixed
+ * input needs the same single copy rule as the same data given by one data
+ * source. In both cases, mixed and single-source runs should take about the
+ * same time and memory.
+ *
+ * The number of edges can be given as the first program argument.
+ */
+public class MixedInMemoryDataBenchmark {
+
+	static final String RULES = "node(?X) :- edge(?X, ?Y) .";
+
+	static final String SYMMETRY_RULE = "edge(?Y, ?X) :- edge(?X, ?Y) .";
+
+	static final int REPETITIONS = 3;
+
+	public static void main(final String[] args) throws ParsingException, IOException {
+		ExamplesUtils.configureLogging();
+
+		final int edgeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		System.out.println("Benchmarking a graph of " + edgeCount + " edges.");
+
+		/* warm-up run, results are not reported */
+		run(createKnowledgeBase(Math.min(edgeCount, 10000), 1, false, true));
+
+		for (final boolean symmetric : new boolean[] { false, true }) {
+			final String rules = symmetric ? " (symmetric)" : "";
+			report("one in-memory data source" + rules, best(createKnowledgeBase(edgeCount, 1, false, symmetric)));
+			report("facts and four in-memory data sources" + rules,
+					best(createKnowledgeBase(edgeCount, 4, true, symmetric)));
+		}
+	}
+
+	/**
+	 * Runs the given knowledge base {@link #REPETITIONS} times and returns the
+	 * result of the fastest run.
+	 */
+	static long[] best(final KnowledgeBase kb) throws ParsingException, IOException {
+		long[] best = null;
+		for (int i = 0; i < REPETITIONS; i++) {
+			final long[] result = run(kb);
+			if (best == null || result[0] < best[0]) {
+				best = result;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Creates a knowledge base where the edges of a pseudo-random graph are split
+	 * evenly between the given number of in-memory data sources and, optionally,
+	 * facts. If {@code symmetric} is set, the edge predicate is also derived by a
+	 * rule.
+	 */
+	static KnowledgeBase createKnowledgeBase(final int edgeCount, final int dataSourceCount, final boolean withFacts,
+			final boolean symmetric) throws ParsingException {
+		final KnowledgeBase kb = RuleParser.parse(symmetric ? RULES + SYMMETRY_RULE : RULES);
+
+		final Predicate edge = Expressions.makePredicate("edge", 2);
+		final int parts = withFacts ? dataSourceCount + 1 : dataSourceCount;
+		final VLogInMemoryDataSource[] dataSources = new VLogInMemoryDataSource[dataSourceCount];
+		for (int i = 0; i < dataSourceCount; i++) {
+			dataSources[i] = new VLogInMemoryDataSource(2, edgeCount / parts + 1);
+			kb.addStatement(new DataSourceDeclarationImpl(edge, dataSources[i]));
+		}
+		for (int i = 0; i < edgeCount; i++) {
+			final int part = i % parts;
+			if (part < dataSourceCount) {
+				dataSources[part].addTuple("n" + i, "n" + target(i, edgeCount));
+			} else {
+				kb.addStatement(Expressions.makeFact(edge, Expressions.makeAbstractConstant("n" + i),
+						Expressions.makeAbstractConstant("n" + target(i, edgeCount))));
+			}
+		}
+		return kb;
+	}
+
+	static long target(final int source, final int edgeCount) {
+		return (source * 7919L + 13) % edgeCount;
+	}
+
+	/**
+	 * Loads and materialises the given knowledge base.
+	 *
+	 * @return the time for loading and reasoning (in ms), the number of edges and
+	 *         the number of nodes
+	 */
+	static long[] run(final KnowledgeBase kb) throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			final long start = System.nanoTime();
+			reasoner.reason();
+			final long duration = (System.nanoTime() - start) / 1000000;
+			final long edges = reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("edge(?X, ?Y)")).getCount();
+			final long nodes = reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("node(?X)")).getCount();
+			return new long[] { duration, edges, nodes };
+		}
+	}
+
+	static void report(final String description, final long[] result) {
+		System.out.println("Edges from " + description + ": loaded and materialised in " + result[0] + " ms, "
+				+ result[1] + " edges, " + result[2] + " nodes.");
+	}
+
+}
@@ -0,0 +1,86 @@
+package org.semanticweb.rulewerk.examples;
+
+/*-
+ * #%L
+ * Rulewerk Examples
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+import org.semanticweb.rulewerk.reasoner.vlog.PartitionedVLogReasoner;
+
+/**
+ * This benchmark measures how loading and materialisation scale with the number
+ * of threads given to {@link Reasoner#setNumberOfThreads(int)}. Independent
+ * parts of the rules are materialised in parallel by a
+ * {@link PartitionedVLogReasoner}; each part is materialised by VLog on a single
+ * thread.
+ *
+ * By default, the bundled {@code doid.rls} and {@code counting-triangles.rls}
+ * examples are used, which load data from Wikidata and therefore need network
+ * access. Other rule files can be given as program arguments. The thread counts
+ * can be set with an argument of the form {@code --threads=1,2,4,8}.
+ */
+public class ParallelMaterialisationBenchmark {
+
+	public static void main(final String[] args) throws IOException, ParsingException {
+		ExamplesUtils.configureLogging();
+
+		final List<String> ruleFiles = new ArrayList<>();
+		List<Integer> threadCounts = Arrays.asList(1, 2, 4, 8);
+		for (final String arg : args) {
+			if (arg.startsWith("--threads=")) {
+				threadCounts = new ArrayList<>();
+				for (final String threads : arg.substring("--threads=".length()).split(",")) {
+					threadCounts.add(Integer.parseInt(threads));
+				}
+			} else {
+				ruleFiles.add(arg);
+			}
+		}
+		if (ruleFiles.isEmpty()) {
+			ruleFiles.add(ExamplesUtils.INPUT_FOLDER + "doid.rls");
+			ruleFiles.add(ExamplesUtils.INPUT_FOLDER + "counting-triangles.rls");
+		}
+
+		for (final String ruleFile : ruleFiles) {
+			final KnowledgeBase kb = RuleParser.parse(new FileInputStream(ruleFile));
+			System.out.println("Benchmarking " + ruleFile + " ...");
+			for (final int threads : threadCounts) {
+				try (PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(kb)) {
+					reasoner.setNumberOfThreads(threads);
+
+					final long start = System.nanoTime();
+					reasoner.reason();
+					final long duration = (System.nanoTime() - start) / 1000000;
+
+					System.out.println("  " + threads + " thread(s): loaded and materialised in " + duration + " ms.");
+				}
+			}
+		}
+	}
+
+}
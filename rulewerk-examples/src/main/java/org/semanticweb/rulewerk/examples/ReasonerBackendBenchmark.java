@@ -0,0 +1,133 @@
+package org.semanticweb.rulewerk.examples;
+
+/*-
+ * #%L
+ * Rulewerk Examples
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+import org.semanticweb.rulewerk.reasoner.javareasoner.JavaReasoner;
+import org.semanticweb.rulewerk.reasoner.vlog.VLogReasoner;
+
+/**
+ * This benchmark compares the {@link VLogReasoner} with the
+ * {@link JavaReasoner}, using the same {@link Reasoner} API for both. Each
+ * knowledge base is loaded and materialised several times by each backend, and
+ * the fastest run is reported together with the number of inferences, which
+ * should be the same for both backends.
+ *
+ * By default, a knowledge base with a pseudo-random graph is used, whose rules
+ * compute reachability and introduce a named null for each node. Rule files can
+ * be given as program arguments instead; their data sources must be supported
+ * by both backends (e.g. CSV or N-Triples files).
+ */
+public class ReasonerBackendBenchmark {
+
+	static final String RULES = "reach(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "reach(?X, ?Z) :- reach(?X, ?Y), edge(?Y, ?Z) .\n" //
+			+ "node(?X) :- edge(?X, ?Y) .\n" //
+			+ "hasLabel(?X, !L) :- node(?X) .\n";
+
+	static final int REPETITIONS = 3;
+
+	public static void main(final String[] args) throws IOException, ParsingException {
+		ExamplesUtils.configureLogging();
+
+		final List<KnowledgeBase> kbs = new ArrayList<>();
+		final List<String> descriptions = new ArrayList<>();
+		for (final String ruleFile : args) {
+			kbs.add(RuleParser.parse(new FileInputStream(ruleFile)));
+			descriptions.add(ruleFile);
+		}
+		if (kbs.isEmpty()) {
+			for (final int nodeCount : new int[] { 100, 1000 }) {
+				kbs.add(createKnowledgeBase(nodeCount));
+				descriptions.add("random graph with " + nodeCount + " nodes");
+			}
+		}
+
+		for (int i = 0; i < kbs.size(); i++) {
+			System.out.println("Benchmarking " + descriptions.get(i) + " ...");
+			report("VLog", best(kbs.get(i), VLogReasoner::new));
+			report("Java", best(kbs.get(i), JavaReasoner::new));
+		}
+	}
+
+	/**
+	 * Creates a knowledge base with a pseudo-random graph of the given number of
+	 * nodes, each with two outgoing edges.
+	 */
+	static KnowledgeBase createKnowledgeBase(final int nodeCount) throws ParsingException {
+		final KnowledgeBase kb = RuleParser.parse(RULES);
+		for (int i = 0; i < nodeCount; i++) {
+			for (final long target : new long[] { (i * 7919L + 13) % nodeCount, (i * 104729L + 7) % nodeCount }) {
+				kb.addStatement(Expressions.makeFact("edge", Expressions.makeAbstractConstant("n" + i),
+						Expressions.makeAbstractConstant("n" + target)));
+			}
+		}
+		return kb;
+	}
+
+	/**
+	 * Runs the given knowledge base {@link #REPETITIONS} times with reasoners
+	 * created by the given function, and returns the result of the fastest run.
+	 */
+	static long[] best(final KnowledgeBase kb, final Function<KnowledgeBase, Reasoner> backend) throws IOException {
+		long[] best = null;
+		for (int i = 0; i < REPETITIONS; i++) {
+			final long[] result = run(kb, backend);
+			if (best == null || result[0] < best[0]) {
+				best = result;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Loads and materialises the given knowledge base.
+	 *
+	 * @return the time for loading and reasoning (in ms) and the number of
+	 *         inferences
+	 */
+	static long[] run(final KnowledgeBase kb, final Function<KnowledgeBase, Reasoner> backend) throws IOException {
+		try (final Reasoner reasoner = backend.apply(kb)) {
+			final long start = System.nanoTime();
+			reasoner.reason();
+			final long duration = (System.nanoTime() - start) / 1000000;
+			final long[] inferences = new long[1];
+			reasoner.forEachInference((predicate, terms) -> inferences[0]++);
+			return new long[] { duration, inferences[0] };
+		}
+	}
+
+	static void report(final String backend, final long[] result) {
+		System.out.println("  " + backend + ": loaded and materialised in " + result[0] + " ms, " + result[1]
+				+ " inferences.");
+	}
+
+}
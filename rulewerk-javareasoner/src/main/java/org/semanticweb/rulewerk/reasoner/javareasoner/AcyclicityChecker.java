@@ -0,0 +1,391 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Algorithm;
+
+/**
+ * Checks whether rules are joint acyclic (JA) or model-faithful acyclic (MFA),
+ * which guarantees that the Skolem chase (and thus the restricted chase)
+ * terminates for every set of facts, or whether they are restricted joint
+ * acyclic (RJA) or restricted model-faithful acyclic (RMFA), which guarantees
+ * that the restricted chase terminates. Negated body atoms are ignored, which
+ * can only make the checks more conservative.
+ *
+ * The restricted checks ignore rule applications that the restricted chase
+ * never performs since they are blocked: a rule is blocked for a frontier
+ * variable and an existential variable of a rule, if its head is satisfied
+ * whenever the frontier variable is bound to a named null created for the
+ * existential variable, by the facts of the rule application that created the
+ * named null and the body of the rule.
+ */
+final class AcyclicityChecker {
+
+	/**
+	 * The constant of the critical instance, which is also used instead of all
+	 * constants of the rules in the MFA check.
+	 */
+	static final String CRITICAL_CONSTANT = "urn:rulewerk:critical-instance";
+
+	private AcyclicityChecker() {
+	}
+
+	/**
+	 * A position of a predicate.
+	 */
+	private static final class Position {
+		final Predicate predicate;
+		final int index;
+
+		Position(final Predicate predicate, final int index) {
+			this.predicate = predicate;
+			this.index = index;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * this.predicate.hashCode() + this.index;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Position)) {
+				return false;
+			}
+			final Position other = (Position) obj;
+			return this.index == other.index && this.predicate.equals(other.predicate);
+		}
+	}
+
+	/**
+	 * The origin of a variable in the facts used for checking whether a rule is
+	 * blocked, see {@link #isBlocked(Rule, Term, Rule, Term)}.
+	 */
+	private enum Origin {
+		/** The named null of the existential variable. */
+		NULL,
+		/** A variable of the rule that has created the named null. */
+		CREATING_RULE,
+		/** A variable of the rule that is applied. */
+		RULE
+	}
+
+	/**
+	 * An existential variable of a rule.
+	 */
+	private static final class ExistentialVariable {
+		final Rule rule;
+		final Term variable;
+
+		ExistentialVariable(final Rule rule, final Term variable) {
+			this.rule = rule;
+			this.variable = variable;
+		}
+	}
+
+	/**
+	 * Checks joint acyclicity. For each existential variable, the positions to
+	 * which its nulls can be propagated are computed. A rule with an existential
+	 * variable depends on this variable if one of its frontier variables only
+	 * occurs at such positions in the body. The rules are JA if these
+	 * dependencies are acyclic.
+	 *
+	 * @param rules the rules
+	 * @return {@code true} if the rules are JA
+	 */
+	static boolean isJointlyAcyclic(final Collection<Rule> rules) {
+		return isJointlyAcyclic(rules, false);
+	}
+
+	/**
+	 * Checks restricted joint acyclicity. This is the JA check, where nulls are
+	 * not propagated by rules that are blocked for them.
+	 *
+	 * @param rules the rules
+	 * @return {@code true} if the rules are RJA
+	 */
+	static boolean isRestrictedJointlyAcyclic(final Collection<Rule> rules) {
+		return isJointlyAcyclic(rules, true);
+	}
+
+	private static boolean isJointlyAcyclic(final Collection<Rule> rules, final boolean restricted) {
+		final List<ExistentialVariable> variables = new ArrayList<>();
+		for (final Rule rule : rules) {
+			rule.getHead().getExistentialVariables().distinct()
+					.forEach(variable -> variables.add(new ExistentialVariable(rule, variable)));
+		}
+
+		final Map<ExistentialVariable, List<ExistentialVariable>> successors = new HashMap<>();
+		for (final ExistentialVariable variable : variables) {
+			final Set<Position> positions = new HashSet<>(getPositions(variable.rule.getHead(), variable.variable));
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (final Rule rule : rules) {
+					for (final Term frontierVariable : getFrontier(rule)) {
+						if (positions.containsAll(getPositions(getPositiveBody(rule), frontierVariable))
+								&& !(restricted && isBlocked(variable.rule, variable.variable, rule, frontierVariable))) {
+							changed |= positions.addAll(getPositions(rule.getHead(), frontierVariable));
+						}
+					}
+				}
+			}
+			final List<ExistentialVariable> dependentVariables = new ArrayList<>();
+			for (final ExistentialVariable other : variables) {
+				for (final Term frontierVariable : getFrontier(other.rule)) {
+					if (positions.containsAll(getPositions(getPositiveBody(other.rule), frontierVariable))
+							&& !(restricted && isBlocked(variable.rule, variable.variable, other.rule, frontierVariable))) {
+						dependentVariables.add(other);
+						break;
+					}
+				}
+			}
+			successors.put(variable, dependentVariables);
+		}
+		return !hasCycle(variables, successors);
+	}
+
+	private static boolean hasCycle(final List<ExistentialVariable> variables,
+			final Map<ExistentialVariable, List<ExistentialVariable>> successors) {
+		final Set<ExistentialVariable> finished = new HashSet<>();
+		final Set<ExistentialVariable> onPath = new HashSet<>();
+		for (final ExistentialVariable variable : variables) {
+			if (hasCycle(variable, successors, finished, onPath)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasCycle(final ExistentialVariable variable,
+			final Map<ExistentialVariable, List<ExistentialVariable>> successors,
+			final Set<ExistentialVariable> finished, final Set<ExistentialVariable> onPath) {
+		if (finished.contains(variable)) {
+			return false;
+		}
+		if (!onPath.add(variable)) {
+			return true;
+		}
+		for (final ExistentialVariable successor : successors.get(variable)) {
+			if (hasCycle(successor, successors, finished, onPath)) {
+				return true;
+			}
+		}
+		onPath.remove(variable);
+		finished.add(variable);
+		return false;
+	}
+
+	/**
+	 * Checks whether the restricted chase never applies a rule for a match that
+	 * binds the given frontier variable to a named null created for the given
+	 * existential variable. Whenever such a match exists, the body and head of the
+	 * rule application that created the named null and the body of the rule hold,
+	 * so the application is blocked if the head of the rule maps to these facts,
+	 * where the existential variables of the head can be mapped to any term.
+	 *
+	 * @param creatingRule        the rule with the existential variable
+	 * @param existentialVariable the existential variable
+	 * @param rule                the rule that is applied
+	 * @param frontierVariable    the frontier variable of this rule
+	 * @return {@code true} if the application is blocked
+	 */
+	static boolean isBlocked(final Rule creatingRule, final Term existentialVariable, final Rule rule,
+			final Term frontierVariable) {
+		final Map<Predicate, List<List<Object>>> facts = new HashMap<>();
+		final List<Literal> creatingApplication = new ArrayList<>(getPositiveBody(creatingRule));
+		creatingApplication.addAll(creatingRule.getHead().getLiterals());
+		for (final Literal literal : creatingApplication) {
+			facts.computeIfAbsent(literal.getPredicate(), predicate -> new ArrayList<>())
+					.add(toFact(literal, existentialVariable, Origin.CREATING_RULE));
+		}
+		for (final Literal literal : getPositiveBody(rule)) {
+			facts.computeIfAbsent(literal.getPredicate(), predicate -> new ArrayList<>())
+					.add(toFact(literal, frontierVariable, Origin.RULE));
+		}
+		return mapsTo(rule.getHead().getLiterals(), 0, frontierVariable, new HashMap<>(), facts);
+	}
+
+	private static List<Object> toFact(final Literal literal, final Term nullVariable, final Origin origin) {
+		final List<Object> fact = new ArrayList<>(literal.getArguments().size());
+		for (final Term term : literal.getArguments()) {
+			fact.add(toFactTerm(term, nullVariable, origin));
+		}
+		return fact;
+	}
+
+	private static Object toFactTerm(final Term term, final Term nullVariable, final Origin origin) {
+		if (term.equals(nullVariable)) {
+			return Origin.NULL;
+		} else if (term.isVariable()) {
+			return Arrays.asList(origin, term);
+		} else {
+			return term;
+		}
+	}
+
+	/**
+	 * Checks whether the head atoms from the given index on map to the facts,
+	 * extending the given mapping of the existential variables.
+	 */
+	private static boolean mapsTo(final List<PositiveLiteral> atoms, final int index, final Term frontierVariable,
+			final Map<Term, Object> mapping, final Map<Predicate, List<List<Object>>> facts) {
+		if (index == atoms.size()) {
+			return true;
+		}
+		final PositiveLiteral atom = atoms.get(index);
+		final List<Term> arguments = atom.getArguments();
+		for (final List<Object> fact : facts.getOrDefault(atom.getPredicate(), Collections.emptyList())) {
+			final Map<Term, Object> extendedMapping = new HashMap<>(mapping);
+			boolean matches = true;
+			for (int i = 0; i < arguments.size() && matches; i++) {
+				final Term term = arguments.get(i);
+				final Object factTerm = fact.get(i);
+				if (term.getType() == TermType.EXISTENTIAL_VARIABLE) {
+					matches = factTerm.equals(extendedMapping.computeIfAbsent(term, variable -> factTerm));
+				} else {
+					matches = factTerm.equals(toFactTerm(term, frontierVariable, Origin.RULE));
+				}
+			}
+			if (matches && mapsTo(atoms, index + 1, frontierVariable, extendedMapping, facts)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<Literal> getPositiveBody(final Rule rule) {
+		final List<Literal> literals = new ArrayList<>();
+		for (final Literal literal : rule.getBody()) {
+			if (!literal.isNegated()) {
+				literals.add(literal);
+			}
+		}
+		return literals;
+	}
+
+	private static Set<Term> getFrontier(final Rule rule) {
+		final Set<Term> frontier = new HashSet<>();
+		for (final Literal literal : getPositiveBody(rule)) {
+			for (final Term term : literal.getArguments()) {
+				if (term.getType() == TermType.UNIVERSAL_VARIABLE) {
+					frontier.add(term);
+				}
+			}
+		}
+		frontier.retainAll(rule.getHead().getUniversalVariables().collect(Collectors.toSet()));
+		return frontier;
+	}
+
+	private static List<Position> getPositions(final Iterable<? extends Literal> literals, final Term variable) {
+		final List<Position> positions = new ArrayList<>();
+		for (final Literal literal : literals) {
+			final List<Term> arguments = literal.getArguments();
+			for (int i = 0; i < arguments.size(); i++) {
+				if (arguments.get(i).equals(variable)) {
+					positions.add(new Position(literal.getPredicate(), i));
+				}
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Checks model-faithful acyclicity by running the Skolem chase on the critical
+	 * instance, which contains a single fact over the critical constant for each
+	 * predicate. The rules are MFA if the chase terminates without creating a
+	 * cyclic Skolem term, i.e., a term that contains a term of the same Skolem
+	 * function.
+	 *
+	 * @param rules           the rules
+	 * @param numberOfThreads the parallelism of the chase
+	 * @return {@code true} if the rules are MFA
+	 */
+	static boolean isModelFaithfulAcyclic(final Collection<Rule> rules, final int numberOfThreads) {
+		return isModelFaithfulAcyclic(rules, numberOfThreads, false);
+	}
+
+	/**
+	 * Checks restricted model-faithful acyclicity. This is the MFA check, where
+	 * the Skolem chase on the critical instance skips the rule applications that
+	 * are blocked, and thus never performed by the restricted chase.
+	 *
+	 * @param rules           the rules
+	 * @param numberOfThreads the parallelism of the chase
+	 * @return {@code true} if the rules are RMFA
+	 */
+	static boolean isRestrictedModelFaithfulAcyclic(final Collection<Rule> rules, final int numberOfThreads) {
+		return isModelFaithfulAcyclic(rules, numberOfThreads, true);
+	}
+
+	private static boolean isModelFaithfulAcyclic(final Collection<Rule> rules, final int numberOfThreads,
+			final boolean restricted) {
+		final TermDictionary dictionary = new TermDictionary();
+		final int criticalConstant = dictionary.getOrAdd(Expressions.makeAbstractConstant(CRITICAL_CONSTANT));
+		final Map<Predicate, Relation> relations = new HashMap<>();
+		final List<CompiledRule> compiledRules = new ArrayList<>();
+		for (final Rule rule : rules) {
+			final List<Literal> positiveBody = getPositiveBody(rule);
+			if (!positiveBody.isEmpty()) {
+				final Rule positiveRule = Expressions.makeRule(rule.getHead(),
+						Expressions.makeConjunction(positiveBody));
+				compiledRules.add(new CompiledRule(positiveRule, constant -> criticalConstant,
+						predicate -> relations.computeIfAbsent(predicate, Relation::new)));
+			}
+		}
+		for (final Relation relation : relations.values()) {
+			final int[] tuple = new int[relation.getArity()];
+			Arrays.fill(tuple, criticalConstant);
+			relation.add(tuple);
+		}
+
+		final Materialiser materialiser = new Materialiser(dictionary, Collections.singletonList(compiledRules),
+				Algorithm.SKOLEM_CHASE, numberOfThreads, null);
+		materialiser.detectCyclicTerms();
+		if (restricted) {
+			materialiser.skipBlockedApplications((creatingRule, existentialIndex, rule,
+					frontierIndex) -> isBlocked(creatingRule.rule,
+							creatingRule.variables[creatingRule.existentialSlots[existentialIndex]], rule.rule,
+							rule.variables[rule.frontierSlots[frontierIndex]]));
+		}
+		materialiser.materialise();
+		return !materialiser.isCyclicTermFound();
+	}
+
+}
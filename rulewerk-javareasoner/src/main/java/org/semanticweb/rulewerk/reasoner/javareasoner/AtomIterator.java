@@ -0,0 +1,147 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Iterates over the rows of a relation that match an atomic query, using the
+ * index for the positions of the constants of the query if there are any.
+ */
+class AtomIterator {
+
+	private final Relation relation;
+	private final TermDictionary dictionary;
+	private final boolean includeNulls;
+	private final Relation.Index index;
+	private final int[] key;
+	/**
+	 * Pairs of positions that must hold the same term, since they hold the same
+	 * variable in the query.
+	 */
+	private final int[] equalPositions;
+	private final int end;
+
+	private int nextRow;
+
+	/**
+	 * Creates an iterator over the rows that match the given atom.
+	 *
+	 * @param atom         the query atom
+	 * @param dictionary   the dictionary of the terms of the relation
+	 * @param includeNulls if {@code false}, rows that contain named nulls are
+	 *                     skipped
+	 */
+	AtomIterator(final AtomPattern atom, final TermDictionary dictionary, final boolean includeNulls) {
+		this.relation = atom.relation;
+		this.dictionary = dictionary;
+		this.includeNulls = includeNulls;
+		this.end = this.relation.size();
+
+		final List<Integer> keyPositions = new ArrayList<>();
+		final List<Integer> equalPositions = new ArrayList<>();
+		for (int i = 0; i < atom.terms.length; i++) {
+			if (!AtomPattern.isVariable(atom.terms[i])) {
+				keyPositions.add(i);
+			} else {
+				for (int j = 0; j < i; j++) {
+					if (atom.terms[j] == atom.terms[i]) {
+						equalPositions.add(j);
+						equalPositions.add(i);
+						break;
+					}
+				}
+			}
+		}
+		this.equalPositions = equalPositions.stream().mapToInt(Integer::intValue).toArray();
+		if (keyPositions.isEmpty()) {
+			this.index = null;
+			this.key = null;
+			this.nextRow = this.findNext(0);
+		} else {
+			final int[] positions = keyPositions.stream().mapToInt(Integer::intValue).toArray();
+			this.key = new int[positions.length];
+			for (int k = 0; k < positions.length; k++) {
+				this.key[k] = atom.terms[positions[k]];
+			}
+			this.index = this.relation.getIndex(positions);
+			this.nextRow = this.findNext(this.index.first(this.key, 0, this.end));
+		}
+	}
+
+	boolean hasNext() {
+		return this.nextRow >= 0;
+	}
+
+	/**
+	 * @return the next matching row
+	 */
+	int next() {
+		final int row = this.nextRow;
+		if (this.index == null) {
+			this.nextRow = this.findNext(row + 1);
+		} else {
+			this.nextRow = this.findNext(this.index.next(row, this.key, 0));
+		}
+		return row;
+	}
+
+	/**
+	 * Returns the first row that matches the query, starting from the given
+	 * candidate row (in scan order or index order).
+	 */
+	private int findNext(int row) {
+		while (row >= 0 && row < this.end) {
+			if (this.matches(row)) {
+				return row;
+			}
+			if (this.index == null) {
+				row++;
+			} else {
+				row = this.index.next(row, this.key, 0);
+			}
+		}
+		return -1;
+	}
+
+	private boolean matches(final int row) {
+		for (int i = 0; i < this.equalPositions.length; i += 2) {
+			if (this.relation.get(row, this.equalPositions[i]) != this.relation.get(row,
+					this.equalPositions[i + 1])) {
+				return false;
+			}
+		}
+		if (!this.includeNulls) {
+			for (int i = 0; i < this.relation.getArity(); i++) {
+				if (this.dictionary.isNull(this.relation.get(row, i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	Relation getRelation() {
+		return this.relation;
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * An atom of a compiled rule or query. Each term is encoded as an integer:
+ * constants by their (non-negative) term id, and variables by the negative
+ * number {@code -(slot + 1)}, where {@code slot} is the position of the
+ * variable in the array of variable bindings.
+ */
+class AtomPattern {
+
+	final Relation relation;
+	final int[] terms;
+
+	AtomPattern(final Relation relation, final int[] terms) {
+		this.relation = relation;
+		this.terms = terms;
+	}
+
+	static boolean isVariable(final int term) {
+		return term < 0;
+	}
+
+	static int toSlot(final int term) {
+		return -term - 1;
+	}
+
+	static int fromSlot(final int slot) {
+		return -slot - 1;
+	}
+
+	/**
+	 * Writes the tuple of term ids for the given variable bindings into the given
+	 * array.
+	 */
+	void instantiate(final int[] bindings, final int[] tuple) {
+		for (int i = 0; i < this.terms.length; i++) {
+			final int term = this.terms[i];
+			tuple[i] = isVariable(term) ? bindings[toSlot(term)] : term;
+		}
+	}
+
+}
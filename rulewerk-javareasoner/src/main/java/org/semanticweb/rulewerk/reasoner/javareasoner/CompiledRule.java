@@ -0,0 +1,213 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.implementation.PredicateImpl;
+
+/**
+ * A rule whose atoms refer to {@link Relation}s and term ids, together with the
+ * join plans for evaluating it semi-naively. The variables of the rule are
+ * numbered as slots of an array of bindings: first the universal variables in
+ * the order of their occurrence in the positive body, then the existential
+ * variables.
+ *
+ * There is one join plan for each positive body atom, which starts with this
+ * atom and is used when the atom is matched to the new facts of a round (the
+ * delta). For rules with existential variables, a further plan over the head
+ * atoms checks whether a rule application is already satisfied (for the
+ * restricted chase).
+ */
+class CompiledRule {
+
+	final Rule rule;
+	final int slotCount;
+	/**
+	 * The variable of each slot.
+	 */
+	final Term[] variables;
+	final List<AtomPattern> body = new ArrayList<>();
+	final List<AtomPattern> negativeBody = new ArrayList<>();
+	final List<AtomPattern> head = new ArrayList<>();
+	/**
+	 * Slots of the universal variables that occur in the head, whose bindings are
+	 * all that is needed for applying the rule.
+	 */
+	final int[] frontierSlots;
+	final int[] existentialSlots;
+	final JoinPlan[] deltaPlans;
+	final JoinPlan headPlan;
+	/**
+	 * Frontier bindings for which the rule has been applied, which is used by the
+	 * Skolem chase to apply rules with existential variables only once for each
+	 * frontier.
+	 */
+	final Relation appliedFrontiers;
+
+	final LongAdder applications = new LongAdder();
+	final LongAdder derivedFacts = new LongAdder();
+	final LongAdder time = new LongAdder();
+
+	/**
+	 * Compiles the given rule.
+	 *
+	 * @param rule      the rule
+	 * @param constants encodes the constants of the rule as term ids
+	 * @param relations provides the relation of each predicate
+	 * @throws RulewerkRuntimeException if a variable of the head or of a negated
+	 *                                  body atom does not occur in the positive
+	 *                                  body
+	 */
+	CompiledRule(final Rule rule, final ToIntFunction<Term> constants, final Function<Predicate, Relation> relations) {
+		this.rule = rule;
+		final Map<Term, Integer> slots = new HashMap<>();
+		for (final Literal literal : rule.getBody()) {
+			if (!literal.isNegated()) {
+				for (final Term term : literal.getArguments()) {
+					if (term.isVariable()) {
+						slots.putIfAbsent(term, slots.size());
+					}
+				}
+			}
+		}
+		if (rule.getBody().getLiterals().stream().allMatch(Literal::isNegated)) {
+			throw new RulewerkRuntimeException("Rules without positive body atoms are not supported: " + rule);
+		}
+		final int universalCount = slots.size();
+		for (final PositiveLiteral literal : rule.getHead()) {
+			for (final Term term : literal.getArguments()) {
+				if (term.getType() == TermType.EXISTENTIAL_VARIABLE) {
+					slots.putIfAbsent(term, slots.size());
+				}
+			}
+		}
+		this.slotCount = slots.size();
+		this.variables = new Term[this.slotCount];
+		slots.forEach((term, slot) -> this.variables[slot] = term);
+
+		for (final Literal literal : rule.getBody()) {
+			final AtomPattern atom = this.compile(literal, slots, constants, relations);
+			(literal.isNegated() ? this.negativeBody : this.body).add(atom);
+		}
+		final List<Integer> frontier = new ArrayList<>();
+		for (final PositiveLiteral literal : rule.getHead()) {
+			final AtomPattern atom = this.compile(literal, slots, constants, relations);
+			this.head.add(atom);
+			for (final int term : atom.terms) {
+				if (AtomPattern.isVariable(term) && AtomPattern.toSlot(term) < universalCount
+						&& !frontier.contains(AtomPattern.toSlot(term))) {
+					frontier.add(AtomPattern.toSlot(term));
+				}
+			}
+		}
+		frontier.sort(null);
+		this.frontierSlots = frontier.stream().mapToInt(Integer::intValue).toArray();
+		this.existentialSlots = new int[this.slotCount - universalCount];
+		for (int i = 0; i < this.existentialSlots.length; i++) {
+			this.existentialSlots[i] = universalCount + i;
+		}
+
+		this.deltaPlans = new JoinPlan[this.body.size()];
+		for (int i = 0; i < this.deltaPlans.length; i++) {
+			this.deltaPlans[i] = new JoinPlan(this.body, i, this.slotCount, new int[0]);
+		}
+		if (this.isExistential()) {
+			this.headPlan = new JoinPlan(this.head, -1, this.slotCount, this.frontierSlots);
+			this.appliedFrontiers = new Relation(new PredicateImpl("applied", this.frontierSlots.length));
+		} else {
+			this.headPlan = null;
+			this.appliedFrontiers = null;
+		}
+	}
+
+	private AtomPattern compile(final Literal literal, final Map<Term, Integer> slots,
+			final ToIntFunction<Term> constants, final Function<Predicate, Relation> relations) {
+		final List<Term> arguments = literal.getArguments();
+		final int[] terms = new int[arguments.size()];
+		for (int i = 0; i < terms.length; i++) {
+			final Term term = arguments.get(i);
+			if (term.isVariable()) {
+				final Integer slot = slots.get(term);
+				if (slot == null) {
+					throw new RulewerkRuntimeException("Variable " + term + " of rule " + this.rule
+							+ " does not occur in a positive body atom. Such rules are not supported.");
+				}
+				terms[i] = AtomPattern.fromSlot(slot);
+			} else {
+				terms[i] = constants.applyAsInt(term);
+			}
+		}
+		return new AtomPattern(relations.apply(literal.getPredicate()), terms);
+	}
+
+	boolean isExistential() {
+		return this.existentialSlots.length > 0;
+	}
+
+	/**
+	 * Checks that none of the negated body atoms holds for the given bindings.
+	 *
+	 * @param bindings the bindings of the universal variables
+	 * @param tuples   buffers for the negated atoms, see
+	 *                 {@link #newTupleBuffers(List)}
+	 */
+	boolean satisfiesNegativeBody(final int[] bindings, final int[][] tuples) {
+		for (int i = 0; i < this.negativeBody.size(); i++) {
+			final AtomPattern atom = this.negativeBody.get(i);
+			atom.instantiate(bindings, tuples[i]);
+			if (atom.relation.contains(tuples[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates a buffer for the tuple of each of the given atoms.
+	 */
+	static int[][] newTupleBuffers(final List<AtomPattern> atoms) {
+		final int[][] tuples = new int[atoms.size()][];
+		for (int i = 0; i < tuples.length; i++) {
+			tuples[i] = new int[atoms.get(i).terms.length];
+		}
+		return tuples;
+	}
+
+	@Override
+	public String toString() {
+		return this.rule.toString();
+	}
+
+}
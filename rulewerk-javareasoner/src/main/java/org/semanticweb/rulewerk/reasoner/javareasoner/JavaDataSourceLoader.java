@@ -0,0 +1,226 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.semanticweb.rulewerk.core.exceptions.IncompatiblePredicateArityException;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Constant;
+import org.semanticweb.rulewerk.core.model.api.DataSource;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.reasoner.implementation.CsvFileDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.DataSourceConfigurationVisitor;
+import org.semanticweb.rulewerk.core.reasoner.implementation.FileDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.InMemoryDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RdfFileDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.SparqlQueryResultDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.TridentDataSource;
+
+/**
+ * Reads the tuples of a data source for the {@link JavaReasoner}. CSV and
+ * N-Triples files (optionally gzipped) and {@link JavaInMemoryDataSource}s are
+ * supported. Values are read in the same way as by the VLog backend: CSV values
+ * are split at commas without further unquoting, and terms are converted with
+ * {@link TermNames#toConstant(String)}.
+ */
+class JavaDataSourceLoader implements DataSourceConfigurationVisitor {
+
+	private final Predicate predicate;
+	private final Consumer<Constant[]> tuples;
+	private int tupleCount;
+
+	/**
+	 * @param predicate the predicate of the data source declaration, whose arity
+	 *                  the tuples must have
+	 * @param tuples    called for each tuple of the data source
+	 */
+	JavaDataSourceLoader(final Predicate predicate, final Consumer<Constant[]> tuples) {
+		this.predicate = predicate;
+		this.tuples = tuples;
+	}
+
+	/**
+	 * @return the number of tuples that have been read
+	 */
+	int getTupleCount() {
+		return this.tupleCount;
+	}
+
+	@Override
+	public void visit(final CsvFileDataSource dataSource) throws IOException {
+		try (BufferedReader reader = openReader(dataSource)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty()) {
+					final String[] values = line.split(",", -1);
+					final Constant[] tuple = new Constant[values.length];
+					for (int i = 0; i < values.length; i++) {
+						tuple[i] = TermNames.toConstant(values[i]);
+					}
+					this.accept(tuple, dataSource);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void visit(final RdfFileDataSource dataSource) throws IOException {
+		try (BufferedReader reader = openReader(dataSource)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				final List<String> terms = parseNTriplesLine(line);
+				if (terms == null) {
+					throw new RulewerkRuntimeException(
+							"Invalid N-Triples in line " + lineNumber + " of " + dataSource.getPath() + ": " + line);
+				}
+				if (!terms.isEmpty()) {
+					final Constant[] tuple = new Constant[terms.size()];
+					for (int i = 0; i < tuple.length; i++) {
+						tuple[i] = TermNames.toConstant(terms.get(i));
+					}
+					this.accept(tuple, dataSource);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void visit(final TridentDataSource dataSource) throws IOException {
+		throw new RulewerkRuntimeException(
+				"Trident data sources are not supported by the Java reasoner: " + dataSource + ".");
+	}
+
+	@Override
+	public void visit(final SparqlQueryResultDataSource dataSource) {
+		throw new RulewerkRuntimeException(
+				"SPARQL query result data sources are not supported by the Java reasoner: " + dataSource + ".");
+	}
+
+	@Override
+	public void visit(final InMemoryDataSource dataSource) {
+		if (!(dataSource instanceof JavaInMemoryDataSource)) {
+			throw new RulewerkRuntimeException("In-memory data sources of type " + dataSource.getClass().getName()
+					+ " are not supported by the Java reasoner. Use JavaInMemoryDataSource instead.");
+		}
+		for (final Constant[] tuple : ((JavaInMemoryDataSource) dataSource).getData()) {
+			this.accept(tuple, dataSource);
+		}
+	}
+
+	private void accept(final Constant[] tuple, final DataSource dataSource) {
+		if (tuple.length != this.predicate.getArity()) {
+			throw new IncompatiblePredicateArityException(this.predicate, tuple.length, dataSource);
+		}
+		this.tuples.accept(tuple);
+		this.tupleCount++;
+	}
+
+	private static BufferedReader openReader(final FileDataSource dataSource) throws IOException {
+		InputStream inputStream = new FileInputStream(dataSource.getFile());
+		if (dataSource.getExtension().endsWith(".gz")) {
+			inputStream = new GZIPInputStream(inputStream);
+		}
+		return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Splits a line of an N-Triples file into its terms, which are returned in
+	 * their N-Triples syntax.
+	 *
+	 * @param line a line of an N-Triples file
+	 * @return the terms of the triple, an empty list if the line is empty or a
+	 *         comment, or {@code null} if the line is not a valid triple
+	 */
+	static List<String> parseNTriplesLine(final String line) {
+		final List<String> terms = new ArrayList<>(3);
+		int i = skipWhitespace(line, 0);
+		while (i < line.length() && line.charAt(i) != '.' && line.charAt(i) != '#') {
+			final int start = i;
+			final char first = line.charAt(i);
+			if (first == '<') {
+				i = line.indexOf('>', i);
+				if (i < 0) {
+					return null;
+				}
+				i++;
+			} else if (first == '"') {
+				i++;
+				while (i < line.length() && line.charAt(i) != '"') {
+					i += line.charAt(i) == '\\' ? 2 : 1;
+				}
+				if (i >= line.length()) {
+					return null;
+				}
+				i++;
+				if (line.startsWith("^^<", i)) {
+					i = line.indexOf('>', i);
+					if (i < 0) {
+						return null;
+					}
+					i++;
+				} else if (i < line.length() && line.charAt(i) == '@') {
+					while (i < line.length() && !Character.isWhitespace(line.charAt(i)) && line.charAt(i) != '.') {
+						i++;
+					}
+				}
+			} else if (line.startsWith("_:", i)) {
+				while (i < line.length() && !Character.isWhitespace(line.charAt(i)) && !(line.charAt(i) == '.'
+						&& (i + 1 == line.length() || Character.isWhitespace(line.charAt(i + 1))))) {
+					i++;
+				}
+			} else {
+				return null;
+			}
+			terms.add(line.substring(start, i));
+			i = skipWhitespace(line, i);
+		}
+		if (i < line.length() && line.charAt(i) == '#' && terms.isEmpty()) {
+			return terms;
+		}
+		if (terms.isEmpty() && i >= line.length()) {
+			return terms;
+		}
+		if (terms.size() != 3 || i >= line.length() || line.charAt(i) != '.') {
+			return null;
+		}
+		return terms;
+	}
+
+	private static int skipWhitespace(final String line, int i) {
+		while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+}
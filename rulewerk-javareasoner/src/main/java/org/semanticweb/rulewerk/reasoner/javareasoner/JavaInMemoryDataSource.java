@@ -0,0 +1,92 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.semanticweb.rulewerk.core.model.api.Constant;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.reasoner.implementation.DataSourceConfigurationVisitor;
+import org.semanticweb.rulewerk.core.reasoner.implementation.InMemoryDataSource;
+
+/**
+ * Implementation of {@link InMemoryDataSource} for the {@link JavaReasoner}.
+ * The constant names are converted to constants when they are added, so that
+ * they do not need to be parsed again when the data is loaded.
+ */
+public class JavaInMemoryDataSource extends InMemoryDataSource {
+
+	private final List<Constant[]> data;
+
+	public JavaInMemoryDataSource(final int arity, final int initialCapacity) {
+		super(arity, initialCapacity);
+		this.data = new ArrayList<>(initialCapacity);
+	}
+
+	/**
+	 * Adds a fact to this data source. The number of constant names must agree with
+	 * the arity of this data source.
+	 *
+	 * @param constantNames the string names of the constants in this fact
+	 */
+	@Override
+	public void addTuple(final String... constantNames) {
+		this.validateArity(constantNames);
+		final Constant[] tuple = new Constant[this.arity];
+		for (int i = 0; i < this.arity; i++) {
+			tuple[i] = TermNames.toConstantFromRulewerkName(constantNames[i]);
+		}
+		this.data.add(tuple);
+	}
+
+	/**
+	 * Returns the tuples stored in this data source.
+	 *
+	 * @return the data
+	 */
+	public List<Constant[]> getData() {
+		return this.data;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(
+				"This InMemoryDataSource holds the following tuples of constants, one tuple per line:");
+		for (final Constant[] tuple : this.data) {
+			for (final Constant constant : tuple) {
+				sb.append(constant).append(" ");
+			}
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void accept(final DataSourceConfigurationVisitor visitor) {
+		visitor.visit(this);
+	}
+
+	@Override
+	public Fact getDeclarationFact() {
+		throw new UnsupportedOperationException("JavaInMemoryDataSource cannot be serialized.");
+	}
+}
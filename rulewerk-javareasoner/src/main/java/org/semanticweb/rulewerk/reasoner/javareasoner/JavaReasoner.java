@@ -0,0 +1,1222 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.exceptions.ReasonerStateException;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
+import org.semanticweb.rulewerk.core.model.api.DataSource;
+import org.semanticweb.rulewerk.core.model.api.DataSourceDeclaration;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.NamedNull;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Statement;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.AcyclicityNotion;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
+import org.semanticweb.rulewerk.core.reasoner.Algorithm;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.CyclicityResult;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.LogLevel;
+import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPage;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.ReasonerState;
+import org.semanticweb.rulewerk.core.reasoner.ReasoningStatistics;
+import org.semanticweb.rulewerk.core.reasoner.RuleRewriteStrategy;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+import org.semanticweb.rulewerk.core.reasoner.Timer;
+import org.semanticweb.rulewerk.core.reasoner.implementation.AggregateQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator.TupleIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.EmptyQueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.MagicSetsRewriting;
+import org.semanticweb.rulewerk.core.reasoner.implementation.PredicateDependencyGraph;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ProjectionQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryAnswerCountImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryCursorRegistry;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ReasonerDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ReasoningStatisticsImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RuleStatisticsImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.CheckCyclicityEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.CountQueryAnswersEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.ExportQueryAnswersEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.LoadDataSourcesEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.LoadFactsEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.LoadKnowledgeBaseEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.MaterialiseEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.QueryEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.SetRulesEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.Skolemization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reasoner implementation in Java, which needs no native libraries. Terms are
+ * encoded as integer ids, and the facts of each predicate are stored in a
+ * {@link Relation} with hash indexes that are built on demand. Inferences are
+ * computed by semi-naive evaluation of the rules (see {@link Materialiser}),
+ * where the matching of rule bodies is parallelised with fork/join tasks on
+ * {@link #getNumberOfThreads()} threads. Rules with negation are evaluated in
+ * strata (see {@link Stratification}).
+ *
+ * The reasoner supports the restricted chase (Datalog-first) and the Skolem
+ * chase, CSV and N-Triples file data sources, and {@link JavaInMemoryDataSource}s.
+ * Terms read from data sources are converted in the same way as by the VLog
+ * backend, so that both reasoners give the same answers. Rule rewriting (see
+ * {@link #setRuleRewriteStrategy(RuleRewriteStrategy)}) has no effect, and
+ * messages are logged with SLF4J rather than to a log file. Of the acyclicity
+ * notions, JA and MFA are supported.
+ */
+public class JavaReasoner implements Reasoner {
+	private static Logger LOGGER = LoggerFactory.getLogger(JavaReasoner.class);
+
+	final KnowledgeBase knowledgeBase;
+
+	private ReasonerState reasonerState = ReasonerState.KB_NOT_LOADED;
+	private Correctness correctness = Correctness.SOUND_BUT_INCOMPLETE;
+
+	private LogLevel internalLogLevel = LogLevel.WARNING;
+	private Algorithm algorithm = Algorithm.RESTRICTED_CHASE;
+	private Integer timeoutAfterSeconds;
+	private RuleRewriteStrategy ruleRewriteStrategy = RuleRewriteStrategy.NONE;
+	private Set<Predicate> relevantPredicates;
+	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+	private boolean ruleProfiling = false;
+	private String logFile;
+
+	/**
+	 * Renames the named nulls of facts to constants, as done by the VLog backend.
+	 */
+	private final Skolemization skolemization = new Skolemization();
+
+	private TermDictionary dictionary;
+	private final Map<Predicate, Relation> relations = new HashMap<>();
+	private List<List<CompiledRule>> strata = Collections.emptyList();
+	/**
+	 * Number of facts of each loaded predicate after loading, before any rule has
+	 * been applied.
+	 */
+	private Map<Predicate, Long> assertedFactCounts = Collections.emptyMap();
+
+	/**
+	 * Durations (in nanoseconds) of the phases of the last loading and
+	 * materialisation, reported by {@link #getReasoningStatistics()}.
+	 */
+	private long loadingTime;
+	private long conversionTime;
+	private long materialisationTime;
+
+	/**
+	 * The rules for which {@link #cyclicityResults} have been computed, and the
+	 * results and durations (in nanoseconds) of the checks by the name of the
+	 * checked notion.
+	 */
+	private Set<Rule> cyclicityCheckRules;
+	private final Map<String, Boolean> cyclicityResults = new HashMap<>();
+	private final Map<String, Long> cyclicityCheckTimes = new LinkedHashMap<>();
+
+	/**
+	 * Predicates whose extensions have been loaded, if only the part of the
+	 * knowledge base relevant for {@link #relevantPredicates} has been loaded.
+	 * Has value {@code null} if the whole knowledge base has been loaded.
+	 */
+	private Set<Predicate> loadedPredicates;
+
+	/**
+	 * Holds the state of the reasoning result. Has value {@code true} if reasoning
+	 * has completed, {@code false} if it has been interrupted.
+	 */
+	private boolean reasoningCompleted;
+
+	/**
+	 * Open iterators of paged queries, which are closed whenever the state of the
+	 * reasoner changes.
+	 */
+	private final QueryCursorRegistry queryCursors = new QueryCursorRegistry();
+
+	public JavaReasoner(final KnowledgeBase knowledgeBase) {
+		super();
+		this.knowledgeBase = knowledgeBase;
+		this.knowledgeBase.addListener(this);
+	}
+
+	@Override
+	public KnowledgeBase getKnowledgeBase() {
+		return this.knowledgeBase;
+	}
+
+	@Override
+	public void setAlgorithm(final Algorithm algorithm) {
+		Validate.notNull(algorithm, "Algorithm cannot be null!");
+		this.validateNotClosed();
+		this.algorithm = algorithm;
+	}
+
+	@Override
+	public Algorithm getAlgorithm() {
+		return this.algorithm;
+	}
+
+	@Override
+	public void setReasoningTimeout(final Integer seconds) {
+		this.validateNotClosed();
+		if (seconds != null) {
+			Validate.isTrue(seconds > 0, "Only strictly positive timeout period allowed!", seconds);
+		}
+		this.timeoutAfterSeconds = seconds;
+	}
+
+	@Override
+	public Integer getReasoningTimeout() {
+		return this.timeoutAfterSeconds;
+	}
+
+	/**
+	 * {@inheritDoc} The strategy is only stored, since this reasoner does not
+	 * rewrite rules.
+	 */
+	@Override
+	public void setRuleRewriteStrategy(final RuleRewriteStrategy ruleRewritingStrategy) {
+		this.validateNotClosed();
+		Validate.notNull(ruleRewritingStrategy, "Rewrite strategy cannot be null!");
+		this.ruleRewriteStrategy = ruleRewritingStrategy;
+	}
+
+	@Override
+	public RuleRewriteStrategy getRuleRewriteStrategy() {
+		return this.ruleRewriteStrategy;
+	}
+
+	/**
+	 * {@inheritDoc} The threads are used for matching the bodies of rules to the
+	 * facts during materialisation, and for the MFA check. The default is the
+	 * number of available processors.
+	 */
+	@Override
+	public void setNumberOfThreads(final int numberOfThreads) {
+		this.validateNotClosed();
+		Validate.isTrue(numberOfThreads > 0, "Only strictly positive number of threads allowed!", numberOfThreads);
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	@Override
+	public int getNumberOfThreads() {
+		return this.numberOfThreads;
+	}
+
+	@Override
+	public void setRuleProfiling(final boolean ruleProfiling) {
+		this.validateNotClosed();
+		this.ruleProfiling = ruleProfiling;
+	}
+
+	@Override
+	public boolean isRuleProfiling() {
+		return this.ruleProfiling;
+	}
+
+	@Override
+	public void setRelevantPredicates(final Collection<Predicate> predicates) {
+		this.validateNotClosed();
+		if (predicates == null) {
+			this.relevantPredicates = null;
+		} else {
+			Validate.noNullElements(predicates, "Relevant predicates cannot be null!");
+			this.relevantPredicates = Collections.unmodifiableSet(new HashSet<>(predicates));
+		}
+		this.updateReasonerToKnowledgeBaseChanged();
+		this.updateCorrectnessOnStatementsChanged();
+	}
+
+	@Override
+	public Set<Predicate> getRelevantPredicates() {
+		return this.relevantPredicates;
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		return this.correctness;
+	}
+
+	void load() throws IOException {
+		this.validateNotClosed();
+
+		switch (this.reasonerState) {
+		case KB_NOT_LOADED:
+			this.loadKnowledgeBase();
+			break;
+		case KB_LOADED:
+		case MATERIALISED:
+			// do nothing, all KB is already loaded
+			break;
+		case KB_CHANGED:
+			this.resetReasoner();
+			this.loadKnowledgeBase();
+		default:
+			break;
+		}
+	}
+
+	void loadKnowledgeBase() throws IOException {
+		LOGGER.info("Started loading knowledge base ...");
+		final LoadKnowledgeBaseEvent event = new LoadKnowledgeBaseEvent();
+		event.begin();
+		final long loadingStart = System.nanoTime();
+		this.conversionTime = 0;
+		this.materialisationTime = 0;
+		this.dictionary = new TermDictionary();
+		this.relations.clear();
+
+		this.loadedPredicates = this.computeLoadedPredicates();
+		if (this.loadedPredicates != null) {
+			LOGGER.info("Loading only the part of the knowledge base relevant for {} predicates.",
+					this.loadedPredicates.size());
+		}
+
+		// 1. data sources are read
+		this.loadDataSources();
+
+		// 2. facts are loaded
+		final int factCount = this.loadFacts();
+		if (this.relations.isEmpty()) {
+			LOGGER.warn("No data statements (facts or datasource declarations) have been provided.");
+		}
+
+		// 3. rules are compiled
+		final List<Rule> rules = this.getLoadedRules();
+		this.loadRules(rules);
+
+		this.assertedFactCounts = new HashMap<>();
+		this.relations.forEach((predicate, relation) -> this.assertedFactCounts.put(predicate,
+				(long) relation.size()));
+		this.reasonerState = ReasonerState.KB_LOADED;
+		this.loadingTime = System.nanoTime() - loadingStart;
+
+		// if there are no rules, then materialisation state is complete
+		this.correctness = rules.isEmpty() ? Correctness.SOUND_AND_COMPLETE : Correctness.SOUND_BUT_INCOMPLETE;
+		if (event.shouldCommit()) {
+			event.predicates = this.relations.size();
+			event.facts = factCount;
+			event.rules = rules.size();
+			event.commit();
+		}
+		LOGGER.info("Finished loading knowledge base.");
+	}
+
+	/**
+	 * Computes the predicates whose extensions need to be loaded to answer queries
+	 * over {@link #relevantPredicates}.
+	 *
+	 * @return the predicates to load, or {@code null} if the whole knowledge base
+	 *         needs to be loaded
+	 */
+	private Set<Predicate> computeLoadedPredicates() {
+		if (this.relevantPredicates == null) {
+			return null;
+		}
+		return new PredicateDependencyGraph(this.knowledgeBase.getRules())
+				.getRelevantPredicates(this.relevantPredicates);
+	}
+
+	private boolean isLoaded(final Predicate predicate) {
+		return this.loadedPredicates == null || this.loadedPredicates.contains(predicate);
+	}
+
+	private List<Rule> getLoadedRules() {
+		final List<Rule> rules = new ArrayList<>();
+		for (final Rule rule : this.knowledgeBase.getRules()) {
+			if (this.loadedPredicates == null || PredicateDependencyGraph.isRelevant(rule, this.loadedPredicates)) {
+				rules.add(rule);
+			}
+		}
+		return rules;
+	}
+
+	private Relation getRelation(final Predicate predicate) {
+		return this.relations.computeIfAbsent(predicate, Relation::new);
+	}
+
+	void loadDataSources() throws IOException {
+		final LoadDataSourcesEvent event = new LoadDataSourcesEvent();
+		event.begin();
+		int tables = 0;
+		for (final DataSourceDeclaration declaration : this.knowledgeBase.getDataSourceDeclarations()) {
+			final Predicate predicate = declaration.getPredicate();
+			if (!this.isLoaded(predicate)) {
+				continue;
+			}
+			final DataSource dataSource = declaration.getDataSource();
+			if (!(dataSource instanceof ReasonerDataSource)) {
+				throw new RulewerkRuntimeException(
+						"Data source " + dataSource + " is not supported by the Java reasoner.");
+			}
+			final Relation relation = this.getRelation(predicate);
+			final int[] ids = new int[predicate.getArity()];
+			final JavaDataSourceLoader loader = new JavaDataSourceLoader(predicate, tuple -> {
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = this.dictionary.getOrAdd(tuple[i]);
+				}
+				relation.add(ids);
+			});
+			((ReasonerDataSource) dataSource).accept(loader);
+			if (loader.getTupleCount() == 0) {
+				LOGGER.warn("Data source {} for predicate {} is empty! ", dataSource, predicate);
+			}
+			tables++;
+		}
+		event.tables = tables;
+		event.commit();
+	}
+
+	/**
+	 * Loads the facts of the knowledge base. Named nulls in facts are renamed to
+	 * constants, which are specific to this reasoner.
+	 *
+	 * @return the number of loaded facts
+	 */
+	int loadFacts() {
+		final long conversionStart = System.nanoTime();
+		final Map<Predicate, List<Fact>> factsByPredicate = new LinkedHashMap<>();
+		for (final Fact fact : this.knowledgeBase.getFacts()) {
+			if (this.isLoaded(fact.getPredicate())) {
+				factsByPredicate.computeIfAbsent(fact.getPredicate(), k -> new ArrayList<>()).add(fact);
+			}
+		}
+
+		int factCount = 0;
+		for (final Map.Entry<Predicate, List<Fact>> entry : factsByPredicate.entrySet()) {
+			final LoadFactsEvent event = new LoadFactsEvent();
+			event.begin();
+			final Relation relation = this.getRelation(entry.getKey());
+			final int[] ids = new int[entry.getKey().getArity()];
+			for (final Fact fact : entry.getValue()) {
+				final List<Term> arguments = fact.getArguments();
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = this.dictionary.getOrAdd(this.toFactConstant(arguments.get(i)));
+				}
+				relation.add(ids);
+				LOGGER.debug("Loaded direct fact {}.", fact);
+			}
+			factCount += entry.getValue().size();
+			if (event.shouldCommit()) {
+				event.predicate = entry.getKey().toString();
+				event.facts = entry.getValue().size();
+				event.commit();
+			}
+		}
+		this.conversionTime += System.nanoTime() - conversionStart;
+		return factCount;
+	}
+
+	private Term toFactConstant(final Term term) {
+		if (term.getType() == TermType.NAMED_NULL) {
+			return Expressions.makeAbstractConstant(this.skolemization.getSkolemConstantName((NamedNull) term));
+		}
+		return term;
+	}
+
+	void loadRules(final List<Rule> rules) {
+		final SetRulesEvent event = new SetRulesEvent();
+		event.begin();
+		final long conversionStart = System.nanoTime();
+		final List<List<CompiledRule>> compiledStrata = new ArrayList<>();
+		for (final List<Rule> stratum : Stratification.stratify(rules)) {
+			final List<CompiledRule> compiledRules = new ArrayList<>(stratum.size());
+			for (final Rule rule : stratum) {
+				compiledRules.add(new CompiledRule(rule, this.dictionary::getOrAdd, this::getRelation));
+				LOGGER.debug("Loaded rule {}.", rule);
+			}
+			compiledStrata.add(compiledRules);
+		}
+		this.strata = compiledStrata;
+		this.conversionTime += System.nanoTime() - conversionStart;
+		event.rules = rules.size();
+		event.commit();
+	}
+
+	@Override
+	public boolean reason() throws IOException {
+		this.validateNotClosed();
+
+		switch (this.reasonerState) {
+		case KB_NOT_LOADED:
+			this.load();
+			this.runChase();
+			break;
+		case KB_LOADED:
+			this.runChase();
+			break;
+		case KB_CHANGED:
+			this.resetReasoner();
+			this.load();
+			this.runChase();
+			break;
+		case MATERIALISED:
+			this.runChase();
+			break;
+		default:
+			break;
+		}
+
+		return this.reasoningCompleted;
+	}
+
+	private void runChase() {
+		LOGGER.info("Started materialisation of inferences ...");
+		this.reasonerState = ReasonerState.MATERIALISED;
+		this.queryCursors.invalidate();
+
+		for (final List<CompiledRule> stratum : this.strata) {
+			for (final CompiledRule rule : stratum) {
+				rule.applications.reset();
+				rule.derivedFacts.reset();
+				rule.time.reset();
+			}
+		}
+		final Long timeoutNanos = this.timeoutAfterSeconds == null ? null
+				: this.timeoutAfterSeconds * 1000000000L;
+		final Materialiser materialiser = new Materialiser(this.dictionary, this.strata, this.algorithm,
+				this.numberOfThreads, timeoutNanos);
+		final MaterialiseEvent event = new MaterialiseEvent();
+		event.begin();
+		final long materialisationStart = System.nanoTime();
+		try {
+			this.reasoningCompleted = materialiser.materialise();
+		} finally {
+			this.materialisationTime = System.nanoTime() - materialisationStart;
+		}
+		event.algorithm = this.algorithm.name();
+		event.completed = this.reasoningCompleted;
+		event.commit();
+
+		if (this.reasoningCompleted) {
+			this.correctness = Correctness.SOUND_AND_COMPLETE;
+			LOGGER.info("Completed materialisation of inferences.");
+		} else {
+			this.correctness = Correctness.SOUND_BUT_INCOMPLETE;
+			LOGGER.info("Stopped materialisation of inferences (possibly incomplete).");
+		}
+	}
+
+	@Override
+	public ReasoningStatistics getReasoningStatistics() {
+		this.validateNotClosed();
+		final Map<Predicate, Long> factCounts = new HashMap<>();
+		final Map<Predicate, Long> assertedFactCounts = new HashMap<>();
+		final List<RuleStatistics> ruleStatistics = new ArrayList<>();
+		if (this.reasonerState == ReasonerState.KB_LOADED || this.reasonerState == ReasonerState.MATERIALISED) {
+			this.relations.forEach((predicate, relation) -> factCounts.put(predicate, (long) relation.size()));
+			assertedFactCounts.putAll(this.assertedFactCounts);
+			if (this.ruleProfiling && this.reasonerState == ReasonerState.MATERIALISED) {
+				for (final List<CompiledRule> stratum : this.strata) {
+					for (final CompiledRule rule : stratum) {
+						ruleStatistics.add(new RuleStatisticsImpl(rule.rule, rule.applications.sum(),
+								rule.derivedFacts.sum(), rule.time.sum() / 1000000.0));
+					}
+				}
+			}
+		}
+		final Map<String, Long> cyclicityCheckTimes = new HashMap<>();
+		this.cyclicityCheckTimes.forEach((notion, time) -> cyclicityCheckTimes.put(notion, time / 1000000));
+		return new ReasoningStatisticsImpl(this.loadingTime / 1000000, this.conversionTime / 1000000,
+				this.materialisationTime / 1000000, factCounts, assertedFactCounts,
+				Timer.getProcessPeakResidentSetSize(), ruleStatistics, cyclicityCheckTimes);
+	}
+
+	@Override
+	public QueryResultIterator answerQuery(final PositiveLiteral query, final boolean includeNulls) {
+		final QueryEvent event = new QueryEvent();
+		event.begin();
+		final QueryResultIterator answers = this.doAnswerQuery(query, includeNulls);
+		if (event.shouldCommit()) {
+			event.query = query.toString();
+			event.includeNulls = includeNulls;
+			event.commit();
+		}
+		return answers;
+	}
+
+	private QueryResultIterator doAnswerQuery(final PositiveLiteral query, final boolean includeNulls) {
+		this.validateBeforeQuerying(query);
+
+		if (!this.relations.containsKey(query.getPredicate())) {
+			return this.createEmptyResultIterator(query);
+		}
+		final AtomPattern pattern = this.toQueryPattern(query);
+		this.logWarningOnCorrectness(this.correctness);
+		if (pattern == null) {
+			return new EmptyQueryResultIterator(this.correctness);
+		}
+		return new JavaQueryResultIterator(new AtomIterator(pattern, this.dictionary, includeNulls),
+				this.correctness);
+	}
+
+	/**
+	 * Encodes the given query atom for the relation of its predicate, which must
+	 * exist.
+	 *
+	 * @return the encoded atom, or {@code null} if the query contains a term that
+	 *         does not occur in any fact, so that it has no answers
+	 */
+	private AtomPattern toQueryPattern(final PositiveLiteral query) {
+		final List<Term> arguments = query.getArguments();
+		final int[] terms = new int[arguments.size()];
+		final Map<Term, Integer> slots = new HashMap<>();
+		for (int i = 0; i < terms.length; i++) {
+			final Term term = arguments.get(i);
+			if (term.isVariable()) {
+				terms[i] = AtomPattern.fromSlot(slots.computeIfAbsent(term, k -> slots.size()));
+			} else {
+				terms[i] = this.dictionary.getId(term);
+				if (terms[i] == TermDictionary.UNKNOWN) {
+					return null;
+				}
+			}
+		}
+		return new AtomPattern(this.relations.get(query.getPredicate()), terms);
+	}
+
+	/**
+	 * {@link QueryResultIterator} over the rows of a relation that match a query
+	 * atom.
+	 */
+	private class JavaQueryResultIterator implements QueryResultIterator {
+
+		private final AtomIterator rows;
+		private final Correctness correctness;
+
+		JavaQueryResultIterator(final AtomIterator rows, final Correctness correctness) {
+			this.rows = rows;
+			this.correctness = correctness;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.rows.hasNext();
+		}
+
+		@Override
+		public QueryResult next() {
+			if (!this.rows.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return new QueryResultImpl(JavaReasoner.this.getTerms(this.rows.getRelation(), this.rows.next()));
+		}
+
+		@Override
+		public Correctness getCorrectness() {
+			return this.correctness;
+		}
+
+		@Override
+		public void close() {
+			// nothing to release
+		}
+	}
+
+	private List<Term> getTerms(final Relation relation, final int row) {
+		final List<Term> terms = new ArrayList<>(relation.getArity());
+		for (int i = 0; i < relation.getArity(); i++) {
+			terms.add(this.dictionary.getTerm(relation.get(row, i)));
+		}
+		return terms;
+	}
+
+	@Override
+	public QueryResultIterator answerQuery(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls) {
+		this.validateBeforeQuerying(query);
+
+		final JavaTupleSource tupleSource = new JavaTupleSource();
+		final QueryResultIterator answers = new ProjectionQueryEvaluator(tupleSource).answer(query, answerVariables,
+				distinct, orderVariables, includeNulls, this.correctness);
+		if (tupleSource.unknownPredicateQuery != null) {
+			answers.close();
+			return this.createEmptyResultIterator(query);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return answers;
+	}
+
+	@Override
+	public QueryResultPage answerQueryPage(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls,
+			final int pageSize) {
+		Validate.isTrue(pageSize > 0, "Page size must be positive!");
+		return this.queryCursors.getFirstPage(
+				this.answerQuery(query, answerVariables, distinct, orderVariables, includeNulls), pageSize);
+	}
+
+	@Override
+	public QueryResultPage getNextQueryResultPage(final String cursor, final int pageSize) {
+		this.validateNotClosed();
+		return this.queryCursors.getNextPage(cursor, pageSize);
+	}
+
+	@Override
+	public QueryResultIterator answerQueryGoalDirected(final PositiveLiteral query, final boolean includeNulls)
+			throws IOException {
+		this.validateNotClosed();
+		Validate.notNull(query, "Query atom must not be null!");
+
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(this.knowledgeBase, query);
+		final JavaReasoner goalDirectedReasoner = new JavaReasoner(rewriting.getKnowledgeBase());
+		try {
+			goalDirectedReasoner.setAlgorithm(this.algorithm);
+			goalDirectedReasoner.setReasoningTimeout(this.timeoutAfterSeconds);
+			goalDirectedReasoner.setNumberOfThreads(this.numberOfThreads);
+			goalDirectedReasoner.setLogLevel(this.internalLogLevel);
+			LOGGER.info("Started goal-directed materialisation for query {} using {} rewritten rules ...", query,
+					rewriting.getRules().size());
+			goalDirectedReasoner.reason();
+			return new ClosingQueryResultIterator(goalDirectedReasoner.answerQuery(rewriting.getQuery(), includeNulls),
+					goalDirectedReasoner);
+		} catch (IOException | RuntimeException e) {
+			goalDirectedReasoner.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public QueryResultIterator answerConjunctiveQuery(final Conjunction<PositiveLiteral> query,
+			final List<Variable> answerVariables, final boolean includeNulls) {
+		this.validateNotClosed();
+		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
+			throw new ReasonerStateException(this.reasonerState,
+					"Querying is not allowed before Reasoner#reason() was first called!");
+		}
+		Validate.notNull(query, "Query must not be null!");
+
+		final JavaTupleSource tupleSource = new JavaTupleSource();
+		final QueryResultIterator answers = new ConjunctiveQueryEvaluator(tupleSource).answer(query, answerVariables,
+				includeNulls, this.correctness);
+		if (tupleSource.unknownPredicateQuery != null) {
+			final Correctness answerCorrectness = this.getCorrectnessUnknownPredicate(tupleSource.unknownPredicateQuery);
+			this.logWarningOnCorrectness(answerCorrectness);
+			return new EmptyQueryResultIterator(answerCorrectness);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return answers;
+	}
+
+	@Override
+	public QueryResultIterator answerAggregateQuery(final PositiveLiteral query, final List<Variable> groupVariables,
+			final List<Aggregate> aggregates, final boolean includeNulls) {
+		this.validateBeforeQuerying(query);
+
+		final JavaTupleSource tupleSource = new JavaTupleSource();
+		final QueryResultIterator answers = new AggregateQueryEvaluator(tupleSource).answer(query, groupVariables,
+				aggregates, includeNulls, this.correctness);
+		if (tupleSource.unknownPredicateQuery != null) {
+			answers.close();
+			return this.createEmptyResultIterator(query);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return answers;
+	}
+
+	/**
+	 * {@link ConjunctiveQueryEvaluator.TupleSource} that evaluates atoms directly
+	 * on the relations of this reasoner, so that joins are computed on term ids.
+	 */
+	private class JavaTupleSource implements ConjunctiveQueryEvaluator.TupleSource {
+
+		/**
+		 * An atom of the query whose predicate has no relation, if any.
+		 */
+		PositiveLiteral unknownPredicateQuery;
+
+		/**
+		 * @return an iterator over the matching rows, or {@code null} if there are
+		 *         none
+		 */
+		private AtomIterator iterate(final PositiveLiteral atom, final boolean includeNulls) {
+			if (!JavaReasoner.this.relations.containsKey(atom.getPredicate())) {
+				this.unknownPredicateQuery = atom;
+				return null;
+			}
+			final AtomPattern pattern = JavaReasoner.this.toQueryPattern(atom);
+			return pattern == null ? null : new AtomIterator(pattern, JavaReasoner.this.dictionary, includeNulls);
+		}
+
+		@Override
+		public long count(final PositiveLiteral atom) {
+			return JavaReasoner.this.count(this.iterate(atom, true));
+		}
+
+		@Override
+		public void forEachTuple(final PositiveLiteral atom, final Consumer<long[]> action) {
+			this.forEachTuple(atom, true, action);
+		}
+
+		@Override
+		public void forEachTuple(final PositiveLiteral atom, final boolean includeNulls,
+				final Consumer<long[]> action) {
+			try (final TupleIterator tuples = this.iterateTuples(atom, includeNulls)) {
+				while (tuples.hasNext()) {
+					action.accept(tuples.next());
+				}
+			}
+		}
+
+		@Override
+		public TupleIterator iterateTuples(final PositiveLiteral atom, final boolean includeNulls) {
+			final AtomIterator rows = this.iterate(atom, includeNulls);
+			return new TupleIterator() {
+				@Override
+				public boolean hasNext() {
+					return rows != null && rows.hasNext();
+				}
+
+				@Override
+				public long[] next() {
+					if (!this.hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final Relation relation = rows.getRelation();
+					final int row = rows.next();
+					final long[] tuple = new long[relation.getArity()];
+					for (int i = 0; i < tuple.length; i++) {
+						tuple[i] = relation.get(row, i);
+					}
+					return tuple;
+				}
+
+				@Override
+				public void close() {
+					// nothing to release
+				}
+			};
+		}
+
+		@Override
+		public Term getTerm(final long id) {
+			return JavaReasoner.this.dictionary.getTerm((int) id);
+		}
+	}
+
+	private long count(final AtomIterator rows) {
+		long count = 0;
+		if (rows != null) {
+			while (rows.hasNext()) {
+				rows.next();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private QueryResultIterator createEmptyResultIterator(final PositiveLiteral query) {
+		final Correctness answerCorrectness = this.getCorrectnessUnknownPredicate(query);
+		this.logWarningOnCorrectness(answerCorrectness);
+		return new EmptyQueryResultIterator(answerCorrectness);
+	}
+
+	private Correctness getCorrectnessUnknownPredicate(final PositiveLiteral query) {
+		final Correctness answerCorrectness;
+		if (this.loadedPredicates != null && !this.loadedPredicates.contains(query.getPredicate())) {
+			LOGGER.warn("Query uses predicate " + query.getPredicate()
+					+ " that is not relevant for the predicates set with Reasoner#setRelevantPredicates. Answers may be incomplete!");
+			answerCorrectness = Correctness.SOUND_BUT_INCOMPLETE;
+		} else if (this.reasonerState == ReasonerState.MATERIALISED) {
+			LOGGER.warn("Query uses predicate " + query.getPredicate()
+					+ " that does not occur in the materialised knowledge base. Answer must be empty!");
+			answerCorrectness = Correctness.SOUND_AND_COMPLETE;
+		} else {
+			answerCorrectness = Correctness.SOUND_BUT_INCOMPLETE;
+		}
+		return answerCorrectness;
+	}
+
+	@Override
+	public QueryAnswerCount countQueryAnswers(final PositiveLiteral query, final boolean includeNulls) {
+		final CountQueryAnswersEvent event = new CountQueryAnswersEvent();
+		event.begin();
+		final QueryAnswerCount count = this.doCountQueryAnswers(query, includeNulls);
+		if (event.shouldCommit()) {
+			event.query = query.toString();
+			event.includeNulls = includeNulls;
+			event.count = count.getCount();
+			event.commit();
+		}
+		return count;
+	}
+
+	private QueryAnswerCount doCountQueryAnswers(final PositiveLiteral query, final boolean includeNulls) {
+		this.validateBeforeQuerying(query);
+
+		final JavaTupleSource tupleSource = new JavaTupleSource();
+		final long result = this.count(tupleSource.iterate(query, includeNulls));
+		if (tupleSource.unknownPredicateQuery != null) {
+			final Correctness correctness = this.getCorrectnessUnknownPredicate(query);
+			this.logWarningOnCorrectness(correctness);
+			return new QueryAnswerCountImpl(correctness, 0);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return new QueryAnswerCountImpl(this.correctness, result);
+	}
+
+	@Override
+	public Correctness exportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeNulls) throws IOException {
+		final ExportQueryAnswersEvent event = new ExportQueryAnswersEvent();
+		event.begin();
+		final Correctness correctness = this.doExportQueryAnswersToCsv(query, csvFilePath, includeNulls);
+		if (event.shouldCommit()) {
+			event.query = query.toString();
+			event.file = csvFilePath;
+			final Path csvFile = Paths.get(csvFilePath);
+			event.size = Files.exists(csvFile) ? Files.size(csvFile) : 0;
+			event.commit();
+		}
+		return correctness;
+	}
+
+	/**
+	 * Writes the answers to the query in the same format as the VLog backend, i.e.,
+	 * one line per answer with comma-separated terms, where IRIs that are not
+	 * plain names are enclosed in angle brackets.
+	 */
+	private Correctness doExportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeNulls) throws IOException {
+		this.validateBeforeQuerying(query);
+
+		Validate.notNull(csvFilePath, "File to export query answer to must not be null!");
+		Validate.isTrue(csvFilePath.endsWith(".csv"), "Expected .csv extension for file [%s]!", csvFilePath);
+
+		final JavaTupleSource tupleSource = new JavaTupleSource();
+		final AtomIterator rows = tupleSource.iterate(query, includeNulls);
+		if (tupleSource.unknownPredicateQuery != null) {
+			final Correctness correctness = this.getCorrectnessUnknownPredicate(query);
+			this.logWarningOnCorrectness(correctness);
+			return correctness;
+		}
+		try (final Writer writer = Files.newBufferedWriter(Paths.get(csvFilePath), StandardCharsets.UTF_8)) {
+			while (rows != null && rows.hasNext()) {
+				final Relation relation = rows.getRelation();
+				final int row = rows.next();
+				for (int i = 0; i < relation.getArity(); i++) {
+					if (i > 0) {
+						writer.write(',');
+					}
+					writer.write(TermNames.toCsvName(this.dictionary.getTerm(relation.get(row, i))));
+				}
+				writer.write('\n');
+			}
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return this.correctness;
+	}
+
+	private void validateBeforeQuerying(final PositiveLiteral query) {
+		this.validateNotClosed();
+		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
+			throw new ReasonerStateException(this.reasonerState,
+					"Querying is not allowed before Reasoner#reason() was first called!");
+		}
+		Validate.notNull(query, "Query atom must not be null!");
+	}
+
+	@Override
+	public Correctness forEachInference(final InferenceAction action) throws IOException {
+		this.validateNotClosed();
+		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
+			throw new ReasonerStateException(this.reasonerState,
+					"Obtaining inferences is not alowed before reasoner is loaded!");
+		}
+		final Set<Predicate> toBeQueriedHeadPredicates = this.getKnowledgeBasePredicates();
+		if (this.loadedPredicates != null) {
+			toBeQueriedHeadPredicates.retainAll(this.loadedPredicates);
+		}
+
+		for (final Predicate predicate : toBeQueriedHeadPredicates) {
+			final Relation relation = this.relations.get(predicate);
+			if (relation != null) {
+				final int size = relation.size();
+				for (int row = 0; row < size; row++) {
+					action.accept(predicate, this.getTerms(relation, row));
+				}
+			}
+		}
+		final Correctness inferencesCorrectness = this.loadedPredicates == null ? this.correctness
+				: Correctness.SOUND_BUT_INCOMPLETE;
+		this.logWarningOnCorrectness(inferencesCorrectness);
+		return inferencesCorrectness;
+	}
+
+	private void logWarningOnCorrectness(final Correctness correctness) {
+		if (correctness != Correctness.SOUND_AND_COMPLETE) {
+			LOGGER.warn("Query answers may be {} with respect to the current Knowledge Base!", correctness);
+		}
+	}
+
+	@Override
+	public void resetReasoner() {
+		this.validateNotClosed();
+		this.reasonerState = ReasonerState.KB_NOT_LOADED;
+		this.queryCursors.invalidate();
+		this.dictionary = null;
+		this.relations.clear();
+		this.strata = Collections.emptyList();
+		this.assertedFactCounts = Collections.emptyMap();
+		this.loadingTime = 0;
+		this.conversionTime = 0;
+		this.materialisationTime = 0;
+		LOGGER.info("Reasoner has been reset. All inferences computed during reasoning have been discarded.");
+	}
+
+	@Override
+	public void close() {
+		if (this.reasonerState == ReasonerState.CLOSED) {
+			LOGGER.info("Reasoner is already closed.");
+		} else {
+			this.reasonerState = ReasonerState.CLOSED;
+			this.knowledgeBase.deleteListener(this);
+			this.queryCursors.invalidate();
+			this.dictionary = null;
+			this.relations.clear();
+			this.strata = Collections.emptyList();
+			LOGGER.info("Reasoner closed.");
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The log level is only stored, since this reasoner logs with
+	 * SLF4J, whose configuration determines which messages are shown.
+	 */
+	@Override
+	public void setLogLevel(final LogLevel logLevel) {
+		this.validateNotClosed();
+		Validate.notNull(logLevel, "Log level cannot be null!");
+		this.internalLogLevel = logLevel;
+	}
+
+	@Override
+	public LogLevel getLogLevel() {
+		return this.internalLogLevel;
+	}
+
+	/**
+	 * {@inheritDoc} The file is only stored, since this reasoner logs with SLF4J.
+	 */
+	@Override
+	public void setLogFile(final String filePath) {
+		this.validateNotClosed();
+		this.logFile = filePath;
+	}
+
+	@Override
+	public boolean isJA() {
+		final Set<Rule> rules = this.getCyclicityCheckRules();
+		return this.checkCyclicity(AcyclicityNotion.JA.name(), () -> AcyclicityChecker.isJointlyAcyclic(rules));
+	}
+
+	@Override
+	public boolean isRJA() {
+		final Set<Rule> rules = this.getCyclicityCheckRules();
+		return this.checkCyclicity(AcyclicityNotion.RJA.name(),
+				() -> AcyclicityChecker.isRestrictedJointlyAcyclic(rules));
+	}
+
+	@Override
+	public boolean isMFA() {
+		final Set<Rule> rules = this.getCyclicityCheckRules();
+		return this.checkCyclicity(AcyclicityNotion.MFA.name(),
+				() -> AcyclicityChecker.isModelFaithfulAcyclic(rules, this.numberOfThreads));
+	}
+
+	@Override
+	public boolean isRMFA() {
+		final Set<Rule> rules = this.getCyclicityCheckRules();
+		return this.checkCyclicity(AcyclicityNotion.RMFA.name(),
+				() -> AcyclicityChecker.isRestrictedModelFaithfulAcyclic(rules, this.numberOfThreads));
+	}
+
+	/**
+	 * {@inheritDoc} Cyclicity is not checked by this reasoner, so the result is
+	 * always {@code false}. This is conservative, since it only means that the
+	 * rules are not known to be cyclic.
+	 */
+	@Override
+	public boolean isMFC() {
+		this.validateNotClosed();
+		return false;
+	}
+
+	/**
+	 * Checks whether the rules are JA, RJA, MFA or RMFA, in this order. Since
+	 * cyclicity (MFC) is not checked, the result is
+	 * {@link CyclicityResult#UNDETERMINED} if none of them holds.
+	 */
+	@Override
+	public CyclicityResult checkForCycles() {
+		return this.isJA() || this.isRJA() || this.isMFA() || this.isRMFA() ? CyclicityResult.ACYCLIC
+				: CyclicityResult.UNDETERMINED;
+	}
+
+	/**
+	 * Returns the rules whose acyclicity is checked, and discards cached results
+	 * of checks if the rules have changed.
+	 */
+	private Set<Rule> getCyclicityCheckRules() {
+		this.validateNotClosed();
+		final Set<Predicate> predicates = this.computeLoadedPredicates();
+		final Set<Rule> rules = new HashSet<>();
+		for (final Rule rule : this.knowledgeBase.getRules()) {
+			if (predicates == null || PredicateDependencyGraph.isRelevant(rule, predicates)) {
+				rules.add(rule);
+			}
+		}
+		if (!rules.equals(this.cyclicityCheckRules)) {
+			this.cyclicityCheckRules = rules;
+			this.cyclicityResults.clear();
+			this.cyclicityCheckTimes.clear();
+		}
+		return rules;
+	}
+
+	private boolean checkCyclicity(final String notion, final BooleanSupplier check) {
+		final Boolean cachedResult = this.cyclicityResults.get(notion);
+		if (cachedResult != null) {
+			LOGGER.debug("Using cached result of {} check.", notion);
+			return cachedResult;
+		}
+
+		final CheckCyclicityEvent event = new CheckCyclicityEvent();
+		event.begin();
+		final long start = System.nanoTime();
+		final boolean result = check.getAsBoolean();
+		final long time = System.nanoTime() - start;
+		this.cyclicityResults.put(notion, result);
+		this.cyclicityCheckTimes.put(notion, time);
+		LOGGER.info("Checked {} in {}ms: {}.", notion, time / 1000000, result);
+		if (event.shouldCommit()) {
+			event.notion = notion;
+			event.conclusive = result;
+			event.rules = this.cyclicityCheckRules.size();
+			event.commit();
+		}
+		return result;
+	}
+
+	@Override
+	public void onStatementsAdded(final List<Statement> statementsAdded) {
+		this.updateReasonerToKnowledgeBaseChanged();
+		this.updateCorrectnessOnStatementsChanged();
+	}
+
+	@Override
+	public void onStatementAdded(final Statement statementAdded) {
+		this.updateReasonerToKnowledgeBaseChanged();
+		this.updateCorrectnessOnStatementsChanged();
+	}
+
+	@Override
+	public void onStatementRemoved(final Statement statementRemoved) {
+		this.updateReasonerToKnowledgeBaseChanged();
+		this.updateCorrectnessOnStatementsChanged();
+	}
+
+	@Override
+	public void onStatementsRemoved(final List<Statement> statementsRemoved) {
+		this.updateReasonerToKnowledgeBaseChanged();
+		this.updateCorrectnessOnStatementsChanged();
+	}
+
+	Set<Predicate> getKnowledgeBasePredicates() {
+		final Set<Predicate> toBeQueriedHeadPredicates = new HashSet<>();
+		for (final Rule rule : this.knowledgeBase.getRules()) {
+			for (final Literal literal : rule.getHead()) {
+				toBeQueriedHeadPredicates.add(literal.getPredicate());
+			}
+		}
+		for (final DataSourceDeclaration dataSourceDeclaration : this.knowledgeBase.getDataSourceDeclarations()) {
+			toBeQueriedHeadPredicates.add(dataSourceDeclaration.getPredicate());
+		}
+		for (final Fact fact : this.knowledgeBase.getFacts()) {
+			toBeQueriedHeadPredicates.add(fact.getPredicate());
+		}
+		return toBeQueriedHeadPredicates;
+	}
+
+	private void updateReasonerToKnowledgeBaseChanged() {
+		this.queryCursors.invalidate();
+		if (this.reasonerState.equals(ReasonerState.KB_LOADED)
+				|| this.reasonerState.equals(ReasonerState.MATERIALISED)) {
+
+			this.reasonerState = ReasonerState.KB_CHANGED;
+		}
+	}
+
+	private void updateCorrectnessOnStatementsChanged() {
+		if (this.reasonerState == ReasonerState.KB_CHANGED) {
+			this.correctness = Correctness.INCORRECT;
+		}
+	}
+
+	/**
+	 * Check if reasoner is closed and throw an exception if it is.
+	 *
+	 * @throws ReasonerStateException
+	 */
+	void validateNotClosed() throws ReasonerStateException {
+		if (this.reasonerState == ReasonerState.CLOSED) {
+			LOGGER.error("Invalid operation requested on a closed reasoner object!");
+			throw new ReasonerStateException(this.reasonerState, "Operation not allowed after closing reasoner!");
+		}
+	}
+
+	ReasonerState getReasonerState() {
+		return this.reasonerState;
+	}
+
+}
@@ -0,0 +1,254 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan for evaluating a conjunction of atoms by nested index joins. The atoms
+ * are evaluated in a fixed order, in which each atom is matched using the index
+ * for the positions that are bound by constants or by variables of earlier
+ * atoms. The rows of each atom can be restricted to a range, which is used for
+ * semi-naive evaluation.
+ */
+class JoinPlan {
+
+	/**
+	 * Callback for the complete variable bindings found by a plan.
+	 */
+	@FunctionalInterface
+	interface BindingsConsumer {
+		/**
+		 * @param bindings the bindings of all variable slots of the rule
+		 * @return {@code false} if the evaluation should stop
+		 */
+		boolean accept(int[] bindings);
+	}
+
+	private static final class Step {
+		final int atom;
+		final Relation relation;
+		final Relation.Index index;
+		/**
+		 * Constant term ids or encoded variable slots of the key positions.
+		 */
+		final int[] keyTerms;
+		final int[] bindPositions;
+		final int[] bindSlots;
+		final int[] checkPositions;
+		final int[] checkSlots;
+
+		Step(final int atom, final AtomPattern pattern, final boolean[] bound) {
+			this.atom = atom;
+			this.relation = pattern.relation;
+			final List<Integer> keyPositions = new ArrayList<>();
+			final List<Integer> keyTerms = new ArrayList<>();
+			final List<Integer> bindPositions = new ArrayList<>();
+			final List<Integer> checkPositions = new ArrayList<>();
+			final boolean[] boundHere = new boolean[bound.length];
+			for (int i = 0; i < pattern.terms.length; i++) {
+				final int term = pattern.terms[i];
+				if (!AtomPattern.isVariable(term) || bound[AtomPattern.toSlot(term)]) {
+					keyPositions.add(i);
+					keyTerms.add(term);
+				} else if (boundHere[AtomPattern.toSlot(term)]) {
+					checkPositions.add(i);
+				} else {
+					boundHere[AtomPattern.toSlot(term)] = true;
+					bindPositions.add(i);
+				}
+			}
+			for (int slot = 0; slot < bound.length; slot++) {
+				bound[slot] |= boundHere[slot];
+			}
+			this.keyTerms = toArray(keyTerms);
+			this.index = keyPositions.isEmpty() ? null : this.relation.getIndex(toArray(keyPositions));
+			this.bindPositions = toArray(bindPositions);
+			this.bindSlots = toSlots(pattern, this.bindPositions);
+			this.checkPositions = toArray(checkPositions);
+			this.checkSlots = toSlots(pattern, this.checkPositions);
+		}
+
+		void fillKey(final int[] bindings, final int[] key) {
+			for (int k = 0; k < key.length; k++) {
+				final int term = this.keyTerms[k];
+				key[k] = AtomPattern.isVariable(term) ? bindings[AtomPattern.toSlot(term)] : term;
+			}
+		}
+
+		boolean bind(final int row, final int[] bindings) {
+			for (int i = 0; i < this.bindPositions.length; i++) {
+				bindings[this.bindSlots[i]] = this.relation.get(row, this.bindPositions[i]);
+			}
+			for (int i = 0; i < this.checkPositions.length; i++) {
+				if (this.relation.get(row, this.checkPositions[i]) != bindings[this.checkSlots[i]]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int[] toSlots(final AtomPattern pattern, final int[] positions) {
+			final int[] slots = new int[positions.length];
+			for (int i = 0; i < positions.length; i++) {
+				slots[i] = AtomPattern.toSlot(pattern.terms[positions[i]]);
+			}
+			return slots;
+		}
+	}
+
+	private final Step[] steps;
+
+	/**
+	 * Creates a plan for the given atoms. The first atom is evaluated first, and
+	 * the remaining atoms are ordered greedily, preferring atoms with many bound
+	 * positions. The indexes that the plan needs are created in the relations of
+	 * the atoms.
+	 *
+	 * @param atoms      the atoms to join
+	 * @param firstAtom  index of the atom to evaluate first, or {@code -1}
+	 * @param slotCount  number of variable slots
+	 * @param boundSlots slots that are bound before the evaluation
+	 */
+	JoinPlan(final List<AtomPattern> atoms, final int firstAtom, final int slotCount, final int[] boundSlots) {
+		final boolean[] bound = new boolean[slotCount];
+		for (final int slot : boundSlots) {
+			bound[slot] = true;
+		}
+		final boolean[] planned = new boolean[atoms.size()];
+		this.steps = new Step[atoms.size()];
+		for (int s = 0; s < this.steps.length; s++) {
+			int next = firstAtom;
+			if (s > 0 || firstAtom < 0) {
+				int bestScore = Integer.MIN_VALUE;
+				for (int a = 0; a < atoms.size(); a++) {
+					if (!planned[a]) {
+						final int score = score(atoms.get(a), bound);
+						if (score > bestScore) {
+							bestScore = score;
+							next = a;
+						}
+					}
+				}
+			}
+			planned[next] = true;
+			this.steps[s] = new Step(next, atoms.get(next), bound);
+		}
+	}
+
+	/**
+	 * Prefers atoms with many bound and few unbound positions.
+	 */
+	private static int score(final AtomPattern atom, final boolean[] bound) {
+		int score = 0;
+		for (final int term : atom.terms) {
+			score += !AtomPattern.isVariable(term) || bound[AtomPattern.toSlot(term)] ? 2 * atom.terms.length : -1;
+		}
+		return score;
+	}
+
+	/**
+	 * Starts an evaluation of this plan. Evaluations hold the buffers for index
+	 * keys and must not be shared between threads.
+	 */
+	Evaluation newEvaluation() {
+		return new Evaluation();
+	}
+
+	final class Evaluation {
+
+		private final int[][] keys = new int[JoinPlan.this.steps.length][];
+		private int[] bindings;
+		private int[] from;
+		private int[] to;
+		private BindingsConsumer consumer;
+
+		private Evaluation() {
+			for (int s = 0; s < this.keys.length; s++) {
+				this.keys[s] = new int[JoinPlan.this.steps[s].keyTerms.length];
+			}
+		}
+
+		/**
+		 * Finds all bindings of the variables that match the atoms of the plan to
+		 * rows in the given ranges.
+		 *
+		 * @param bindings the variable bindings, which must contain the values of
+		 *                 the initially bound slots
+		 * @param from     for each atom, the first row of its range
+		 * @param to       for each atom, the end of its range (exclusive)
+		 * @param consumer called for each match
+		 * @return {@code false} if the consumer has stopped the evaluation
+		 */
+		boolean run(final int[] bindings, final int[] from, final int[] to, final BindingsConsumer consumer) {
+			this.bindings = bindings;
+			this.from = from;
+			this.to = to;
+			this.consumer = consumer;
+			return this.match(0);
+		}
+
+		private boolean match(final int s) {
+			if (s == JoinPlan.this.steps.length) {
+				return this.consumer.accept(this.bindings);
+			}
+			final Step step = JoinPlan.this.steps[s];
+			final int first = this.from[step.atom];
+			final int end = Math.min(this.to[step.atom], step.relation.size());
+			if (step.index == null) {
+				for (int row = first; row < end; row++) {
+					if (step.bind(row, this.bindings) && !this.match(s + 1)) {
+						return false;
+					}
+				}
+			} else {
+				final int[] key = this.keys[s];
+				step.fillKey(this.bindings, key);
+				for (int row = step.index.first(key, first, end); row >= 0; row = step.index.next(row, key,
+						first)) {
+					if (step.bind(row, this.bindings) && !this.match(s + 1)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+	}
+
+	@Override
+	public String toString() {
+		final List<Integer> order = new ArrayList<>();
+		for (final Step step : this.steps) {
+			order.add(step.atom);
+		}
+		return "JoinPlan " + order;
+	}
+
+	private static int[] toArray(final List<Integer> values) {
+		final int[] array = new int[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+
+}
@@ -0,0 +1,469 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.semanticweb.rulewerk.core.reasoner.Algorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes the chase of compiled rules over the facts of their relations by
+ * semi-naive evaluation. The strata of the rules are materialised one after the
+ * other. Within a stratum, rules without existential variables are applied to a
+ * fixpoint before rules with existential variables are applied (Datalog-first
+ * chase), which lets the restricted chase find more rule applications that are
+ * already satisfied.
+ *
+ * Each round of semi-naive evaluation has two phases. In the parallel phase,
+ * the bodies of the rules are matched to the facts, where each task matches one
+ * chunk of the delta of one body atom and collects the bindings of the frontier
+ * variables. In the sequential phase, the collected bindings are used to add
+ * head facts, creating named nulls for existential variables unless the
+ * application is already satisfied (restricted chase) or has already been
+ * performed for the same frontier (Skolem chase).
+ */
+class Materialiser {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Materialiser.class);
+
+	/**
+	 * Minimal number of delta rows matched by one task.
+	 */
+	private static final int MIN_CHUNK_SIZE = 256;
+	/**
+	 * Number of matches or rule applications between checks of the deadline.
+	 */
+	private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+	private final TermDictionary dictionary;
+	private final List<List<CompiledRule>> strata;
+	private final boolean skolemChase;
+	private final int numberOfThreads;
+	private final long deadline;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * The Skolem functions that occur in the term of each named null, if cyclic
+	 * terms are detected, or {@code null} otherwise.
+	 */
+	private Map<Integer, BitSet> nullFunctions;
+	private Map<CompiledRule, Integer> firstFunctionIds;
+	private boolean cyclicTermFound;
+	/**
+	 * The Skolem function of each named null, and the functions of the named
+	 * nulls that block the applications of each rule when bound to each of its
+	 * frontier variables, if blocked applications are skipped, or {@code null}
+	 * otherwise.
+	 */
+	private Map<Integer, Integer> nullFunction;
+	private Map<CompiledRule, BitSet[]> blockingFunctions;
+
+	/**
+	 * Decides whether a rule is never applied for a match that binds one of its
+	 * frontier variables to a named null created for an existential variable of
+	 * a rule.
+	 */
+	@FunctionalInterface
+	interface BlockingCondition {
+		/**
+		 * @param creatingRule     the rule that creates the named null
+		 * @param existentialIndex the index of the existential variable of the
+		 *                         named null in
+		 *                         {@link CompiledRule#existentialSlots}
+		 * @param rule             the rule that is applied
+		 * @param frontierIndex    the index of the frontier variable in
+		 *                         {@link CompiledRule#frontierSlots}
+		 * @return {@code true} if the application is blocked
+		 */
+		boolean isBlocked(CompiledRule creatingRule, int existentialIndex, CompiledRule rule, int frontierIndex);
+	}
+
+	/**
+	 * Creates a materialiser.
+	 *
+	 * @param dictionary      the dictionary of the terms in the relations
+	 * @param strata          the rules of each stratum
+	 * @param algorithm       the chase variant
+	 * @param numberOfThreads the parallelism of the matching phase
+	 * @param timeoutNanos    the maximal duration of materialisation in
+	 *                        nanoseconds, or {@code null} for no limit
+	 */
+	Materialiser(final TermDictionary dictionary, final List<List<CompiledRule>> strata, final Algorithm algorithm,
+			final int numberOfThreads, final Long timeoutNanos) {
+		this.dictionary = dictionary;
+		this.strata = strata;
+		this.skolemChase = algorithm == Algorithm.SKOLEM_CHASE;
+		this.numberOfThreads = numberOfThreads;
+		this.deadline = timeoutNanos == null ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+	}
+
+	/**
+	 * Makes the materialiser stop as soon as it creates a named null whose
+	 * (Skolem) term is cyclic, i.e., contains a nested term of the same Skolem
+	 * function. This is used for checking model-faithful acyclicity with the
+	 * Skolem chase.
+	 */
+	void detectCyclicTerms() {
+		this.nullFunctions = new HashMap<>();
+		this.firstFunctionIds = new HashMap<>();
+		int functionCount = 0;
+		for (final List<CompiledRule> stratum : this.strata) {
+			for (final CompiledRule rule : stratum) {
+				this.firstFunctionIds.put(rule, functionCount);
+				functionCount += rule.existentialSlots.length;
+			}
+		}
+	}
+
+	/**
+	 * Makes the materialiser skip all rule applications that bind a frontier
+	 * variable to a named null for which the given condition holds. This is used
+	 * for checking restricted model-faithful acyclicity. Must be called after
+	 * {@link #detectCyclicTerms()}.
+	 *
+	 * @param condition decides which applications are blocked
+	 */
+	void skipBlockedApplications(final BlockingCondition condition) {
+		this.nullFunction = new HashMap<>();
+		this.blockingFunctions = new HashMap<>();
+		for (final List<CompiledRule> stratum : this.strata) {
+			for (final CompiledRule rule : stratum) {
+				final BitSet[] functions = new BitSet[rule.frontierSlots.length];
+				for (int j = 0; j < functions.length; j++) {
+					functions[j] = new BitSet();
+					for (final Map.Entry<CompiledRule, Integer> entry : this.firstFunctionIds.entrySet()) {
+						for (int i = 0; i < entry.getKey().existentialSlots.length; i++) {
+							if (condition.isBlocked(entry.getKey(), i, rule, j)) {
+								functions[j].set(entry.getValue() + i);
+							}
+						}
+					}
+				}
+				this.blockingFunctions.put(rule, functions);
+			}
+		}
+	}
+
+	/**
+	 * @return whether a cyclic term has been found, see
+	 *         {@link #detectCyclicTerms()}
+	 */
+	boolean isCyclicTermFound() {
+		return this.cyclicTermFound;
+	}
+
+	/**
+	 * Computes all inferences.
+	 *
+	 * @return {@code true} if materialisation has completed, {@code false} if it
+	 *         has been stopped by the timeout or because a cyclic term was found
+	 */
+	boolean materialise() {
+		final ForkJoinPool pool = this.numberOfThreads > 1 ? new ForkJoinPool(this.numberOfThreads) : null;
+		try {
+			for (final List<CompiledRule> stratum : this.strata) {
+				final RuleGroup datalogRules = new RuleGroup();
+				final RuleGroup existentialRules = new RuleGroup();
+				for (final CompiledRule rule : stratum) {
+					(rule.isExistential() ? existentialRules : datalogRules).rules.add(rule);
+				}
+				boolean changed = true;
+				while (changed && !this.isCancelled()) {
+					while (datalogRules.round(pool) && !this.isCancelled()) {
+						// apply Datalog rules to a fixpoint first
+					}
+					changed = !existentialRules.rules.isEmpty() && existentialRules.round(pool);
+				}
+				if (this.isCancelled()) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	private boolean isCancelled() {
+		if (!this.cancelled && System.nanoTime() > this.deadline) {
+			LOGGER.info("Materialisation has reached its timeout.");
+			this.cancelled = true;
+		}
+		return this.cancelled;
+	}
+
+	/**
+	 * Rules that are evaluated together, with the number of rows of each relation
+	 * that they have already been applied to.
+	 */
+	private final class RuleGroup {
+
+		final List<CompiledRule> rules = new ArrayList<>();
+		final Map<Relation, Integer> watermarks = new HashMap<>();
+
+		/**
+		 * Applies the rules to the facts that are new since the previous round.
+		 *
+		 * @return {@code true} if new facts have been derived
+		 */
+		boolean round(final ForkJoinPool pool) {
+			final Map<Relation, Integer> ends = new HashMap<>();
+			final List<MatchTask> tasks = new ArrayList<>();
+			for (final CompiledRule rule : this.rules) {
+				for (final AtomPattern atom : rule.body) {
+					ends.computeIfAbsent(atom.relation, Relation::size);
+				}
+				for (int variant = 0; variant < rule.body.size(); variant++) {
+					this.addTasks(rule, variant, ends, tasks);
+				}
+			}
+			if (tasks.isEmpty()) {
+				return false;
+			}
+
+			if (pool == null || tasks.size() == 1 && tasks.get(0).to[tasks.get(0).variant]
+					- tasks.get(0).from[tasks.get(0).variant] <= MIN_CHUNK_SIZE) {
+				for (final MatchTask task : tasks) {
+					task.compute();
+				}
+			} else {
+				pool.invoke(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						ForkJoinTask.invokeAll(tasks);
+					}
+				});
+			}
+
+			long derivedFacts = 0;
+			for (final MatchTask task : tasks) {
+				derivedFacts += Materialiser.this.apply(task);
+				if (Materialiser.this.cancelled) {
+					break;
+				}
+			}
+			this.watermarks.putAll(ends);
+			return derivedFacts > 0;
+		}
+
+		/**
+		 * Adds the tasks that match the given body atom of the rule to its delta,
+		 * the body atoms before it to the facts of previous rounds, and the body
+		 * atoms after it to all facts, so that each match is found only once.
+		 */
+		private void addTasks(final CompiledRule rule, final int variant, final Map<Relation, Integer> ends,
+				final List<MatchTask> tasks) {
+			final int atomCount = rule.body.size();
+			final int[] from = new int[atomCount];
+			final int[] to = new int[atomCount];
+			for (int i = 0; i < atomCount; i++) {
+				final Relation relation = rule.body.get(i).relation;
+				final int watermark = this.watermarks.getOrDefault(relation, 0);
+				final int end = ends.get(relation);
+				if (i < variant) {
+					to[i] = watermark;
+				} else if (i == variant) {
+					from[i] = watermark;
+					to[i] = end;
+				} else {
+					to[i] = end;
+				}
+				if (from[i] >= to[i]) {
+					return;
+				}
+			}
+			rule.applications.increment();
+
+			final int deltaSize = to[variant] - from[variant];
+			final int chunkSize = Materialiser.this.numberOfThreads == 1 ? deltaSize
+					: Math.max(MIN_CHUNK_SIZE, deltaSize / (4 * Materialiser.this.numberOfThreads) + 1);
+			for (int start = from[variant]; start < to[variant]; start += chunkSize) {
+				final int[] chunkFrom = from.clone();
+				final int[] chunkTo = to.clone();
+				chunkFrom[variant] = start;
+				chunkTo[variant] = Math.min(start + chunkSize, to[variant]);
+				tasks.add(new MatchTask(rule, variant, chunkFrom, chunkTo));
+			}
+		}
+	}
+
+	/**
+	 * Matches the body of a rule and collects the bindings of its frontier
+	 * variables.
+	 */
+	private final class MatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final CompiledRule rule;
+		final int variant;
+		final int[] from;
+		final int[] to;
+
+		int[] frontiers = new int[16];
+		int frontierCount;
+
+		MatchTask(final CompiledRule rule, final int variant, final int[] from, final int[] to) {
+			this.rule = rule;
+			this.variant = variant;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			final long start = System.nanoTime();
+			final int[] bindings = new int[this.rule.slotCount];
+			final int[][] negativeTuples = CompiledRule.newTupleBuffers(this.rule.negativeBody);
+			final int[] frontierSlots = this.rule.frontierSlots;
+			this.rule.deltaPlans[this.variant].newEvaluation().run(bindings, this.from, this.to, matched -> {
+				if (!this.rule.satisfiesNegativeBody(matched, negativeTuples)) {
+					return true;
+				}
+				final int offset = this.frontierCount * frontierSlots.length;
+				if (offset + frontierSlots.length > this.frontiers.length) {
+					this.frontiers = Arrays.copyOf(this.frontiers, 2 * this.frontiers.length + frontierSlots.length);
+				}
+				for (int i = 0; i < frontierSlots.length; i++) {
+					this.frontiers[offset + i] = matched[frontierSlots[i]];
+				}
+				return ++this.frontierCount % DEADLINE_CHECK_INTERVAL != 0 || !Materialiser.this.isCancelled();
+			});
+			this.rule.time.add(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Applies the rule of the given task for all frontier bindings it has found.
+	 *
+	 * @return the number of new facts
+	 */
+	private long apply(final MatchTask task) {
+		final long start = System.nanoTime();
+		final CompiledRule rule = task.rule;
+		final int[] frontierSlots = rule.frontierSlots;
+		final int[] bindings = new int[rule.slotCount];
+		final int[] frontier = new int[frontierSlots.length];
+		final int[][] headTuples = CompiledRule.newTupleBuffers(rule.head);
+		final JoinPlan.Evaluation headCheck = rule.isExistential() ? rule.headPlan.newEvaluation() : null;
+		final int[] headFrom = new int[rule.head.size()];
+		final int[] headTo = new int[rule.head.size()];
+		Arrays.fill(headTo, Integer.MAX_VALUE);
+
+		long derivedFacts = 0;
+		for (int f = 0; f < task.frontierCount; f++) {
+			for (int i = 0; i < frontierSlots.length; i++) {
+				frontier[i] = task.frontiers[f * frontierSlots.length + i];
+				bindings[frontierSlots[i]] = frontier[i];
+			}
+			if (this.blockingFunctions != null && this.isBlocked(rule, frontier)) {
+				continue;
+			}
+			if (rule.isExistential()) {
+				if (this.skolemChase ? !rule.appliedFrontiers.add(frontier)
+						: !headCheck.run(bindings, headFrom, headTo, matched -> false)) {
+					continue;
+				}
+				if (!this.createNulls(rule, frontier, bindings)) {
+					break;
+				}
+			}
+			for (int h = 0; h < headTuples.length; h++) {
+				final AtomPattern atom = rule.head.get(h);
+				atom.instantiate(bindings, headTuples[h]);
+				if (atom.relation.add(headTuples[h])) {
+					derivedFacts++;
+				}
+			}
+			if ((f + 1) % DEADLINE_CHECK_INTERVAL == 0 && this.isCancelled()) {
+				break;
+			}
+		}
+		rule.derivedFacts.add(derivedFacts);
+		rule.time.add(System.nanoTime() - start);
+		return derivedFacts;
+	}
+
+	private boolean isBlocked(final CompiledRule rule, final int[] frontier) {
+		final BitSet[] functions = this.blockingFunctions.get(rule);
+		for (int i = 0; i < frontier.length; i++) {
+			final Integer function = this.nullFunction.get(frontier[i]);
+			if (function != null && functions[i].get(function)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Binds the existential variables of the rule to fresh named nulls.
+	 *
+	 * @return {@code false} if a cyclic term has been found
+	 */
+	private boolean createNulls(final CompiledRule rule, final int[] frontier, final int[] bindings) {
+		BitSet functions = null;
+		if (this.nullFunctions != null) {
+			functions = new BitSet();
+			for (final int id : frontier) {
+				final BitSet frontierFunctions = this.nullFunctions.get(id);
+				if (frontierFunctions != null) {
+					functions.or(frontierFunctions);
+				}
+			}
+		}
+		for (int i = 0; i < rule.existentialSlots.length; i++) {
+			final int id = this.dictionary.addNull();
+			bindings[rule.existentialSlots[i]] = id;
+			if (functions != null) {
+				final int function = this.firstFunctionIds.get(rule) + i;
+				if (functions.get(function)) {
+					LOGGER.debug("Found cyclic term for variable {} of rule {}.", i, rule);
+					this.cyclicTermFound = true;
+					this.cancelled = true;
+					return false;
+				}
+				final BitSet nullFunctions = (BitSet) functions.clone();
+				nullFunctions.set(function);
+				this.nullFunctions.put(id, nullFunctions);
+				if (this.nullFunction != null) {
+					this.nullFunction.put(id, function);
+				}
+			}
+		}
+		return true;
+	}
+
+}
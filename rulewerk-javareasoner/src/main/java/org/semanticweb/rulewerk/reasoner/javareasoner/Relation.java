@@ -0,0 +1,322 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+
+/**
+ * The facts of one predicate, stored as rows of term ids in a single array.
+ * Rows are only ever appended, so that a range of rows identifies the facts
+ * that have been added in a certain phase of materialisation (e.g., the delta
+ * of semi-naive evaluation). Duplicate rows are rejected using a hash set of
+ * row numbers.
+ *
+ * For each combination of bound positions that is used in a join, an index
+ * maps the values at these positions to the chain of matching rows. Indexes are
+ * created on demand and maintained when rows are added.
+ *
+ * Rows may only be added by one thread at a time, while no other thread reads
+ * the relation; reading from several threads is safe otherwise.
+ */
+class Relation {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Predicate predicate;
+	private final int arity;
+
+	private int[] data;
+	private int size;
+
+	/**
+	 * Open addressing hash set of row numbers plus one; {@code 0} marks an empty
+	 * slot.
+	 */
+	private int[] rowSet = new int[INITIAL_CAPACITY];
+
+	private final Map<List<Integer>, Index> indexes = new ConcurrentHashMap<>();
+
+	Relation(final Predicate predicate) {
+		this.predicate = predicate;
+		this.arity = predicate.getArity();
+		this.data = new int[INITIAL_CAPACITY * Math.max(this.arity, 1)];
+	}
+
+	Predicate getPredicate() {
+		return this.predicate;
+	}
+
+	int getArity() {
+		return this.arity;
+	}
+
+	/**
+	 * @return the number of rows
+	 */
+	int size() {
+		return this.size;
+	}
+
+	int get(final int row, final int position) {
+		return this.data[row * this.arity + position];
+	}
+
+	int[] getRow(final int row) {
+		return Arrays.copyOfRange(this.data, row * this.arity, (row + 1) * this.arity);
+	}
+
+	/**
+	 * Adds the given tuple unless it is already contained.
+	 *
+	 * @param tuple term ids, one for each position
+	 * @return {@code true} if the tuple has been added
+	 */
+	boolean add(final int[] tuple) {
+		if (this.arity == 0) {
+			if (this.size > 0) {
+				return false;
+			}
+			this.size = 1;
+			return true;
+		}
+		int slot = this.findSlot(tuple);
+		if (this.rowSet[slot] != 0) {
+			return false;
+		}
+
+		final int row = this.size;
+		if ((row + 1) * this.arity > this.data.length) {
+			this.data = Arrays.copyOf(this.data, this.data.length * 2);
+		}
+		System.arraycopy(tuple, 0, this.data, row * this.arity, this.arity);
+		this.size++;
+		this.rowSet[slot] = row + 1;
+		if (this.size * 2 > this.rowSet.length) {
+			this.rehashRows();
+		}
+		for (final Index index : this.indexes.values()) {
+			index.add(row);
+		}
+		return true;
+	}
+
+	boolean contains(final int[] tuple) {
+		if (this.arity == 0) {
+			return this.size > 0;
+		}
+		return this.rowSet[this.findSlot(tuple)] != 0;
+	}
+
+	private int findSlot(final int[] tuple) {
+		final int mask = this.rowSet.length - 1;
+		int slot = hash(tuple) & mask;
+		while (this.rowSet[slot] != 0 && !this.rowEquals(this.rowSet[slot] - 1, tuple)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private boolean rowEquals(final int row, final int[] tuple) {
+		final int offset = row * this.arity;
+		for (int i = 0; i < this.arity; i++) {
+			if (this.data[offset + i] != tuple[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehashRows() {
+		this.rowSet = new int[this.rowSet.length * 2];
+		final int mask = this.rowSet.length - 1;
+		for (int row = 0; row < this.size; row++) {
+			int slot = this.rowHash(row, null) & mask;
+			while (this.rowSet[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.rowSet[slot] = row + 1;
+		}
+	}
+
+	static int hash(final int[] tuple) {
+		int hash = 0;
+		for (final int value : tuple) {
+			hash = mix(hash, value);
+		}
+		return finish(hash);
+	}
+
+	/**
+	 * Computes the hash of the values of the given row at the given positions (or
+	 * at all positions if {@code null}), in the same way as {@link #hash(int[])}
+	 * for the values only.
+	 */
+	private int rowHash(final int row, final int[] positions) {
+		int hash = 0;
+		final int offset = row * this.arity;
+		if (positions == null) {
+			for (int i = 0; i < this.arity; i++) {
+				hash = mix(hash, this.data[offset + i]);
+			}
+		} else {
+			for (final int position : positions) {
+				hash = mix(hash, this.data[offset + position]);
+			}
+		}
+		return finish(hash);
+	}
+
+	private static int mix(final int hash, final int value) {
+		return (hash ^ value) * 0x9E3779B1;
+	}
+
+	private static int finish(final int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Returns the index for the given bound positions, creating it if necessary.
+	 * This must not be called concurrently with {@link #add(int[])}.
+	 *
+	 * @param positions the bound positions, in ascending order
+	 * @return the index
+	 */
+	Index getIndex(final int[] positions) {
+		final List<Integer> key = new ArrayList<>(positions.length);
+		for (final int position : positions) {
+			key.add(position);
+		}
+		Index index = this.indexes.get(key);
+		if (index == null) {
+			synchronized (this) {
+				index = this.indexes.get(key);
+				if (index == null) {
+					index = new Index(positions);
+					for (int row = 0; row < this.size; row++) {
+						index.add(row);
+					}
+					this.indexes.put(key, index);
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Hash index for one combination of bound positions. Each bucket holds a
+	 * chain of rows, linked in descending order, so that the rows of a key in a
+	 * range {@code [from, to)} are found with {@link #first(int[], int, int)} and
+	 * {@link #next(int, int[], int)}.
+	 */
+	final class Index {
+
+		private final int[] positions;
+		private int[] buckets = new int[INITIAL_CAPACITY];
+		private int[] next = new int[INITIAL_CAPACITY];
+		/**
+		 * Hashes of the keys of all rows, to avoid comparing rows of other keys in
+		 * the same bucket.
+		 */
+		private int[] hashes = new int[INITIAL_CAPACITY];
+		private int count;
+
+		private Index(final int[] positions) {
+			this.positions = positions;
+			Arrays.fill(this.buckets, -1);
+		}
+
+		private void add(final int row) {
+			if (row >= this.next.length) {
+				this.next = Arrays.copyOf(this.next, this.next.length * 2);
+				this.hashes = Arrays.copyOf(this.hashes, this.hashes.length * 2);
+			}
+			this.hashes[row] = Relation.this.rowHash(row, this.positions);
+			this.count++;
+			if (this.count * 2 > this.buckets.length) {
+				this.buckets = new int[this.buckets.length * 2];
+				Arrays.fill(this.buckets, -1);
+				for (int i = 0; i < row; i++) {
+					this.link(i);
+				}
+			}
+			this.link(row);
+		}
+
+		private void link(final int row) {
+			final int bucket = this.hashes[row] & (this.buckets.length - 1);
+			this.next[row] = this.buckets[bucket];
+			this.buckets[bucket] = row;
+		}
+
+		/**
+		 * Returns the last row in the range {@code [from, to)} whose values at the
+		 * positions of this index are the given key values.
+		 *
+		 * @param key  the values of the bound positions, in the order of the
+		 *             positions
+		 * @param from first row of the range
+		 * @param to   end of the range (exclusive)
+		 * @return a row number, or {@code -1} if there is no matching row
+		 */
+		int first(final int[] key, final int from, final int to) {
+			if (from >= to) {
+				return -1;
+			}
+			final int hash = hash(key);
+			return this.skip(this.buckets[hash & (this.buckets.length - 1)], hash, key, from, to);
+		}
+
+		/**
+		 * Returns the next matching row below the given row, as in
+		 * {@link #first(int[], int, int)}.
+		 */
+		int next(final int row, final int[] key, final int from) {
+			return this.skip(this.next[row], hash(key), key, from, Integer.MAX_VALUE);
+		}
+
+		private int skip(int row, final int hash, final int[] key, final int from, final int to) {
+			while (row >= from) {
+				if (row < to && this.hashes[row] == hash && this.matches(row, key)) {
+					return row;
+				}
+				row = this.next[row];
+			}
+			return -1;
+		}
+
+		private boolean matches(final int row, final int[] key) {
+			final int offset = row * Relation.this.arity;
+			for (int k = 0; k < key.length; k++) {
+				if (Relation.this.data[offset + this.positions[k]] != key[k]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+
+/**
+ * Computes a stratification of rules with negation. Each predicate is assigned
+ * the lowest stratum such that it is in a stratum at least as high as the
+ * predicates of the positive body atoms of its rules, and in a strictly higher
+ * stratum than the predicates of their negated body atoms. All head predicates
+ * of a rule share a stratum. Rules are evaluated in the stratum of their head
+ * predicates, so that negated atoms only refer to predicates that have been
+ * materialised completely.
+ */
+final class Stratification {
+
+	private Stratification() {
+	}
+
+	/**
+	 * Splits the given rules into strata.
+	 *
+	 * @param rules the rules
+	 * @return the non-empty strata, in the order of evaluation
+	 * @throws RulewerkRuntimeException if the rules cannot be stratified, i.e., if
+	 *                                  a predicate depends on its own negation
+	 */
+	static List<List<Rule>> stratify(final Collection<Rule> rules) {
+		final Map<Predicate, Integer> strata = new HashMap<>();
+		int predicateCount = 0;
+		for (final Rule rule : rules) {
+			for (final Literal literal : rule.getHead()) {
+				if (strata.putIfAbsent(literal.getPredicate(), 0) == null) {
+					predicateCount++;
+				}
+			}
+			for (final Literal literal : rule.getBody()) {
+				if (strata.putIfAbsent(literal.getPredicate(), 0) == null) {
+					predicateCount++;
+				}
+			}
+		}
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (final Rule rule : rules) {
+				int stratum = 0;
+				for (final Literal literal : rule.getHead()) {
+					stratum = Math.max(stratum, strata.get(literal.getPredicate()));
+				}
+				for (final Literal literal : rule.getBody()) {
+					stratum = Math.max(stratum, strata.get(literal.getPredicate()) + (literal.isNegated() ? 1 : 0));
+				}
+				if (stratum > predicateCount) {
+					throw new RulewerkRuntimeException(
+							"The rules cannot be stratified, since some predicate depends on its own negation, e.g., in rule "
+									+ rule + ".");
+				}
+				for (final Literal literal : rule.getHead()) {
+					if (strata.put(literal.getPredicate(), stratum) != stratum) {
+						changed = true;
+					}
+				}
+			}
+		}
+
+		final Map<Integer, List<Rule>> rulesByStratum = new TreeMap<>();
+		for (final Rule rule : rules) {
+			final int stratum = strata.get(rule.getHead().getLiterals().get(0).getPredicate());
+			rulesByStratum.computeIfAbsent(stratum, k -> new ArrayList<>()).add(rule);
+		}
+		return new ArrayList<>(rulesByStratum.values());
+	}
+
+}
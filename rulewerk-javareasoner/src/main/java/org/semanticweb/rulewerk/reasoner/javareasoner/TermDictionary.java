@@ -0,0 +1,113 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.implementation.NamedNullImpl;
+
+/**
+ * Dictionary that encodes the terms of facts as consecutive integer ids, so
+ * that tuples can be stored, hashed and joined as arrays of integers. Named
+ * nulls that are introduced during reasoning get fresh ids, too.
+ *
+ * The dictionary is only modified while loading and in the sequential phases of
+ * materialisation, and can be read concurrently otherwise.
+ */
+class TermDictionary {
+
+	static final int UNKNOWN = -1;
+
+	private final List<Term> terms = new ArrayList<>();
+	private final Map<Term, Integer> ids = new HashMap<>();
+	private int nullCount;
+
+	/**
+	 * Returns the id of the given term, adding it to the dictionary if necessary.
+	 *
+	 * @param term a constant or named null
+	 * @return the id of the term
+	 */
+	int getOrAdd(final Term term) {
+		final Integer id = this.ids.get(term);
+		if (id != null) {
+			return id;
+		}
+		return this.add(term);
+	}
+
+	/**
+	 * Returns the id of the given term.
+	 *
+	 * @param term a constant or named null
+	 * @return the id of the term, or {@link #UNKNOWN} if it does not occur in any
+	 *         fact
+	 */
+	int getId(final Term term) {
+		final Integer id = this.ids.get(term);
+		return id == null ? UNKNOWN : id;
+	}
+
+	/**
+	 * Creates a named null that does not occur in the dictionary yet.
+	 *
+	 * @return the id of the new named null
+	 */
+	int addNull() {
+		Term namedNull;
+		do {
+			namedNull = new NamedNullImpl(Integer.toString(++this.nullCount));
+		} while (this.ids.containsKey(namedNull));
+		return this.add(namedNull);
+	}
+
+	private int add(final Term term) {
+		final int id = this.terms.size();
+		this.terms.add(term);
+		this.ids.put(term, id);
+		return id;
+	}
+
+	Term getTerm(final int id) {
+		return this.terms.get(id);
+	}
+
+	boolean isNull(final int id) {
+		return this.terms.get(id).getType() == TermType.NAMED_NULL;
+	}
+
+	/**
+	 * @return the number of named nulls created with {@link #addNull()}
+	 */
+	int getNullCount() {
+		return this.nullCount;
+	}
+
+	int size() {
+		return this.terms.size();
+	}
+
+}
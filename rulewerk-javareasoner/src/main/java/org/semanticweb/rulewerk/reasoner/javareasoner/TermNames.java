@@ -0,0 +1,110 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Constant;
+import org.semanticweb.rulewerk.core.model.api.DatatypeConstant;
+import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.implementation.AbstractConstantImpl;
+import org.semanticweb.rulewerk.core.model.implementation.DatatypeConstantImpl;
+import org.semanticweb.rulewerk.core.model.implementation.LanguageStringConstantImpl;
+
+/**
+ * Conversions between terms and the strings that represent them in data files.
+ * The formats agree with those of the VLog backend, so that both backends read
+ * the same terms from CSV and RDF files and write the same CSV files.
+ */
+final class TermNames {
+
+	private TermNames() {
+	}
+
+	/**
+	 * Creates a constant from its representation in a CSV or N-Triples file: IRIs
+	 * may be enclosed in {@code < >}, and literals are written in RDF syntax
+	 * without abbreviations. Any other string is the name of an abstract
+	 * constant.
+	 *
+	 * @param name the string representation of a constant
+	 * @return the constant
+	 */
+	static Constant toConstant(final String name) {
+		if (name.isEmpty()) {
+			return new AbstractConstantImpl(name);
+		}
+		if (name.charAt(0) == '<' && name.charAt(name.length() - 1) == '>') {
+			return new AbstractConstantImpl(name.substring(1, name.length() - 1));
+		} else if (name.charAt(0) == '"') {
+			if (name.charAt(name.length() - 1) == '>') {
+				final int startTypeIdx = name.lastIndexOf('<', name.length() - 2);
+				final String datatype = name.substring(startTypeIdx + 1, name.length() - 1);
+				final String lexicalValue = name.substring(1, startTypeIdx - 3);
+				return new DatatypeConstantImpl(lexicalValue, datatype);
+			}
+			final int startTagIdx = name.lastIndexOf('@', name.length() - 2);
+			if (startTagIdx > 0 && name.charAt(startTagIdx - 1) == '"') {
+				return new LanguageStringConstantImpl(name.substring(1, startTagIdx - 1),
+						name.substring(startTagIdx + 1));
+			} else if (name.length() > 1 && name.charAt(name.length() - 1) == '"') {
+				return new DatatypeConstantImpl(name.substring(1, name.length() - 1),
+						PrefixDeclarationRegistry.XSD_STRING);
+			}
+			throw new RulewerkRuntimeException("Cannot make sense of the constant name '" + name + "'.");
+		}
+		return new AbstractConstantImpl(name);
+	}
+
+	/**
+	 * Creates a constant from a name given to an {@link JavaInMemoryDataSource}:
+	 * literals are written in RDF syntax without abbreviations, and any other
+	 * string is the name of an abstract constant.
+	 *
+	 * @param name the name of a constant
+	 * @return the constant
+	 */
+	static Constant toConstantFromRulewerkName(final String name) {
+		if (name.startsWith("\"")) {
+			return toConstant(name);
+		}
+		return new AbstractConstantImpl(name);
+	}
+
+	/**
+	 * Returns the representation of the given term in CSV files, which
+	 * {@link #toConstant(String)} converts back to the same constant.
+	 *
+	 * @param term a constant or named null
+	 * @return the representation of the term
+	 */
+	static String toCsvName(final Term term) {
+		switch (term.getType()) {
+		case ABSTRACT_CONSTANT:
+			return term.getName().contains(":") ? "<" + term.getName() + ">" : term.getName();
+		case DATATYPE_CONSTANT:
+			return ((DatatypeConstant) term).getRdfLiteralString(false);
+		default:
+			return term.getName();
+		}
+	}
+
+}
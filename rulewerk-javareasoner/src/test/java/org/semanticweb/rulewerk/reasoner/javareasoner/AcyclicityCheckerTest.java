@@ -0,0 +1,123 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.reasoner.AcyclicityNotion;
+import org.semanticweb.rulewerk.core.reasoner.CyclicityResult;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class AcyclicityCheckerTest {
+
+	/**
+	 * Rules that are MFA but not JA: the nulls created by the first rule occur in
+	 * both positions of R, but never in a fact R(y, y).
+	 */
+	static final String MFA_NOT_JA = "R(?X, !Y), R(!Y, ?X) :- A(?X) . A(?Y) :- R(?Y, ?Y) .";
+
+	/**
+	 * Rules that are RJA and RMFA, but not MFA: the first rule is applied again
+	 * for each null, but the restricted chase finds its head satisfied.
+	 */
+	static final String RJA_NOT_MFA = "R(?X, !Y), R(!Y, ?X), A(!Y) :- A(?X) .";
+
+	static final String CYCLIC = "R(?Y, !Z) :- R(?X, ?Y) .";
+
+	@Test
+	public void isJA_succeeds() throws ParsingException {
+		assertTrue(AcyclicityChecker
+				.isJointlyAcyclic(RuleParser.parse("R(?X, !Y) :- A(?X) . B(?Y) :- R(?X, ?Y) .").getRules()));
+		assertFalse(AcyclicityChecker.isJointlyAcyclic(RuleParser.parse(CYCLIC).getRules()));
+		assertFalse(AcyclicityChecker.isJointlyAcyclic(RuleParser.parse(MFA_NOT_JA).getRules()));
+	}
+
+	@Test
+	public void isMFA_succeeds() throws ParsingException {
+		for (final int threads : new int[] { 1, 2 }) {
+			assertTrue(AcyclicityChecker.isModelFaithfulAcyclic(RuleParser.parse(MFA_NOT_JA).getRules(), threads));
+			assertFalse(AcyclicityChecker.isModelFaithfulAcyclic(RuleParser.parse(CYCLIC).getRules(), threads));
+		}
+	}
+
+	@Test
+	public void isRJA_succeeds() throws ParsingException {
+		assertFalse(AcyclicityChecker.isJointlyAcyclic(RuleParser.parse(RJA_NOT_MFA).getRules()));
+		assertTrue(AcyclicityChecker.isRestrictedJointlyAcyclic(RuleParser.parse(RJA_NOT_MFA).getRules()));
+		assertFalse(AcyclicityChecker.isRestrictedJointlyAcyclic(RuleParser.parse(CYCLIC).getRules()));
+		assertTrue(AcyclicityChecker.isRestrictedJointlyAcyclic(RuleParser.parse(MFA_NOT_JA).getRules()));
+	}
+
+	@Test
+	public void isRMFA_succeeds() throws ParsingException {
+		for (final int threads : new int[] { 1, 2 }) {
+			assertFalse(AcyclicityChecker.isModelFaithfulAcyclic(RuleParser.parse(RJA_NOT_MFA).getRules(), threads));
+			assertTrue(AcyclicityChecker.isRestrictedModelFaithfulAcyclic(RuleParser.parse(RJA_NOT_MFA).getRules(),
+					threads));
+			assertTrue(AcyclicityChecker.isRestrictedModelFaithfulAcyclic(RuleParser.parse(MFA_NOT_JA).getRules(),
+					threads));
+			assertFalse(
+					AcyclicityChecker.isRestrictedModelFaithfulAcyclic(RuleParser.parse(CYCLIC).getRules(), threads));
+		}
+	}
+
+	@Test
+	public void checkForCycles_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse(MFA_NOT_JA);
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			assertEquals(CyclicityResult.ACYCLIC, reasoner.checkForCycles());
+			assertFalse(reasoner.isJA());
+			assertTrue(reasoner.isMFA());
+			assertTrue(reasoner.getReasoningStatistics().getCyclicityCheckTimes()
+					.containsKey(AcyclicityNotion.MFA.name()));
+
+			RuleParser.parseInto(kb, CYCLIC);
+			assertEquals(CyclicityResult.UNDETERMINED, reasoner.checkForCycles());
+		}
+	}
+
+	@Test
+	public void checkForCycles_restricted_succeeds() throws ParsingException {
+		try (final Reasoner reasoner = new JavaReasoner(RuleParser.parse(RJA_NOT_MFA))) {
+			assertEquals(CyclicityResult.ACYCLIC, reasoner.checkForCycles());
+			assertFalse(reasoner.isJA());
+			assertTrue(reasoner.isRJA());
+			assertFalse(reasoner.isMFA());
+			assertTrue(reasoner.isRMFA());
+		}
+	}
+
+	@Test
+	public void isMFC_cyclic_returnsFalse() throws ParsingException {
+		try (final Reasoner reasoner = new JavaReasoner(RuleParser.parse(CYCLIC))) {
+			assertFalse(reasoner.isMFC());
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.reasoner.Algorithm;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class ChaseTest {
+
+	static long count(final Reasoner reasoner, final String query, final boolean includeNulls)
+			throws ParsingException {
+		final PositiveLiteral literal = RuleParser.parsePositiveLiteral(query);
+		return reasoner.countQueryAnswers(literal, includeNulls).getCount();
+	}
+
+	@Test
+	public void reason_restrictedChase_skipsSatisfiedApplications() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . A(d) . R(c, e) . R(?X, !Y) :- A(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.setAlgorithm(Algorithm.RESTRICTED_CHASE);
+			reasoner.reason();
+			assertEquals(2, count(reasoner, "R(?X, ?Y)", true));
+			assertEquals(1, count(reasoner, "R(?X, ?Y)", false));
+		}
+	}
+
+	@Test
+	public void reason_skolemChase_appliesRulesOncePerFrontier() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser
+				.parse("A(c) . A(d) . R(c, e) . B(c) . R(?X, !Y), S(!Y) :- A(?X) . R(?X, !Y), S(!Y) :- B(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.setAlgorithm(Algorithm.SKOLEM_CHASE);
+			reasoner.reason();
+			assertEquals(4, count(reasoner, "R(?X, ?Y)", true));
+			assertEquals(3, count(reasoner, "S(?X)", true));
+
+			reasoner.reason();
+			assertEquals(4, count(reasoner, "R(?X, ?Y)", true));
+		}
+	}
+
+	@Test
+	public void reason_restrictedChase_appliesDatalogRulesFirst() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . R(?X, !Y) :- A(?X) . R(?X, ?X) :- A(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			assertEquals(1, count(reasoner, "R(?X, ?Y)", true));
+			assertEquals(1, count(reasoner, "R(?X, ?Y)", false));
+		}
+	}
+
+	@Test
+	public void reason_existentialRulesWithSharedNulls_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("person(alice) . person(bob) ."
+				+ "hasParent(?X, !Y), person(!Y) :- person(?X), isRoot(?X) . isRoot(alice) ."
+				+ "ancestor(?X, ?Y) :- hasParent(?X, ?Y) . ancestor(?X, ?Z) :- ancestor(?X, ?Y), ancestor(?Y, ?Z) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			assertEquals(3, count(reasoner, "person(?X)", true));
+			assertEquals(1, count(reasoner, "ancestor(alice, ?Y)", true));
+			assertEquals(0, count(reasoner, "ancestor(alice, ?Y)", false));
+		}
+	}
+
+	@Test
+	public void reason_stratifiedNegation_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . A(d) . A(e) . C(c) . D(?X) :- B(?X) ."
+				+ "B(?X) :- A(?X), ~C(?X) . E(?X) :- A(?X), ~D(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			assertEquals(2, count(reasoner, "B(?X)", true));
+			assertEquals(2, count(reasoner, "D(?X)", true));
+			assertEquals(1, count(reasoner, "E(c)", true));
+		}
+	}
+
+	@Test(expected = RulewerkRuntimeException.class)
+	public void reason_unstratifiableNegation_fails() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("B(c) . A(?X) :- B(?X), ~A(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+		}
+	}
+
+	@Test
+	public void reason_timeout_stopsMaterialisation() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("R(c, d) . R(?Y, !Z) :- R(?X, ?Y) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.setReasoningTimeout(1);
+			assertFalse(reasoner.reason());
+			assertEquals(Correctness.SOUND_BUT_INCOMPLETE, reasoner.getCorrectness());
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.exceptions.IncompatiblePredicateArityException;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.DataSource;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.implementation.DataSourceDeclarationImpl;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.implementation.CsvFileDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RdfFileDataSource;
+import org.semanticweb.rulewerk.core.reasoner.implementation.TridentDataSource;
+
+public class JavaDataSourceLoaderTest {
+
+	static final String INPUT_FOLDER = "src/test/data/input/";
+
+	static Set<List<Term>> load(final Predicate predicate, final DataSource dataSource) throws IOException {
+		final KnowledgeBase kb = new KnowledgeBase();
+		kb.addStatement(new DataSourceDeclarationImpl(predicate, dataSource));
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			final List<Term> variables = Arrays.asList(new Term[predicate.getArity()]);
+			for (int i = 0; i < variables.size(); i++) {
+				variables.set(i, Expressions.makeUniversalVariable("X" + i));
+			}
+			return JavaReasonerTest
+					.collect(reasoner.answerQuery(Expressions.makePositiveLiteral(predicate, variables), true));
+		}
+	}
+
+	@Test
+	public void loadCsvFile_succeeds() throws IOException {
+		final Set<List<Term>> expected = new HashSet<>(
+				Arrays.asList(Arrays.asList(Expressions.makeAbstractConstant("c1")),
+						Arrays.asList(Expressions.makeAbstractConstant("c2"))));
+		final Predicate predicate = Expressions.makePredicate("p", 1);
+		assertEquals(expected, load(predicate, new CsvFileDataSource(INPUT_FOLDER + "unaryFacts.csv")));
+		assertEquals(expected, load(predicate, new CsvFileDataSource(INPUT_FOLDER + "unaryFactsZipped.csv.gz")));
+	}
+
+	@Test
+	public void loadRdfFile_succeeds() throws IOException {
+		final Set<List<Term>> expected = new HashSet<>(Arrays.asList(
+				Arrays.asList(Expressions.makeAbstractConstant("http://example.org/c1"),
+						Expressions.makeAbstractConstant("http://example.org/p"),
+						Expressions.makeAbstractConstant("http://example.org/c2")),
+				Arrays.asList(Expressions.makeAbstractConstant("http://example.org/c1"),
+						Expressions.makeAbstractConstant("http://example.org/q"),
+						Expressions.makeDatatypeConstant("test string", "http://www.w3.org/2001/XMLSchema#string"))));
+		final Predicate predicate = Expressions.makePredicate("triple", 3);
+		assertEquals(expected, load(predicate, new RdfFileDataSource(INPUT_FOLDER + "ternaryFacts.nt")));
+		assertEquals(expected, load(predicate, new RdfFileDataSource(INPUT_FOLDER + "ternaryFactsZipped.nt.gz")));
+	}
+
+	@Test(expected = RulewerkRuntimeException.class)
+	public void loadRdfFile_invalidFormat_fails() throws IOException {
+		load(Expressions.makePredicate("triple", 3), new RdfFileDataSource(INPUT_FOLDER + "invalidFormatNtFacts.nt"));
+	}
+
+	@Test(expected = IncompatiblePredicateArityException.class)
+	public void loadCsvFile_wrongArity_fails() throws IOException {
+		load(Expressions.makePredicate("p", 2), new CsvFileDataSource(INPUT_FOLDER + "unaryFacts.csv"));
+	}
+
+	@Test(expected = RulewerkRuntimeException.class)
+	public void loadTridentDataSource_fails() throws IOException {
+		load(Expressions.makePredicate("triple", 3), new TridentDataSource(INPUT_FOLDER));
+	}
+
+	@Test
+	public void loadInMemoryDataSource_succeeds() throws IOException {
+		final JavaInMemoryDataSource dataSource = new JavaInMemoryDataSource(2, 2);
+		dataSource.addTuple("c", "http://example.org/d");
+		dataSource.addTuple("c", "\"1\"^^<http://www.w3.org/2001/XMLSchema#integer>");
+
+		final Set<List<Term>> expected = new HashSet<>(Arrays.asList(
+				Arrays.asList(Expressions.makeAbstractConstant("c"),
+						Expressions.makeAbstractConstant("http://example.org/d")),
+				Arrays.asList(Expressions.makeAbstractConstant("c"),
+						Expressions.makeDatatypeConstant("1", "http://www.w3.org/2001/XMLSchema#integer"))));
+		assertEquals(expected, load(Expressions.makePredicate("p", 2), dataSource));
+	}
+
+	@Test
+	public void parseNTriplesLine_succeeds() {
+		assertEquals(Arrays.asList("<a>", "<b>", "\"x \\\" y\"@en"),
+				JavaDataSourceLoader.parseNTriplesLine("<a> <b> \"x \\\" y\"@en ."));
+		assertEquals(Arrays.asList("_:b1", "<b>", "_:b2"), JavaDataSourceLoader.parseNTriplesLine("_:b1 <b> _:b2."));
+		assertEquals(Arrays.asList(), JavaDataSourceLoader.parseNTriplesLine("  # comment"));
+		assertNull(JavaDataSourceLoader.parseNTriplesLine("<a> <b> ."));
+	}
+
+}
@@ -0,0 +1,290 @@
+package org.semanticweb.rulewerk.reasoner.javareasoner;
+
+/*
+ * #%L
+ * Rulewerk Java Reasoner
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.rulewerk.core.exceptions.ReasonerStateException;
+import org.semanticweb.rulewerk.core.model.api.Constant;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.ReasonerState;
+import org.semanticweb.rulewerk.core.reasoner.ReasoningStatistics;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class JavaReasonerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	final Constant c = Expressions.makeAbstractConstant("c");
+	final Constant d = Expressions.makeAbstractConstant("d");
+	final Variable x = Expressions.makeUniversalVariable("X");
+	final Variable y = Expressions.makeUniversalVariable("Y");
+
+	static Set<List<Term>> collect(final QueryResultIterator answers) {
+		final Set<List<Term>> results = new HashSet<>();
+		answers.forEachRemaining(answer -> assertTrue(results.add(answer.getTerms())));
+		answers.close();
+		return results;
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void setAlgorithm_null_fails() {
+		try (final Reasoner reasoner = new JavaReasoner(new KnowledgeBase())) {
+			reasoner.setAlgorithm(null);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setNumberOfThreads_zero_fails() {
+		try (final Reasoner reasoner = new JavaReasoner(new KnowledgeBase())) {
+			reasoner.setNumberOfThreads(0);
+		}
+	}
+
+	@Test(expected = ReasonerStateException.class)
+	public void answerQuery_beforeLoading_fails() {
+		try (final Reasoner reasoner = new JavaReasoner(new KnowledgeBase())) {
+			reasoner.answerQuery(Expressions.makePositiveLiteral("A", this.x), true);
+		}
+	}
+
+	@Test(expected = ReasonerStateException.class)
+	public void reason_afterClosing_fails() throws IOException {
+		final Reasoner reasoner = new JavaReasoner(new KnowledgeBase());
+		reasoner.close();
+		reasoner.reason();
+	}
+
+	@Test
+	public void reason_simpleInference_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . A(d) . B(?X) :- A(?X) . C(?X) :- B(?X) .");
+		final PositiveLiteral query = Expressions.makePositiveLiteral("C", this.x);
+
+		try (final JavaReasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.load();
+			assertEquals(ReasonerState.KB_LOADED, reasoner.getReasonerState());
+			assertFalse(reasoner.answerQuery(query, true).hasNext());
+
+			assertTrue(reasoner.reason());
+			assertEquals(Correctness.SOUND_AND_COMPLETE, reasoner.getCorrectness());
+			final Set<List<Term>> expected = new HashSet<>(
+					Arrays.asList(Arrays.asList(this.c), Arrays.asList(this.d)));
+			assertEquals(expected, collect(reasoner.answerQuery(query, true)));
+		}
+	}
+
+	@Test
+	public void reason_transitiveClosureSeveralThreads_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("path(?X, ?Y) :- edge(?X, ?Y) ."
+				+ "path(?X, ?Z) :- path(?X, ?Y), edge(?Y, ?Z) .");
+		final int nodeCount = 200;
+		for (int i = 1; i < nodeCount; i++) {
+			kb.addStatement(Expressions.makeFact("edge", Expressions.makeAbstractConstant("n" + (i - 1)),
+					Expressions.makeAbstractConstant("n" + i)));
+		}
+
+		for (final int threads : new int[] { 1, 4 }) {
+			try (final Reasoner reasoner = new JavaReasoner(kb)) {
+				reasoner.setNumberOfThreads(threads);
+				reasoner.reason();
+				assertEquals(nodeCount * (nodeCount - 1) / 2,
+						reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("path(?X, ?Y)")).getCount());
+			}
+		}
+	}
+
+	@Test
+	public void answerQuery_constantsAndRepeatedVariables_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("R(c, c) . R(c, d) . R(d, c) . S(?X, ?Y) :- R(?Y, ?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			assertEquals(new HashSet<>(Arrays.asList(Arrays.asList(this.c, this.d), Arrays.asList(this.c, this.c))),
+					collect(reasoner.answerQuery(Expressions.makePositiveLiteral("S", this.c, this.y), true)));
+			assertEquals(new HashSet<>(Arrays.asList(Arrays.asList(this.c, this.c))),
+					collect(reasoner.answerQuery(Expressions.makePositiveLiteral("S", this.x, this.x), true)));
+			assertEquals(1,
+					reasoner.countQueryAnswers(Expressions.makePositiveLiteral("S", this.d, this.c)).getCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_unknownTermsAndPredicates_emptyAndComplete() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . B(?X) :- A(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			try (final QueryResultIterator answers = reasoner
+					.answerQuery(Expressions.makePositiveLiteral("B", this.d), true)) {
+				assertFalse(answers.hasNext());
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+			}
+			try (final QueryResultIterator answers = reasoner
+					.answerQuery(Expressions.makePositiveLiteral("Unknown", this.x), true)) {
+				assertFalse(answers.hasNext());
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+			}
+		}
+	}
+
+	@Test
+	public void answerQuery_excludeNulls_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . B(d, _:b) . B(?X, !Y) :- A(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			final PositiveLiteral query = Expressions.makePositiveLiteral("B", this.x, this.y);
+			assertEquals(2, reasoner.countQueryAnswers(query, true).getCount());
+			// named nulls of facts are renamed to constants
+			assertEquals(1, reasoner.countQueryAnswers(query, false).getCount());
+			for (final List<Term> answer : collect(reasoner.answerQuery(query, false))) {
+				assertEquals(this.d, answer.get(0));
+				assertEquals(TermType.ABSTRACT_CONSTANT, answer.get(1).getType());
+			}
+		}
+	}
+
+	@Test
+	public void reason_afterAddingStatements_recomputesInferences() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . B(?X) :- A(?X) .");
+		final PositiveLiteral query = Expressions.makePositiveLiteral("B", this.x);
+
+		try (final JavaReasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			assertEquals(1, reasoner.countQueryAnswers(query).getCount());
+
+			kb.addStatement(Expressions.makeFact("A", this.d));
+			assertEquals(ReasonerState.KB_CHANGED, reasoner.getReasonerState());
+			assertEquals(Correctness.INCORRECT, reasoner.getCorrectness());
+
+			reasoner.reason();
+			assertEquals(ReasonerState.MATERIALISED, reasoner.getReasonerState());
+			assertEquals(2, reasoner.countQueryAnswers(query).getCount());
+
+			// reasoning again does not change the inferences
+			reasoner.reason();
+			assertEquals(2, reasoner.countQueryAnswers(query).getCount());
+		}
+	}
+
+	@Test
+	public void answerConjunctiveQuery_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("R(c, d) . R(d, e) . R(e, f) . S(?X) :- R(?X, ?Y) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			final Variable z = Expressions.makeUniversalVariable("Z");
+			final QueryResultIterator answers = reasoner.answerConjunctiveQuery(
+					Expressions.makePositiveConjunction(Expressions.makePositiveLiteral("R", this.x, this.y),
+							Expressions.makePositiveLiteral("R", this.y, z)),
+					Arrays.asList(this.x, z), true);
+			assertEquals(2, collect(answers).size());
+
+			final QueryResultIterator projected = reasoner.answerQuery(
+					Expressions.makePositiveLiteral("R", this.x, this.y), Arrays.asList(this.x), true, true);
+			assertEquals(3, collect(projected).size());
+		}
+	}
+
+	@Test
+	public void answerQueryGoalDirected_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("edge(a, b) . edge(b, c) . edge(d, e) ."
+				+ "path(?X, ?Y) :- edge(?X, ?Y) . path(?X, ?Z) :- path(?X, ?Y), edge(?Y, ?Z) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			final QueryResultIterator answers = reasoner
+					.answerQueryGoalDirected(RuleParser.parsePositiveLiteral("path(a, ?X)"), true);
+			assertEquals(2, collect(answers).size());
+		}
+	}
+
+	@Test
+	public void exportQueryAnswersToCsv_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse(
+				"A(c, <http://example.org/d>, \"1\"^^<http://www.w3.org/2001/XMLSchema#integer>) .");
+		final File file = this.folder.newFile("output.csv");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.reason();
+			final Correctness correctness = reasoner.exportQueryAnswersToCsv(
+					RuleParser.parsePositiveLiteral("A(?X, ?Y, ?Z)"), file.getPath(), true);
+			assertEquals(Correctness.SOUND_AND_COMPLETE, correctness);
+		}
+		assertEquals(Arrays.asList("c,<http://example.org/d>,\"1\"^^<http://www.w3.org/2001/XMLSchema#integer>"),
+				Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void forEachInference_relevantPredicates_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . B(?X) :- A(?X) . C(?X) :- A(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.setRelevantPredicates(Arrays.asList(Expressions.makePredicate("B", 1)));
+			reasoner.reason();
+			final List<String> inferences = new ArrayList<>();
+			final Correctness correctness = reasoner
+					.forEachInference((predicate, terms) -> inferences.add(predicate.getName()));
+			assertEquals(Correctness.SOUND_BUT_INCOMPLETE, correctness);
+			assertEquals(new HashSet<>(Arrays.asList("A", "B")), new HashSet<>(inferences));
+		}
+	}
+
+	@Test
+	public void getReasoningStatistics_ruleProfiling_succeeds() throws IOException, ParsingException {
+		final KnowledgeBase kb = RuleParser.parse("A(c) . A(d) . B(?X) :- A(?X) .");
+
+		try (final Reasoner reasoner = new JavaReasoner(kb)) {
+			reasoner.setRuleProfiling(true);
+			reasoner.reason();
+			final ReasoningStatistics statistics = reasoner.getReasoningStatistics();
+			assertEquals(2, statistics.getFactCount(Expressions.makePredicate("B", 1)));
+			assertEquals(0, statistics.getAssertedFactCount(Expressions.makePredicate("B", 1)));
+			assertEquals(1, statistics.getRuleStatistics().size());
+			assertEquals(2, statistics.getRuleStatistics().get(0).getDerivedFacts());
+		}
+	}
+
+}
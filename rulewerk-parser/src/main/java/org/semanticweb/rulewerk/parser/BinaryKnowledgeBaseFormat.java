@@ -0,0 +1,137 @@
+package org.semanticweb.rulewerk.parser;
+
+/*-
+ * #%L
+ * Rulewerk Parser
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and low-level encoding helpers shared by
+ * {@link BinaryKnowledgeBaseWriter} and {@link BinaryKnowledgeBaseReader}.
+ *
+ * A binary knowledge base file consists of the following sections, in this
+ * order:
+ * <ol>
+ * <li>a header with {@link #MAGIC} and {@link #VERSION},</li>
+ * <li>the base IRI and prefix declarations,</li>
+ * <li>a sorted string dictionary, front-coded in blocks of
+ * {@link #DICTIONARY_BLOCK_SIZE} strings,</li>
+ * <li>a term table, where each term refers to dictionary strings,</li>
+ * <li>a predicate table,</li>
+ * <li>data source declarations,</li>
+ * <li>facts, in blocks of consecutive facts with the same predicate, as
+ * sequences of term ids,</li>
+ * <li>rules, as sequences of literals over term ids.</li>
+ * </ol>
+ * All counts and ids are written as unsigned variable-length integers.
+ */
+final class BinaryKnowledgeBaseFormat {
+
+	static final byte[] MAGIC = { 'R', 'W', 'K', 'B' };
+	static final int VERSION = 1;
+
+	/**
+	 * Every block of this many dictionary entries starts with a string that is
+	 * stored in full, so that decoding errors cannot propagate arbitrarily far.
+	 */
+	static final int DICTIONARY_BLOCK_SIZE = 16;
+
+	/**
+	 * Maximal number of facts that the reader adds to the knowledge base at once.
+	 */
+	static final int FACT_BATCH_SIZE = 65536;
+
+	static final byte TERM_ABSTRACT_CONSTANT = 0;
+	static final byte TERM_DATATYPE_CONSTANT = 1;
+	static final byte TERM_LANGSTRING_CONSTANT = 2;
+	static final byte TERM_NAMED_NULL = 3;
+	static final byte TERM_UNIVERSAL_VARIABLE = 4;
+	static final byte TERM_EXISTENTIAL_VARIABLE = 5;
+
+	private BinaryKnowledgeBaseFormat() {
+	}
+
+	static void writeVarInt(final DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static int readVarInt(final DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final int b = in.read();
+			if (b < 0) {
+				throw new EOFException();
+			}
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer.");
+	}
+
+	static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	static byte[] readBytes(final DataInputStream in) throws IOException {
+		final byte[] bytes = new byte[readVarInt(in)];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	static void writeString(final DataOutputStream out, final String string) throws IOException {
+		writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String readString(final DataInputStream in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Computes the length of the common prefix of two strings that can be shared
+	 * in the front-coded dictionary. The prefix never ends between the two chars
+	 * of a surrogate pair, so that the remaining suffix is valid UTF-16.
+	 *
+	 * @param previous the previous string in the dictionary
+	 * @param current  the string to encode
+	 * @return length of the shareable prefix
+	 */
+	static int sharedPrefixLength(final String previous, final String current) {
+		final int max = Math.min(previous.length(), current.length());
+		int length = 0;
+		while (length < max && previous.charAt(length) == current.charAt(length)) {
+			length++;
+		}
+		if (length > 0 && Character.isHighSurrogate(current.charAt(length - 1))) {
+			length--;
+		}
+		return length;
+	}
+}
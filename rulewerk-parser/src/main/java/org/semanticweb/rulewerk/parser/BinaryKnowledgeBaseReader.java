@@ -0,0 +1,309 @@
+package org.semanticweb.rulewerk.parser;
+
+/*-
+ * #%L
+ * Rulewerk Parser
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.semanticweb.rulewerk.core.model.api.DataSource;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.implementation.DataSourceDeclarationImpl;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.model.implementation.MergingPrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.implementation.NamedNullImpl;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+
+/**
+ * Reads knowledge bases in the binary format produced by
+ * {@link BinaryKnowledgeBaseWriter}. Every term of the input is created only
+ * once and shared by all facts and rules that use it. Facts are added to the
+ * knowledge base in batches while the input is being read.
+ *
+ * Data sources are instantiated using the data source handlers registered in a
+ * {@link ParserConfiguration}, just like for {@code @source} declarations in
+ * Rulewerk syntax.
+ */
+public final class BinaryKnowledgeBaseReader {
+
+	private final DataInputStream in;
+	private final ParserConfiguration parserConfiguration;
+
+	private String[] strings;
+	private Term[] terms;
+	private Predicate[] predicates;
+
+	private BinaryKnowledgeBaseReader(final InputStream stream, final ParserConfiguration parserConfiguration) {
+		this.in = new DataInputStream(new BufferedInputStream(stream));
+		this.parserConfiguration = parserConfiguration;
+	}
+
+	/**
+	 * Reads a binary knowledge base from the given stream and adds its contents to
+	 * the given knowledge base.
+	 *
+	 * @param knowledgeBase       the knowledge base to add statements to
+	 * @param stream              the stream to read from
+	 * @param parserConfiguration configuration used to instantiate data sources
+	 * @throws ParsingException if the input is not a valid binary knowledge base
+	 * @throws IOException      if an I/O error occurs while reading
+	 */
+	public static void readInto(final KnowledgeBase knowledgeBase, final InputStream stream,
+			final ParserConfiguration parserConfiguration) throws ParsingException, IOException {
+		new BinaryKnowledgeBaseReader(stream, parserConfiguration).read(knowledgeBase);
+	}
+
+	/**
+	 * Reads a binary knowledge base from the given stream and adds its contents to
+	 * the given knowledge base, using a {@link DefaultParserConfiguration}.
+	 *
+	 * @param knowledgeBase the knowledge base to add statements to
+	 * @param stream        the stream to read from
+	 * @throws ParsingException if the input is not a valid binary knowledge base
+	 * @throws IOException      if an I/O error occurs while reading
+	 */
+	public static void readInto(final KnowledgeBase knowledgeBase, final InputStream stream)
+			throws ParsingException, IOException {
+		readInto(knowledgeBase, stream, new DefaultParserConfiguration());
+	}
+
+	/**
+	 * Reads a binary knowledge base from the given stream.
+	 *
+	 * @param stream              the stream to read from
+	 * @param parserConfiguration configuration used to instantiate data sources
+	 * @return a new knowledge base with the contents of the stream
+	 * @throws ParsingException if the input is not a valid binary knowledge base
+	 * @throws IOException      if an I/O error occurs while reading
+	 */
+	public static KnowledgeBase read(final InputStream stream, final ParserConfiguration parserConfiguration)
+			throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = new KnowledgeBase();
+		readInto(knowledgeBase, stream, parserConfiguration);
+		return knowledgeBase;
+	}
+
+	/**
+	 * Reads a binary knowledge base from the given stream, using a
+	 * {@link DefaultParserConfiguration}.
+	 *
+	 * @param stream the stream to read from
+	 * @return a new knowledge base with the contents of the stream
+	 * @throws ParsingException if the input is not a valid binary knowledge base
+	 * @throws IOException      if an I/O error occurs while reading
+	 */
+	public static KnowledgeBase read(final InputStream stream) throws ParsingException, IOException {
+		return read(stream, new DefaultParserConfiguration());
+	}
+
+	private void read(final KnowledgeBase knowledgeBase) throws ParsingException, IOException {
+		final byte[] magic = new byte[BinaryKnowledgeBaseFormat.MAGIC.length];
+		this.in.readFully(magic);
+		if (!Arrays.equals(magic, BinaryKnowledgeBaseFormat.MAGIC)) {
+			throw new ParsingException("Input is not a binary Rulewerk knowledge base.");
+		}
+		final int version = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+		if (version != BinaryKnowledgeBaseFormat.VERSION) {
+			throw new ParsingException("Unsupported binary knowledge base version " + version + ", expected "
+					+ BinaryKnowledgeBaseFormat.VERSION + ".");
+		}
+
+		knowledgeBase.mergePrefixDeclarations(this.readPrefixes());
+		this.readDictionary();
+		this.readTerms();
+		this.readPredicates();
+		this.readDataSourceDeclarations(knowledgeBase);
+		this.readFacts(knowledgeBase);
+		this.readRules(knowledgeBase);
+	}
+
+	private PrefixDeclarationRegistry readPrefixes() throws IOException {
+		final MergingPrefixDeclarationRegistry prefixDeclarationRegistry = new MergingPrefixDeclarationRegistry();
+		final String baseIri = BinaryKnowledgeBaseFormat.readString(this.in);
+		prefixDeclarationRegistry
+				.setBaseIri(baseIri.isEmpty() ? PrefixDeclarationRegistry.EMPTY_BASE : baseIri);
+		final int prefixCount = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+		for (int i = 0; i < prefixCount; i++) {
+			final String prefixName = BinaryKnowledgeBaseFormat.readString(this.in);
+			prefixDeclarationRegistry.setPrefixIri(prefixName, BinaryKnowledgeBaseFormat.readString(this.in));
+		}
+		return prefixDeclarationRegistry;
+	}
+
+	private void readDictionary() throws ParsingException, IOException {
+		this.strings = new String[BinaryKnowledgeBaseFormat.readVarInt(this.in)];
+		String previous = "";
+		for (int i = 0; i < this.strings.length; i++) {
+			final int shared = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+			if (shared > previous.length()) {
+				throw new ParsingException("Corrupt string dictionary at entry " + i + ".");
+			}
+			final String suffix = new String(BinaryKnowledgeBaseFormat.readBytes(this.in), StandardCharsets.UTF_8);
+			this.strings[i] = (shared == 0) ? suffix : previous.substring(0, shared) + suffix;
+			previous = this.strings[i];
+		}
+	}
+
+	private void readTerms() throws ParsingException, IOException {
+		this.terms = new Term[BinaryKnowledgeBaseFormat.readVarInt(this.in)];
+		for (int i = 0; i < this.terms.length; i++) {
+			final byte type = this.in.readByte();
+			switch (type) {
+			case BinaryKnowledgeBaseFormat.TERM_ABSTRACT_CONSTANT:
+				this.terms[i] = Expressions.makeAbstractConstant(this.readStringReference());
+				break;
+			case BinaryKnowledgeBaseFormat.TERM_DATATYPE_CONSTANT:
+				final String lexicalValue = this.readStringReference();
+				this.terms[i] = Expressions.makeDatatypeConstant(lexicalValue, this.readStringReference());
+				break;
+			case BinaryKnowledgeBaseFormat.TERM_LANGSTRING_CONSTANT:
+				final String string = this.readStringReference();
+				this.terms[i] = Expressions.makeLanguageStringConstant(string, this.readStringReference());
+				break;
+			case BinaryKnowledgeBaseFormat.TERM_NAMED_NULL:
+				this.terms[i] = new NamedNullImpl(this.readStringReference());
+				break;
+			case BinaryKnowledgeBaseFormat.TERM_UNIVERSAL_VARIABLE:
+				this.terms[i] = Expressions.makeUniversalVariable(this.readStringReference());
+				break;
+			case BinaryKnowledgeBaseFormat.TERM_EXISTENTIAL_VARIABLE:
+				this.terms[i] = Expressions.makeExistentialVariable(this.readStringReference());
+				break;
+			default:
+				throw new ParsingException("Unknown term type " + type + " in binary knowledge base.");
+			}
+		}
+	}
+
+	private void readPredicates() throws ParsingException, IOException {
+		this.predicates = new Predicate[BinaryKnowledgeBaseFormat.readVarInt(this.in)];
+		for (int i = 0; i < this.predicates.length; i++) {
+			final String name = this.readStringReference();
+			this.predicates[i] = Expressions.makePredicate(name, BinaryKnowledgeBaseFormat.readVarInt(this.in));
+		}
+	}
+
+	private void readDataSourceDeclarations(final KnowledgeBase knowledgeBase) throws ParsingException, IOException {
+		final int count = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+		for (int i = 0; i < count; i++) {
+			final Predicate predicate = this.readPredicateReference();
+			final Literal declaration = this.readLiteral();
+			if (declaration.isNegated()) {
+				throw new ParsingException("Data source declaration for " + predicate + " must not be negated.");
+			}
+			final DataSource dataSource = this.parserConfiguration
+					.parseDataSourceSpecificPartOfDataSourceDeclaration((PositiveLiteral) declaration);
+			if (dataSource.getRequiredArity().isPresent()
+					&& dataSource.getRequiredArity().get() != predicate.getArity()) {
+				throw new ParsingException("Invalid arity " + predicate.getArity() + " for data source, expected "
+						+ dataSource.getRequiredArity().get() + ".");
+			}
+			knowledgeBase.addStatement(new DataSourceDeclarationImpl(predicate, dataSource));
+		}
+	}
+
+	private void readFacts(final KnowledgeBase knowledgeBase) throws ParsingException, IOException {
+		final int blockCount = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+		List<Fact> batch = new ArrayList<>();
+		for (int i = 0; i < blockCount; i++) {
+			final Predicate predicate = this.readPredicateReference();
+			final int factCount = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+			for (int j = 0; j < factCount; j++) {
+				batch.add(Expressions.makeFact(predicate, this.readArguments(predicate.getArity())));
+				if (batch.size() == BinaryKnowledgeBaseFormat.FACT_BATCH_SIZE) {
+					knowledgeBase.addStatements(batch);
+					batch = new ArrayList<>(BinaryKnowledgeBaseFormat.FACT_BATCH_SIZE);
+				}
+			}
+		}
+		knowledgeBase.addStatements(batch);
+	}
+
+	private void readRules(final KnowledgeBase knowledgeBase) throws ParsingException, IOException {
+		final int count = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+		final List<Rule> rules = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final int headSize = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+			final List<PositiveLiteral> head = new ArrayList<>(headSize);
+			for (int j = 0; j < headSize; j++) {
+				final Literal literal = this.readLiteral();
+				if (literal.isNegated()) {
+					throw new ParsingException("Rule heads must not contain negated literals.");
+				}
+				head.add((PositiveLiteral) literal);
+			}
+			final int bodySize = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+			final List<Literal> body = new ArrayList<>(bodySize);
+			for (int j = 0; j < bodySize; j++) {
+				body.add(this.readLiteral());
+			}
+			rules.add(Expressions.makeRule(Expressions.makePositiveConjunction(head),
+					Expressions.makeConjunction(body)));
+		}
+		knowledgeBase.addStatements(rules);
+	}
+
+	private Literal readLiteral() throws ParsingException, IOException {
+		final boolean negated = this.in.readBoolean();
+		final Predicate predicate = this.readPredicateReference();
+		final List<Term> arguments = this.readArguments(predicate.getArity());
+		if (negated) {
+			return Expressions.makeNegativeLiteral(predicate, arguments);
+		} else {
+			return Expressions.makePositiveLiteral(predicate, arguments);
+		}
+	}
+
+	private List<Term> readArguments(final int arity) throws ParsingException, IOException {
+		final Term[] arguments = new Term[arity];
+		for (int i = 0; i < arity; i++) {
+			arguments[i] = this.terms[this.readId(this.terms.length, "term")];
+		}
+		return Arrays.asList(arguments);
+	}
+
+	private String readStringReference() throws ParsingException, IOException {
+		return this.strings[this.readId(this.strings.length, "string")];
+	}
+
+	private Predicate readPredicateReference() throws ParsingException, IOException {
+		return this.predicates[this.readId(this.predicates.length, "predicate")];
+	}
+
+	private int readId(final int bound, final String kind) throws ParsingException, IOException {
+		final int id = BinaryKnowledgeBaseFormat.readVarInt(this.in);
+		if (id < 0 || id >= bound) {
+			throw new ParsingException("Invalid " + kind + " id " + id + " in binary knowledge base.");
+		}
+		return id;
+	}
+}
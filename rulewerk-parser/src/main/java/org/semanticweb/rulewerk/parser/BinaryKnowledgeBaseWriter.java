@@ -0,0 +1,284 @@
+package org.semanticweb.rulewerk.parser;
+
+/*-
+ * #%L
+ * Rulewerk Parser
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.model.api.DataSourceDeclaration;
+import org.semanticweb.rulewerk.core.model.api.DatatypeConstant;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.LanguageStringConstant;
+import org.semanticweb.rulewerk.core.model.api.Literal;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+
+/**
+ * Writes a {@link KnowledgeBase} in a compact binary format that can be read
+ * back with {@link BinaryKnowledgeBaseReader}. All strings that occur in the
+ * knowledge base are stored only once, in a front-coded dictionary, and facts
+ * are stored as sequences of dictionary-encoded term ids, in blocks of
+ * consecutive facts with the same predicate. In contrast to the textual Rulewerk syntax, no escaping or prefix
+ * abbreviation is needed when writing, and no parsing when reading.
+ *
+ * Data source declarations are stored using
+ * {@link org.semanticweb.rulewerk.core.model.api.DataSource#getDeclarationFact()},
+ * so only data sources that can be serialised in Rulewerk syntax are supported.
+ */
+public class BinaryKnowledgeBaseWriter {
+
+	private final DataOutputStream out;
+
+	private final Map<String, Integer> stringIds = new HashMap<>();
+	private final Map<Term, Integer> termIds = new LinkedHashMap<>();
+	private final Map<Predicate, Integer> predicateIds = new LinkedHashMap<>();
+
+	/**
+	 * Constructor. The given stream is not closed by this writer.
+	 *
+	 * @param outputStream the stream to write to
+	 */
+	public BinaryKnowledgeBaseWriter(final OutputStream outputStream) {
+		Validate.notNull(outputStream, "output stream must not be null");
+		this.out = new DataOutputStream(new BufferedOutputStream(outputStream));
+	}
+
+	/**
+	 * Writes the given knowledge base to the stream of this writer, and flushes
+	 * the stream.
+	 *
+	 * @param knowledgeBase the knowledge base to write
+	 * @throws IOException                   if an I/O error occurs while writing
+	 * @throws UnsupportedOperationException if the knowledge base contains a data
+	 *                                       source that cannot be serialised
+	 */
+	public void write(final KnowledgeBase knowledgeBase) throws IOException {
+		Validate.notNull(knowledgeBase, "knowledge base must not be null");
+		this.stringIds.clear();
+		this.termIds.clear();
+		this.predicateIds.clear();
+
+		final List<DataSourceDeclaration> dataSourceDeclarations = knowledgeBase.getDataSourceDeclarations();
+		final List<Fact> declarationFacts = new ArrayList<>(dataSourceDeclarations.size());
+		for (final DataSourceDeclaration dataSourceDeclaration : dataSourceDeclarations) {
+			this.registerPredicate(dataSourceDeclaration.getPredicate());
+			final Fact declarationFact = dataSourceDeclaration.getDataSource().getDeclarationFact();
+			this.registerLiteral(declarationFact);
+			declarationFacts.add(declarationFact);
+		}
+
+		final List<Fact> facts = knowledgeBase.getFacts();
+		int factBlockCount = 0;
+		Predicate previousPredicate = null;
+		for (final Fact fact : facts) {
+			this.registerLiteral(fact);
+			if (!fact.getPredicate().equals(previousPredicate)) {
+				factBlockCount++;
+				previousPredicate = fact.getPredicate();
+			}
+		}
+
+		final List<Rule> rules = knowledgeBase.getRules();
+		for (final Rule rule : rules) {
+			rule.getHead().forEach(this::registerLiteral);
+			rule.getBody().forEach(this::registerLiteral);
+		}
+
+		this.out.write(BinaryKnowledgeBaseFormat.MAGIC);
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, BinaryKnowledgeBaseFormat.VERSION);
+
+		this.writePrefixes(knowledgeBase);
+		this.writeDictionary();
+		this.writeTerms();
+		this.writePredicates();
+
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, dataSourceDeclarations.size());
+		for (int i = 0; i < dataSourceDeclarations.size(); i++) {
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out,
+					this.predicateIds.get(dataSourceDeclarations.get(i).getPredicate()));
+			this.writeLiteral(declarationFacts.get(i));
+		}
+
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, factBlockCount);
+		this.writeFactBlocks(facts);
+
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, rules.size());
+		for (final Rule rule : rules) {
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, rule.getHead().getLiterals().size());
+			for (final Literal literal : rule.getHead()) {
+				this.writeLiteral(literal);
+			}
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, rule.getBody().getLiterals().size());
+			for (final Literal literal : rule.getBody()) {
+				this.writeLiteral(literal);
+			}
+		}
+
+		this.out.flush();
+	}
+
+	/**
+	 * Writes the given facts in blocks of consecutive facts that share their
+	 * predicate, so that the facts keep their order and need not be grouped in
+	 * memory.
+	 */
+	private void writeFactBlocks(final List<Fact> facts) throws IOException {
+		int blockStart = 0;
+		while (blockStart < facts.size()) {
+			final Predicate predicate = facts.get(blockStart).getPredicate();
+			int blockEnd = blockStart + 1;
+			while (blockEnd < facts.size() && facts.get(blockEnd).getPredicate().equals(predicate)) {
+				blockEnd++;
+			}
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, this.predicateIds.get(predicate));
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, blockEnd - blockStart);
+			for (int i = blockStart; i < blockEnd; i++) {
+				this.writeArguments(facts.get(i));
+			}
+			blockStart = blockEnd;
+		}
+	}
+
+	private void registerPredicate(final Predicate predicate) {
+		this.predicateIds.putIfAbsent(predicate, this.predicateIds.size());
+	}
+
+	private void registerLiteral(final Literal literal) {
+		this.registerPredicate(literal.getPredicate());
+		for (final Term term : literal.getArguments()) {
+			this.termIds.putIfAbsent(term, this.termIds.size());
+		}
+	}
+
+	private void writePrefixes(final KnowledgeBase knowledgeBase) throws IOException {
+		BinaryKnowledgeBaseFormat.writeString(this.out, knowledgeBase.getBaseIri());
+		final List<Entry<String, String>> prefixes = new ArrayList<>();
+		knowledgeBase.getPrefixes().forEachRemaining(prefixes::add);
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, prefixes.size());
+		for (final Entry<String, String> prefix : prefixes) {
+			BinaryKnowledgeBaseFormat.writeString(this.out, prefix.getKey());
+			BinaryKnowledgeBaseFormat.writeString(this.out, prefix.getValue());
+		}
+	}
+
+	private void writeDictionary() throws IOException {
+		final Set<String> strings = new HashSet<>();
+		for (final Predicate predicate : this.predicateIds.keySet()) {
+			strings.add(predicate.getName());
+		}
+		for (final Term term : this.termIds.keySet()) {
+			strings.addAll(getTermStrings(term));
+		}
+
+		final String[] dictionary = strings.toArray(new String[strings.size()]);
+		Arrays.sort(dictionary);
+
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, dictionary.length);
+		String previous = "";
+		for (int i = 0; i < dictionary.length; i++) {
+			final String current = dictionary[i];
+			this.stringIds.put(current, i);
+			final int shared = (i % BinaryKnowledgeBaseFormat.DICTIONARY_BLOCK_SIZE == 0) ? 0
+					: BinaryKnowledgeBaseFormat.sharedPrefixLength(previous, current);
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, shared);
+			BinaryKnowledgeBaseFormat.writeBytes(this.out,
+					current.substring(shared).getBytes(StandardCharsets.UTF_8));
+			previous = current;
+		}
+	}
+
+	private void writeTerms() throws IOException {
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, this.termIds.size());
+		for (final Term term : this.termIds.keySet()) {
+			this.out.writeByte(getTermTypeCode(term));
+			for (final String string : getTermStrings(term)) {
+				BinaryKnowledgeBaseFormat.writeVarInt(this.out, this.stringIds.get(string));
+			}
+		}
+	}
+
+	private void writePredicates() throws IOException {
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, this.predicateIds.size());
+		for (final Predicate predicate : this.predicateIds.keySet()) {
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, this.stringIds.get(predicate.getName()));
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, predicate.getArity());
+		}
+	}
+
+	private void writeLiteral(final Literal literal) throws IOException {
+		this.out.writeBoolean(literal.isNegated());
+		BinaryKnowledgeBaseFormat.writeVarInt(this.out, this.predicateIds.get(literal.getPredicate()));
+		this.writeArguments(literal);
+	}
+
+	private void writeArguments(final Literal literal) throws IOException {
+		for (final Term term : literal.getArguments()) {
+			BinaryKnowledgeBaseFormat.writeVarInt(this.out, this.termIds.get(term));
+		}
+	}
+
+	private static byte getTermTypeCode(final Term term) {
+		switch (term.getType()) {
+		case ABSTRACT_CONSTANT:
+			return BinaryKnowledgeBaseFormat.TERM_ABSTRACT_CONSTANT;
+		case DATATYPE_CONSTANT:
+			return BinaryKnowledgeBaseFormat.TERM_DATATYPE_CONSTANT;
+		case LANGSTRING_CONSTANT:
+			return BinaryKnowledgeBaseFormat.TERM_LANGSTRING_CONSTANT;
+		case NAMED_NULL:
+			return BinaryKnowledgeBaseFormat.TERM_NAMED_NULL;
+		case UNIVERSAL_VARIABLE:
+			return BinaryKnowledgeBaseFormat.TERM_UNIVERSAL_VARIABLE;
+		case EXISTENTIAL_VARIABLE:
+			return BinaryKnowledgeBaseFormat.TERM_EXISTENTIAL_VARIABLE;
+		default:
+			throw new IllegalArgumentException("Unsupported term type " + term.getType());
+		}
+	}
+
+	private static List<String> getTermStrings(final Term term) {
+		switch (term.getType()) {
+		case DATATYPE_CONSTANT:
+			final DatatypeConstant datatypeConstant = (DatatypeConstant) term;
+			return Arrays.asList(datatypeConstant.getLexicalValue(), datatypeConstant.getDatatype());
+		case LANGSTRING_CONSTANT:
+			final LanguageStringConstant languageStringConstant = (LanguageStringConstant) term;
+			return Arrays.asList(languageStringConstant.getString(), languageStringConstant.getLanguageTag());
+		default:
+			return Arrays.asList(term.getName());
+		}
+	}
+}
@@ -35,6 +35,7 @@ import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
 import org.semanticweb.rulewerk.core.model.api.Rule;
 import org.semanticweb.rulewerk.core.model.api.Term;
 import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.ParseEvent;
 import org.semanticweb.rulewerk.parser.javacc.JavaCCParser;
 import org.semanticweb.rulewerk.parser.javacc.JavaCCParserBase.FormulaContext;
 import org.semanticweb.rulewerk.parser.javacc.ParseException;
@@ -254,6 +255,9 @@ public class RuleParser {
 	}
 
 	static KnowledgeBase doParse(final JavaCCParser parser) throws ParsingException {
+		final ParseEvent event = new ParseEvent();
+		event.begin();
+		final int initialStatements = parser.getKnowledgeBase().getStatements().size();
 		try {
 			parser.parse();
 		} catch (ParseException | PrefixDeclarationException | TokenMgrError e) {
@@ -264,6 +268,8 @@ public class RuleParser {
 		KnowledgeBase knowledgeBase = parser.getKnowledgeBase();
 		knowledgeBase.mergePrefixDeclarations(parser.getPrefixDeclarationRegistry());
 
+		event.statements = knowledgeBase.getStatements().size() - initialStatements;
+		event.commit();
 		return knowledgeBase;
 	}
 
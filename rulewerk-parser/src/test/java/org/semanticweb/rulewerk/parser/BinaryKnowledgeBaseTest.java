@@ -0,0 +1,162 @@
+package org.semanticweb.rulewerk.parser;
+
+/*-
+ * #%L
+ * Rulewerk Parser
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.exceptions.PrefixDeclarationException;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.Statement;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+
+public class BinaryKnowledgeBaseTest {
+
+	private static final String EXAMPLE_CSV_FILE_PATH = new File("src/main/data/input/example.csv")
+			.getAbsolutePath();
+
+	static KnowledgeBase writeAndRead(final KnowledgeBase knowledgeBase) throws ParsingException, IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new BinaryKnowledgeBaseWriter(outputStream).write(knowledgeBase);
+		return BinaryKnowledgeBaseReader.read(new ByteArrayInputStream(outputStream.toByteArray()));
+	}
+
+	@Test
+	public void writeAndRead_emptyKnowledgeBase_succeeds() throws ParsingException, IOException {
+		final KnowledgeBase result = writeAndRead(new KnowledgeBase());
+
+		assertTrue(result.getStatements().isEmpty());
+	}
+
+	@Test
+	public void writeAndRead_allStatementTypes_succeeds() throws ParsingException, IOException {
+		final String input = "@source csv[1] : load-csv(\"" + EXAMPLE_CSV_FILE_PATH + "\") .\n" //
+				+ "<http://example.org/p>(<http://example.org/a>, \"abc\") .\n" //
+				+ "q(\"42\"^^<http://www.w3.org/2001/XMLSchema#integer>, \"hello\"@en) .\n" //
+				+ "q(_:blank, \"\\uD83D\\uDE00 surrogates\") .\n" //
+				+ "r(?X, !Y), s(!Y) :- q(?X, ?Z), ~<http://example.org/p>(?X, ?Z) .\n" //
+				+ "<http://example.org/p>(?X, ?Y) :- q(?Y, ?X), csv(?X) .\n";
+		final KnowledgeBase knowledgeBase = RuleParser.parse(input);
+
+		final KnowledgeBase result = writeAndRead(knowledgeBase);
+
+		assertEquals(new HashSet<>(knowledgeBase.getStatements()), new HashSet<>(result.getStatements()));
+		assertEquals(knowledgeBase.getDataSourceDeclarations(), result.getDataSourceDeclarations());
+		assertEquals(knowledgeBase.getRules(), result.getRules());
+	}
+
+	@Test
+	public void writeAndRead_manyFactsWithSharedPrefixes_factOrderPreserved() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = new KnowledgeBase();
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			facts.add(Expressions.makeFact("http://example.org/edge",
+					Expressions.makeAbstractConstant("http://example.org/node" + i),
+					Expressions.makeAbstractConstant("http://example.org/node" + (i + 1))));
+			facts.add(Expressions.makeFact("http://example.org/label",
+					Expressions.makeAbstractConstant("http://example.org/node" + i),
+					Expressions.makeLanguageStringConstant("Knoten " + i, "de")));
+		}
+		knowledgeBase.addStatements(facts);
+
+		final KnowledgeBase result = writeAndRead(knowledgeBase);
+
+		assertEquals(facts, result.getFacts());
+	}
+
+	@Test
+	public void writeAndRead_prefixes_succeeds() throws ParsingException, IOException, PrefixDeclarationException {
+		final String input = "@base <http://example.org/base/> .\n" //
+				+ "@prefix ex: <http://example.org/> .\n" //
+				+ "ex:p(ex:a) .\n";
+		final KnowledgeBase knowledgeBase = RuleParser.parse(input);
+
+		final KnowledgeBase result = writeAndRead(knowledgeBase);
+
+		assertEquals("http://example.org/base/", result.getBaseIri());
+		assertEquals("http://example.org/", result.getPrefixIri("ex:"));
+		assertEquals(knowledgeBase.getFacts(), result.getFacts());
+	}
+
+	@Test
+	public void readInto_addsToExistingKnowledgeBase_succeeds() throws ParsingException, IOException {
+		final Statement fact1 = RuleParser.parseFact("p(a) .");
+		final Statement fact2 = RuleParser.parseFact("p(b) .");
+		final KnowledgeBase knowledgeBase = new KnowledgeBase();
+		knowledgeBase.addStatement(fact2);
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new BinaryKnowledgeBaseWriter(outputStream).write(knowledgeBase);
+
+		final KnowledgeBase result = new KnowledgeBase();
+		result.addStatement(fact1);
+		BinaryKnowledgeBaseReader.readInto(result, new ByteArrayInputStream(outputStream.toByteArray()));
+
+		assertEquals(Arrays.asList(fact1, fact2), new ArrayList<>(result.getStatements()));
+	}
+
+	@Test(expected = ParsingException.class)
+	public void read_textualInput_fails() throws ParsingException, IOException {
+		BinaryKnowledgeBaseReader.read(new ByteArrayInputStream("p(a) .".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test(expected = ParsingException.class)
+	public void read_unsupportedVersion_fails() throws ParsingException, IOException {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new BinaryKnowledgeBaseWriter(outputStream).write(new KnowledgeBase());
+		final byte[] bytes = outputStream.toByteArray();
+		bytes[BinaryKnowledgeBaseFormat.MAGIC.length] = BinaryKnowledgeBaseFormat.VERSION + 1;
+
+		BinaryKnowledgeBaseReader.read(new ByteArrayInputStream(bytes));
+	}
+
+	@Test(expected = ParsingException.class)
+	public void read_unknownDataSource_fails() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser
+				.parse("@source csv[1] : load-csv(\"" + EXAMPLE_CSV_FILE_PATH + "\") .");
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new BinaryKnowledgeBaseWriter(outputStream).write(knowledgeBase);
+
+		BinaryKnowledgeBaseReader.read(new ByteArrayInputStream(outputStream.toByteArray()),
+				new ParserConfiguration());
+	}
+
+	@Test(expected = IOException.class)
+	public void read_truncatedInput_fails() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse("p(a) . q(?X) :- p(?X) .");
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new BinaryKnowledgeBaseWriter(outputStream).write(knowledgeBase);
+		final byte[] bytes = outputStream.toByteArray();
+
+		BinaryKnowledgeBaseReader.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2)));
+	}
+}
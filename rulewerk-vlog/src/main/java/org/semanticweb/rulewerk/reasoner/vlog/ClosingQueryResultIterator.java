@@ -0,0 +1,67 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+
+/**
+ * {@link QueryResultIterator} that delegates to another iterator and closes a
+ * {@link Reasoner} when being closed. This is used for answers that have been
+ * computed by an auxiliary reasoner that is only needed as long as the answers
+ * are read.
+ */
+class ClosingQueryResultIterator implements QueryResultIterator {
+
+	private final QueryResultIterator queryResultIterator;
+	private final Reasoner reasoner;
+
+	ClosingQueryResultIterator(final QueryResultIterator queryResultIterator, final Reasoner reasoner) {
+		this.queryResultIterator = queryResultIterator;
+		this.reasoner = reasoner;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.queryResultIterator.hasNext();
+	}
+
+	@Override
+	public QueryResult next() {
+		return this.queryResultIterator.next();
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		return this.queryResultIterator.getCorrectness();
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.queryResultIterator.close();
+		} finally {
+			this.reasoner.close();
+		}
+	}
+}
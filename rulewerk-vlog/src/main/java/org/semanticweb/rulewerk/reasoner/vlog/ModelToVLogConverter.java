@@ -20,8 +20,12 @@ package org.semanticweb.rulewerk.reasoner.vlog;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
 import org.semanticweb.rulewerk.core.model.api.Conjunction;
@@ -47,6 +51,12 @@ final class ModelToVLogConverter {
 
 	public static final String PREDICATE_ARITY_SUFFIX_SEPARATOR = "-";
 
+	/**
+	 * Number of facts that are converted to VLog tuples in one task by
+	 * {@link #toVLogFactTuples(List, String[][], int, ForkJoinPool)}.
+	 */
+	static final int FACT_CHUNK_SIZE = 4096;
+
 	private ModelToVLogConverter() {
 	}
 
@@ -67,34 +77,60 @@ final class ModelToVLogConverter {
 
 	static String[][] toVLogFactTuples(final Collection<Fact> facts) {
 		final String[][] tuples = new String[facts.size()][];
-		int i = 0;
-		for (final Fact fact : facts) {
-			final String[] vLogFactTuple = ModelToVLogConverter.toVLogFactTuple(fact);
-			tuples[i] = vLogFactTuple;
-			i++;
-		}
+		toVLogFactTuples(facts instanceof List ? (List<Fact>) facts : new ArrayList<>(facts), tuples, 0, null);
 		return tuples;
 	}
 
+	/**
+	 * Converts the given facts to VLog tuples and stores them in the given array,
+	 * starting at the given offset. Facts are converted in chunks of
+	 * {@link #FACT_CHUNK_SIZE}, which are processed in parallel by the given pool.
+	 *
+	 * @param facts  facts to convert
+	 * @param tuples array with room for all facts after {@code offset}
+	 * @param offset index of the first tuple to write
+	 * @param pool   pool that converts the chunks, or {@code null} to convert them
+	 *               on the calling thread
+	 */
+	static void toVLogFactTuples(final List<Fact> facts, final String[][] tuples, final int offset,
+			final ForkJoinPool pool) {
+		final int chunkCount = (facts.size() + FACT_CHUNK_SIZE - 1) / FACT_CHUNK_SIZE;
+		final IntConsumer convertChunk = chunk -> {
+			final int end = Math.min(facts.size(), (chunk + 1) * FACT_CHUNK_SIZE);
+			for (int i = chunk * FACT_CHUNK_SIZE; i < end; i++) {
+				tuples[offset + i] = toVLogFactTuple(facts.get(i));
+			}
+		};
+		if (pool == null || chunkCount <= 1) {
+			IntStream.range(0, chunkCount).forEach(convertChunk);
+		} else {
+			pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(convertChunk)).join();
+		}
+	}
+
 	static String[] toVLogFactTuple(final Fact fact) {
 		final List<Term> terms = fact.getArguments();
 		final String[] vLogFactTuple = new String[terms.size()];
 		int i = 0;
 		for (final Term term : terms) {
-			// No checks for type of term -- only constants allowed in facts!
-			if (term instanceof Constant) {
-				vLogFactTuple[i] = TermToVLogConverter.getVLogNameForConstant((Constant) term);
-			} else if (term instanceof NamedNull) {
-				vLogFactTuple[i] = TermToVLogConverter.getVLogNameForNamedNull((NamedNull) term);
-			} else {
-				throw new RulewerkRuntimeException("Terms in facts must be constants or named nulls. Encountered "
-						+ term + " of type " + term.getType() + ".");
-			}
+			vLogFactTuple[i] = toVLogFactTerm(term);
 			i++;
 		}
 		return vLogFactTuple;
 	}
 
+	static String toVLogFactTerm(final Term term) {
+		// No checks for type of term -- only constants allowed in facts!
+		if (term instanceof Constant) {
+			return TermToVLogConverter.getVLogNameForConstant((Constant) term);
+		} else if (term instanceof NamedNull) {
+			return TermToVLogConverter.getVLogNameForNamedNull((NamedNull) term);
+		} else {
+			throw new RulewerkRuntimeException("Terms in facts must be constants or named nulls. Encountered " + term
+					+ " of type " + term.getType() + ".");
+		}
+	}
+
 	/**
 	 * Internal String representation that uniquely identifies a {@link Predicate}.
 	 *
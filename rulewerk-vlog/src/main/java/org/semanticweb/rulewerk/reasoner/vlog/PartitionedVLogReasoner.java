@@ -0,0 +1,708 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.exceptions.ReasonerStateException;
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
+import org.semanticweb.rulewerk.core.model.api.DataSourceDeclaration;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Statement;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
+import org.semanticweb.rulewerk.core.reasoner.Algorithm;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.CyclicityResult;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.LogLevel;
+import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryOptions;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPage;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.ReasonerState;
+import org.semanticweb.rulewerk.core.reasoner.ReasoningStatistics;
+import org.semanticweb.rulewerk.core.reasoner.RuleRewriteStrategy;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+import org.semanticweb.rulewerk.core.reasoner.Timer;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.EmptyQueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryCursorRegistry;
+import org.semanticweb.rulewerk.core.reasoner.implementation.PredicateDependencyGraph;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryAnswerCountImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ReasoningStatisticsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reasoner that splits its knowledge base into independent components, i.e.,
+ * groups of rules, facts and data sources that share no predicates, and
+ * materialises each component in a separate {@link VLogReasoner} instance.
+ * Components are materialised in parallel, using at most
+ * {@link #getNumberOfThreads()} threads, unless rules are profiled. Queries are routed to the component of
+ * their predicate. Predicates that do not occur in any rule only have facts or
+ * data sources, and are loaded together into a single additional component, so
+ * that they do not require a VLog instance each.
+ *
+ * This is useful for knowledge bases that are unions of unrelated rule sets. For
+ * knowledge bases that form a single component, it behaves like a
+ * {@link VLogReasoner}.
+ */
+public class PartitionedVLogReasoner implements Reasoner {
+	private static Logger LOGGER = LoggerFactory.getLogger(PartitionedVLogReasoner.class);
+
+	final KnowledgeBase knowledgeBase;
+
+	private boolean closed;
+
+	private LogLevel internalLogLevel = LogLevel.WARNING;
+	private String logFile;
+	private Algorithm algorithm = Algorithm.RESTRICTED_CHASE;
+	private Integer timeoutAfterSeconds;
+	private RuleRewriteStrategy ruleRewriteStrategy = RuleRewriteStrategy.NONE;
+	private Set<Predicate> relevantPredicates;
+	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+	private boolean ruleProfiling = false;
+
+	/**
+	 * Reasoners for the independent components of the knowledge base, or
+	 * {@code null} if the knowledge base has not been partitioned yet.
+	 */
+	private List<VLogReasoner> partitions;
+	private final Map<Predicate, VLogReasoner> partitionsByPredicate = new HashMap<>();
+
+	/**
+	 * Reasoner for the whole knowledge base that is never loaded, but only used
+	 * to check the acyclicity of all rules together. Created on first use.
+	 */
+	private VLogReasoner cyclicityCheckReasoner;
+
+	/**
+	 * Open iterators of paged queries, which are closed whenever the state of the
+	 * reasoner changes.
+	 */
+	private final QueryCursorRegistry queryCursors = new QueryCursorRegistry();
+
+	/**
+	 * Has value {@code true} if the knowledge base or the relevant predicates have
+	 * changed since the partitions were computed.
+	 */
+	private boolean partitionsOutdated;
+
+	public PartitionedVLogReasoner(final KnowledgeBase knowledgeBase) {
+		this.knowledgeBase = knowledgeBase;
+		this.knowledgeBase.addListener(this);
+	}
+
+	@Override
+	public KnowledgeBase getKnowledgeBase() {
+		return this.knowledgeBase;
+	}
+
+	/**
+	 * Sets the maximal number of threads used to materialise independent
+	 * components in parallel. The threads are shared evenly between the
+	 * components for loading their facts. The default is the number of available
+	 * processors.
+	 *
+	 * @param numberOfThreads a strictly positive number of threads
+	 */
+	@Override
+	public void setNumberOfThreads(final int numberOfThreads) {
+		this.validateNotClosed();
+		Validate.isTrue(numberOfThreads > 0, "Only strictly positive number of threads allowed!", numberOfThreads);
+		this.numberOfThreads = numberOfThreads;
+		this.forEachPartition(this::configureNumberOfThreads);
+	}
+
+	private void configureNumberOfThreads(final VLogReasoner partition) {
+		partition.setNumberOfThreads(Math.max(1, this.numberOfThreads / this.partitions.size()));
+	}
+
+	/**
+	 * Getter for the maximal number of threads used to materialise independent
+	 * components in parallel.
+	 *
+	 * @return the maximal number of threads
+	 */
+	@Override
+	public int getNumberOfThreads() {
+		return this.numberOfThreads;
+	}
+
+	/**
+	 * {@inheritDoc} Rules are profiled by redirecting the log of VLog, which is
+	 * shared by all components. Components are therefore materialised one after
+	 * another while rules are profiled.
+	 */
+	@Override
+	public void setRuleProfiling(final boolean ruleProfiling) {
+		this.validateNotClosed();
+		this.ruleProfiling = ruleProfiling;
+		this.forEachPartition(partition -> partition.setRuleProfiling(ruleProfiling));
+	}
+
+	@Override
+	public boolean isRuleProfiling() {
+		return this.ruleProfiling;
+	}
+
+	@Override
+	public void setAlgorithm(final Algorithm algorithm) {
+		Validate.notNull(algorithm, "Algorithm cannot be null!");
+		this.validateNotClosed();
+		this.algorithm = algorithm;
+		this.forEachPartition(partition -> partition.setAlgorithm(algorithm));
+	}
+
+	@Override
+	public Algorithm getAlgorithm() {
+		return this.algorithm;
+	}
+
+	@Override
+	public void setReasoningTimeout(final Integer seconds) {
+		this.validateNotClosed();
+		if (seconds != null) {
+			Validate.isTrue(seconds > 0, "Only strictly positive timeout period allowed!", seconds);
+		}
+		this.timeoutAfterSeconds = seconds;
+		this.forEachPartition(partition -> partition.setReasoningTimeout(seconds));
+	}
+
+	@Override
+	public Integer getReasoningTimeout() {
+		return this.timeoutAfterSeconds;
+	}
+
+	@Override
+	public void setRuleRewriteStrategy(final RuleRewriteStrategy ruleRewritingStrategy) {
+		this.validateNotClosed();
+		Validate.notNull(ruleRewritingStrategy, "Rewrite strategy cannot be null!");
+		this.ruleRewriteStrategy = ruleRewritingStrategy;
+		this.forEachPartition(partition -> partition.setRuleRewriteStrategy(ruleRewritingStrategy));
+	}
+
+	@Override
+	public RuleRewriteStrategy getRuleRewriteStrategy() {
+		return this.ruleRewriteStrategy;
+	}
+
+	@Override
+	public void setRelevantPredicates(final Collection<Predicate> predicates) {
+		this.validateNotClosed();
+		if (predicates == null) {
+			this.relevantPredicates = null;
+		} else {
+			Validate.noNullElements(predicates, "Relevant predicates cannot be null!");
+			this.relevantPredicates = Collections.unmodifiableSet(new HashSet<>(predicates));
+		}
+		this.partitionsOutdated = this.partitions != null;
+	}
+
+	@Override
+	public Set<Predicate> getRelevantPredicates() {
+		return this.relevantPredicates;
+	}
+
+	@Override
+	public void setLogLevel(final LogLevel logLevel) {
+		this.validateNotClosed();
+		Validate.notNull(logLevel, "Log level cannot be null!");
+		this.internalLogLevel = logLevel;
+		this.forEachPartition(partition -> partition.setLogLevel(logLevel));
+	}
+
+	@Override
+	public LogLevel getLogLevel() {
+		return this.internalLogLevel;
+	}
+
+	@Override
+	public void setLogFile(final String filePath) {
+		this.validateNotClosed();
+		this.logFile = filePath;
+		this.forEachPartition(partition -> partition.setLogFile(filePath));
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		if (this.partitions == null) {
+			return Correctness.SOUND_BUT_INCOMPLETE;
+		}
+		if (this.partitionsOutdated) {
+			return Correctness.INCORRECT;
+		}
+		Correctness correctness = Correctness.SOUND_AND_COMPLETE;
+		for (final VLogReasoner partition : this.partitions) {
+			correctness = combine(correctness, partition.getCorrectness());
+		}
+		return correctness;
+	}
+
+	/**
+	 * {@inheritDoc} The times of the individual components are added up, also if
+	 * the components have been processed in parallel.
+	 */
+	@Override
+	public ReasoningStatistics getReasoningStatistics() {
+		this.validateNotClosed();
+		long loadingTime = 0;
+		long conversionTime = 0;
+		long materialisationTime = 0;
+		final Map<Predicate, Long> factCounts = new HashMap<>();
+		final Map<Predicate, Long> assertedFactCounts = new HashMap<>();
+		final List<RuleStatistics> ruleStatistics = new ArrayList<>();
+		for (final VLogReasoner partition : this.getPartitions()) {
+			final ReasoningStatistics statistics = partition.getReasoningStatistics();
+			loadingTime += statistics.getLoadingTime();
+			conversionTime += statistics.getConversionTime();
+			materialisationTime += statistics.getMaterialisationTime();
+			for (final Predicate predicate : statistics.getPredicates()) {
+				factCounts.put(predicate, statistics.getFactCount(predicate));
+				assertedFactCounts.put(predicate, statistics.getAssertedFactCount(predicate));
+			}
+			ruleStatistics.addAll(statistics.getRuleStatistics());
+		}
+		final Map<String, Long> cyclicityCheckTimes = this.cyclicityCheckReasoner == null ? Collections.emptyMap()
+				: this.cyclicityCheckReasoner.getReasoningStatistics().getCyclicityCheckTimes();
+		return new ReasoningStatisticsImpl(loadingTime, conversionTime, materialisationTime, factCounts,
+				assertedFactCounts, Timer.getProcessPeakResidentSetSize(), ruleStatistics,
+				cyclicityCheckTimes);
+	}
+
+	static Correctness combine(final Correctness first, final Correctness second) {
+		if (first == Correctness.INCORRECT || second == Correctness.INCORRECT) {
+			return Correctness.INCORRECT;
+		} else if (first == Correctness.SOUND_BUT_INCOMPLETE || second == Correctness.SOUND_BUT_INCOMPLETE) {
+			return Correctness.SOUND_BUT_INCOMPLETE;
+		}
+		return Correctness.SOUND_AND_COMPLETE;
+	}
+
+	@Override
+	public boolean reason() throws IOException {
+		this.validateNotClosed();
+		this.queryCursors.invalidate();
+		this.updatePartitions();
+
+		// the log of VLog, which is used for profiling, is shared by all components
+		final int threads = this.ruleProfiling ? 1 : Math.min(this.numberOfThreads, this.partitions.size());
+		LOGGER.info("Started materialisation of {} independent components using {} threads ...",
+				this.partitions.size(), threads);
+		if (threads <= 1) {
+			boolean completed = true;
+			for (final VLogReasoner partition : this.partitions) {
+				completed &= partition.reason();
+			}
+			return completed;
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<Boolean>> results = new ArrayList<>();
+			for (final VLogReasoner partition : this.partitions) {
+				results.add(executor.submit(partition::reason));
+			}
+			boolean completed = true;
+			for (final Future<Boolean> result : results) {
+				completed &= result.get();
+			}
+			return completed;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RulewerkRuntimeException("Interrupted while waiting for materialisation.", e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RulewerkRuntimeException(cause.getMessage(), cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * (Re-)computes the independent components of the knowledge base if this has
+	 * not been done yet or if they are outdated, and creates a reasoner for each of
+	 * them.
+	 */
+	void updatePartitions() {
+		if (this.partitions != null && !this.partitionsOutdated) {
+			return;
+		}
+		this.forEachPartition(VLogReasoner::close);
+		this.partitionsByPredicate.clear();
+
+		final Set<Predicate> dataPredicates = new HashSet<>();
+		for (final Fact fact : this.knowledgeBase.getFacts()) {
+			dataPredicates.add(fact.getPredicate());
+		}
+		for (final DataSourceDeclaration dataSourceDeclaration : this.knowledgeBase.getDataSourceDeclarations()) {
+			dataPredicates.add(dataSourceDeclaration.getPredicate());
+		}
+		final PredicateDependencyGraph graph = new PredicateDependencyGraph(this.knowledgeBase.getRules());
+		final Set<Predicate> loadedPredicates = this.relevantPredicates == null ? null
+				: graph.getRelevantPredicates(this.relevantPredicates);
+
+		final Set<Predicate> rulePredicates = new HashSet<>();
+		for (final Rule rule : this.knowledgeBase.getRules()) {
+			rule.getHead().getLiterals().forEach(literal -> rulePredicates.add(literal.getPredicate()));
+			rule.getBody().getLiterals().forEach(literal -> rulePredicates.add(literal.getPredicate()));
+		}
+
+		this.partitions = new ArrayList<>();
+		final Set<Predicate> ruleFreePredicates = new HashSet<>();
+		for (final Set<Predicate> component : graph.getIndependentComponents(dataPredicates)) {
+			if (loadedPredicates != null) {
+				component.retainAll(loadedPredicates);
+				if (component.isEmpty()) {
+					continue;
+				}
+			}
+			if (Collections.disjoint(component, rulePredicates)) {
+				ruleFreePredicates.addAll(component);
+			} else {
+				this.addPartition(component);
+			}
+		}
+		if (!ruleFreePredicates.isEmpty()) {
+			this.addPartition(ruleFreePredicates);
+		}
+		this.forEachPartition(this::configureNumberOfThreads);
+		this.partitionsOutdated = false;
+		LOGGER.info("Knowledge base has been split into {} independent components.", this.partitions.size());
+	}
+
+	private void addPartition(final Set<Predicate> component) {
+		final VLogReasoner partition = this.createConfiguredReasoner();
+		partition.setRelevantPredicates(component);
+		this.partitions.add(partition);
+		for (final Predicate predicate : component) {
+			this.partitionsByPredicate.put(predicate, partition);
+		}
+	}
+
+	private VLogReasoner createConfiguredReasoner() {
+		final VLogReasoner reasoner = new VLogReasoner(this.knowledgeBase);
+		reasoner.setAlgorithm(this.algorithm);
+		reasoner.setReasoningTimeout(this.timeoutAfterSeconds);
+		reasoner.setRuleRewriteStrategy(this.ruleRewriteStrategy);
+		reasoner.setLogLevel(this.internalLogLevel);
+		reasoner.setRuleProfiling(this.ruleProfiling);
+		if (this.logFile != null) {
+			reasoner.setLogFile(this.logFile);
+		}
+		return reasoner;
+	}
+
+	/**
+	 * Getter for the reasoners of the independent components, in the order in
+	 * which they have been computed.
+	 *
+	 * @return the reasoners of the independent components, or an empty list if the
+	 *         knowledge base has not been partitioned yet
+	 */
+	List<VLogReasoner> getPartitions() {
+		return this.partitions == null ? Collections.emptyList() : Collections.unmodifiableList(this.partitions);
+	}
+
+	private void forEachPartition(final Consumer<VLogReasoner> action) {
+		if (this.partitions != null) {
+			this.partitions.forEach(action);
+		}
+	}
+
+	private VLogReasoner getPartition(final PositiveLiteral query) {
+		this.validateNotClosed();
+		if (this.partitions == null) {
+			throw new ReasonerStateException(ReasonerState.KB_NOT_LOADED,
+					"Querying is not allowed before Reasoner#reason() was first called!");
+		}
+		Validate.notNull(query, "Query atom must not be null!");
+		return this.partitionsByPredicate.get(query.getPredicate());
+	}
+
+	private Correctness getCorrectnessUnknownPredicate(final PositiveLiteral query) {
+		if (this.relevantPredicates != null) {
+			LOGGER.warn("Query uses predicate " + query.getPredicate()
+					+ " that is not relevant for the predicates set with Reasoner#setRelevantPredicates. Answers may be incomplete!");
+			return Correctness.SOUND_BUT_INCOMPLETE;
+		}
+		return this.getCorrectness();
+	}
+
+	@Override
+	public QueryResultIterator answerQuery(final PositiveLiteral query, final boolean includeNulls) {
+		final VLogReasoner partition = this.getPartition(query);
+		if (partition == null) {
+			return new EmptyQueryResultIterator(this.getCorrectnessUnknownPredicate(query));
+		}
+		return partition.answerQuery(query, includeNulls);
+	}
+
+	@Override
+	public QueryResultIterator answerQuery(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls) {
+		final VLogReasoner partition = this.getPartition(query);
+		if (partition == null) {
+			return new EmptyQueryResultIterator(this.getCorrectnessUnknownPredicate(query));
+		}
+		return partition.answerQuery(query, answerVariables, distinct, orderVariables, includeNulls);
+	}
+
+	@Override
+	public QueryResultPage answerQueryPage(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls,
+			final int pageSize) {
+		Validate.isTrue(pageSize > 0, "Page size must be positive!");
+		return this.queryCursors.getFirstPage(
+				this.answerQuery(query, answerVariables, distinct, orderVariables, includeNulls), pageSize);
+	}
+
+	@Override
+	public QueryResultPage getNextQueryResultPage(final String cursor, final int pageSize) {
+		this.validateNotClosed();
+		return this.queryCursors.getNextPage(cursor, pageSize);
+	}
+
+	@Override
+	public QueryResultIterator answerQueryGoalDirected(final PositiveLiteral query, final boolean includeNulls)
+			throws IOException {
+		this.validateNotClosed();
+		Validate.notNull(query, "Query atom must not be null!");
+		this.updatePartitions();
+		final VLogReasoner partition = this.partitionsByPredicate.get(query.getPredicate());
+		if (partition == null) {
+			return new EmptyQueryResultIterator(this.relevantPredicates == null ? Correctness.SOUND_AND_COMPLETE
+					: this.getCorrectnessUnknownPredicate(query));
+		}
+		return partition.answerQueryGoalDirected(query, includeNulls);
+	}
+
+	@Override
+	public QueryResultIterator answerConjunctiveQuery(final Conjunction<PositiveLiteral> query,
+			final List<Variable> answerVariables, final boolean includeNulls) {
+		Validate.notNull(query, "Query must not be null!");
+		final Set<VLogReasoner> queriedPartitions = new HashSet<>();
+		for (final PositiveLiteral atom : query) {
+			queriedPartitions.add(this.getPartition(atom));
+		}
+		if (queriedPartitions.size() == 1 && !queriedPartitions.contains(null)) {
+			return queriedPartitions.iterator().next().answerConjunctiveQuery(query, answerVariables, includeNulls);
+		}
+		// atoms from several components are joined on the level of terms
+		return ConjunctiveQueryEvaluator.answerConjunctiveQuery(this, query, answerVariables, includeNulls);
+	}
+
+	@Override
+	public QueryResultIterator answerAggregateQuery(final PositiveLiteral query, final List<Variable> groupVariables,
+			final List<Aggregate> aggregates, final boolean includeNulls) {
+		final VLogReasoner partition = this.getPartition(query);
+		if (partition == null) {
+			return new EmptyQueryResultIterator(this.getCorrectnessUnknownPredicate(query));
+		}
+		return partition.answerAggregateQuery(query, groupVariables, aggregates, includeNulls);
+	}
+
+	@Override
+	public QueryAnswerCount countQueryAnswers(final PositiveLiteral query, final boolean includeNulls) {
+		final VLogReasoner partition = this.getPartition(query);
+		if (partition == null) {
+			return new QueryAnswerCountImpl(this.getCorrectnessUnknownPredicate(query), 0);
+		}
+		return partition.countQueryAnswers(query, includeNulls);
+	}
+
+	@Override
+	public QueryAnswerCount countQueryAnswers(final PositiveLiteral query, final boolean includeNulls,
+			final QueryOptions options) {
+		final VLogReasoner partition = this.getPartition(query);
+		if (partition == null) {
+			return new QueryAnswerCountImpl(this.getCorrectnessUnknownPredicate(query), 0);
+		}
+		return partition.countQueryAnswers(query, includeNulls, options);
+	}
+
+	@Override
+	public Correctness exportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeNulls) throws IOException {
+		final VLogReasoner partition = this.getPartition(query);
+		if (partition == null) {
+			return this.getCorrectnessUnknownPredicate(query);
+		}
+		return partition.exportQueryAnswersToCsv(query, csvFilePath, includeNulls);
+	}
+
+	@Override
+	public Correctness exportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeNulls, final QueryOptions options) throws IOException {
+		final VLogReasoner partition = this.getPartition(query);
+		if (partition == null) {
+			return this.getCorrectnessUnknownPredicate(query);
+		}
+		return partition.exportQueryAnswersToCsv(query, csvFilePath, includeNulls, options);
+	}
+
+	@Override
+	public Correctness forEachInference(final InferenceAction action) throws IOException {
+		this.validateNotClosed();
+		if (this.partitions == null) {
+			throw new ReasonerStateException(ReasonerState.KB_NOT_LOADED,
+					"Obtaining inferences is not alowed before reasoner is loaded!");
+		}
+		Correctness correctness = this.relevantPredicates == null ? this.getCorrectness()
+				: Correctness.SOUND_BUT_INCOMPLETE;
+		for (final VLogReasoner partition : this.partitions) {
+			correctness = combine(correctness, partition.forEachLoadedInference(action));
+		}
+		return correctness;
+	}
+
+	/**
+	 * {@inheritDoc} The check is done for all rules of the knowledge base together
+	 * rather than for each component, like in a {@link VLogReasoner}.
+	 */
+	@Override
+	public CyclicityResult checkForCycles() {
+		return this.getCyclicityCheckReasoner().checkForCycles();
+	}
+
+	@Override
+	public boolean isJA() {
+		return this.getCyclicityCheckReasoner().isJA();
+	}
+
+	@Override
+	public boolean isRJA() {
+		return this.getCyclicityCheckReasoner().isRJA();
+	}
+
+	@Override
+	public boolean isMFA() {
+		return this.getCyclicityCheckReasoner().isMFA();
+	}
+
+	@Override
+	public boolean isRMFA() {
+		return this.getCyclicityCheckReasoner().isRMFA();
+	}
+
+	@Override
+	public boolean isMFC() {
+		return this.getCyclicityCheckReasoner().isMFC();
+	}
+
+	/**
+	 * Returns the reasoner used for acyclicity checks, configured with the current
+	 * settings. Its checks do not require the knowledge base to be loaded, and
+	 * their results are cached as long as the rules and EDB predicates do not
+	 * change.
+	 */
+	private VLogReasoner getCyclicityCheckReasoner() {
+		this.validateNotClosed();
+		if (this.cyclicityCheckReasoner == null) {
+			this.cyclicityCheckReasoner = this.createConfiguredReasoner();
+		}
+		this.cyclicityCheckReasoner.setRelevantPredicates(this.relevantPredicates);
+		this.cyclicityCheckReasoner.setRuleRewriteStrategy(this.ruleRewriteStrategy);
+		this.cyclicityCheckReasoner.setLogLevel(this.internalLogLevel);
+		this.cyclicityCheckReasoner.setNumberOfThreads(this.numberOfThreads);
+		return this.cyclicityCheckReasoner;
+	}
+
+	@Override
+	public void resetReasoner() {
+		this.validateNotClosed();
+		this.queryCursors.invalidate();
+		this.forEachPartition(VLogReasoner::resetReasoner);
+	}
+
+	@Override
+	public void close() {
+		if (this.closed) {
+			LOGGER.info("Reasoner is already closed.");
+		} else {
+			this.closed = true;
+			this.knowledgeBase.deleteListener(this);
+			this.queryCursors.invalidate();
+			this.forEachPartition(VLogReasoner::close);
+			if (this.cyclicityCheckReasoner != null) {
+				this.cyclicityCheckReasoner.close();
+			}
+			LOGGER.info("Reasoner closed.");
+		}
+	}
+
+	@Override
+	public void onStatementAdded(final Statement statementAdded) {
+		this.queryCursors.invalidate();
+		this.partitionsOutdated = this.partitions != null;
+	}
+
+	@Override
+	public void onStatementsAdded(final List<Statement> statementsAdded) {
+		this.queryCursors.invalidate();
+		this.partitionsOutdated = this.partitions != null;
+	}
+
+	@Override
+	public void onStatementRemoved(final Statement statementRemoved) {
+		this.queryCursors.invalidate();
+		this.partitionsOutdated = this.partitions != null;
+	}
+
+	@Override
+	public void onStatementsRemoved(final List<Statement> statementsRemoved) {
+		this.queryCursors.invalidate();
+		this.partitionsOutdated = this.partitions != null;
+	}
+
+	private void validateNotClosed() {
+		if (this.closed) {
+			LOGGER.error("Invalid operation requested on a closed reasoner object!");
+			throw new ReasonerStateException(ReasonerState.CLOSED, "Operation not allowed after closing reasoner!");
+		}
+	}
+
+}
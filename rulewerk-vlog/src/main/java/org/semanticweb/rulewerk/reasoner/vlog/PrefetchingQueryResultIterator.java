@@ -0,0 +1,262 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultBatchImpl;
+import org.semanticweb.rulewerk.reasoner.vlog.VLogFastQueryResultIterator.OrderedTermCache;
+
+import karmaresearch.vlog.VLog;
+
+/**
+ * {@link QueryResultIterator} that reads query results in the background: one
+ * thread fetches blocks of id tuples from VLog and decodes them into terms, and
+ * the consumer receives completed blocks through a bounded queue. Reading
+ * results from VLog thus overlaps with consuming them on multi-core machines.
+ *
+ * The background thread is the only thread that calls VLog for this iterator,
+ * since one VLog instance is not safe for concurrent native calls. For the same
+ * reason, the reasoner that created the iterator must not be used otherwise
+ * while the iterator is open. The iterator must be closed before the reasoner
+ * is closed or reset, and closing it waits until the background thread has
+ * released the underlying VLog iterator.
+ */
+class PrefetchingQueryResultIterator implements QueryResultIterator {
+
+	/**
+	 * Default number of results that are fetched and decoded at once.
+	 */
+	static final int BLOCK_SIZE = 1024;
+
+	/**
+	 * Number of decoded blocks that can be waiting for the consumer.
+	 */
+	static final int QUEUE_CAPACITY = 4;
+
+	/**
+	 * Marks the end of the results in the queue.
+	 */
+	private static final Object END = new Object();
+
+	private final Correctness correctness;
+	private final BlockingQueue<Object> decodedBlocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final Thread prefetchThread;
+	private volatile boolean closed;
+
+	private QueryResultBatchImpl currentBlock;
+	private int position;
+	private boolean finished;
+	private QueryResultBatchImpl batch;
+
+	PrefetchingQueryResultIterator(final karmaresearch.vlog.QueryResultIterator queryResultIterator,
+			final Correctness correctness, final VLog vLog) {
+		this(queryResultIterator, correctness, vLog, BLOCK_SIZE);
+	}
+
+	PrefetchingQueryResultIterator(final karmaresearch.vlog.QueryResultIterator queryResultIterator,
+			final Correctness correctness, final VLog vLog, final int blockSize) {
+		this.correctness = correctness;
+		this.prefetchThread = new Thread(() -> this.prefetch(queryResultIterator, vLog, blockSize),
+				"rulewerk-query-prefetch");
+		this.prefetchThread.setDaemon(true);
+		this.prefetchThread.start();
+	}
+
+	private void prefetch(final karmaresearch.vlog.QueryResultIterator queryResultIterator, final VLog vLog,
+			final int blockSize) {
+		final OrderedTermCache termCache = new OrderedTermCache(130000);
+		final long[][] idTuples = new long[blockSize][];
+		try {
+			while (!this.closed && queryResultIterator.hasNext()) {
+				int size = 0;
+				while (size < blockSize && queryResultIterator.hasNext()) {
+					idTuples[size++] = queryResultIterator.next();
+				}
+				this.decodedBlocks.put(decode(idTuples, size, termCache, vLog));
+			}
+			this.decodedBlocks.put(END);
+		} catch (final InterruptedException e) {
+			// closed by the consumer
+		} catch (final RuntimeException e) {
+			putUnlessInterrupted(this.decodedBlocks, e);
+		} finally {
+			queryResultIterator.close();
+		}
+	}
+
+	/**
+	 * Converts the first {@code size} id tuples into a block of terms. Ids are
+	 * looked up in the given cache, and in VLog on cache misses.
+	 */
+	private static QueryResultBatchImpl decode(final long[][] idTuples, final int size,
+			final OrderedTermCache termCache, final VLog vLog) {
+		final int columnCount = idTuples[0].length;
+		final QueryResultBatchImpl block = new QueryResultBatchImpl();
+		block.clear(columnCount, size);
+		for (int i = 0; i < size; i++) {
+			final int row = block.addRow();
+			for (int column = 0; column < columnCount; column++) {
+				final long id = idTuples[i][column];
+				Term term;
+				if (row > 0 && idTuples[i - 1][column] == id) {
+					term = block.getTerm(row - 1, column);
+				} else {
+					term = termCache.get(id);
+					if (term == null) {
+						term = VLogFastQueryResultIterator.computeTerm(id, vLog);
+						termCache.put(id, term);
+					}
+				}
+				block.setTerm(row, column, term);
+			}
+		}
+		return block;
+	}
+
+	private static void putUnlessInterrupted(final BlockingQueue<Object> queue, final Object element) {
+		try {
+			queue.put(element);
+		} catch (final InterruptedException e) {
+			// closed by the consumer, nobody is waiting for the element
+		}
+	}
+
+	/**
+	 * Makes sure that {@link #currentBlock} has unread results, unless all results
+	 * have been read.
+	 */
+	private void advance() {
+		while (!this.finished && (this.currentBlock == null || this.position == this.currentBlock.getRowCount())) {
+			final Object decoded;
+			try {
+				decoded = this.decodedBlocks.take();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RulewerkRuntimeException("Interrupted while waiting for query results.", e);
+			}
+			this.currentBlock = null;
+			if (decoded == END) {
+				this.finished = true;
+			} else if (decoded instanceof RuntimeException) {
+				this.finished = true;
+				throw new RulewerkRuntimeException("Fetching query results failed.", (RuntimeException) decoded);
+			} else {
+				this.currentBlock = (QueryResultBatchImpl) decoded;
+				this.position = 0;
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		this.advance();
+		return !this.finished;
+	}
+
+	@Override
+	public QueryResult next() {
+		this.advance();
+		if (this.finished) {
+			throw new NoSuchElementException();
+		}
+		return this.currentBlock.getQueryResult(this.position++);
+	}
+
+	/**
+	 * Returns the next decoded block directly if it has not been read partially
+	 * and fits into {@code maxRows}, and copies the results into a reusable batch
+	 * otherwise.
+	 */
+	@Override
+	public QueryResultBatch nextBatch(final int maxRows) {
+		if (maxRows <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive!");
+		}
+		this.advance();
+		if (this.finished) {
+			return new QueryResultBatchImpl();
+		}
+		if (this.position == 0 && this.currentBlock.getRowCount() <= maxRows) {
+			this.position = this.currentBlock.getRowCount();
+			return this.currentBlock;
+		}
+		if (this.batch == null) {
+			this.batch = new QueryResultBatchImpl();
+		}
+		final int columnCount = this.currentBlock.getColumnCount();
+		final int rowCount = Math.min(maxRows, this.currentBlock.getRowCount() - this.position);
+		this.batch.clear(columnCount, rowCount);
+		for (int i = 0; i < rowCount; i++) {
+			final int row = this.batch.addRow();
+			for (int column = 0; column < columnCount; column++) {
+				this.batch.setTerm(row, column, this.currentBlock.getTerm(this.position, column));
+			}
+			this.position++;
+		}
+		return this.batch;
+	}
+
+	@Override
+	public Correctness getCorrectness() {
+		return this.correctness;
+	}
+
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.finished = true;
+		this.prefetchThread.interrupt();
+		// the thread uses the VLog instance, which may be stopped after closing
+		if (join(this.prefetchThread)) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for the given thread to terminate, also if the current thread is
+	 * interrupted.
+	 *
+	 * @return {@code true} if the current thread has been interrupted while waiting
+	 */
+	private static boolean join(final Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (final InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		return interrupted;
+	}
+}
@@ -0,0 +1,415 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.TermType;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryAnswerCountImpl;
+
+/**
+ * A cache for query answers and answer counts, bounded by an estimate of the
+ * memory used by the cached answers. Queries are identified up to renaming of
+ * variables, so that {@code p(?X, ?Y)} and {@code p(?A, ?B)} share an entry.
+ * The least recently used entries are evicted first.
+ *
+ * Answers are only cached after they have been read completely, so queries
+ * whose answers are not fully iterated do not pollute the cache. The cache has
+ * to be {@link #invalidate() invalidated} whenever the answers of the reasoner
+ * may change.
+ *
+ * This class is thread-safe.
+ */
+public class QueryResultCache {
+
+	/**
+	 * Estimated number of bytes of a cache entry without its answers.
+	 */
+	static final long ENTRY_SIZE = 128;
+
+	private static final class Key {
+		private final PositiveLiteral query;
+		private final boolean includeNulls;
+
+		Key(final PositiveLiteral query, final boolean includeNulls) {
+			this.query = normalise(query);
+			this.includeNulls = includeNulls;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * this.query.hashCode() + Boolean.hashCode(this.includeNulls);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return this.includeNulls == other.includeNulls && this.query.equals(other.query);
+		}
+	}
+
+	private static final class Entry {
+		private final Correctness correctness;
+		private List<QueryResult> answers;
+		private long count = -1;
+		private long size = ENTRY_SIZE;
+
+		Entry(final Correctness correctness) {
+			this.correctness = correctness;
+		}
+	}
+
+	private final long maximumSize;
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long size;
+	private long generation;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param maximumSize the maximal estimated size of the cached answers in
+	 *                    bytes, must be positive
+	 */
+	public QueryResultCache(final long maximumSize) {
+		Validate.isTrue(maximumSize > 0, "Maximum cache size must be positive!");
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Renames the variables of the given query to canonical names, in the order of
+	 * their first occurrence.
+	 *
+	 * @param query a query atom
+	 * @return an atom that is equal for all queries that only differ in the names
+	 *         of their variables
+	 */
+	static PositiveLiteral normalise(final PositiveLiteral query) {
+		final Map<Term, Term> renaming = new HashMap<>();
+		final List<Term> arguments = new ArrayList<>(query.getArguments().size());
+		for (final Term term : query.getArguments()) {
+			if (term.isVariable()) {
+				arguments.add(renaming.computeIfAbsent(term,
+						variable -> variable.getType() == TermType.EXISTENTIAL_VARIABLE
+								? Expressions.makeExistentialVariable(String.valueOf(renaming.size()))
+								: Expressions.makeUniversalVariable(String.valueOf(renaming.size()))));
+			} else {
+				arguments.add(term);
+			}
+		}
+		return Expressions.makePositiveLiteral(query.getPredicate(), arguments);
+	}
+
+	/**
+	 * Returns the cached answers to the given query, if any.
+	 *
+	 * @param query        the query atom
+	 * @param includeNulls whether answers with named nulls are included
+	 * @return an iterator over the cached answers, or {@code null} on a cache miss
+	 */
+	public synchronized QueryResultIterator getAnswers(final PositiveLiteral query, final boolean includeNulls) {
+		final Entry entry = this.entries.get(new Key(query, includeNulls));
+		if (entry == null || entry.answers == null) {
+			this.missCount++;
+			return null;
+		}
+		this.hitCount++;
+		return new CachedQueryResultIterator(entry.answers, entry.correctness);
+	}
+
+	/**
+	 * Returns the cached number of answers to the given query, if any. Cached
+	 * answers are also used for counting.
+	 *
+	 * @param query        the query atom
+	 * @param includeNulls whether answers with named nulls are counted
+	 * @return the cached count, or {@code null} on a cache miss
+	 */
+	public synchronized QueryAnswerCount getCount(final PositiveLiteral query, final boolean includeNulls) {
+		final Entry entry = this.entries.get(new Key(query, includeNulls));
+		if (entry == null) {
+			this.missCount++;
+			return null;
+		}
+		this.hitCount++;
+		final long count = entry.answers == null ? entry.count : entry.answers.size();
+		return new QueryAnswerCountImpl(entry.correctness, count);
+	}
+
+	/**
+	 * Caches the given answer count.
+	 *
+	 * @param query        the query atom
+	 * @param includeNulls whether answers with named nulls are counted
+	 * @param count        the answer count to cache
+	 */
+	public synchronized void putCount(final PositiveLiteral query, final boolean includeNulls,
+			final QueryAnswerCount count) {
+		final Key key = new Key(query, includeNulls);
+		if (!this.entries.containsKey(key)) {
+			final Entry entry = new Entry(count.getCorrectness());
+			entry.count = count.getCount();
+			this.put(key, entry);
+		}
+	}
+
+	/**
+	 * Wraps the given iterator such that its answers are cached once they have
+	 * been read completely, provided that the cache has not been invalidated in
+	 * the meantime and that the answers fit into the cache.
+	 *
+	 * @param query        the query atom
+	 * @param includeNulls whether answers with named nulls are included
+	 * @param answers      the answers to the query
+	 * @return an iterator over the same answers
+	 */
+	public synchronized QueryResultIterator cacheAnswers(final PositiveLiteral query, final boolean includeNulls,
+			final QueryResultIterator answers) {
+		return new CachingQueryResultIterator(new Key(query, includeNulls), answers, this.generation);
+	}
+
+	private synchronized void putAnswers(final Key key, final List<QueryResult> answers, final long answersSize,
+			final Correctness correctness, final long generation) {
+		if (generation == this.generation) {
+			final Entry entry = new Entry(correctness);
+			entry.answers = Collections.unmodifiableList(answers);
+			entry.size += answersSize;
+			this.put(key, entry);
+		}
+	}
+
+	private void put(final Key key, final Entry entry) {
+		if (entry.size > this.maximumSize) {
+			return;
+		}
+		final Entry previous = this.entries.put(key, entry);
+		if (previous != null) {
+			this.size -= previous.size;
+		}
+		this.size += entry.size;
+
+		final Iterator<Entry> iterator = this.entries.values().iterator();
+		while (this.size > this.maximumSize) {
+			final Entry eldest = iterator.next();
+			iterator.remove();
+			this.size -= eldest.size;
+			this.evictionCount++;
+		}
+	}
+
+	/**
+	 * Removes all entries from the cache. Answers that are currently being read
+	 * will not be cached either.
+	 */
+	public synchronized void invalidate() {
+		this.entries.clear();
+		this.size = 0;
+		this.generation++;
+	}
+
+	/**
+	 * Estimates the memory used by a query answer. Terms shared between answers
+	 * are counted for every answer, so this is an overestimate.
+	 */
+	static long estimateSize(final QueryResult answer) {
+		long size = 64;
+		for (final Term term : answer.getTerms()) {
+			size += 48 + 2 * term.getName().length();
+		}
+		return size;
+	}
+
+	/**
+	 * @return the maximal estimated size of the cached answers in bytes
+	 */
+	public long getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * @return the current estimated size of the cached answers in bytes
+	 */
+	public synchronized long getSize() {
+		return this.size;
+	}
+
+	/**
+	 * @return the number of cached queries
+	 */
+	public synchronized int getEntryCount() {
+		return this.entries.size();
+	}
+
+	/**
+	 * @return the number of lookups that were answered from the cache
+	 */
+	public synchronized long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * @return the number of lookups that were not answered from the cache
+	 */
+	public synchronized long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * @return the number of entries that have been removed to free space
+	 */
+	public synchronized long getEvictionCount() {
+		return this.evictionCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "QueryResultCache [entries=" + this.entries.size() + ", size=" + this.size + ", maximumSize="
+				+ this.maximumSize + ", hits=" + this.hitCount + ", misses=" + this.missCount + ", evictions="
+				+ this.evictionCount + "]";
+	}
+
+	private static class CachedQueryResultIterator implements QueryResultIterator {
+
+		private final Iterator<QueryResult> answers;
+		private final Correctness correctness;
+
+		CachedQueryResultIterator(final List<QueryResult> answers, final Correctness correctness) {
+			this.answers = answers.iterator();
+			this.correctness = correctness;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.answers.hasNext();
+		}
+
+		@Override
+		public QueryResult next() {
+			return this.answers.next();
+		}
+
+		@Override
+		public Correctness getCorrectness() {
+			return this.correctness;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * Records the answers of another iterator while they are read, and caches them
+	 * once the iterator is exhausted. Recording stops as soon as the answers
+	 * exceed the maximal cache size.
+	 */
+	private class CachingQueryResultIterator implements QueryResultIterator {
+
+		private final Key key;
+		private final QueryResultIterator queryResultIterator;
+		private final long generation;
+		private List<QueryResult> answers = new ArrayList<>();
+		private long answersSize;
+
+		CachingQueryResultIterator(final Key key, final QueryResultIterator queryResultIterator,
+				final long generation) {
+			this.key = key;
+			this.queryResultIterator = queryResultIterator;
+			this.generation = generation;
+		}
+
+		@Override
+		public boolean hasNext() {
+			final boolean hasNext = this.queryResultIterator.hasNext();
+			if (!hasNext && this.answers != null) {
+				QueryResultCache.this.putAnswers(this.key, this.answers, this.answersSize,
+						this.queryResultIterator.getCorrectness(), this.generation);
+				this.answers = null;
+			}
+			return hasNext;
+		}
+
+		@Override
+		public QueryResult next() {
+			final QueryResult answer = this.queryResultIterator.next();
+			if (this.answers != null) {
+				this.record(answer);
+			}
+			return answer;
+		}
+
+		@Override
+		public QueryResultBatch nextBatch(final int maxRows) {
+			final QueryResultBatch batch = this.queryResultIterator.nextBatch(maxRows);
+			for (int row = 0; row < batch.getRowCount() && this.answers != null; row++) {
+				this.record(batch.getQueryResult(row));
+			}
+			if (batch.getRowCount() == 0) {
+				this.hasNext();
+			}
+			return batch;
+		}
+
+		private void record(final QueryResult answer) {
+			this.answersSize += estimateSize(answer);
+			if (ENTRY_SIZE + this.answersSize > QueryResultCache.this.maximumSize) {
+				this.answers = null;
+			} else {
+				this.answers.add(answer);
+			}
+		}
+
+		@Override
+		public Correctness getCorrectness() {
+			return this.queryResultIterator.getCorrectness();
+		}
+
+		@Override
+		public void close() {
+			this.answers = null;
+			this.queryResultIterator.close();
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+
+import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.reasoner.AcyclicityNotion;
+import org.semanticweb.rulewerk.core.reasoner.CyclicityResult;
+import org.semanticweb.rulewerk.core.reasoner.LogLevel;
+import org.semanticweb.rulewerk.core.reasoner.RuleRewriteStrategy;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.CheckCyclicityEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import karmaresearch.vlog.AlreadyStartedException;
+import karmaresearch.vlog.EDBConfigurationException;
+import karmaresearch.vlog.NotStartedException;
+import karmaresearch.vlog.VLog;
+import karmaresearch.vlog.VLog.CyclicCheckResult;
+
+/**
+ * Runs the acyclicity and cyclicity checks of VLog for a fixed set of rules and
+ * EDB predicates, and caches their results. The checks do not depend on the
+ * facts of the EDB predicates, but only on which predicates are EDB. Each check
+ * is therefore run on a separate VLog instance that holds a single placeholder
+ * fact for each EDB predicate, so that checks can run concurrently and without
+ * loading the data of the knowledge base.
+ */
+class VLogCyclicityChecker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(VLogCyclicityChecker.class);
+
+	static final String MFC = "MFC";
+
+	private static final String PLACEHOLDER_CONSTANT = "<urn:rulewerk:cyclicity-check>";
+
+	private final Set<Rule> rules;
+	private final Set<Predicate> edbPredicates;
+	private final RuleRewriteStrategy ruleRewriteStrategy;
+
+	private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+	/**
+	 * Duration (in nanoseconds) of each check that has been run.
+	 */
+	private final Map<String, Long> checkTimes = new ConcurrentHashMap<>();
+
+	VLogCyclicityChecker(final VLogKnowledgeBase vLogKB, final RuleRewriteStrategy ruleRewriteStrategy) {
+		this.rules = new HashSet<>(vLogKB.getRules());
+		this.edbPredicates = getEdbPredicates(vLogKB);
+		this.ruleRewriteStrategy = ruleRewriteStrategy;
+	}
+
+	/**
+	 * Checks whether the cached results of this checker are valid for the given
+	 * knowledge base, i.e., whether it has the same rules and EDB predicates.
+	 */
+	boolean isValidFor(final VLogKnowledgeBase vLogKB, final RuleRewriteStrategy ruleRewriteStrategy) {
+		return this.ruleRewriteStrategy == ruleRewriteStrategy && this.rules.equals(vLogKB.getRules())
+				&& this.edbPredicates.equals(getEdbPredicates(vLogKB));
+	}
+
+	static Set<Predicate> getEdbPredicates(final VLogKnowledgeBase vLogKB) {
+		final Set<Predicate> edbPredicates = new HashSet<>(vLogKB.getEdbPredicates().keySet());
+		edbPredicates.addAll(vLogKB.getAliasesForEdbPredicates().values());
+		return edbPredicates;
+	}
+
+	/**
+	 * Returns the durations (in nanoseconds) of the checks that have been run, by
+	 * the name of the checked notion.
+	 */
+	Map<String, Long> getCheckTimes() {
+		return Collections.unmodifiableMap(this.checkTimes);
+	}
+
+	/**
+	 * Checks the given acyclicity notion (or {@link #MFC}), unless its result is
+	 * already known.
+	 *
+	 * @param notion   the name of an {@link AcyclicityNotion}, or {@link #MFC}
+	 * @param logLevel the log level for VLog
+	 * @return {@code true} if the rules are acyclic according to the given
+	 *         acyclicity notion, or cyclic in case of {@link #MFC}
+	 */
+	boolean check(final String notion, final LogLevel logLevel) {
+		final Boolean cachedResult = this.results.get(notion);
+		if (cachedResult != null) {
+			LOGGER.debug("Using cached result of {} check.", notion);
+			return cachedResult;
+		}
+
+		final CheckCyclicityEvent event = new CheckCyclicityEvent();
+		event.begin();
+		final long start = System.nanoTime();
+		final VLog vLog = new VLog();
+		final CyclicCheckResult checkResult;
+		try {
+			vLog.setLogLevel(ModelToVLogConverter.toVLogLogLevel(logLevel));
+			vLog.start("", false);
+			for (final Predicate predicate : this.edbPredicates) {
+				final String[] placeholderTuple = new String[predicate.getArity()];
+				Arrays.fill(placeholderTuple, PLACEHOLDER_CONSTANT);
+				vLog.addData(ModelToVLogConverter.toVLogPredicate(predicate), new String[][] { placeholderTuple });
+			}
+			vLog.setRules(ModelToVLogConverter.toVLogRuleArray(this.rules),
+					ModelToVLogConverter.toVLogRuleRewriteStrategy(this.ruleRewriteStrategy));
+			checkResult = vLog.checkCyclic(notion);
+		} catch (final AlreadyStartedException | NotStartedException e) {
+			throw new RulewerkRuntimeException(e.getMessage(), e); // should be impossible
+		} catch (final IOException | EDBConfigurationException e) {
+			throw new RulewerkRuntimeException("Invalid data sources configuration!", e);
+		} finally {
+			vLog.stop();
+		}
+		final long time = System.nanoTime() - start;
+
+		final boolean result = checkResult
+				.equals(MFC.equals(notion) ? CyclicCheckResult.CYCLIC : CyclicCheckResult.NON_CYCLIC);
+		this.results.put(notion, result);
+		this.checkTimes.put(notion, time);
+		LOGGER.info("Checked {} in {}ms: {}.", notion, time / 1000000, checkResult);
+		if (event.shouldCommit()) {
+			event.notion = notion;
+			event.conclusive = result;
+			event.rules = this.rules.size();
+			event.commit();
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the rules are acyclic according to some acyclicity notion,
+	 * cyclic according to MFC, or neither. The cheap syntactic checks JA and RJA
+	 * are run first, and only if neither holds, the MFA, RMFA and MFC checks,
+	 * which run the chase on a critical instance, are started. The result is
+	 * returned as soon as it is known. If several threads are allowed, the latter
+	 * checks are run concurrently on the given executor, and checks that are still
+	 * running when the result is known complete in the background to fill the
+	 * cache.
+	 *
+	 * @param numberOfThreads the maximal number of concurrent checks
+	 * @param logLevel        the log level for VLog
+	 * @param executor        the executor for running checks concurrently
+	 * @return the cyclicity of the rules
+	 */
+	CyclicityResult checkForCycles(final int numberOfThreads, final LogLevel logLevel,
+			final ExecutorService executor) {
+		for (final String notion : Arrays.asList(AcyclicityNotion.JA.name(), AcyclicityNotion.RJA.name())) {
+			if (this.check(notion, logLevel)) {
+				return CyclicityResult.ACYCLIC;
+			}
+		}
+
+		final List<String> notions = Arrays.asList(AcyclicityNotion.MFA.name(), AcyclicityNotion.RMFA.name(), MFC);
+		final int threads = Math.min(numberOfThreads, (int) notions.stream().filter(this::isUnknown).count());
+		if (threads <= 1) {
+			for (final String notion : notions.subList(0, notions.size() - 1)) {
+				if (this.check(notion, logLevel)) {
+					return CyclicityResult.ACYCLIC;
+				}
+			}
+			return this.check(MFC, logLevel) ? CyclicityResult.CYCLIC : CyclicityResult.UNDETERMINED;
+		}
+
+		final CompletionService<Map.Entry<String, Boolean>> completionService = new ExecutorCompletionService<>(
+				executor);
+		int submittedChecks = 0;
+		try {
+			// at most the given number of checks is submitted at a time, so that
+			// the executor can be shared
+			while (submittedChecks < threads) {
+				this.submitCheck(completionService, notions.get(submittedChecks++), logLevel);
+			}
+			Boolean cyclic = null;
+			int pendingAcyclicityChecks = notions.size() - 1;
+			while (pendingAcyclicityChecks > 0 || cyclic == null) {
+				final Map.Entry<String, Boolean> result = completionService.take().get();
+				if (MFC.equals(result.getKey())) {
+					cyclic = result.getValue();
+				} else if (result.getValue()) {
+					return CyclicityResult.ACYCLIC;
+				} else {
+					pendingAcyclicityChecks--;
+				}
+				if (submittedChecks < notions.size()) {
+					this.submitCheck(completionService, notions.get(submittedChecks++), logLevel);
+				}
+			}
+			return cyclic ? CyclicityResult.CYCLIC : CyclicityResult.UNDETERMINED;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RulewerkRuntimeException("Interrupted while waiting for cyclicity checks.", e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RulewerkRuntimeException(cause.getMessage(), cause);
+		}
+	}
+
+	private void submitCheck(final CompletionService<Map.Entry<String, Boolean>> completionService,
+			final String notion, final LogLevel logLevel) {
+		completionService.submit(
+				() -> new AbstractMap.SimpleImmutableEntry<>(notion, this.check(notion, logLevel)));
+	}
+
+	private boolean isUnknown(final String notion) {
+		return !this.results.containsKey(notion);
+	}
+
+}
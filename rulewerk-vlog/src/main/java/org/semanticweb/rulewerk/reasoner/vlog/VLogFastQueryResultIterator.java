@@ -30,7 +30,9 @@ import org.semanticweb.rulewerk.core.model.api.QueryResult;
 import org.semanticweb.rulewerk.core.model.api.Term;
 import org.semanticweb.rulewerk.core.model.implementation.NamedNullImpl;
 import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
 import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultBatchImpl;
 import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultImpl;
 
 import karmaresearch.vlog.NotStartedException;
@@ -141,6 +143,9 @@ public class VLogFastQueryResultIterator implements QueryResultIterator {
 
 	private final Correctness correctness;
 
+	private QueryResultBatchImpl batch;
+	private long[] batchIds = new long[0];
+
 	/**
 	 * Create a new {@link VLogFastQueryResultIterator}.
 	 * 
@@ -200,6 +205,53 @@ public class VLogFastQueryResultIterator implements QueryResultIterator {
 		return new QueryResultImpl(Arrays.asList(terms));
 	}
 
+	/**
+	 * Fills a reusable batch with further results. Terms are looked up in the term
+	 * cache, and a term that equals the term in the same column of the previous
+	 * result is reused directly, so no objects are allocated per result.
+	 */
+	@Override
+	public QueryResultBatch nextBatch(final int maxRows) {
+		if (maxRows <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive!");
+		}
+		if (this.batch == null) {
+			this.batch = new QueryResultBatchImpl();
+		}
+		this.batch.clear(this.batchIds.length, maxRows);
+
+		while (this.batch.getRowCount() < maxRows && this.vLogQueryResultIterator.hasNext()) {
+			final long[] idTuple = this.vLogQueryResultIterator.next();
+			if (idTuple.length != this.batchIds.length) {
+				this.batchIds = new long[idTuple.length];
+				Arrays.fill(this.batchIds, -1); // (practically) impossible id
+				this.batch.clear(idTuple.length, maxRows);
+			}
+			final int row = this.batch.addRow();
+			for (int column = 0; column < idTuple.length; column++) {
+				final long id = idTuple[column];
+				final Term term;
+				if (row > 0 && this.batchIds[column] == id) {
+					term = this.batch.getTerm(row - 1, column);
+				} else {
+					term = this.getCachedTerm(id);
+					this.batchIds[column] = id;
+				}
+				this.batch.setTerm(row, column, term);
+			}
+		}
+		return this.batch;
+	}
+
+	private Term getCachedTerm(final long id) {
+		Term term = this.termCache.get(id);
+		if (term == null) {
+			term = computeTerm(id);
+			this.termCache.put(id, term);
+		}
+		return term;
+	}
+
 	/**
 	 * Compute the {@link Term} for a given VLog id.
 	 * 
@@ -207,6 +259,18 @@ public class VLogFastQueryResultIterator implements QueryResultIterator {
 	 * @return
 	 */
 	Term computeTerm(long id) {
+		return computeTerm(id, this.vLog);
+	}
+
+	/**
+	 * Compute the {@link Term} for a given VLog id, using the dictionary of the
+	 * given VLog instance.
+	 * 
+	 * @param id
+	 * @param vLog
+	 * @return
+	 */
+	static Term computeTerm(long id, VLog vLog) {
 		try {
 			String s = vLog.getConstant(id);
 			if (s == null) {
@@ -48,6 +48,7 @@ import org.semanticweb.rulewerk.core.model.implementation.PredicateImpl;
 import org.semanticweb.rulewerk.core.model.implementation.RuleImpl;
 import org.semanticweb.rulewerk.core.model.implementation.UniversalVariableImpl;
 import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.implementation.PredicateDependencyGraph;
 import org.semanticweb.rulewerk.core.reasoner.implementation.ReasonerDataSource;
 
 /**
@@ -67,6 +68,8 @@ public class VLogKnowledgeBase {
 
 	private final Map<Predicate, List<Fact>> directEdbFacts = new HashMap<>();
 
+	private final Map<Predicate, List<VLogInMemoryDataSource>> inMemoryDataSources = new HashMap<>();
+
 	private final Set<Rule> rules = new HashSet<>();
 
 	/**
@@ -76,13 +79,44 @@ public class VLogKnowledgeBase {
 	 * @param knowledgeBase
 	 */
 	VLogKnowledgeBase(final KnowledgeBase knowledgeBase) {
+		this(knowledgeBase, null);
+	}
+
+	/**
+	 * Package-protected constructor, that organizes the parts of given
+	 * {@code knowledgeBase} that are relevant for the given predicates in
+	 * vLog-specific data structures. Facts and data source declarations for other
+	 * predicates, as well as rules that do not derive any relevant predicate, are
+	 * ignored.
+	 *
+	 * @param knowledgeBase
+	 * @param relevantPredicates predicates closed under the dependencies of the
+	 *                           rules (see
+	 *                           {@link PredicateDependencyGraph#getRelevantPredicates(java.util.Collection)}),
+	 *                           or {@code null} to organize the whole knowledge
+	 *                           base
+	 */
+	VLogKnowledgeBase(final KnowledgeBase knowledgeBase, final Set<Predicate> relevantPredicates) {
 		final LoadKbVisitor visitor = this.new LoadKbVisitor();
 		visitor.clearIndexes();
 		for (final Statement statement : knowledgeBase) {
-			statement.accept(visitor);
+			if (relevantPredicates == null || isRelevant(statement, relevantPredicates)) {
+				statement.accept(visitor);
+			}
 		}
 	}
 
+	static boolean isRelevant(final Statement statement, final Set<Predicate> relevantPredicates) {
+		if (statement instanceof Rule) {
+			return PredicateDependencyGraph.isRelevant((Rule) statement, relevantPredicates);
+		} else if (statement instanceof Fact) {
+			return relevantPredicates.contains(((Fact) statement).getPredicate());
+		} else if (statement instanceof DataSourceDeclaration) {
+			return relevantPredicates.contains(((DataSourceDeclaration) statement).getPredicate());
+		}
+		return true;
+	}
+
 	boolean hasData() {
 		return !this.edbPredicates.isEmpty() || !this.aliasedEdbPredicates.isEmpty();
 	}
@@ -91,6 +125,16 @@ public class VLogKnowledgeBase {
 		return !this.rules.isEmpty();
 	}
 
+	/**
+	 * Checks whether there are rules other than the ones that copy the facts of
+	 * each alias to its predicate.
+	 *
+	 * @return {@code true} if the knowledge base has rules
+	 */
+	boolean hasKnowledgeBaseRules() {
+		return this.rules.size() > this.aliasesForEdbPredicates.size();
+	}
+
 	Predicate getAlias(final Predicate predicate) {
 		if (this.edbPredicates.containsKey(predicate)) {
 			return predicate;
@@ -154,10 +198,44 @@ public class VLogKnowledgeBase {
 		return this.directEdbFacts;
 	}
 
+	/**
+	 * Returns the in-memory data sources declared for each predicate. Their data
+	 * is loaded together with the {@link #getDirectEdbFacts() direct facts} of the
+	 * same predicate into a single VLog table, so that in-memory data never needs
+	 * more than one alias (and one copy rule) per predicate.
+	 *
+	 * @return map from predicates to their in-memory data sources
+	 */
+	Map<Predicate, List<VLogInMemoryDataSource>> getInMemoryDataSources() {
+		return this.inMemoryDataSources;
+	}
+
 	Set<Rule> getRules() {
 		return this.rules;
 	}
 
+	/**
+	 * Returns, for each predicate with facts, data sources or rules, the VLog
+	 * predicates that hold its asserted facts: the predicate itself if its data is
+	 * loaded directly, its aliases if it also occurs in rule heads, and none if it
+	 * is only derived by rules.
+	 *
+	 * @return map from predicates to the predicates of their VLog data tables
+	 */
+	Map<Predicate, List<Predicate>> getAssertedFactPredicates() {
+		final Map<Predicate, List<Predicate>> result = new HashMap<>();
+		for (final Predicate predicate : this.idbPredicates) {
+			result.put(predicate, new ArrayList<>());
+		}
+		for (final Predicate predicate : this.edbPredicates.keySet()) {
+			result.computeIfAbsent(predicate, k -> new ArrayList<>()).add(predicate);
+		}
+		for (final Entry<DataSourceDeclaration, Predicate> e : this.aliasesForEdbPredicates.entrySet()) {
+			result.computeIfAbsent(e.getKey().getPredicate(), k -> new ArrayList<>()).add(e.getValue());
+		}
+		return result;
+	}
+
 	/**
 	 * Local visitor implementation for processing statements upon loading. Internal
 	 * index structures are updated based on the statements that are detected.
@@ -173,6 +251,7 @@ public class VLogKnowledgeBase {
 			VLogKnowledgeBase.this.aliasedEdbPredicates.clear();
 			VLogKnowledgeBase.this.aliasesForEdbPredicates.clear();
 			VLogKnowledgeBase.this.directEdbFacts.clear();
+			VLogKnowledgeBase.this.inMemoryDataSources.clear();
 			VLogKnowledgeBase.this.rules.clear();
 		}
 
@@ -208,7 +287,19 @@ public class VLogKnowledgeBase {
 
 		@Override
 		public Void visit(final DataSourceDeclaration statement) {
-			registerEdbDeclaration(statement);
+			if (statement.getDataSource() instanceof VLogInMemoryDataSource) {
+				final Predicate predicate = statement.getPredicate();
+				final List<VLogInMemoryDataSource> dataSources = VLogKnowledgeBase.this.inMemoryDataSources
+						.computeIfAbsent(predicate, k -> new ArrayList<>());
+				final VLogInMemoryDataSource dataSource = (VLogInMemoryDataSource) statement.getDataSource();
+				if (!dataSources.contains(dataSource)) {
+					dataSources.add(dataSource);
+				}
+				// in-memory data shares one table with the local facts of the predicate
+				registerEdbDeclaration(new LocalFactsDataSourceDeclaration(predicate));
+			} else {
+				registerEdbDeclaration(statement);
+			}
 			return null;
 		}
 
@@ -259,7 +350,7 @@ public class VLogKnowledgeBase {
 
 	/**
 	 * Dummy data source declaration for predicates for which we have explicit local
-	 * facts in the input.
+	 * facts or in-memory data sources in the input.
 	 *
 	 * @author Markus Kroetzsch
 	 *
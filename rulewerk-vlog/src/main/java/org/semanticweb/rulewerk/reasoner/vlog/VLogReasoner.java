@@ -20,41 +20,90 @@ package org.semanticweb.rulewerk.reasoner.vlog;
  * #L%
  */
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.Validate;
 import org.semanticweb.rulewerk.core.exceptions.IncompatiblePredicateArityException;
+import org.semanticweb.rulewerk.core.exceptions.QueryCancelledException;
 import org.semanticweb.rulewerk.core.exceptions.ReasonerStateException;
 import org.semanticweb.rulewerk.core.exceptions.RulewerkRuntimeException;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
 import org.semanticweb.rulewerk.core.model.api.DataSource;
 import org.semanticweb.rulewerk.core.model.api.DataSourceDeclaration;
 import org.semanticweb.rulewerk.core.model.api.Fact;
 import org.semanticweb.rulewerk.core.model.api.Literal;
 import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
 import org.semanticweb.rulewerk.core.model.api.Predicate;
 import org.semanticweb.rulewerk.core.model.api.Rule;
 import org.semanticweb.rulewerk.core.model.api.Statement;
 import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
 import org.semanticweb.rulewerk.core.model.implementation.Expressions;
 import org.semanticweb.rulewerk.core.reasoner.AcyclicityNotion;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
 import org.semanticweb.rulewerk.core.reasoner.Algorithm;
 import org.semanticweb.rulewerk.core.reasoner.Correctness;
 import org.semanticweb.rulewerk.core.reasoner.CyclicityResult;
 import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
 import org.semanticweb.rulewerk.core.reasoner.LogLevel;
 import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryOptions;
 import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPage;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPublisher;
 import org.semanticweb.rulewerk.core.reasoner.Reasoner;
 import org.semanticweb.rulewerk.core.reasoner.ReasonerState;
+import org.semanticweb.rulewerk.core.reasoner.ReasoningStatistics;
 import org.semanticweb.rulewerk.core.reasoner.RuleRewriteStrategy;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+import org.semanticweb.rulewerk.core.reasoner.Timer;
+import org.semanticweb.rulewerk.core.reasoner.implementation.AggregateQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.CancellableQueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ConjunctiveQueryEvaluator.TupleIterator;
 import org.semanticweb.rulewerk.core.reasoner.implementation.EmptyQueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ProjectionQueryEvaluator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryCursorRegistry;
+import org.semanticweb.rulewerk.core.reasoner.implementation.LongTupleHashSet;
+import org.semanticweb.rulewerk.core.reasoner.implementation.MagicSetsRewriting;
+import org.semanticweb.rulewerk.core.reasoner.implementation.PredicateDependencyGraph;
 import org.semanticweb.rulewerk.core.reasoner.implementation.QueryAnswerCountImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.QueryResultIteratorPublisher;
+import org.semanticweb.rulewerk.core.reasoner.implementation.ReasoningStatisticsImpl;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.CountQueryAnswersEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.ExportQueryAnswersEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.LoadDataSourcesEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.LoadFactsEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.LoadKnowledgeBaseEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.MaterialiseEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.QueryEvent;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RulewerkEvents.SetRulesEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,7 +114,6 @@ import karmaresearch.vlog.NonExistingPredicateException;
 import karmaresearch.vlog.NotStartedException;
 import karmaresearch.vlog.TermQueryResultIterator;
 import karmaresearch.vlog.VLog;
-import karmaresearch.vlog.VLog.CyclicCheckResult;
 
 /**
  * Reasoner implementation using the VLog backend.
@@ -78,6 +126,13 @@ import karmaresearch.vlog.VLog.CyclicCheckResult;
 public class VLogReasoner implements Reasoner {
 	private static Logger LOGGER = LoggerFactory.getLogger(VLogReasoner.class);
 
+	/**
+	 * Seconds to wait for running asynchronous queries when the reasoner is
+	 * closed, and between log messages while waiting for running cyclicity
+	 * checks.
+	 */
+	private static final long EXECUTOR_TERMINATION_TIMEOUT = 60;
+
 	final KnowledgeBase knowledgeBase;
 	final VLog vLog = new VLog();
 
@@ -88,6 +143,56 @@ public class VLogReasoner implements Reasoner {
 	private Algorithm algorithm = Algorithm.RESTRICTED_CHASE;
 	private Integer timeoutAfterSeconds;
 	private RuleRewriteStrategy ruleRewriteStrategy = RuleRewriteStrategy.NONE;
+	private Set<Predicate> relevantPredicates;
+	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+	private boolean ruleProfiling = false;
+	private String logFile;
+
+	/**
+	 * Durations (in nanoseconds) of the phases of the last loading and
+	 * materialisation, reported by {@link #getReasoningStatistics()}.
+	 */
+	private long loadingTime;
+	private long conversionTime;
+	private long materialisationTime;
+	/**
+	 * The VLog predicates that hold the asserted facts of each loaded predicate,
+	 * see {@link VLogKnowledgeBase#getAssertedFactPredicates()}.
+	 */
+	private Map<Predicate, List<Predicate>> assertedFactPredicates = Collections.emptyMap();
+	/**
+	 * The VLog predicates that queries over predicates with aliases are rewritten
+	 * to while the knowledge base is loaded but not materialised, since the facts
+	 * of the aliases are only copied to their predicates by reasoning. Empty after
+	 * materialisation.
+	 */
+	private Map<Predicate, List<Predicate>> edbSourcePredicates = Collections.emptyMap();
+	/**
+	 * Maps the rule applications in VLog's log to the loaded rules, and the
+	 * resulting profile of the last materialisation, if profiling is enabled.
+	 */
+	private VLogRuleProfiler ruleProfiler;
+	private List<RuleStatistics> ruleStatistics = Collections.emptyList();
+	/**
+	 * Runs and caches the acyclicity checks for the rules and EDB predicates of
+	 * the knowledge base. It is kept as long as these do not change, also across
+	 * {@link #resetReasoner()}.
+	 */
+	private VLogCyclicityChecker cyclicityChecker;
+	/**
+	 * Executor for running cyclicity checks concurrently, created on first use.
+	 * Checks may still be running in the background after
+	 * {@link #checkForCycles()} has returned, and are waited for when the reasoner
+	 * is closed.
+	 */
+	private ExecutorService cyclicityCheckExecutor;
+
+	/**
+	 * Predicates whose extensions have been loaded, if only the part of the
+	 * knowledge base relevant for {@link #relevantPredicates} has been loaded.
+	 * Has value {@code null} if the whole knowledge base has been loaded.
+	 */
+	private Set<Predicate> loadedPredicates;
 
 	/**
 	 * Holds the state of the reasoning result. Has value {@code true} if reasoning
@@ -95,6 +200,33 @@ public class VLogReasoner implements Reasoner {
 	 */
 	private boolean reasoningCompleted;
 
+	/**
+	 * Cache for query answers and counts, or {@code null} if answers are not
+	 * cached.
+	 */
+	private QueryResultCache queryResultCache;
+
+	/**
+	 * Open iterators of paged queries, which are closed whenever the state of the
+	 * reasoner changes.
+	 */
+	private final QueryCursorRegistry queryCursors = new QueryCursorRegistry();
+
+	private boolean queryResultPrefetching;
+
+	/**
+	 * Executor for asynchronous queries, created on first use and shut down when
+	 * the reasoner is closed.
+	 */
+	private ExecutorService queryExecutor;
+
+	/**
+	 * Publishers of asynchronous queries, whose open subscriptions are terminated
+	 * when the reasoner is closed.
+	 */
+	private final Set<QueryResultIteratorPublisher> queryPublishers = Collections
+			.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
 	public VLogReasoner(KnowledgeBase knowledgeBase) {
 		super();
 		this.knowledgeBase = knowledgeBase;
@@ -146,17 +278,132 @@ public class VLogReasoner implements Reasoner {
 		return this.ruleRewriteStrategy;
 	}
 
+	/**
+	 * {@inheritDoc} VLog materialises the knowledge base on a single thread, so
+	 * the threads are only used for converting explicit facts while loading. The
+	 * default is the number of available processors. Use
+	 * {@link PartitionedVLogReasoner} to materialise independent parts of a
+	 * knowledge base in parallel.
+	 */
+	@Override
+	public void setNumberOfThreads(final int numberOfThreads) {
+		this.validateNotClosed();
+		Validate.isTrue(numberOfThreads > 0, "Only strictly positive number of threads allowed!", numberOfThreads);
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	@Override
+	public int getNumberOfThreads() {
+		return this.numberOfThreads;
+	}
+
+	/**
+	 * {@inheritDoc} Rules are profiled by analysing the debug log of VLog, which is
+	 * written to a temporary file during a profiled materialisation instead of the
+	 * file set with {@link #setLogFile(String)}.
+	 */
+	@Override
+	public void setRuleProfiling(final boolean ruleProfiling) {
+		this.validateNotClosed();
+		this.ruleProfiling = ruleProfiling;
+	}
+
+	@Override
+	public boolean isRuleProfiling() {
+		return this.ruleProfiling;
+	}
+
+	@Override
+	public void setRelevantPredicates(final Collection<Predicate> predicates) {
+		this.validateNotClosed();
+		if (predicates == null) {
+			this.relevantPredicates = null;
+		} else {
+			Validate.noNullElements(predicates, "Relevant predicates cannot be null!");
+			this.relevantPredicates = Collections.unmodifiableSet(new HashSet<>(predicates));
+		}
+		this.updateReasonerToKnowledgeBaseChanged();
+		this.updateCorrectnessOnStatementsAdded();
+	}
+
+	@Override
+	public Set<Predicate> getRelevantPredicates() {
+		return this.relevantPredicates;
+	}
+
 	@Override
 	public Correctness getCorrectness() {
 		return this.correctness;
 	}
 
-	/*
-	 * TODO Due to automatic predicate renaming, it can happen that an EDB predicate
-	 * cannot be queried after loading unless reasoning has already been invoked
-	 * (since the auxiliary rule that imports the EDB facts to the "real" predicate
-	 * must be used). This issue could be weakened by rewriting queries to
-	 * (single-source) EDB predicates internally when in such a state.
+	/**
+	 * Enables caching of the results of {@link #answerQuery(PositiveLiteral, boolean)}
+	 * and {@link #countQueryAnswers(PositiveLiteral, boolean)}, so that repeated
+	 * queries between reasoning runs are answered from memory. The cache is
+	 * emptied whenever the knowledge base changes, the reasoner is reset, or
+	 * reasoning is performed.
+	 *
+	 * @param maximumSize the maximal estimated size of cached answers in bytes, or
+	 *                    0 to disable caching (default)
+	 */
+	public void setQueryResultCacheSize(final long maximumSize) {
+		this.validateNotClosed();
+		Validate.isTrue(maximumSize >= 0, "Cache size cannot be negative!");
+		this.queryResultCache = maximumSize == 0 ? null : new QueryResultCache(maximumSize);
+	}
+
+	/**
+	 * Returns the query result cache, which provides statistics about cache hits
+	 * and misses.
+	 *
+	 * @return the cache, or {@code null} if caching is disabled
+	 */
+	public QueryResultCache getQueryResultCache() {
+		return this.queryResultCache;
+	}
+
+	/**
+	 * Enables or disables prefetching of query results. With prefetching, the
+	 * results of {@link #answerQuery(PositiveLiteral, boolean)} are fetched from
+	 * VLog and converted to terms by a background thread while the previous
+	 * results are consumed, which speeds up reading many results on multi-core
+	 * machines. Since VLog does not support concurrent calls, the reasoner must
+	 * not be used otherwise while such an iterator is open, and iterators must be
+	 * closed before the reasoner is reset or closed. Prefetching is disabled by
+	 * default.
+	 *
+	 * @param queryResultPrefetching whether query results are prefetched
+	 */
+	public void setQueryResultPrefetching(final boolean queryResultPrefetching) {
+		this.validateNotClosed();
+		this.queryResultPrefetching = queryResultPrefetching;
+	}
+
+	/**
+	 * @return whether query results are prefetched in the background
+	 */
+	public boolean isQueryResultPrefetching() {
+		return this.queryResultPrefetching;
+	}
+
+	private void invalidateQueryResults() {
+		this.queryCursors.invalidate();
+		if (this.queryResultCache != null) {
+			this.queryResultCache.invalidate();
+		}
+	}
+
+	/**
+	 * Loads the knowledge base without reasoning, so that its facts and data
+	 * sources can be queried without materialising the inferences of its rules.
+	 * Queries over predicates with several data sources, or with both facts and
+	 * rules, are answered from their aliases (internal predicates that hold the
+	 * facts of each source) in this state, since their facts are only copied to
+	 * the predicate itself by reasoning. Answers are complete if the knowledge base
+	 * has no rules, and otherwise only contain the asserted facts.
+	 *
+	 * @throws IOException if an I/O error occurs related to the resources in the
+	 *                     knowledge base to be loaded.
 	 */
 	void load() throws IOException {
 		this.validateNotClosed();
@@ -179,8 +426,18 @@ public class VLogReasoner implements Reasoner {
 
 	void loadKnowledgeBase() throws IOException {
 		LOGGER.info("Started loading knowledge base ...");
-
-		final VLogKnowledgeBase vLogKB = new VLogKnowledgeBase(this.knowledgeBase);
+		final LoadKnowledgeBaseEvent event = new LoadKnowledgeBaseEvent();
+		event.begin();
+		final long loadingStart = System.nanoTime();
+		this.conversionTime = 0;
+		this.materialisationTime = 0;
+
+		this.loadedPredicates = this.computeLoadedPredicates();
+		if (this.loadedPredicates != null) {
+			LOGGER.info("Loading only the part of the knowledge base relevant for {} predicates.",
+					this.loadedPredicates.size());
+		}
+		final VLogKnowledgeBase vLogKB = new VLogKnowledgeBase(this.knowledgeBase, this.loadedPredicates);
 
 		if (!vLogKB.hasData()) {
 			LOGGER.warn("No data statements (facts or datasource declarations) have been provided.");
@@ -188,25 +445,57 @@ public class VLogReasoner implements Reasoner {
 
 		// 1. vLog is initialized by loading VLog data sources
 		this.loadVLogDataSources(vLogKB);
-
-		// 2. in-memory data is loaded
-		this.loadInMemoryDataSources(vLogKB);
 		this.validateDataSourcePredicateArities(vLogKB);
 
+		// 2. in-memory data (facts and in-memory data sources) is loaded
 		this.loadFacts(vLogKB);
 
 		// 3. rules are loaded
 		this.loadRules(vLogKB);
+		this.updateCyclicityChecker(vLogKB);
 
 		this.reasonerState = ReasonerState.KB_LOADED;
-
-		// if there are no rules, then materialisation state is complete
-		this.correctness = !vLogKB.hasRules() ? Correctness.SOUND_AND_COMPLETE : Correctness.SOUND_BUT_INCOMPLETE;
-
+		this.assertedFactPredicates = vLogKB.getAssertedFactPredicates();
+		this.edbSourcePredicates = new HashMap<>();
+		this.assertedFactPredicates.forEach((predicate, vLogPredicates) -> {
+			if (!vLogPredicates.isEmpty() && !vLogPredicates.equals(Collections.singletonList(predicate))) {
+				this.edbSourcePredicates.put(predicate, vLogPredicates);
+			}
+		});
+		this.loadingTime = System.nanoTime() - loadingStart;
+
+		// if there are no rules, then materialisation state is complete, since
+		// queries are rewritten to the aliases of predicates
+		this.correctness = !vLogKB.hasKnowledgeBaseRules() ? Correctness.SOUND_AND_COMPLETE
+				: Correctness.SOUND_BUT_INCOMPLETE;
+
+		if (event.shouldCommit()) {
+			event.predicates = this.assertedFactPredicates.size();
+			event.facts = vLogKB.getDirectEdbFacts().values().stream().mapToInt(List::size).sum();
+			event.rules = vLogKB.getRules().size();
+			event.commit();
+		}
 		LOGGER.info("Finished loading knowledge base.");
 	}
 
+	/**
+	 * Computes the predicates whose extensions need to be loaded to answer queries
+	 * over {@link #relevantPredicates}.
+	 *
+	 * @return the predicates to load, or {@code null} if the whole knowledge base
+	 *         needs to be loaded
+	 */
+	private Set<Predicate> computeLoadedPredicates() {
+		if (this.relevantPredicates == null) {
+			return null;
+		}
+		return new PredicateDependencyGraph(this.knowledgeBase.getRules())
+				.getRelevantPredicates(this.relevantPredicates);
+	}
+
 	void loadVLogDataSources(final VLogKnowledgeBase vLogKB) throws IOException {
+		final LoadDataSourcesEvent event = new LoadDataSourcesEvent();
+		event.begin();
 		try {
 			this.vLog.start(vLogKB.getVLogDataSourcesConfigurationString(), false);
 		} catch (final AlreadyStartedException e) {
@@ -214,37 +503,8 @@ public class VLogReasoner implements Reasoner {
 		} catch (final EDBConfigurationException e) {
 			throw new RulewerkRuntimeException("Invalid data sources configuration.", e);
 		}
-	}
-
-	void loadInMemoryDataSources(final VLogKnowledgeBase vLogKB) {
-		vLogKB.getEdbPredicates().forEach((k, v) -> this.loadInMemoryDataSource(v.getDataSource(), k));
-
-		vLogKB.getAliasesForEdbPredicates().forEach((k, v) -> this.loadInMemoryDataSource(k.getDataSource(), v));
-	}
-
-	void loadInMemoryDataSource(final DataSource dataSource, final Predicate predicate) {
-		if (dataSource instanceof VLogInMemoryDataSource) {
-
-			final VLogInMemoryDataSource inMemoryDataSource = (VLogInMemoryDataSource) dataSource;
-			try {
-				this.load(predicate, inMemoryDataSource);
-			} catch (final EDBConfigurationException e) {
-				throw new RulewerkRuntimeException("Invalid data sources configuration!", e);
-			}
-		}
-	}
-
-	void load(final Predicate predicate, final VLogInMemoryDataSource inMemoryDataSource)
-			throws EDBConfigurationException {
-		final String vLogPredicateName = ModelToVLogConverter.toVLogPredicate(predicate);
-
-		this.vLog.addData(vLogPredicateName, inMemoryDataSource.getData());
-
-		if (LOGGER.isDebugEnabled()) {
-			for (final String[] tuple : inMemoryDataSource.getData()) {
-				LOGGER.debug("Loaded direct fact {}{}.", vLogPredicateName, Arrays.toString(tuple));
-			}
-		}
+		event.tables = vLogKB.getEdbPredicates().size() + vLogKB.getAliasesForEdbPredicates().size();
+		event.commit();
 	}
 
 	/**
@@ -290,30 +550,105 @@ public class VLogReasoner implements Reasoner {
 		}
 	}
 
+	/**
+	 * Loads the facts and the data of in-memory data sources. All in-memory data
+	 * of one predicate is loaded into a single VLog table, since VLog replaces the
+	 * table of a predicate whenever new data is added for it. The facts of all
+	 * predicates are converted by one pool of {@link #getNumberOfThreads()}
+	 * threads.
+	 */
 	void loadFacts(final VLogKnowledgeBase vLogKB) {
-		final Map<Predicate, List<Fact>> directEdbFacts = vLogKB.getDirectEdbFacts();
+		final Set<Predicate> predicates = new HashSet<>(vLogKB.getDirectEdbFacts().keySet());
+		predicates.addAll(vLogKB.getInMemoryDataSources().keySet());
 
-		directEdbFacts.forEach((k, v) -> {
-			try {
-				final String vLogPredicateName = ModelToVLogConverter.toVLogPredicate(vLogKB.getAlias(k));
-				final String[][] vLogPredicateTuples = ModelToVLogConverter.toVLogFactTuples(v);
+		final ForkJoinPool conversionPool = this.numberOfThreads > 1 ? new ForkJoinPool(this.numberOfThreads) : null;
+		try {
+			for (final Predicate predicate : predicates) {
+				this.loadFacts(predicate, vLogKB, conversionPool);
+			}
+		} finally {
+			if (conversionPool != null) {
+				conversionPool.shutdown();
+			}
+		}
+	}
+
+	private void loadFacts(final Predicate predicate, final VLogKnowledgeBase vLogKB,
+			final ForkJoinPool conversionPool) {
+		final LoadFactsEvent event = new LoadFactsEvent();
+		event.begin();
+		try {
+			final String vLogPredicateName = ModelToVLogConverter.toVLogPredicate(vLogKB.getAlias(predicate));
+			final long conversionStart = System.nanoTime();
+			final String[][] vLogPredicateTuples = this.collectInMemoryTuples(predicate, vLogKB, conversionPool);
+			this.conversionTime += System.nanoTime() - conversionStart;
 
-				this.vLog.addData(vLogPredicateName, vLogPredicateTuples);
+			this.vLog.addData(vLogPredicateName, vLogPredicateTuples);
 
-				if (LOGGER.isDebugEnabled()) {
-					for (final String[] tuple : vLogPredicateTuples) {
-						LOGGER.debug("Loaded direct fact {}{}.", vLogPredicateName, Arrays.toString(tuple));
-					}
+			if (LOGGER.isDebugEnabled()) {
+				for (final String[] tuple : vLogPredicateTuples) {
+					LOGGER.debug("Loaded direct fact {}{}.", vLogPredicateName, Arrays.toString(tuple));
 				}
-			} catch (final EDBConfigurationException e) {
-				throw new RulewerkRuntimeException("Invalid data sources configuration!", e);
 			}
+			if (event.shouldCommit()) {
+				event.predicate = predicate.toString();
+				event.facts = vLogPredicateTuples.length;
+				event.commit();
+			}
+		} catch (final EDBConfigurationException e) {
+			throw new RulewerkRuntimeException("Invalid data sources configuration!", e);
+		}
+	}
 
-		});
+	/**
+	 * Collects the facts and the data of all in-memory data sources of the given
+	 * predicate in one array of VLog tuples. Facts are converted directly into
+	 * this array, in parallel chunks (see
+	 * {@link ModelToVLogConverter#toVLogFactTuples(List, String[][], int, ForkJoinPool)}).
+	 *
+	 * @param conversionPool pool that converts the facts, or {@code null} to
+	 *                       convert them on the calling thread
+	 * @throws IncompatiblePredicateArityException if an in-memory data source
+	 *                                             holds tuples of the wrong arity
+	 */
+	String[][] collectInMemoryTuples(final Predicate predicate, final VLogKnowledgeBase vLogKB,
+			final ForkJoinPool conversionPool) throws IncompatiblePredicateArityException {
+		final List<Fact> facts = vLogKB.getDirectEdbFacts().getOrDefault(predicate, Collections.emptyList());
+		final List<String[][]> dataSourceTuples = new ArrayList<>();
+		int size = facts.size();
+		for (final VLogInMemoryDataSource dataSource : vLogKB.getInMemoryDataSources().getOrDefault(predicate,
+				Collections.emptyList())) {
+			final String[][] data = dataSource.getData();
+			if (data.length == 0) {
+				LOGGER.warn("Data source {} for predicate {} is empty! ", dataSource, predicate);
+			} else if (data[0].length != predicate.getArity()) {
+				throw new IncompatiblePredicateArityException(predicate, data[0].length, dataSource);
+			}
+			dataSourceTuples.add(data);
+			size += data.length;
+		}
+
+		if (facts.isEmpty() && dataSourceTuples.size() == 1) {
+			return dataSourceTuples.get(0);
+		}
+		final String[][] tuples = new String[size][];
+		ModelToVLogConverter.toVLogFactTuples(facts, tuples, 0, conversionPool);
+		int offset = facts.size();
+		for (final String[][] data : dataSourceTuples) {
+			System.arraycopy(data, 0, tuples, offset, data.length);
+			offset += data.length;
+		}
+		return tuples;
 	}
 
 	void loadRules(final VLogKnowledgeBase vLogKB) {
-		final karmaresearch.vlog.Rule[] vLogRuleArray = ModelToVLogConverter.toVLogRuleArray(vLogKB.getRules());
+		final SetRulesEvent event = new SetRulesEvent();
+		event.begin();
+		final long conversionStart = System.nanoTime();
+		final List<Rule> rules = new ArrayList<>(vLogKB.getRules());
+		final karmaresearch.vlog.Rule[] vLogRuleArray = ModelToVLogConverter.toVLogRuleArray(rules);
+		this.conversionTime += System.nanoTime() - conversionStart;
+		this.ruleProfiler = new VLogRuleProfiler(rules, vLogRuleArray);
 		final karmaresearch.vlog.VLog.RuleRewriteStrategy vLogRuleRewriteStrategy = ModelToVLogConverter
 				.toVLogRuleRewriteStrategy(this.ruleRewriteStrategy);
 		try {
@@ -326,6 +661,8 @@ public class VLogReasoner implements Reasoner {
 		} catch (final NotStartedException e) {
 			throw new RulewerkRuntimeException("Inconsistent reasoner state!", e);
 		}
+		event.rules = vLogRuleArray.length;
+		event.commit();
 	}
 
 	@Override
@@ -355,11 +692,18 @@ public class VLogReasoner implements Reasoner {
 		return this.reasoningCompleted;
 	}
 
-	private void runChase() {
+	private void runChase() throws IOException {
 		LOGGER.info("Started materialisation of inferences ...");
 		this.reasonerState = ReasonerState.MATERIALISED;
+		this.edbSourcePredicates = Collections.emptyMap();
+		this.invalidateQueryResults();
 
 		final boolean skolemChase = this.algorithm == Algorithm.SKOLEM_CHASE;
+		this.ruleStatistics = Collections.emptyList();
+		final Path profileLogFile = this.ruleProfiling ? this.startRuleProfiling() : null;
+		final MaterialiseEvent event = new MaterialiseEvent();
+		event.begin();
+		final long materialisationStart = System.nanoTime();
 		try {
 			if (this.timeoutAfterSeconds == null) {
 				this.vLog.materialize(skolemChase);
@@ -371,7 +715,15 @@ public class VLogReasoner implements Reasoner {
 			throw new RulewerkRuntimeException("Inconsistent reasoner state.", e);
 		} catch (final MaterializationException e) {
 			throw new RulewerkRuntimeException("VLog encounterd an error during materialization: " + e.getMessage(), e);
+		} finally {
+			this.materialisationTime = System.nanoTime() - materialisationStart;
+			if (profileLogFile != null) {
+				this.stopRuleProfiling(profileLogFile);
+			}
 		}
+		event.algorithm = this.algorithm.name();
+		event.completed = this.reasoningCompleted;
+		event.commit();
 
 		if (this.reasoningCompleted) {
 			this.correctness = Correctness.SOUND_AND_COMPLETE;
@@ -382,12 +734,100 @@ public class VLogReasoner implements Reasoner {
 		}
 	}
 
+	private Path startRuleProfiling() throws IOException {
+		final Path profileLogFile = Files.createTempFile("rulewerk-profile", ".log");
+		this.vLog.setLogFile(profileLogFile.toString());
+		this.vLog.setLogLevel(karmaresearch.vlog.VLog.LogLevel.DEBUG);
+		return profileLogFile;
+	}
+
+	private void stopRuleProfiling(final Path profileLogFile) throws IOException {
+		this.vLog.setLogLevel(ModelToVLogConverter.toVLogLogLevel(this.internalLogLevel));
+		this.vLog.setLogFile(this.logFile);
+		try (BufferedReader reader = Files.newBufferedReader(profileLogFile, StandardCharsets.UTF_8)) {
+			this.ruleStatistics = this.ruleProfiler.readProfile(reader);
+		} finally {
+			Files.deleteIfExists(profileLogFile);
+		}
+	}
+
+	@Override
+	public ReasoningStatistics getReasoningStatistics() {
+		this.validateNotClosed();
+		final Map<Predicate, Long> factCounts = new HashMap<>();
+		final Map<Predicate, Long> assertedFactCounts = new HashMap<>();
+		// VLog can only be queried after materialisation
+		if (this.reasonerState == ReasonerState.MATERIALISED) {
+			this.assertedFactPredicates.forEach((predicate, vLogPredicates) -> {
+				factCounts.put(predicate, this.countVLogFacts(predicate));
+				long assertedFactCount = 0;
+				for (final Predicate vLogPredicate : vLogPredicates) {
+					assertedFactCount += this.countVLogFacts(vLogPredicate);
+				}
+				assertedFactCounts.put(predicate, assertedFactCount);
+			});
+		}
+		return new ReasoningStatisticsImpl(this.loadingTime / 1000000, this.conversionTime / 1000000,
+				this.materialisationTime / 1000000, factCounts, assertedFactCounts,
+				Timer.getProcessPeakResidentSetSize(), this.ruleStatistics,
+				this.getCyclicityCheckTimes());
+	}
+
+	private Map<String, Long> getCyclicityCheckTimes() {
+		final Map<String, Long> cyclicityCheckTimes = new HashMap<>();
+		if (this.cyclicityChecker != null) {
+			this.cyclicityChecker.getCheckTimes()
+					.forEach((notion, time) -> cyclicityCheckTimes.put(notion, time / 1000000));
+		}
+		return cyclicityCheckTimes;
+	}
+
+	/**
+	 * Counts the facts that VLog currently holds for the given (possibly
+	 * internal) predicate, including facts with nulls.
+	 */
+	private long countVLogFacts(final Predicate predicate) {
+		try {
+			return this.vLog.querySize(ModelToVLogConverter.toVLogAtom(this.getQueryAtom(predicate)), true, false);
+		} catch (final NotStartedException e) {
+			throw new RulewerkRuntimeException("Inconsistent reasoner state.", e);
+		} catch (final NonExistingPredicateException e) {
+			return 0;
+		}
+	}
+
 	@Override
 	public QueryResultIterator answerQuery(PositiveLiteral query, boolean includeNulls) {
+		final QueryEvent event = new QueryEvent();
+		event.begin();
+		final QueryResultIterator answers = this.doAnswerQuery(query, includeNulls);
+		if (event.shouldCommit()) {
+			event.query = query.toString();
+			event.includeNulls = includeNulls;
+			event.commit();
+		}
+		return answers;
+	}
+
+	private QueryResultIterator doAnswerQuery(final PositiveLiteral query, final boolean includeNulls) {
 		this.validateBeforeQuerying(query);
 
+		if (this.queryResultCache != null) {
+			final QueryResultIterator cachedAnswers = this.queryResultCache.getAnswers(query, includeNulls);
+			if (cachedAnswers != null) {
+				this.logWarningOnCorrectness(cachedAnswers.getCorrectness());
+				return cachedAnswers;
+			}
+		}
+
+		final List<PositiveLiteral> edbSourceAtoms = this.getEdbSourceAtoms(query);
+		if (edbSourceAtoms != null && edbSourceAtoms.size() > 1) {
+			return this.answerEdbSourcesQuery(query, includeNulls);
+		}
+
 		final boolean filterBlanks = !includeNulls;
-		final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter.toVLogAtom(query);
+		final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter
+				.toVLogAtom(edbSourceAtoms != null ? edbSourceAtoms.get(0) : query);
 
 		final karmaresearch.vlog.QueryResultIterator queryResultIterator;
 
@@ -402,7 +842,410 @@ public class VLogReasoner implements Reasoner {
 		}
 
 		this.logWarningOnCorrectness(this.correctness);
-		return new VLogFastQueryResultIterator(queryResultIterator, this.correctness, this.vLog);
+		final QueryResultIterator answers;
+		if (this.queryResultPrefetching) {
+			answers = new PrefetchingQueryResultIterator(queryResultIterator, this.correctness, this.vLog);
+		} else {
+			answers = new VLogFastQueryResultIterator(queryResultIterator, this.correctness, this.vLog);
+		}
+		if (this.queryResultCache != null) {
+			return this.queryResultCache.cacheAnswers(query, includeNulls, answers);
+		}
+		return answers;
+	}
+
+	/**
+	 * Returns the atoms over the aliases that hold the asserted facts of the
+	 * predicate of the given query, if the query has to be rewritten to them
+	 * because the knowledge base has not been materialised yet.
+	 *
+	 * @param query an atomic query
+	 * @return the atoms over the aliases of the query predicate, or {@code null}
+	 *         if the query can be evaluated directly
+	 */
+	private List<PositiveLiteral> getEdbSourceAtoms(final PositiveLiteral query) {
+		final List<Predicate> vLogPredicates = this.edbSourcePredicates.get(query.getPredicate());
+		if (vLogPredicates == null) {
+			return null;
+		}
+		final List<PositiveLiteral> edbSourceAtoms = new ArrayList<>(vLogPredicates.size());
+		for (final Predicate vLogPredicate : vLogPredicates) {
+			edbSourceAtoms.add(Expressions.makePositiveLiteral(vLogPredicate, query.getArguments()));
+		}
+		return edbSourceAtoms;
+	}
+
+	/**
+	 * Answers a query over a predicate with several aliases by the union of the
+	 * answers over the aliases, without duplicates. The answers are read lazily
+	 * from VLog, see {@link VLogTupleSource#iterateEdbSourceTuples}.
+	 */
+	private QueryResultIterator answerEdbSourcesQuery(final PositiveLiteral query, final boolean includeNulls) {
+		final VLogTupleSource tupleSource = new VLogTupleSource();
+		final TupleIterator tuples = tupleSource.iterateTuples(query, includeNulls);
+		if (tupleSource.unknownPredicateQuery != null) {
+			tuples.close();
+			return this.createEmptyResultIterator(query);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		final Correctness answerCorrectness = this.correctness;
+		final QueryResultIterator answers = new QueryResultIterator() {
+			@Override
+			public boolean hasNext() {
+				return tuples.hasNext();
+			}
+
+			@Override
+			public QueryResult next() {
+				return new QueryResultImpl(tupleSource.getTerms(tuples.next()));
+			}
+
+			@Override
+			public Correctness getCorrectness() {
+				return answerCorrectness;
+			}
+
+			@Override
+			public void close() {
+				tuples.close();
+			}
+		};
+		if (this.queryResultCache != null) {
+			return this.queryResultCache.cacheAnswers(query, includeNulls, answers);
+		}
+		return answers;
+	}
+
+	@Override
+	public QueryResultIterator answerQuery(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls) {
+		this.validateBeforeQuerying(query);
+
+		final VLogTupleSource tupleSource = new VLogTupleSource();
+		final QueryResultIterator answers = new ProjectionQueryEvaluator(tupleSource).answer(query, answerVariables,
+				distinct, orderVariables, includeNulls, this.correctness);
+		if (tupleSource.unknownPredicateQuery != null) {
+			answers.close();
+			return this.createEmptyResultIterator(query);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return answers;
+	}
+
+	@Override
+	public QueryResultPublisher answerQueryAsync(final PositiveLiteral query, final boolean includeNulls) {
+		return this.answerQueryAsync(query, includeNulls, this.getQueryExecutor());
+	}
+
+	@Override
+	public QueryResultPublisher answerQueryAsync(final PositiveLiteral query, final boolean includeNulls,
+			final Executor executor) {
+		this.validateBeforeQuerying(query);
+		final QueryResultIteratorPublisher publisher = new QueryResultIteratorPublisher(
+				() -> this.answerQuery(query, includeNulls), executor, this.correctness);
+		this.queryPublishers.add(publisher);
+		return publisher;
+	}
+
+	private synchronized ExecutorService getQueryExecutor() {
+		if (this.queryExecutor == null) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			this.queryExecutor = Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, "rulewerk-query-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.queryExecutor;
+	}
+
+	@Override
+	public QueryResultPage answerQueryPage(final PositiveLiteral query, final List<Variable> answerVariables,
+			final boolean distinct, final List<Variable> orderVariables, final boolean includeNulls,
+			final int pageSize) {
+		Validate.isTrue(pageSize > 0, "Page size must be positive!");
+		return this.queryCursors.getFirstPage(
+				this.answerQuery(query, answerVariables, distinct, orderVariables, includeNulls), pageSize);
+	}
+
+	@Override
+	public QueryResultPage getNextQueryResultPage(final String cursor, final int pageSize) {
+		this.validateNotClosed();
+		return this.queryCursors.getNextPage(cursor, pageSize);
+	}
+
+	@Override
+	public QueryResultIterator answerQueryGoalDirected(final PositiveLiteral query, final boolean includeNulls)
+			throws IOException {
+		this.validateNotClosed();
+		Validate.notNull(query, "Query atom must not be null!");
+
+		final MagicSetsRewriting rewriting = new MagicSetsRewriting(this.knowledgeBase, query);
+		final VLogReasoner goalDirectedReasoner = new VLogReasoner(rewriting.getKnowledgeBase());
+		try {
+			goalDirectedReasoner.setAlgorithm(this.algorithm);
+			goalDirectedReasoner.setReasoningTimeout(this.timeoutAfterSeconds);
+			goalDirectedReasoner.setRuleRewriteStrategy(this.ruleRewriteStrategy);
+			goalDirectedReasoner.setLogLevel(this.internalLogLevel);
+			LOGGER.info("Started goal-directed materialisation for query {} using {} rewritten rules ...", query,
+					rewriting.getRules().size());
+			goalDirectedReasoner.reason();
+			return new ClosingQueryResultIterator(goalDirectedReasoner.answerQuery(rewriting.getQuery(), includeNulls),
+					goalDirectedReasoner);
+		} catch (IOException | RuntimeException e) {
+			goalDirectedReasoner.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public QueryResultIterator answerConjunctiveQuery(final Conjunction<PositiveLiteral> query,
+			final List<Variable> answerVariables, final boolean includeNulls) {
+		this.validateNotClosed();
+		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
+			throw new ReasonerStateException(this.reasonerState,
+					"Querying is not allowed before Reasoner#reason() was first called!");
+		}
+		Validate.notNull(query, "Query must not be null!");
+
+		final VLogTupleSource tupleSource = new VLogTupleSource();
+		final QueryResultIterator answers = new ConjunctiveQueryEvaluator(tupleSource).answer(query, answerVariables,
+				includeNulls, this.correctness);
+		if (tupleSource.unknownPredicateQuery != null) {
+			final Correctness answerCorrectness = this.getCorrectnessUnknownPredicate(tupleSource.unknownPredicateQuery);
+			this.logWarningOnCorrectness(answerCorrectness);
+			return new EmptyQueryResultIterator(answerCorrectness);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return answers;
+	}
+
+	@Override
+	public QueryResultIterator answerAggregateQuery(final PositiveLiteral query, final List<Variable> groupVariables,
+			final List<Aggregate> aggregates, final boolean includeNulls) {
+		this.validateNotClosed();
+		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
+			throw new ReasonerStateException(this.reasonerState,
+					"Querying is not allowed before Reasoner#reason() was first called!");
+		}
+		Validate.notNull(query, "Query atom must not be null!");
+
+		final VLogTupleSource tupleSource = new VLogTupleSource();
+		final QueryResultIterator answers = new AggregateQueryEvaluator(tupleSource).answer(query, groupVariables,
+				aggregates, includeNulls, this.correctness);
+		if (tupleSource.unknownPredicateQuery != null) {
+			answers.close();
+			final Correctness answerCorrectness = this.getCorrectnessUnknownPredicate(query);
+			this.logWarningOnCorrectness(answerCorrectness);
+			return new EmptyQueryResultIterator(answerCorrectness);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return answers;
+	}
+
+	/**
+	 * {@link ConjunctiveQueryEvaluator.TupleSource} that evaluates atoms directly
+	 * on VLog, so that joins are computed on VLog term ids.
+	 */
+	private class VLogTupleSource implements ConjunctiveQueryEvaluator.TupleSource {
+
+		/**
+		 * An atom of the query whose predicate is unknown to VLog, if any.
+		 */
+		PositiveLiteral unknownPredicateQuery;
+
+		@Override
+		public long count(final PositiveLiteral atom) {
+			final List<PositiveLiteral> edbSourceAtoms = VLogReasoner.this.getEdbSourceAtoms(atom);
+			if (edbSourceAtoms != null) {
+				if (edbSourceAtoms.size() == 1) {
+					return this.count(edbSourceAtoms.get(0));
+				}
+				final long[] count = new long[1];
+				this.forEachTuple(atom, true, tuple -> count[0]++);
+				return count[0];
+			}
+			try {
+				return VLogReasoner.this.vLog.querySize(ModelToVLogConverter.toVLogAtom(atom), true, false);
+			} catch (final NotStartedException e) {
+				throw new RulewerkRuntimeException("Inconsistent reasoner state.", e);
+			} catch (final NonExistingPredicateException e) {
+				this.unknownPredicateQuery = atom;
+				return 0;
+			}
+		}
+
+		@Override
+		public void forEachTuple(final PositiveLiteral atom, final Consumer<long[]> action) {
+			this.forEachTuple(atom, true, action);
+		}
+
+		@Override
+		public void forEachTuple(final PositiveLiteral atom, final boolean includeNulls,
+				final Consumer<long[]> action) {
+			final List<PositiveLiteral> edbSourceAtoms = VLogReasoner.this.getEdbSourceAtoms(atom);
+			if (edbSourceAtoms != null) {
+				try (final TupleIterator tuples = this.iterateEdbSourceTuples(atom, edbSourceAtoms, includeNulls)) {
+					while (tuples.hasNext()) {
+						action.accept(tuples.next());
+					}
+				}
+				return;
+			}
+			final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter.toVLogAtom(atom);
+			try {
+				final int predicateId = VLogReasoner.this.vLog.getPredicateId(vLogAtom.getPredicate());
+				final long[] terms = VLogReasoner.this.extractTerms(vLogAtom.getTerms());
+				try (final karmaresearch.vlog.QueryResultIterator tuples = VLogReasoner.this.vLog.query(predicateId,
+						terms, true, !includeNulls)) {
+					while (tuples.hasNext()) {
+						action.accept(tuples.next());
+					}
+				}
+			} catch (final NotStartedException e) {
+				throw new RulewerkRuntimeException("Inconsistent reasoner state.", e);
+			} catch (final NonExistingPredicateException e) {
+				this.unknownPredicateQuery = atom;
+			}
+		}
+
+		/**
+		 * Iterates over the union of the answers over the given aliases, without
+		 * duplicates. The aliases are read one after the other. If more than one of
+		 * them has answers, the tuples of all but the last of these are recorded in
+		 * a {@link LongTupleHashSet} to skip duplicates. As for queries over a
+		 * single predicate, the tuples of each alias are assumed to be distinct.
+		 * Aliases that are unknown to VLog are skipped; the query is only
+		 * considered unknown if all of them are.
+		 */
+		private TupleIterator iterateEdbSourceTuples(final PositiveLiteral atom,
+				final List<PositiveLiteral> edbSourceAtoms, final boolean includeNulls) {
+			final List<karmaresearch.vlog.QueryResultIterator> sources = new ArrayList<>(edbSourceAtoms.size());
+			boolean known = false;
+			try {
+				final long[] terms = VLogReasoner.this.extractTerms(ModelToVLogConverter.toVLogAtom(atom).getTerms());
+				for (final PositiveLiteral edbSourceAtom : edbSourceAtoms) {
+					final int predicateId = VLogReasoner.this.vLog
+							.getPredicateId(ModelToVLogConverter.toVLogPredicate(edbSourceAtom.getPredicate()));
+					if (predicateId < 0) {
+						// aliases are only known to VLog if facts have been loaded for them
+						continue;
+					}
+					final karmaresearch.vlog.QueryResultIterator tuples;
+					try {
+						tuples = VLogReasoner.this.vLog.query(predicateId, terms, true, !includeNulls);
+					} catch (final NonExistingPredicateException e) {
+						continue;
+					}
+					known = true;
+					if (tuples.hasNext()) {
+						sources.add(tuples);
+					} else {
+						tuples.close();
+					}
+				}
+			} catch (final NotStartedException e) {
+				sources.forEach(karmaresearch.vlog.QueryResultIterator::close);
+				throw new RulewerkRuntimeException("Inconsistent reasoner state.", e);
+			}
+			if (!known) {
+				this.unknownPredicateQuery = atom;
+			}
+
+			return new TupleIterator() {
+				private int source;
+				private final LongTupleHashSet seenTuples = sources.size() > 1
+						? new LongTupleHashSet(atom.getArguments().size())
+						: null;
+				private long[] next;
+
+				@Override
+				public boolean hasNext() {
+					while (this.next == null && this.source < sources.size()) {
+						final karmaresearch.vlog.QueryResultIterator tuples = sources.get(this.source);
+						if (!tuples.hasNext()) {
+							tuples.close();
+							this.source++;
+						} else if (this.seenTuples == null) {
+							this.next = tuples.next();
+						} else {
+							final long[] tuple = tuples.next();
+							if (this.source + 1 < sources.size() ? this.seenTuples.add(tuple)
+									: !this.seenTuples.contains(tuple)) {
+								this.next = tuple;
+							}
+						}
+					}
+					return this.next != null;
+				}
+
+				@Override
+				public long[] next() {
+					if (!this.hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final long[] tuple = this.next;
+					this.next = null;
+					return tuple;
+				}
+
+				@Override
+				public void close() {
+					for (; this.source < sources.size(); this.source++) {
+						sources.get(this.source).close();
+					}
+				}
+			};
+		}
+
+		@Override
+		public TupleIterator iterateTuples(final PositiveLiteral atom, final boolean includeNulls) {
+			final List<PositiveLiteral> edbSourceAtoms = VLogReasoner.this.getEdbSourceAtoms(atom);
+			if (edbSourceAtoms != null) {
+				return this.iterateEdbSourceTuples(atom, edbSourceAtoms, includeNulls);
+			}
+			final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter.toVLogAtom(atom);
+			final karmaresearch.vlog.QueryResultIterator tuples;
+			try {
+				final int predicateId = VLogReasoner.this.vLog.getPredicateId(vLogAtom.getPredicate());
+				final long[] terms = VLogReasoner.this.extractTerms(vLogAtom.getTerms());
+				tuples = VLogReasoner.this.vLog.query(predicateId, terms, true, !includeNulls);
+			} catch (final NotStartedException e) {
+				throw new RulewerkRuntimeException("Inconsistent reasoner state.", e);
+			} catch (final NonExistingPredicateException e) {
+				this.unknownPredicateQuery = atom;
+				return ConjunctiveQueryEvaluator.TupleSource.super.iterateTuples(atom, includeNulls);
+			}
+			return new TupleIterator() {
+				@Override
+				public boolean hasNext() {
+					return tuples.hasNext();
+				}
+
+				@Override
+				public long[] next() {
+					return tuples.next();
+				}
+
+				@Override
+				public void close() {
+					tuples.close();
+				}
+			};
+		}
+
+		@Override
+		public Term getTerm(final long id) {
+			return VLogFastQueryResultIterator.computeTerm(id, VLogReasoner.this.vLog);
+		}
+
+		List<Term> getTerms(final long[] tuple) {
+			final List<Term> terms = new ArrayList<>(tuple.length);
+			for (final long id : tuple) {
+				terms.add(this.getTerm(id));
+			}
+			return terms;
+		}
 	}
 
 	private QueryResultIterator createEmptyResultIterator(final PositiveLiteral query) {
@@ -413,7 +1256,11 @@ public class VLogReasoner implements Reasoner {
 
 	private Correctness getCorrectnessUnknownPredicate(final PositiveLiteral query) {
 		final Correctness answerCorrectness;
-		if (this.reasonerState == ReasonerState.MATERIALISED) {
+		if (this.loadedPredicates != null && !this.loadedPredicates.contains(query.getPredicate())) {
+			LOGGER.warn("Query uses predicate " + query.getPredicate()
+					+ " that is not relevant for the predicates set with Reasoner#setRelevantPredicates. Answers may be incomplete!");
+			answerCorrectness = Correctness.SOUND_BUT_INCOMPLETE;
+		} else if (this.reasonerState == ReasonerState.MATERIALISED) {
 			this.warnUnknownPredicate(query);
 			answerCorrectness = Correctness.SOUND_AND_COMPLETE;
 		} else {
@@ -462,10 +1309,37 @@ public class VLogReasoner implements Reasoner {
 
 	@Override
 	public QueryAnswerCount countQueryAnswers(PositiveLiteral query, boolean includeNulls) {
+		final CountQueryAnswersEvent event = new CountQueryAnswersEvent();
+		event.begin();
+		final QueryAnswerCount count = this.doCountQueryAnswers(query, includeNulls);
+		if (event.shouldCommit()) {
+			event.query = query.toString();
+			event.includeNulls = includeNulls;
+			event.count = count.getCount();
+			event.commit();
+		}
+		return count;
+	}
+
+	private QueryAnswerCount doCountQueryAnswers(final PositiveLiteral query, final boolean includeNulls) {
 		this.validateBeforeQuerying(query);
 
+		if (this.queryResultCache != null) {
+			final QueryAnswerCount cachedCount = this.queryResultCache.getCount(query, includeNulls);
+			if (cachedCount != null) {
+				this.logWarningOnCorrectness(cachedCount.getCorrectness());
+				return cachedCount;
+			}
+		}
+
+		final List<PositiveLiteral> edbSourceAtoms = this.getEdbSourceAtoms(query);
+		if (edbSourceAtoms != null && edbSourceAtoms.size() > 1) {
+			return this.countEdbSourcesQueryAnswers(query, includeNulls);
+		}
+
 		final boolean filterBlanks = !includeNulls;
-		final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter.toVLogAtom(query);
+		final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter
+				.toVLogAtom(edbSourceAtoms != null ? edbSourceAtoms.get(0) : query);
 
 		long result;
 		try {
@@ -476,9 +1350,58 @@ public class VLogReasoner implements Reasoner {
 			return this.createEmptyResultCount(query);
 		}
 		this.logWarningOnCorrectness(this.correctness);
+		final QueryAnswerCount count = new QueryAnswerCountImpl(this.correctness, result);
+		if (this.queryResultCache != null) {
+			this.queryResultCache.putCount(query, includeNulls, count);
+		}
+		return count;
+	}
+
+	@Override
+	public QueryAnswerCount countQueryAnswers(final PositiveLiteral query, final boolean includeNulls,
+			final QueryOptions options) {
+		if (!options.isLimited()) {
+			return this.countQueryAnswers(query, includeNulls);
+		}
+		this.validateBeforeQuerying(query);
+		options.checkNotExceeded();
+
+		final VLogTupleSource tupleSource = new VLogTupleSource();
+		long result = 0;
+		try (final TupleIterator tuples = tupleSource.iterateTuples(query, includeNulls)) {
+			while (tuples.hasNext()) {
+				tuples.next();
+				if (++result % CancellableQueryResultIterator.CHECK_INTERVAL == 0) {
+					options.checkNotExceeded();
+				}
+			}
+		}
+		if (tupleSource.unknownPredicateQuery != null) {
+			return this.createEmptyResultCount(query);
+		}
+		this.logWarningOnCorrectness(this.correctness);
 		return new QueryAnswerCountImpl(this.correctness, result);
 	}
 
+	/**
+	 * Counts the answers to a query over a predicate with several aliases, i.e.,
+	 * the size of the union of the answers over the aliases.
+	 */
+	private QueryAnswerCount countEdbSourcesQueryAnswers(final PositiveLiteral query, final boolean includeNulls) {
+		final VLogTupleSource tupleSource = new VLogTupleSource();
+		final long[] result = new long[1];
+		tupleSource.forEachTuple(query, includeNulls, tuple -> result[0]++);
+		if (tupleSource.unknownPredicateQuery != null) {
+			return this.createEmptyResultCount(query);
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		final QueryAnswerCount count = new QueryAnswerCountImpl(this.correctness, result[0]);
+		if (this.queryResultCache != null) {
+			this.queryResultCache.putCount(query, includeNulls, count);
+		}
+		return count;
+	}
+
 	private QueryAnswerCount createEmptyResultCount(final PositiveLiteral query) {
 		final Correctness correctness = this.getCorrectnessUnknownPredicate(query);
 		this.logWarningOnCorrectness(correctness);
@@ -488,11 +1411,30 @@ public class VLogReasoner implements Reasoner {
 	@Override
 	public Correctness exportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
 			final boolean includeBlanks) throws IOException {
+		final ExportQueryAnswersEvent event = new ExportQueryAnswersEvent();
+		event.begin();
+		final Correctness correctness = this.doExportQueryAnswersToCsv(query, csvFilePath, includeBlanks);
+		if (event.shouldCommit()) {
+			event.query = query.toString();
+			event.file = csvFilePath;
+			final Path csvFile = Paths.get(csvFilePath);
+			event.size = Files.exists(csvFile) ? Files.size(csvFile) : 0;
+			event.commit();
+		}
+		return correctness;
+	}
+
+	private Correctness doExportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeBlanks) throws IOException {
 		this.validateBeforeQuerying(query);
 
 		Validate.notNull(csvFilePath, "File to export query answer to must not be null!");
 		Validate.isTrue(csvFilePath.endsWith(".csv"), "Expected .csv extension for file [%s]!", csvFilePath);
 
+		if (this.edbSourcePredicates.containsKey(query.getPredicate())) {
+			return this.writeQueryAnswersToCsv(query, csvFilePath, includeBlanks, QueryOptions.NONE);
+		}
+
 		final boolean filterBlanks = !includeBlanks;
 		final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter.toVLogAtom(query);
 		try {
@@ -508,6 +1450,77 @@ public class VLogReasoner implements Reasoner {
 		return this.correctness;
 	}
 
+	/**
+	 * Writes the answers to the query in the same format as
+	 * {@link VLog#writeQueryResultsToCsv(karmaresearch.vlog.Atom, String, boolean)},
+	 * but checks the given options while doing so, and deletes the incomplete
+	 * file if they are exceeded.
+	 */
+	@Override
+	public Correctness exportQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeNulls, final QueryOptions options) throws IOException {
+		if (!options.isLimited()) {
+			return this.exportQueryAnswersToCsv(query, csvFilePath, includeNulls);
+		}
+		this.validateBeforeQuerying(query);
+		Validate.notNull(csvFilePath, "File to export query answer to must not be null!");
+		Validate.isTrue(csvFilePath.endsWith(".csv"), "Expected .csv extension for file [%s]!", csvFilePath);
+		return this.writeQueryAnswersToCsv(query, csvFilePath, includeNulls, options);
+	}
+
+	/**
+	 * Writes the answers to the query tuple by tuple, which also supports queries
+	 * that are rewritten to the aliases of their predicate.
+	 */
+	private Correctness writeQueryAnswersToCsv(final PositiveLiteral query, final String csvFilePath,
+			final boolean includeNulls, final QueryOptions options) throws IOException {
+		options.checkNotExceeded();
+
+		final VLogTupleSource tupleSource = new VLogTupleSource();
+		try (final TupleIterator tuples = tupleSource.iterateTuples(query, includeNulls)) {
+			if (tupleSource.unknownPredicateQuery != null) {
+				final Correctness correctness = this.getCorrectnessUnknownPredicate(query);
+				this.logWarningOnCorrectness(correctness);
+				return correctness;
+			}
+			final Path csvFile = Paths.get(csvFilePath);
+			try (final Writer writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+				long written = 0;
+				while (tuples.hasNext()) {
+					final long[] tuple = tuples.next();
+					for (int i = 0; i < tuple.length; i++) {
+						if (i > 0) {
+							writer.write(',');
+						}
+						writer.write(this.getCsvTermName(tuple[i]));
+					}
+					writer.write('\n');
+					if (++written % CancellableQueryResultIterator.CHECK_INTERVAL == 0) {
+						options.checkNotExceeded();
+					}
+				}
+			} catch (final QueryCancelledException e) {
+				Files.deleteIfExists(csvFile);
+				throw e;
+			}
+		}
+		this.logWarningOnCorrectness(this.correctness);
+		return this.correctness;
+	}
+
+	private String getCsvTermName(final long id) {
+		try {
+			final String name = this.vLog.getConstant(id);
+			if (name == null) {
+				// named null: rule number, variable number and counter, as written by VLog
+				return (id >> 40) + "_" + ((id >> 32) & 0377) + "_" + (id & 0xffffffffL);
+			}
+			return name;
+		} catch (final NotStartedException e) {
+			throw new RulewerkRuntimeException("Inconsistent reasoner state!", e);
+		}
+	}
+
 	private void validateBeforeQuerying(final PositiveLiteral query) {
 		this.validateNotClosed();
 		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
@@ -519,15 +1532,44 @@ public class VLogReasoner implements Reasoner {
 
 	@Override
 	public Correctness forEachInference(InferenceAction action) throws IOException {
+		final Correctness loadedCorrectness = this.forEachLoadedInference(action);
+		final Correctness inferencesCorrectness = this.loadedPredicates == null ? loadedCorrectness
+				: Correctness.SOUND_BUT_INCOMPLETE;
+		this.logWarningOnCorrectness(inferencesCorrectness);
+		return inferencesCorrectness;
+	}
+
+	/**
+	 * Performs the given action for each inference over the predicates that have
+	 * been loaded, which are all predicates of the knowledge base unless
+	 * {@link #setRelevantPredicates(Collection)} has been used.
+	 *
+	 * @param action The action to be performed for each inference.
+	 * @return the correctness of the inferences over the loaded predicates
+	 * @throws IOException
+	 */
+	Correctness forEachLoadedInference(InferenceAction action) throws IOException {
 		this.validateNotClosed();
 		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
 			throw new ReasonerStateException(this.reasonerState,
 					"Obtaining inferences is not alowed before reasoner is loaded!");
 		}
 		final Set<Predicate> toBeQueriedHeadPredicates = this.getKnowledgeBasePredicates();
+		if (this.loadedPredicates != null) {
+			toBeQueriedHeadPredicates.retainAll(this.loadedPredicates);
+		}
 
 		for (final Predicate predicate : toBeQueriedHeadPredicates) {
 			final PositiveLiteral queryAtom = this.getQueryAtom(predicate);
+			if (this.edbSourcePredicates.containsKey(predicate)) {
+				final VLogTupleSource tupleSource = new VLogTupleSource();
+				try (final TupleIterator tuples = tupleSource.iterateTuples(queryAtom, true)) {
+					while (tuples.hasNext()) {
+						action.accept(predicate, tupleSource.getTerms(tuples.next()));
+					}
+				}
+				continue;
+			}
 			final karmaresearch.vlog.Atom vLogAtom = ModelToVLogConverter.toVLogAtom(queryAtom);
 			try (final TermQueryResultIterator answers = this.vLog.query(vLogAtom, true, false)) {
 				while (answers.hasNext()) {
@@ -541,8 +1583,6 @@ public class VLogReasoner implements Reasoner {
 				throw new RulewerkRuntimeException("Inconsistent knowledge base state.", e1);
 			}
 		}
-
-		this.logWarningOnCorrectness(this.correctness);
 		return this.correctness;
 	}
 
@@ -556,6 +1596,13 @@ public class VLogReasoner implements Reasoner {
 	public void resetReasoner() {
 		this.validateNotClosed();
 		this.reasonerState = ReasonerState.KB_NOT_LOADED;
+		this.invalidateQueryResults();
+		this.assertedFactPredicates = Collections.emptyMap();
+		this.edbSourcePredicates = Collections.emptyMap();
+		this.loadingTime = 0;
+		this.conversionTime = 0;
+		this.materialisationTime = 0;
+		this.ruleStatistics = Collections.emptyList();
 		this.vLog.stop();
 		LOGGER.info("Reasoner has been reset. All inferences computed during reasoning have been discarded.");
 	}
@@ -567,11 +1614,75 @@ public class VLogReasoner implements Reasoner {
 		} else {
 			this.reasonerState = ReasonerState.CLOSED;
 			this.knowledgeBase.deleteListener(this);
+			this.invalidateQueryResults();
+			this.closeAsyncQueries();
+			this.awaitCyclicityChecks();
 			this.vLog.stop();
 			LOGGER.info("Reasoner closed.");
 		}
 	}
 
+	/**
+	 * Terminates the open subscriptions of asynchronous queries with an error,
+	 * and waits for the tasks of the query executor to finish, so that no query
+	 * reads from VLog after it has been stopped. Tasks that were never started
+	 * are run on the current thread, so that their subscribers are notified as
+	 * well. Subscriptions with other executors are terminated by the next task on
+	 * their executor.
+	 */
+	private void closeAsyncQueries() {
+		final ReasonerStateException cause = new ReasonerStateException(ReasonerState.CLOSED,
+				"The reasoner was closed before all query results were delivered.");
+		final List<QueryResultIteratorPublisher> publishers;
+		synchronized (this.queryPublishers) {
+			publishers = new ArrayList<>(this.queryPublishers);
+			this.queryPublishers.clear();
+		}
+		publishers.forEach(publisher -> publisher.close(cause));
+
+		final ExecutorService executor;
+		synchronized (this) {
+			executor = this.queryExecutor;
+			this.queryExecutor = null;
+		}
+		if (executor == null) {
+			return;
+		}
+		final List<Runnable> unstartedTasks = executor.shutdownNow();
+		try {
+			if (!executor.awaitTermination(EXECUTOR_TERMINATION_TIMEOUT, TimeUnit.SECONDS)) {
+				LOGGER.warn("Asynchronous queries did not finish within {} seconds after closing the reasoner.",
+						EXECUTOR_TERMINATION_TIMEOUT);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		unstartedTasks.forEach(Runnable::run);
+	}
+
+	/**
+	 * Waits for cyclicity checks that are still running in the background. The
+	 * checks run in native code and cannot be interrupted.
+	 */
+	private void awaitCyclicityChecks() {
+		final ExecutorService executor;
+		synchronized (this) {
+			executor = this.cyclicityCheckExecutor;
+			this.cyclicityCheckExecutor = null;
+		}
+		if (executor == null) {
+			return;
+		}
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(EXECUTOR_TERMINATION_TIMEOUT, TimeUnit.SECONDS)) {
+				LOGGER.info("Waiting for running cyclicity checks to finish before closing the reasoner.");
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
 	@Override
 	public void setLogLevel(LogLevel logLevel) {
 		this.validateNotClosed();
@@ -588,6 +1699,7 @@ public class VLogReasoner implements Reasoner {
 	@Override
 	public void setLogFile(String filePath) {
 		this.validateNotClosed();
+		this.logFile = filePath;
 		this.vLog.setLogFile(filePath);
 	}
 
@@ -613,33 +1725,20 @@ public class VLogReasoner implements Reasoner {
 
 	@Override
 	public boolean isMFC() {
-		this.validateNotClosed();
-		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
-			throw new ReasonerStateException(this.reasonerState,
-					"Checking rules acyclicity is not allowed before loading!");
-		}
-
-		CyclicCheckResult checkCyclic;
-		try {
-			checkCyclic = this.vLog.checkCyclic("MFC");
-		} catch (final NotStartedException e) {
-			throw new RulewerkRuntimeException(e.getMessage(), e); // should be impossible
-		}
-		return checkCyclic.equals(CyclicCheckResult.CYCLIC);
+		return this.getCyclicityChecker().check(VLogCyclicityChecker.MFC, this.internalLogLevel);
 	}
 
+	/**
+	 * Checks the cyclicity of the rules. The JA and RJA checks are run first, and
+	 * the remaining acyclicity and cyclicity checks are then run concurrently on
+	 * up to {@link #getNumberOfThreads()} threads. Results
+	 * are cached as long as the rules and EDB predicates of the knowledge base do
+	 * not change.
+	 */
 	@Override
 	public CyclicityResult checkForCycles() {
-		final boolean acyclic = this.isJA() || this.isRJA() || this.isMFA() || this.isRMFA();
-		if (acyclic) {
-			return CyclicityResult.ACYCLIC;
-		} else {
-			final boolean cyclic = this.isMFC();
-			if (cyclic) {
-				return CyclicityResult.CYCLIC;
-			}
-			return CyclicityResult.UNDETERMINED;
-		}
+		return this.getCyclicityChecker().checkForCycles(this.numberOfThreads, this.internalLogLevel,
+				this.getCyclicityCheckExecutor());
 	}
 
 	@Override
@@ -699,25 +1798,43 @@ public class VLogReasoner implements Reasoner {
 	}
 
 	private boolean checkAcyclicity(final AcyclicityNotion acyclNotion) {
+		return this.getCyclicityChecker().check(acyclNotion.name(), this.internalLogLevel);
+	}
+
+	/**
+	 * Returns the checker for the rules and EDB predicates of the knowledge base.
+	 * The checks do not need the knowledge base to be loaded. If it has not been
+	 * loaded (or has changed since), the cached checker is only replaced if the
+	 * rules or EDB predicates differ.
+	 */
+	VLogCyclicityChecker getCyclicityChecker() {
 		this.validateNotClosed();
-		if (this.reasonerState == ReasonerState.KB_NOT_LOADED) {
-			try {
-				this.load();
-			} catch (final IOException e) { // FIXME: quick fix for https://github.com/knowsys/rulewerk/issues/128
-				throw new RulewerkRuntimeException(e);
-			}
+		if (this.reasonerState == ReasonerState.KB_NOT_LOADED || this.reasonerState == ReasonerState.KB_CHANGED) {
+			this.updateCyclicityChecker(new VLogKnowledgeBase(this.knowledgeBase, this.computeLoadedPredicates()));
 		}
+		return this.cyclicityChecker;
+	}
 
-		CyclicCheckResult checkCyclic;
-		try {
-			checkCyclic = this.vLog.checkCyclic(acyclNotion.name());
-		} catch (final NotStartedException e) {
-			throw new RulewerkRuntimeException(e.getMessage(), e); // should be impossible
+	private synchronized ExecutorService getCyclicityCheckExecutor() {
+		if (this.cyclicityCheckExecutor == null) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			this.cyclicityCheckExecutor = Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, "rulewerk-cyclicity-check-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.cyclicityCheckExecutor;
+	}
+
+	private void updateCyclicityChecker(final VLogKnowledgeBase vLogKB) {
+		if (this.cyclicityChecker == null || !this.cyclicityChecker.isValidFor(vLogKB, this.ruleRewriteStrategy)) {
+			this.cyclicityChecker = new VLogCyclicityChecker(vLogKB, this.ruleRewriteStrategy);
 		}
-		return checkCyclic.equals(CyclicCheckResult.NON_CYCLIC);
 	}
 
 	private void updateReasonerToKnowledgeBaseChanged() {
+		this.invalidateQueryResults();
 		if (this.reasonerState.equals(ReasonerState.KB_LOADED)
 				|| this.reasonerState.equals(ReasonerState.MATERIALISED)) {
 
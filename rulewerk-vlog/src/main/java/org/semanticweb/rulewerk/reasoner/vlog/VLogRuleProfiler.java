@@ -0,0 +1,173 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+import org.semanticweb.rulewerk.core.reasoner.implementation.RuleStatisticsImpl;
+
+import karmaresearch.vlog.Atom;
+import karmaresearch.vlog.Term;
+import karmaresearch.vlog.Term.TermType;
+
+/**
+ * Computes the profile of the rules of a materialisation from the debug log of
+ * VLog, which reports each rule application together with the number of
+ * derived tuples and the time it took. Rules are identified in the log by their
+ * textual representation, with variables numbered in the order of their first
+ * occurrence in head and body.
+ */
+class VLogRuleProfiler {
+
+	private static final String APPLICATION_MARKER = "Rule application: ";
+	private static final String RULE_MARKER = " using rule ";
+	private static final Pattern DERIVED_TUPLES_PATTERN = Pattern.compile("derived (\\d+) new tuple");
+	private static final Pattern RUNTIME_PATTERN = Pattern.compile("Total runtime ([0-9.]+)ms");
+	/**
+	 * Matches the predicate id and adornment that VLog prints after each
+	 * predicate name, e.g., "[1]fb" in "p-2[1]fb(?1,c)".
+	 */
+	private static final Pattern ATOM_ANNOTATION_PATTERN = Pattern.compile("\\[\\d+\\][bf]*\\(");
+
+	private final List<Rule> rules;
+	private final Map<String, Integer> ruleIndexes = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param rules     the loaded rules
+	 * @param vLogRules the VLog rules that the loaded rules have been converted
+	 *                  to, in the same order
+	 */
+	VLogRuleProfiler(final List<Rule> rules, final karmaresearch.vlog.Rule[] vLogRules) {
+		this.rules = rules;
+		for (int i = 0; i < vLogRules.length; i++) {
+			this.ruleIndexes.putIfAbsent(toLogString(vLogRules[i]), i);
+		}
+	}
+
+	/**
+	 * Reads a VLog log with level {@link karmaresearch.vlog.VLog.LogLevel#DEBUG}
+	 * and sums up the rule applications for each rule. Applications of rules that
+	 * cannot be identified (e.g., since they have been rewritten by VLog) are
+	 * ignored.
+	 *
+	 * @param reader reader for the log
+	 * @return statistics for each rule, in the order of the loaded rules
+	 * @throws IOException if the log cannot be read
+	 */
+	List<RuleStatistics> readProfile(final BufferedReader reader) throws IOException {
+		final long[] applications = new long[this.rules.size()];
+		final long[] derivedFacts = new long[this.rules.size()];
+		final double[] times = new double[this.rules.size()];
+
+		Integer currentRule = null;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			final int applicationStart = line.indexOf(APPLICATION_MARKER);
+			final int ruleStart = line.indexOf(RULE_MARKER);
+			if (applicationStart >= 0 && ruleStart > applicationStart) {
+				final String logString = line.substring(ruleStart + RULE_MARKER.length());
+				currentRule = this.ruleIndexes.get(normalizeLogString(logString));
+				if (currentRule != null) {
+					applications[currentRule]++;
+					final Matcher matcher = DERIVED_TUPLES_PATTERN.matcher(line);
+					if (matcher.find(applicationStart)) {
+						derivedFacts[currentRule] += Long.parseLong(matcher.group(1));
+					}
+				}
+			} else if (currentRule != null) {
+				final Matcher matcher = RUNTIME_PATTERN.matcher(line);
+				if (matcher.find()) {
+					times[currentRule] += Double.parseDouble(matcher.group(1));
+					currentRule = null;
+				}
+			}
+		}
+
+		final List<RuleStatistics> result = new ArrayList<>(this.rules.size());
+		for (int i = 0; i < this.rules.size(); i++) {
+			result.add(new RuleStatisticsImpl(this.rules.get(i), applications[i], derivedFacts[i], times[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the predicate ids and adornments from a rule as printed by VLog.
+	 *
+	 * @param logString a rule as printed by VLog
+	 * @return the rule in the format of {@link #toLogString(karmaresearch.vlog.Rule)}
+	 */
+	static String normalizeLogString(final String logString) {
+		return ATOM_ANNOTATION_PATTERN.matcher(logString).replaceAll("(").trim();
+	}
+
+	/**
+	 * Renders the given rule the way VLog prints it, without predicate ids and
+	 * adornments.
+	 *
+	 * @param vLogRule a VLog rule
+	 * @return textual representation of the rule
+	 */
+	static String toLogString(final karmaresearch.vlog.Rule vLogRule) {
+		final Map<String, Integer> variableIndexes = new HashMap<>();
+		final StringBuilder builder = new StringBuilder("HEAD=");
+		appendAtoms(builder, vLogRule.getHead(), variableIndexes);
+		builder.append(" BODY=");
+		appendAtoms(builder, vLogRule.getBody(), variableIndexes);
+		return builder.toString();
+	}
+
+	private static void appendAtoms(final StringBuilder builder, final Atom[] atoms,
+			final Map<String, Integer> variableIndexes) {
+		for (final Atom atom : atoms) {
+			builder.append(' ');
+			if (atom.isNegated()) {
+				builder.append('~');
+			}
+			builder.append(atom.getPredicate()).append('(');
+			final Term[] terms = atom.getTerms();
+			for (int i = 0; i < terms.length; i++) {
+				if (i > 0) {
+					builder.append(',');
+				}
+				if (terms[i].getTermType() == TermType.VARIABLE) {
+					final int index = variableIndexes.computeIfAbsent(terms[i].getName(),
+							k -> variableIndexes.size() + 1);
+					builder.append('?').append(index);
+				} else {
+					builder.append(terms[i].getName());
+				}
+			}
+			builder.append(')');
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.PrefixDeclarationRegistry;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Aggregate;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class AggregateQueryTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(a, b) . edge(b, c) . edge(c, c) . edge(b, d) .\n"
+			+ "person(alice) . person(bob) .\n" //
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- edge(?X, ?Y), path(?Y, ?Z) .\n" //
+			+ "parent(?X, !Y), female(!Y) :- person(?X) .\n";
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+
+	static Term integer(final long value) {
+		return Expressions.makeDatatypeConstant(String.valueOf(value), PrefixDeclarationRegistry.XSD_INTEGER);
+	}
+
+	@Test
+	public void answerAggregateQuery_countPaths_matchesAnswers() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final Map<Term, Integer> expectedCounts = new HashMap<>();
+			for (final List<Term> answer : QueryResultsUtils
+					.collectQueryResults(reasoner.answerQuery(query, true))) {
+				expectedCounts.merge(answer.get(0), 1, Integer::sum);
+			}
+			final Set<List<Term>> expected = new HashSet<>();
+			expectedCounts.forEach((term, count) -> expected.add(Arrays.asList(term, integer(count))));
+
+			try (final QueryResultIterator answers = reasoner.answerAggregateQuery(query, Arrays.asList(this.x),
+					Arrays.asList(Aggregate.count()), true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				assertEquals(expected, QueryResultsUtils.collectQueryResults(answers));
+			}
+		}
+	}
+
+	@Test
+	public void answerAggregateQuery_minMaxWithoutGroups_succeeds() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			try (final QueryResultIterator answers = reasoner.answerAggregateQuery(query, Collections.emptyList(),
+					Arrays.asList(Aggregate.countDistinct(this.y), Aggregate.min(this.y), Aggregate.max(this.x)),
+					true)) {
+				assertEquals(Collections.singleton(Arrays.asList(integer(3), Expressions.makeAbstractConstant("b"),
+						Expressions.makeAbstractConstant("c"))), QueryResultsUtils.collectQueryResults(answers));
+			}
+		}
+	}
+
+	@Test
+	public void answerAggregateQuery_excludeNulls_ignoresAnswersWithNulls() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("parent", this.x, this.y);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			try (final QueryResultIterator answers = reasoner.answerAggregateQuery(query, Arrays.asList(this.x),
+					Arrays.asList(Aggregate.countDistinct(this.y)), true)) {
+				assertEquals(2, QueryResultsUtils.collectQueryResults(answers).size());
+			}
+			try (final QueryResultIterator answers = reasoner.answerAggregateQuery(query, Arrays.asList(this.x),
+					Arrays.asList(Aggregate.countDistinct(this.y)), false)) {
+				assertTrue(QueryResultsUtils.collectQueryResults(answers).isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void answerAggregateQuery_unknownPredicate_isEmpty() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("unknown", this.x);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			try (final QueryResultIterator answers = reasoner.answerAggregateQuery(query, Collections.emptyList(),
+					Arrays.asList(Aggregate.count()), true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				assertTrue(QueryResultsUtils.collectQueryResults(answers).isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void answerAggregateQuery_partitionedReasoner_sameAsVLogReasoner() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+		final List<Variable> groupVariables = Arrays.asList(this.y);
+		final List<Aggregate> aggregates = Arrays.asList(Aggregate.count(), Aggregate.min(this.x));
+		try (final Reasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE));
+				final Reasoner partitioned = new PartitionedVLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			partitioned.reason();
+
+			assertEquals(
+					QueryResultsUtils
+							.collectQueryResults(reasoner.answerAggregateQuery(query, groupVariables, aggregates, true)),
+					QueryResultsUtils.collectQueryResults(
+							partitioned.answerAggregateQuery(query, groupVariables, aggregates, true)));
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.exceptions.ReasonerStateException;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPublisher;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPublisher.Subscriber;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPublisher.Subscription;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class AsyncQueryTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(e, a) . edge(d, b) . edge(c, c) . edge(b, d) . edge(a, e) .\n"
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- edge(?X, ?Y), path(?Y, ?Z) .\n";
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+	private final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+
+	/**
+	 * Requests one result at a time, like a slow consumer.
+	 */
+	static class OneByOneSubscriber implements Subscriber {
+		final List<QueryResult> results = new ArrayList<>();
+		final CountDownLatch done = new CountDownLatch(1);
+		Subscription subscription;
+		volatile Throwable error;
+
+		@Override
+		public void onSubscribe(final Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onNext(final QueryResult queryResult) {
+			this.results.add(queryResult);
+			this.subscription.request(1);
+		}
+
+		@Override
+		public void onError(final Throwable throwable) {
+			this.error = throwable;
+			this.done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			this.done.countDown();
+		}
+	}
+
+	@Test
+	public void answerQueryAsync_sameAsAnswerQuery() throws ParsingException, IOException, InterruptedException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final Set<QueryResult> expected = new HashSet<>();
+			try (final QueryResultIterator answers = reasoner.answerQuery(this.query, true)) {
+				answers.forEachRemaining(expected::add);
+			}
+
+			final QueryResultPublisher publisher = reasoner.answerQueryAsync(this.query, true);
+			final List<OneByOneSubscriber> subscribers = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				final OneByOneSubscriber subscriber = new OneByOneSubscriber();
+				publisher.subscribe(subscriber);
+				subscribers.add(subscriber);
+			}
+
+			assertEquals(Correctness.SOUND_AND_COMPLETE, publisher.getCorrectness());
+			for (final OneByOneSubscriber subscriber : subscribers) {
+				assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+				assertEquals(null, subscriber.error);
+				assertEquals(expected.size(), subscriber.results.size());
+				assertEquals(expected, new HashSet<>(subscriber.results));
+			}
+		}
+	}
+
+	@Test
+	public void answerQueryAsync_unknownPredicate_completesWithoutResults()
+			throws ParsingException, IOException, InterruptedException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final OneByOneSubscriber subscriber = new OneByOneSubscriber();
+			reasoner.answerQueryAsync(Expressions.makePositiveLiteral("unknown", this.x), true).subscribe(subscriber);
+
+			assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+			assertEquals(null, subscriber.error);
+			assertTrue(subscriber.results.isEmpty());
+		}
+	}
+
+	@Test
+	public void close_openSubscription_signalsError() throws ParsingException, IOException, InterruptedException {
+		final OneByOneSubscriber subscriber = new OneByOneSubscriber() {
+			@Override
+			public void onNext(final QueryResult queryResult) {
+				this.results.add(queryResult);
+			}
+		};
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			reasoner.answerQueryAsync(this.query, true).subscribe(subscriber);
+		}
+
+		assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+		assertTrue(subscriber.error instanceof ReasonerStateException);
+		assertTrue(subscriber.error.getMessage().contains("closed"));
+		assertTrue(subscriber.results.size() <= 1);
+	}
+
+	@Test(expected = ReasonerStateException.class)
+	public void answerQueryAsync_closedReasoner_fails() throws ParsingException {
+		final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE));
+		reasoner.close();
+
+		reasoner.answerQueryAsync(this.query, true);
+	}
+
+}
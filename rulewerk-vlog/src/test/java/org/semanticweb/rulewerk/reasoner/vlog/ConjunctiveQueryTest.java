@@ -0,0 +1,143 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.core.reasoner.ReasonerState;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class ConjunctiveQueryTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(a, b) . edge(b, c) . edge(c, c) . edge(b, d) .\n"
+			+ "label(b, \"B\") . label(c, \"C\") . person(alice) .\n" //
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- edge(?X, ?Y), path(?Y, ?Z) .\n" //
+			+ "parent(?X, !Y), female(!Y) :- person(?X) .\n";
+
+	static List<Variable> getAnswerVariables(final Rule query) {
+		return query.getHead().getLiterals().get(0).getArguments().stream().map(term -> (Variable) term)
+				.collect(Collectors.toList());
+	}
+
+	static Conjunction<PositiveLiteral> getQueryBody(final Rule query) {
+		return Expressions.makePositiveConjunction(query.getBody().getLiterals().stream()
+				.map(literal -> (PositiveLiteral) literal).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Compares the answers of the given conjunctive query (written as a rule) to
+	 * the extension of its head predicate when the query is added as a rule.
+	 */
+	static void assertSameAnswers(final String queryString, final boolean includeNulls)
+			throws ParsingException, IOException {
+		final Rule query = RuleParser.parseRule(queryString);
+		final PositiveLiteral head = query.getHead().getLiterals().get(0);
+
+		final Set<List<Term>> answers;
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			try (final QueryResultIterator iterator = reasoner.answerConjunctiveQuery(getQueryBody(query),
+					getAnswerVariables(query), includeNulls)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, iterator.getCorrectness());
+				answers = QueryResultsUtils.collectQueryResults(iterator);
+			}
+			assertEquals(ReasonerState.MATERIALISED, reasoner.getReasonerState());
+		}
+
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		knowledgeBase.addStatement(query);
+		try (final Reasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			reasoner.reason();
+			assertEquals(QueryResultsUtils.collectQueryResults(reasoner.answerQuery(head, includeNulls)), answers);
+		}
+	}
+
+	@Test
+	public void answerConjunctiveQuery_join_succeeds() throws ParsingException, IOException {
+		assertSameAnswers("ans(?X, ?Z) :- edge(?X, ?Y), edge(?Y, ?Z) .", true);
+	}
+
+	@Test
+	public void answerConjunctiveQuery_derivedPredicates_succeeds() throws ParsingException, IOException {
+		assertSameAnswers("ans(?X, ?L) :- path(?X, ?Y), label(?Y, ?L), edge(?Y, ?Y) .", true);
+	}
+
+	@Test
+	public void answerConjunctiveQuery_constants_succeeds() throws ParsingException, IOException {
+		assertSameAnswers("ans(?Y) :- path(a, ?Y), edge(?Y, ?Y) .", true);
+	}
+
+	@Test
+	public void answerConjunctiveQuery_projection_succeeds() throws ParsingException, IOException {
+		assertSameAnswers("ans(?X) :- path(?X, ?Y), path(?Y, ?Z) .", true);
+	}
+
+	@Test
+	public void answerConjunctiveQuery_namedNulls_succeeds() throws ParsingException, IOException {
+		final Rule query = RuleParser.parseRule("ans(?X, ?Y) :- parent(?X, ?Y), female(?Y) .");
+		final Rule projectedQuery = RuleParser.parseRule("ans(?X) :- parent(?X, ?Y), female(?Y) .");
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			// named nulls are only comparable within the same materialisation
+			assertEquals(
+					QueryResultsUtils.collectQueryResults(
+							reasoner.answerQuery(RuleParser.parsePositiveLiteral("parent(?X, ?Y)"), true)),
+					QueryResultsUtils.collectQueryResults(
+							reasoner.answerConjunctiveQuery(getQueryBody(query), getAnswerVariables(query), true)));
+			assertFalse(reasoner.answerConjunctiveQuery(getQueryBody(query), getAnswerVariables(query), false)
+					.hasNext());
+		}
+		assertSameAnswers("ans(?X) :- parent(?X, ?Y), female(?Y) .", false);
+	}
+
+	@Test
+	public void answerConjunctiveQuery_unknownPredicate_empty() throws ParsingException, IOException {
+		final Rule query = RuleParser.parseRule("ans(?X) :- edge(?X, ?Y), unknown(?Y) .");
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			try (final QueryResultIterator iterator = reasoner.answerConjunctiveQuery(getQueryBody(query),
+					getAnswerVariables(query), true)) {
+				assertFalse(iterator.hasNext());
+				assertEquals(Correctness.SOUND_AND_COMPLETE, iterator.getCorrectness());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.reasoner.CyclicityResult;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.ReasonerState;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class CyclicityCheckTest {
+
+	private static final String ACYCLIC_RULES = "q(?X, !Y) :- p(?X) . r(?Y) :- q(?X, ?Y) . p(a) .";
+	private static final String CYCLIC_RULES = "hasParent(?X, !Y), human(!Y) :- human(?X) . human(adam) .";
+
+	@Test
+	public void checkForCycles_acyclic_succeeds() throws ParsingException {
+		for (final int threads : new int[] { 1, 4 }) {
+			try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(ACYCLIC_RULES))) {
+				reasoner.setNumberOfThreads(threads);
+				assertEquals(CyclicityResult.ACYCLIC, reasoner.checkForCycles());
+				assertTrue(reasoner.isJA());
+				assertFalse(reasoner.isMFC());
+			}
+		}
+	}
+
+	@Test
+	public void checkForCycles_cyclic_succeeds() throws ParsingException {
+		for (final int threads : new int[] { 1, 4 }) {
+			try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(CYCLIC_RULES))) {
+				reasoner.setNumberOfThreads(threads);
+				assertEquals(CyclicityResult.CYCLIC, reasoner.checkForCycles());
+				assertFalse(reasoner.isJA());
+				assertFalse(reasoner.isRJA());
+				assertFalse(reasoner.isMFA());
+				assertFalse(reasoner.isRMFA());
+				assertTrue(reasoner.isMFC());
+			}
+		}
+	}
+
+	@Test
+	public void checkForCycles_notLoaded_doesNotLoad() throws ParsingException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(CYCLIC_RULES))) {
+			assertTrue(reasoner.isMFC());
+			assertEquals(ReasonerState.KB_NOT_LOADED, reasoner.getReasonerState());
+		}
+	}
+
+	@Test
+	public void checkForCycles_edbPredicateInRuleHead_succeeds() throws ParsingException {
+		final KnowledgeBase kb = RuleParser.parse(CYCLIC_RULES + "human(eve) .");
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			assertEquals(CyclicityResult.CYCLIC, reasoner.checkForCycles());
+		}
+	}
+
+	@Test
+	public void checkForCycles_recordsTimes() throws ParsingException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(CYCLIC_RULES))) {
+			reasoner.checkForCycles();
+
+			assertEquals(5, reasoner.getReasoningStatistics().getCyclicityCheckTimes().size());
+			assertTrue(reasoner.getReasoningStatistics().getCyclicityCheckTimes().containsKey("MFC"));
+		}
+	}
+
+	@Test
+	public void checkForCycles_ja_expensiveChecksNotRun() throws ParsingException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(ACYCLIC_RULES))) {
+			reasoner.setNumberOfThreads(4);
+			assertEquals(CyclicityResult.ACYCLIC, reasoner.checkForCycles());
+
+			assertEquals(Collections.singleton("JA"),
+					reasoner.getReasoningStatistics().getCyclicityCheckTimes().keySet());
+		}
+	}
+
+	@Test
+	public void checkForCycles_factsChangedAndReset_cached() throws ParsingException, IOException {
+		final KnowledgeBase kb = RuleParser.parse(ACYCLIC_RULES);
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.checkForCycles();
+			final VLogCyclicityChecker checker = reasoner.getCyclicityChecker();
+
+			reasoner.reason();
+			assertSame(checker, reasoner.getCyclicityChecker());
+			RuleParser.parseInto(kb, "p(b) .");
+			assertSame(checker, reasoner.getCyclicityChecker());
+			reasoner.resetReasoner();
+			assertSame(checker, reasoner.getCyclicityChecker());
+			reasoner.reason();
+			assertSame(checker, reasoner.getCyclicityChecker());
+		}
+	}
+
+	@Test
+	public void checkForCycles_rulesChanged_notCached() throws ParsingException {
+		final KnowledgeBase kb = RuleParser.parse(ACYCLIC_RULES);
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			assertEquals(CyclicityResult.ACYCLIC, reasoner.checkForCycles());
+			final VLogCyclicityChecker checker = reasoner.getCyclicityChecker();
+
+			RuleParser.parseInto(kb, "p(?Y) :- q(?X, ?Y) .");
+			assertNotSame(checker, reasoner.getCyclicityChecker());
+			assertEquals(CyclicityResult.CYCLIC, reasoner.checkForCycles());
+		}
+	}
+
+	@Test
+	public void checkForCycles_newEdbPredicate_notCached() throws ParsingException {
+		final KnowledgeBase kb = RuleParser.parse(ACYCLIC_RULES);
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.checkForCycles();
+			final VLogCyclicityChecker checker = reasoner.getCyclicityChecker();
+
+			RuleParser.parseInto(kb, "r(c) .");
+			assertNotSame(checker, reasoner.getCyclicityChecker());
+		}
+	}
+
+}
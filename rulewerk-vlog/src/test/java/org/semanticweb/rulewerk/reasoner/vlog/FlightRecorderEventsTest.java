@@ -0,0 +1,100 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderEventsTest {
+
+	private static final String EVENT_PREFIX = "org.semanticweb.rulewerk.";
+
+	@Test
+	public void reasoning_recordsEvents() throws ParsingException, IOException {
+		final Path recordingFile = Files.createTempFile("rulewerk", ".jfr");
+		final File csvFile = File.createTempFile("rulewerk", ".csv");
+		try {
+			try (Recording recording = new Recording()) {
+				for (final String event : new String[] { "Parse", "UpdateKnowledgeBase", "LoadKnowledgeBase",
+						"LoadDataSources", "LoadFacts", "SetRules", "Materialise", "Query", "CountQueryAnswers",
+						"ExportQueryAnswers" }) {
+					recording.enable(EVENT_PREFIX + event);
+				}
+				recording.start();
+
+				final KnowledgeBase kb = RuleParser.parse("p(a) . p(b) . q(?X) :- p(?X) .");
+				kb.addStatements(RuleParser.parseFact("p(c) ."), RuleParser.parseFact("p(a) ."));
+				final PositiveLiteral query = RuleParser.parsePositiveLiteral("q(?X)");
+				try (VLogReasoner reasoner = new VLogReasoner(kb)) {
+					reasoner.reason();
+					reasoner.answerQuery(query, true).close();
+					reasoner.countQueryAnswers(query, true);
+					reasoner.exportQueryAnswersToCsv(query, csvFile.getAbsolutePath(), true);
+				}
+
+				recording.stop();
+				recording.dump(recordingFile);
+			}
+
+			final Map<String, RecordedEvent> events = new HashMap<>();
+			final List<RecordedEvent> recordedEvents = RecordingFile.readAllEvents(recordingFile);
+			for (final RecordedEvent event : recordedEvents) {
+				events.put(event.getEventType().getName().substring(EVENT_PREFIX.length()), event);
+			}
+
+			assertEquals(3, events.get("Parse").getInt("statements"));
+			assertEquals("add", events.get("UpdateKnowledgeBase").getString("operation"));
+			assertEquals(1, events.get("UpdateKnowledgeBase").getInt("statements"));
+			assertEquals(3, events.get("LoadKnowledgeBase").getInt("facts"));
+			assertEquals(1, events.get("LoadKnowledgeBase").getInt("rules"));
+			assertTrue(events.containsKey("LoadDataSources"));
+			assertEquals(3, events.get("LoadFacts").getInt("facts"));
+			assertEquals(1, events.get("SetRules").getInt("rules"));
+			assertTrue(events.get("Materialise").getBoolean("completed"));
+			assertEquals("q(?X)", events.get("Query").getString("query"));
+			assertEquals(3, events.get("CountQueryAnswers").getLong("count"));
+			assertEquals(csvFile.getAbsolutePath(), events.get("ExportQueryAnswers").getString("file"));
+			assertTrue(events.get("ExportQueryAnswers").getLong("size") > 0);
+		} finally {
+			Files.deleteIfExists(recordingFile);
+			Files.deleteIfExists(csvFile.toPath());
+		}
+	}
+
+}
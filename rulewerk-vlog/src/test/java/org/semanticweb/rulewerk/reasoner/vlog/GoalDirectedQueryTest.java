@@ -0,0 +1,168 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.ReasonerState;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class GoalDirectedQueryTest {
+
+	private static final String TRANSITIVE_CLOSURE = "edge(a, b) . edge(b, c) . edge(c, d) . edge(x, y) .\n"
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- edge(?X, ?Y), path(?Y, ?Z) .\n";
+
+	static void assertSameAnswers(final String knowledgeBaseString, final String queryString,
+			final boolean includeNulls) throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(knowledgeBaseString);
+		final PositiveLiteral query = RuleParser.parsePositiveLiteral(queryString);
+
+		try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			final Set<List<Term>> goalDirectedAnswers;
+			try (final QueryResultIterator answers = reasoner.answerQueryGoalDirected(query, includeNulls)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				goalDirectedAnswers = QueryResultsUtils.collectQueryResults(answers);
+			}
+
+			reasoner.reason();
+			final Set<List<Term>> expectedAnswers = QueryResultsUtils
+					.collectQueryResults(reasoner.answerQuery(query, includeNulls));
+			assertEquals(expectedAnswers, goalDirectedAnswers);
+		}
+	}
+
+	@Test
+	public void transitiveClosure_firstArgumentBound_succeeds() throws ParsingException, IOException {
+		assertSameAnswers(TRANSITIVE_CLOSURE, "path(a, ?Y)", true);
+	}
+
+	@Test
+	public void transitiveClosure_secondArgumentBound_succeeds() throws ParsingException, IOException {
+		assertSameAnswers(TRANSITIVE_CLOSURE, "path(?X, d)", true);
+	}
+
+	@Test
+	public void transitiveClosure_allArgumentsBound_succeeds() throws ParsingException, IOException {
+		assertSameAnswers(TRANSITIVE_CLOSURE, "path(a, d)", true);
+		assertSameAnswers(TRANSITIVE_CLOSURE, "path(a, y)", true);
+	}
+
+	@Test
+	public void transitiveClosure_allArgumentsFree_succeeds() throws ParsingException, IOException {
+		assertSameAnswers(TRANSITIVE_CLOSURE, "path(?X, ?Y)", true);
+		assertSameAnswers(TRANSITIVE_CLOSURE, "path(?X, ?X)", true);
+	}
+
+	@Test
+	public void edbPredicate_succeeds() throws ParsingException, IOException {
+		assertSameAnswers(TRANSITIVE_CLOSURE, "edge(a, ?Y)", true);
+	}
+
+	@Test
+	public void unknownPredicate_succeeds() throws ParsingException, IOException {
+		assertSameAnswers(TRANSITIVE_CLOSURE, "unknown(a, ?Y)", true);
+	}
+
+	@Test
+	public void predicateWithFactsAndRules_succeeds() throws ParsingException, IOException {
+		final String kb = TRANSITIVE_CLOSURE + "path(d, e) .";
+		assertSameAnswers(kb, "path(a, ?Y)", true);
+		assertSameAnswers(kb, "path(?X, e)", true);
+	}
+
+	@Test
+	public void negation_succeeds() throws ParsingException, IOException {
+		final String kb = TRANSITIVE_CLOSURE + "node(a) . node(b) . node(c) . node(d) . node(x) . node(y) .\n"
+				+ "unreachable(?X, ?Y) :- node(?X), node(?Y), ~path(?X, ?Y) .\n";
+		assertSameAnswers(kb, "unreachable(a, ?Y)", true);
+		assertSameAnswers(kb, "unreachable(?X, a)", true);
+	}
+
+	@Test
+	public void existentialRules_succeeds() throws ParsingException, IOException {
+		final String kb = "person(alice) . person(bob) . parent(bob, carol) .\n"
+				+ "parent(?X, !Y), female(!Y) :- person(?X) .\n" //
+				+ "hasParent(?X) :- parent(?X, ?Y) .\n" //
+				+ "knownParent(?X, ?Y) :- parent(?X, ?Y), person(?Y) .\n" //
+				+ "person(carol) .\n";
+		assertSameAnswers(kb, "hasParent(alice)", false);
+		assertSameAnswers(kb, "knownParent(bob, ?Y)", false);
+		assertSameAnswers(kb, "parent(bob, ?Y)", false);
+	}
+
+	@Test
+	public void existentialRuleWithSeveralHeadAtoms_keepsSharedNulls() throws ParsingException, IOException {
+		final String kb = "q(a) .\n" //
+				+ "r(?X, !Y), s(!Y) :- q(?X) .\n" //
+				+ "t(?X) :- r(?X, ?Y), s(?Y) .\n";
+		assertSameAnswers(kb, "t(?X)", false);
+		assertSameAnswers(kb, "t(a)", false);
+
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(kb))) {
+			try (final QueryResultIterator answers = reasoner
+					.answerQueryGoalDirected(RuleParser.parsePositiveLiteral("t(?X)"), false)) {
+				assertTrue(answers.hasNext());
+				assertEquals(RuleParser.parsePositiveLiteral("t(a)").getArguments(), answers.next().getTerms());
+				assertFalse(answers.hasNext());
+			}
+		}
+	}
+
+	@Test
+	public void constantsInRules_succeeds() throws ParsingException, IOException {
+		final String kb = TRANSITIVE_CLOSURE + "fromA(?Y) :- path(a, ?Y) .\n" //
+				+ "reachesD(?X) :- path(?X, d) .\n";
+		assertSameAnswers(kb, "fromA(?Y)", true);
+		assertSameAnswers(kb, "reachesD(?X)", true);
+		assertSameAnswers(kb, "fromA(c)", true);
+	}
+
+	@Test
+	public void goalDirectedQuery_doesNotChangeReasonerState() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(TRANSITIVE_CLOSURE);
+		try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			try (final QueryResultIterator answers = reasoner
+					.answerQueryGoalDirected(RuleParser.parsePositiveLiteral("path(a, ?Y)"), true)) {
+				assertTrue(answers.hasNext());
+			}
+			assertEquals(ReasonerState.KB_NOT_LOADED, reasoner.getReasonerState());
+
+			try (final QueryResultIterator answers = reasoner
+					.answerQueryGoalDirected(RuleParser.parsePositiveLiteral("path(d, ?Y)"), true)) {
+				assertFalse(answers.hasNext());
+			}
+		}
+	}
+}
@@ -24,12 +24,14 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 import org.semanticweb.rulewerk.core.model.api.NamedNull;
@@ -196,6 +198,29 @@ public class ModelToVLogConverterTest {
 		assertArrayEquals(expectedTuples, vLogTuples);
 	}
 
+	@Test
+	public void testToVLogFactTuplesSeveralChunks() {
+		final Constant c = Expressions.makeAbstractConstant("http://example.org/c");
+		final int size = 2 * ModelToVLogConverter.FACT_CHUNK_SIZE + 3;
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			facts.add(Expressions.makeFact("p", Arrays.asList(Expressions.makeAbstractConstant("" + i), c)));
+		}
+		final String[][] vLogTuples = new String[size + 1][];
+
+		final ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			ModelToVLogConverter.toVLogFactTuples(facts, vLogTuples, 1, pool);
+		} finally {
+			pool.shutdown();
+		}
+
+		assertNull(vLogTuples[0]);
+		for (int i = 0; i < size; i++) {
+			assertArrayEquals(new String[] { "" + i, "<http://example.org/c>" }, vLogTuples[i + 1]);
+		}
+	}
+
 	@Test
 	public void testToVLogFactTupleNulls() {
 		final Skolemization skolemization = new Skolemization();
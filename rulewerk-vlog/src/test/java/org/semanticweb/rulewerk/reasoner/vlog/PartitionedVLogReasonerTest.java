@@ -0,0 +1,279 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.exceptions.ReasonerStateException;
+import org.semanticweb.rulewerk.core.model.api.Conjunction;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.CyclicityResult;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class PartitionedVLogReasonerTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(a, b) . edge(b, c) .\n" //
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- path(?X, ?Y), edge(?Y, ?Z) .\n" //
+			+ "person(alice) . person(bob) .\n" //
+			+ "parent(?X, !Y), female(!Y) :- person(?X) .\n" //
+			+ "mother(?X, ?Y) :- parent(?X, ?Y), female(?Y) .\n" //
+			+ "city(dresden) .\n";
+
+	private static final List<String> QUERIES = Arrays.asList("path(?X, ?Y)", "edge(?X, ?Y)", "mother(?X, ?Y)",
+			"parent(?X, ?Y)", "city(?X)");
+
+	static Set<Fact> collectInferences(final Reasoner reasoner) throws IOException {
+		final Set<Fact> inferences = new HashSet<>();
+		reasoner.forEachInference((predicate, terms) -> inferences.add(Expressions.makeFact(predicate, terms)));
+		return inferences;
+	}
+
+	@Test
+	public void reason_independentComponents_partitioned() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			reasoner.setNumberOfThreads(2);
+			assertTrue(reasoner.reason());
+			assertEquals(3, reasoner.getPartitions().size());
+			assertEquals(Correctness.SOUND_AND_COMPLETE, reasoner.getCorrectness());
+		}
+	}
+
+	@Test
+	public void reason_ruleFreePredicates_singlePartition() throws ParsingException, IOException {
+		final StringBuilder knowledgeBaseString = new StringBuilder(KNOWLEDGE_BASE);
+		for (int i = 0; i < 100; i++) {
+			knowledgeBaseString.append("fact").append(i).append("(c) .\n");
+		}
+		final KnowledgeBase knowledgeBase = RuleParser.parse(knowledgeBaseString.toString());
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			assertTrue(reasoner.reason());
+			assertEquals(3, reasoner.getPartitions().size());
+			assertEquals(1, reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("fact42(?X)")).getCount());
+			assertEquals(1, reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("city(?X)")).getCount());
+		}
+	}
+
+	@Test
+	public void answerQueryGoalDirected_routedToPartition() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			try (final QueryResultIterator answers = reasoner
+					.answerQueryGoalDirected(RuleParser.parsePositiveLiteral("path(a, ?Y)"), true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				assertEquals(2, QueryResultsUtils.collectQueryResults(answers).size());
+			}
+			assertEquals(3, reasoner.getPartitions().size());
+			try (final QueryResultIterator answers = reasoner
+					.answerQueryGoalDirected(RuleParser.parsePositiveLiteral("unknown(?X)"), true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				assertFalse(answers.hasNext());
+			}
+		}
+	}
+
+	@Test
+	public void setNumberOfThreads_sharedBetweenPartitions() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			reasoner.setNumberOfThreads(2);
+			reasoner.reason();
+			for (final VLogReasoner partition : reasoner.getPartitions()) {
+				assertEquals(1, partition.getNumberOfThreads());
+			}
+
+			reasoner.setNumberOfThreads(7);
+			for (final VLogReasoner partition : reasoner.getPartitions()) {
+				assertEquals(2, partition.getNumberOfThreads());
+			}
+		}
+	}
+
+	@Test
+	public void answerQuery_sameAnswersAsVLogReasoner() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final VLogReasoner expectedReasoner = new VLogReasoner(knowledgeBase);
+				final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			expectedReasoner.reason();
+			reasoner.reason();
+
+			for (final String queryString : QUERIES) {
+				final PositiveLiteral query = RuleParser.parsePositiveLiteral(queryString);
+				final QueryResultIterator answers = reasoner.answerQuery(query, false);
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				final Set<List<Term>> expected = QueryResultsUtils
+						.collectQueryResults(expectedReasoner.answerQuery(query, false));
+				assertEquals(expected, QueryResultsUtils.collectQueryResults(answers));
+				assertEquals(expected.size(), reasoner.countQueryAnswers(query, false).getCount());
+			}
+		}
+	}
+
+	@Test
+	public void forEachInference_sameInferencesAsVLogReasoner() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE.replace("!Y", "?X"));
+		try (final VLogReasoner expectedReasoner = new VLogReasoner(knowledgeBase);
+				final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			expectedReasoner.reason();
+			reasoner.reason();
+
+			assertEquals(collectInferences(expectedReasoner), collectInferences(reasoner));
+		}
+	}
+
+	@Test
+	public void answerConjunctiveQuery_acrossPartitions_sameAnswersAsVLogReasoner()
+			throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		final Rule query = RuleParser.parseRule("ans(?X, ?Z) :- path(?X, ?Y), mother(?Z, ?W), city(?C) .");
+		final Conjunction<PositiveLiteral> body = ConjunctiveQueryTest.getQueryBody(query);
+		final List<Variable> answerVariables = ConjunctiveQueryTest.getAnswerVariables(query);
+		try (final VLogReasoner expectedReasoner = new VLogReasoner(knowledgeBase);
+				final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			expectedReasoner.reason();
+			reasoner.reason();
+
+			final QueryResultIterator answers = reasoner.answerConjunctiveQuery(body, answerVariables,
+					false);
+			assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+			final Set<List<Term>> expected = QueryResultsUtils.collectQueryResults(
+					expectedReasoner.answerConjunctiveQuery(body, answerVariables, false));
+			assertEquals(4, expected.size());
+			assertEquals(expected, QueryResultsUtils.collectQueryResults(answers));
+		}
+	}
+
+	@Test
+	public void answerQuery_unknownPredicate_emptyAndComplete() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			reasoner.reason();
+
+			final QueryAnswerCount count = reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("unknown(?X)"));
+			assertEquals(Correctness.SOUND_AND_COMPLETE, count.getCorrectness());
+			assertEquals(0, count.getCount());
+		}
+	}
+
+	@Test(expected = ReasonerStateException.class)
+	public void answerQuery_beforeReasoning_fails() throws ParsingException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			reasoner.answerQuery(RuleParser.parsePositiveLiteral("path(?X, ?Y)"), true);
+		}
+	}
+
+	@Test
+	public void reason_knowledgeBaseChanged_repartitioned() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			reasoner.reason();
+
+			RuleParser.parseInto(knowledgeBase, "capital(?X) :- city(?X), person(?X) . person(dresden) .");
+			assertEquals(Correctness.INCORRECT, reasoner.getCorrectness());
+
+			reasoner.reason();
+			assertEquals(2, reasoner.getPartitions().size());
+			assertEquals(Correctness.SOUND_AND_COMPLETE, reasoner.getCorrectness());
+			assertEquals(1, reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("capital(?X)")).getCount());
+		}
+	}
+
+	@Test
+	public void setRelevantPredicates_irrelevantComponentsNotLoaded() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			reasoner.setRelevantPredicates(Arrays.asList(Expressions.makePredicate("path", 2)));
+			reasoner.reason();
+
+			assertEquals(1, reasoner.getPartitions().size());
+			assertEquals(3, reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("path(?X, ?Y)")).getCount());
+			assertEquals(Correctness.SOUND_BUT_INCOMPLETE,
+					reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("city(?X)")).getCorrectness());
+		}
+	}
+
+	@Test
+	public void checkForCycles_acyclicComponents_acyclic() throws ParsingException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			assertEquals(CyclicityResult.ACYCLIC, reasoner.checkForCycles());
+		}
+	}
+
+	@Test
+	public void checkForCycles_oneCyclicComponent_cyclic() throws ParsingException {
+		final KnowledgeBase knowledgeBase = RuleParser
+				.parse(KNOWLEDGE_BASE + "hasParent(?X, !Y), human(!Y) :- human(?X) . human(adam) .");
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+			assertEquals(CyclicityResult.CYCLIC, reasoner.checkForCycles());
+		}
+	}
+
+	@Test
+	public void checkForCycles_cycleAcrossComponentsOfFacts_sameAsUnpartitioned()
+			throws ParsingException, IOException {
+		// the cycle connects the predicates of the facts, and a cyclic component
+		// without facts is added on its own
+		final String[] knowledgeBases = { //
+				KNOWLEDGE_BASE + "r(?X, !Y) :- a(?X) . b(?Y) :- r(?X, ?Y) . a(?X) :- b(?X) . a(c) . b(d) .", //
+				KNOWLEDGE_BASE + "r(?X, !Y), b(!Y) :- a(?X) . a(?X) :- b(?X) . a(c) . s(?X, !Y), t(!Y) :- t(?X) .", //
+				KNOWLEDGE_BASE + "r(?X, !Y), r(!Y, ?X) :- a(?X) . a(c) ." };
+		for (final String input : knowledgeBases) {
+			final KnowledgeBase knowledgeBase = RuleParser.parse(input);
+			try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase);
+					final PartitionedVLogReasoner partitionedReasoner = new PartitionedVLogReasoner(knowledgeBase)) {
+				// the rules need not terminate, so the reasoners are not materialised
+				partitionedReasoner.updatePartitions();
+				assertTrue(input, partitionedReasoner.getPartitions().size() > 1);
+
+				assertEquals(input, reasoner.isJA(), partitionedReasoner.isJA());
+				assertEquals(input, reasoner.isRJA(), partitionedReasoner.isRJA());
+				assertEquals(input, reasoner.isMFA(), partitionedReasoner.isMFA());
+				assertEquals(input, reasoner.isRMFA(), partitionedReasoner.isRMFA());
+				assertEquals(input, reasoner.isMFC(), partitionedReasoner.isMFC());
+				assertEquals(input, reasoner.checkForCycles(), partitionedReasoner.checkForCycles());
+			}
+		}
+	}
+
+}
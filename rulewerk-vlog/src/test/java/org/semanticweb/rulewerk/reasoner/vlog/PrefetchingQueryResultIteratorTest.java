@@ -0,0 +1,154 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class PrefetchingQueryResultIteratorTest {
+
+	static KnowledgeBase makeKnowledgeBase() throws ParsingException {
+		final KnowledgeBase knowledgeBase = RuleParser
+				.parse("next(?X, ?Z) :- edge(?X, ?Y), edge(?Y, ?Z) . person(alice) . parent(?X, !Y) :- person(?X) .");
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			facts.add(Expressions.makeFact("edge", Expressions.makeAbstractConstant("n" + i),
+					Expressions.makeAbstractConstant("n" + (i + 1) % 3000)));
+			facts.add(Expressions.makeFact("edge", Expressions.makeAbstractConstant("n" + i),
+					Expressions.makeAbstractConstant("n" + (i * 7) % 3000)));
+		}
+		knowledgeBase.addStatements(facts);
+		return knowledgeBase;
+	}
+
+	@Test
+	public void answerQuery_prefetching_sameResults() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			for (final String queryString : new String[] { "next(?X, ?Y)", "edge(n5, ?Y)", "parent(?X, ?Y)",
+					"unknown(?X)" }) {
+				final PositiveLiteral query = RuleParser.parsePositiveLiteral(queryString);
+				reasoner.setQueryResultPrefetching(false);
+				final List<QueryResult> expected = QueryResultBatchTest.readResults(reasoner, query);
+				reasoner.setQueryResultPrefetching(true);
+				assertEquals(expected, QueryResultBatchTest.readResults(reasoner, query));
+				assertEquals(expected, QueryResultBatchTest.readBatches(reasoner, query, 100));
+				assertEquals(expected, QueryResultBatchTest.readBatches(reasoner, query, 5000));
+			}
+		}
+	}
+
+	@Test
+	public void nextBatch_mixedWithNext_resultsNotRepeated() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("next(?X, ?Y)");
+			final List<QueryResult> expected = QueryResultBatchTest.readResults(reasoner, query);
+			reasoner.setQueryResultPrefetching(true);
+
+			final List<QueryResult> results = new ArrayList<>();
+			try (final QueryResultIterator answers = reasoner.answerQuery(query, true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				while (answers.hasNext()) {
+					results.add(answers.next());
+					final QueryResultBatch batch = answers.nextBatch(2000);
+					for (int row = 0; row < batch.getRowCount(); row++) {
+						results.add(batch.getQueryResult(row));
+					}
+				}
+				assertEquals(0, answers.nextBatch(1).getRowCount());
+			}
+			assertEquals(expected, results);
+		}
+	}
+
+	@Test
+	public void close_beforeAllResultsRead_reasonerRemainsUsable() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.setQueryResultPrefetching(true);
+			reasoner.reason();
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("next(?X, ?Y)");
+
+			for (int i = 0; i < 20; i++) {
+				try (final QueryResultIterator answers = reasoner.answerQuery(query, true)) {
+					assertTrue(answers.hasNext());
+					answers.next();
+				}
+			}
+			final long count = reasoner.countQueryAnswers(query).getCount();
+			assertEquals(count, QueryResultBatchTest.readResults(reasoner, query).size());
+
+			reasoner.getKnowledgeBase().addStatement(RuleParser.parseFact("edge(n0, fresh) ."));
+			reasoner.reason();
+			assertEquals(count + 2, QueryResultBatchTest.readResults(reasoner, query).size());
+		}
+	}
+
+	@Test
+	public void close_beforeAllResultsRead_workerThreadsTerminated() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.setQueryResultPrefetching(true);
+			reasoner.reason();
+
+			try (final QueryResultIterator answers = reasoner
+					.answerQuery(RuleParser.parsePositiveLiteral("next(?X, ?Y)"), true)) {
+				assertTrue(answers.hasNext());
+			}
+			for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+				assertFalse(thread.getName(),
+						thread.getName().equals("rulewerk-query-prefetch") && thread.isAlive());
+			}
+		}
+	}
+
+	@Test
+	public void close_remainingResults_noMoreResults() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.setQueryResultPrefetching(true);
+			reasoner.reason();
+
+			final QueryResultIterator answers = reasoner.answerQuery(RuleParser.parsePositiveLiteral("edge(?X, ?Y)"),
+					true);
+			assertTrue(answers.hasNext());
+			answers.close();
+			assertFalse(answers.hasNext());
+			assertEquals(0, answers.nextBatch(10).getRowCount());
+		}
+	}
+
+}
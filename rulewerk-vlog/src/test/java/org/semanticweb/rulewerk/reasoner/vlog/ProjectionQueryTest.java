@@ -0,0 +1,127 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class ProjectionQueryTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(a, b) . edge(b, c) . edge(c, c) . edge(b, d) .\n"
+			+ "person(alice) . person(bob) .\n" //
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- edge(?X, ?Y), path(?Y, ?Z) .\n" //
+			+ "parent(?X, !Y), female(!Y) :- person(?X) .\n";
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+
+	static List<List<Term>> collect(final QueryResultIterator iterator) {
+		final List<List<Term>> results = new ArrayList<>();
+		try (final QueryResultIterator answers = iterator) {
+			answers.forEachRemaining(result -> results.add(result.getTerms()));
+		}
+		return results;
+	}
+
+	@Test
+	public void answerQuery_distinctSources_matchesFullAnswers() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final Set<List<Term>> expected = new HashSet<>();
+			for (final List<Term> answer : QueryResultsUtils.collectQueryResults(reasoner.answerQuery(query, true))) {
+				expected.add(Collections.singletonList(answer.get(0)));
+			}
+
+			final QueryResultIterator answers = reasoner.answerQuery(query, Arrays.asList(this.x), true, true);
+			assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+			final List<List<Term>> results = collect(answers);
+			assertEquals(expected.size(), results.size());
+			assertEquals(expected, new HashSet<>(results));
+		}
+	}
+
+	@Test
+	public void answerQuery_withoutDistinct_returnsOneAnswerPerFact() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final long count = reasoner.countQueryAnswers(query).getCount();
+			assertEquals(count, collect(reasoner.answerQuery(query, Arrays.asList(this.y), false, true)).size());
+		}
+	}
+
+	@Test
+	public void answerQuery_excludeNulls_keepsAnswersWithNullsElsewhere() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("parent", this.x, this.y);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			assertEquals(2, collect(reasoner.answerQuery(query, Arrays.asList(this.x), true, false)).size());
+			assertTrue(collect(reasoner.answerQuery(query, Arrays.asList(this.y), true, false)).isEmpty());
+		}
+	}
+
+	@Test
+	public void answerQuery_unknownPredicate_isEmpty() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("unknown", this.x);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			assertTrue(collect(reasoner.answerQuery(query, Arrays.asList(this.x), true, true)).isEmpty());
+		}
+	}
+
+	@Test
+	public void answerQuery_partitionedReasoner_sameAsVLogReasoner() throws ParsingException, IOException {
+		final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+		try (final Reasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE));
+				final Reasoner partitioned = new PartitionedVLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			partitioned.reason();
+
+			assertEquals(new HashSet<>(collect(reasoner.answerQuery(query, Arrays.asList(this.y), true, true))),
+					new HashSet<>(collect(partitioned.answerQuery(query, Arrays.asList(this.y), true, true))));
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.exceptions.QueryCancelledException;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.CancellationToken;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryOptions;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.CancellableQueryResultIterator;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class QueryOptionsTest {
+
+	private static final int FACT_COUNT = 10 * CancellableQueryResultIterator.CHECK_INTERVAL;
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+	private final PositiveLiteral queryP = Expressions.makePositiveLiteral("p", this.x);
+	private final PositiveLiteral queryQ = Expressions.makePositiveLiteral("q", this.x, this.y);
+
+	static KnowledgeBase makeKnowledgeBase() throws ParsingException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse("q(?X, !Y) :- p(?X) .");
+		final List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < FACT_COUNT; i++) {
+			facts.add(Expressions.makeFact("p", Expressions.makeAbstractConstant("c" + i)));
+		}
+		knowledgeBase.addStatements(facts);
+		return knowledgeBase;
+	}
+
+	@Test
+	public void answerQuery_cancelledDuringIteration_stops() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final CancellationToken token = new CancellationToken();
+
+			int count = 0;
+			try (final QueryResultIterator answers = reasoner.answerQuery(this.queryP, true,
+					QueryOptions.NONE.withCancellationToken(token))) {
+				while (answers.hasNext()) {
+					answers.next();
+					if (++count == 10) {
+						token.cancel();
+					}
+				}
+				fail("Iteration should have been cancelled.");
+			} catch (final QueryCancelledException e) {
+				assertFalse(e.isTimedOut());
+			}
+
+			assertEquals(CancellableQueryResultIterator.CHECK_INTERVAL, count);
+		}
+	}
+
+	@Test
+	public void answerQuery_deadlinePassed_fails() throws ParsingException, IOException, InterruptedException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final QueryOptions options = QueryOptions.NONE.withTimeout(1, TimeUnit.MILLISECONDS);
+			Thread.sleep(5);
+
+			reasoner.answerQuery(this.queryP, true, options);
+			fail("Query should have timed out.");
+		} catch (final QueryCancelledException e) {
+			assertTrue(e.isTimedOut());
+		}
+	}
+
+	@Test
+	public void answerQuery_notExceeded_returnsAllAnswers() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final QueryOptions options = QueryOptions.NONE.withTimeout(1, TimeUnit.HOURS)
+					.withCancellationToken(new CancellationToken());
+
+			try (final QueryResultIterator answers = reasoner.answerQuery(this.queryP, true, options)) {
+				assertEquals(QueryResultsUtils.collectQueryResults(reasoner.answerQuery(this.queryP, true)),
+						QueryResultsUtils.collectQueryResults(answers));
+			}
+		}
+	}
+
+	@Test
+	public void countQueryAnswers_limited_sameAsUnlimited() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final QueryOptions options = QueryOptions.NONE.withCancellationToken(new CancellationToken());
+
+			assertEquals(reasoner.countQueryAnswers(this.queryQ, true).getCount(),
+					reasoner.countQueryAnswers(this.queryQ, true, options).getCount());
+			assertEquals(0, reasoner.countQueryAnswers(this.queryQ, false, options).getCount());
+			assertEquals(FACT_COUNT, reasoner.countQueryAnswers(this.queryP, false, options).getCount());
+			assertEquals(0, reasoner.countQueryAnswers(Expressions.makePositiveLiteral("unknown", this.x), true,
+					options).getCount());
+		}
+	}
+
+	@Test(expected = QueryCancelledException.class)
+	public void countQueryAnswers_cancelled_fails() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final CancellationToken token = new CancellationToken();
+			token.cancel();
+
+			reasoner.countQueryAnswers(this.queryP, true, QueryOptions.NONE.withCancellationToken(token));
+		}
+	}
+
+	@Test
+	public void exportQueryAnswersToCsv_limited_sameAsUnlimited() throws ParsingException, IOException {
+		final String nativeFilePath = FileDataSourceTestUtils.OUTPUT_FOLDER + "optionsNative.csv";
+		final String limitedFilePath = FileDataSourceTestUtils.OUTPUT_FOLDER + "optionsLimited.csv";
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final QueryOptions options = QueryOptions.NONE.withCancellationToken(new CancellationToken());
+
+			reasoner.exportQueryAnswersToCsv(this.queryQ, nativeFilePath, true);
+			reasoner.exportQueryAnswersToCsv(this.queryQ, limitedFilePath, true, options);
+
+			final List<List<String>> expected = FileDataSourceTestUtils.getCSVContent(nativeFilePath);
+			assertEquals(FACT_COUNT, expected.size());
+			assertEquals(new HashSet<>(expected),
+					new HashSet<>(FileDataSourceTestUtils.getCSVContent(limitedFilePath)));
+		} finally {
+			Files.deleteIfExists(Paths.get(nativeFilePath));
+			Files.deleteIfExists(Paths.get(limitedFilePath));
+		}
+	}
+
+	@Test
+	public void exportQueryAnswersToCsv_cancelled_writesNoFile() throws ParsingException, IOException {
+		final String filePath = FileDataSourceTestUtils.OUTPUT_FOLDER + "optionsCancelled.csv";
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final CancellationToken token = new CancellationToken();
+			token.cancel();
+
+			reasoner.exportQueryAnswersToCsv(this.queryP, filePath, true,
+					QueryOptions.NONE.withCancellationToken(token));
+			fail("Export should have been cancelled.");
+		} catch (final QueryCancelledException e) {
+			assertFalse(new File(filePath).exists());
+		}
+	}
+
+	@Test
+	public void forEachInference_cancelledDuringIteration_stops() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBase())) {
+			reasoner.reason();
+			final CancellationToken token = new CancellationToken();
+			final int[] count = { 0 };
+
+			try {
+				reasoner.forEachInference((predicate, terms) -> {
+					if (++count[0] == 10) {
+						token.cancel();
+					}
+				}, QueryOptions.NONE.withCancellationToken(token));
+				fail("Iteration should have been cancelled.");
+			} catch (final QueryCancelledException e) {
+				assertFalse(e.isTimedOut());
+			}
+
+			assertEquals(CancellableQueryResultIterator.CHECK_INTERVAL - 1, count[0]);
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultBatch;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class QueryResultBatchTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(a, b) . edge(a, c) . edge(b, c) . edge(c, d) . edge(d, a) .\n"
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- path(?X, ?Y), edge(?Y, ?Z) .\n" //
+			+ "person(alice) . parent(?X, !Y) :- person(?X) .\n";
+
+	static List<QueryResult> readResults(final VLogReasoner reasoner, final PositiveLiteral query) {
+		final List<QueryResult> results = new ArrayList<>();
+		try (final QueryResultIterator answers = reasoner.answerQuery(query, true)) {
+			answers.forEachRemaining(results::add);
+		}
+		return results;
+	}
+
+	static List<QueryResult> readBatches(final VLogReasoner reasoner, final PositiveLiteral query,
+			final int batchSize) {
+		final List<QueryResult> results = new ArrayList<>();
+		try (final QueryResultIterator answers = reasoner.answerQuery(query, true)) {
+			QueryResultBatch batch;
+			while ((batch = answers.nextBatch(batchSize)).getRowCount() > 0) {
+				assertTrue(batch.getRowCount() <= batchSize);
+				assertEquals(query.getArguments().size(), batch.getColumnCount());
+				for (int row = 0; row < batch.getRowCount(); row++) {
+					results.add(batch.getQueryResult(row));
+				}
+			}
+		}
+		return results;
+	}
+
+	@Test
+	public void nextBatch_sameResultsAsNext() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			for (final String queryString : new String[] { "path(?X, ?Y)", "path(a, ?Y)", "path(?X, ?X)",
+					"parent(?X, ?Y)", "person(?X)" }) {
+				final PositiveLiteral query = RuleParser.parsePositiveLiteral(queryString);
+				final List<QueryResult> expected = readResults(reasoner, query);
+				assertEquals(expected, readBatches(reasoner, query, 1));
+				assertEquals(expected, readBatches(reasoner, query, 3));
+				assertEquals(expected, readBatches(reasoner, query, 1000));
+			}
+		}
+	}
+
+	@Test
+	public void nextBatch_mixedWithNext_resultsNotRepeated() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("path(?X, ?Y)");
+			final List<QueryResult> expected = readResults(reasoner, query);
+
+			final List<QueryResult> results = new ArrayList<>();
+			try (final QueryResultIterator answers = reasoner.answerQuery(query, true)) {
+				results.add(answers.next());
+				final QueryResultBatch first = answers.nextBatch(4);
+				for (int row = 0; row < first.getRowCount(); row++) {
+					results.add(first.getQueryResult(row));
+				}
+				results.add(answers.next());
+				final QueryResultBatch second = answers.nextBatch(1000);
+				assertSame(first, second);
+				for (int row = 0; row < second.getRowCount(); row++) {
+					results.add(second.getQueryResult(row));
+				}
+				assertEquals(0, answers.nextBatch(1).getRowCount());
+			}
+			assertEquals(expected, results);
+		}
+	}
+
+	@Test
+	public void nextBatch_unknownPredicate_emptyBatch() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			try (final QueryResultIterator answers = reasoner
+					.answerQuery(RuleParser.parsePositiveLiteral("unknown(?X)"), true)) {
+				assertEquals(0, answers.nextBatch(10).getRowCount());
+			}
+		}
+	}
+
+}
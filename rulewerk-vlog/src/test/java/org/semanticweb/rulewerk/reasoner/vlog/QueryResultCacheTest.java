@@ -0,0 +1,212 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class QueryResultCacheTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(a, b) . edge(b, c) . edge(c, c) .\n" //
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- path(?X, ?Y), edge(?Y, ?Z) .\n";
+
+	static Set<List<Term>> readAnswers(final VLogReasoner reasoner, final String query) throws ParsingException {
+		try (final QueryResultIterator answers = reasoner.answerQuery(RuleParser.parsePositiveLiteral(query),
+				true)) {
+			return QueryResultsUtils.collectQueryResults(answers);
+		}
+	}
+
+	@Test
+	public void normalise_variableRenaming_equal() throws ParsingException {
+		final PositiveLiteral xy = RuleParser.parsePositiveLiteral("p(?X, ?Y, c)");
+		final PositiveLiteral ab = RuleParser.parsePositiveLiteral("p(?A, ?B, c)");
+		final PositiveLiteral xx = RuleParser.parsePositiveLiteral("p(?X, ?X, c)");
+		final PositiveLiteral yx = RuleParser.parsePositiveLiteral("p(?Y, ?X, c)");
+
+		assertEquals(QueryResultCache.normalise(xy), QueryResultCache.normalise(ab));
+		assertEquals(QueryResultCache.normalise(xy), QueryResultCache.normalise(yx));
+		assertNotEquals(QueryResultCache.normalise(xy), QueryResultCache.normalise(xx));
+	}
+
+	@Test
+	public void answerQuery_repeatedQuery_servedFromCache() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.setQueryResultCacheSize(1 << 20);
+			reasoner.reason();
+			final QueryResultCache cache = reasoner.getQueryResultCache();
+
+			final Set<List<Term>> answers = readAnswers(reasoner, "path(?X, ?Y)");
+			assertEquals(0, cache.getHitCount());
+			assertEquals(1, cache.getMissCount());
+			assertEquals(1, cache.getEntryCount());
+
+			assertEquals(answers, readAnswers(reasoner, "path(?A, ?B)"));
+			assertEquals(1, cache.getHitCount());
+
+			assertEquals(answers.size(),
+					reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("path(?U, ?V)")).getCount());
+			assertEquals(2, cache.getHitCount());
+
+			try (final QueryResultIterator cached = reasoner
+					.answerQuery(RuleParser.parsePositiveLiteral("path(?X, ?Y)"), true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, cached.getCorrectness());
+			}
+		}
+	}
+
+	@Test
+	public void countQueryAnswers_repeatedQuery_servedFromCache() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.setQueryResultCacheSize(1 << 20);
+			reasoner.reason();
+			final QueryResultCache cache = reasoner.getQueryResultCache();
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("path(a, ?X)");
+
+			assertEquals(2, reasoner.countQueryAnswers(query, true).getCount());
+			assertEquals(2, reasoner.countQueryAnswers(query, true).getCount());
+			assertEquals(1, cache.getHitCount());
+			assertEquals(1, cache.getMissCount());
+
+			// count entries do not provide answers
+			assertEquals(2, readAnswers(reasoner, "path(a, ?X)").size());
+			assertEquals(2, cache.getMissCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_readInBatches_cached() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.setQueryResultCacheSize(1 << 20);
+			reasoner.reason();
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("path(?X, ?Y)");
+
+			final List<QueryResult> answers = QueryResultBatchTest.readBatches(reasoner, query, 3);
+			assertEquals(1, reasoner.getQueryResultCache().getEntryCount());
+			assertEquals(answers, QueryResultBatchTest.readResults(reasoner, query));
+			assertEquals(1, reasoner.getQueryResultCache().getHitCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_partiallyRead_notCached() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.setQueryResultCacheSize(1 << 20);
+			reasoner.reason();
+
+			try (final QueryResultIterator answers = reasoner
+					.answerQuery(RuleParser.parsePositiveLiteral("path(?X, ?Y)"), true)) {
+				answers.next();
+			}
+			assertEquals(0, reasoner.getQueryResultCache().getEntryCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_knowledgeBaseChanged_invalidated() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.setQueryResultCacheSize(1 << 20);
+			reasoner.reason();
+			final QueryResultCache cache = reasoner.getQueryResultCache();
+			assertEquals(4, readAnswers(reasoner, "path(?X, ?Y)").size());
+
+			reasoner.getKnowledgeBase().addStatement(RuleParser.parseFact("edge(c, d) ."));
+			assertEquals(0, cache.getEntryCount());
+			assertEquals(Correctness.INCORRECT, reasoner
+					.countQueryAnswers(RuleParser.parsePositiveLiteral("path(?X, ?Y)")).getCorrectness());
+
+			reasoner.reason();
+			assertEquals(0, cache.getEntryCount());
+			assertEquals(7, readAnswers(reasoner, "path(?X, ?Y)").size());
+			assertEquals(0, cache.getHitCount());
+
+			reasoner.resetReasoner();
+			assertEquals(0, cache.getEntryCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_includeNulls_separateEntries() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(
+				RuleParser.parse("person(alice) . parent(?X, !Y) :- person(?X) . parent(bob, alice) ."))) {
+			reasoner.setQueryResultCacheSize(1 << 20);
+			reasoner.reason();
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("parent(?X, ?Y)");
+
+			assertEquals(2, reasoner.countQueryAnswers(query, true).getCount());
+			assertEquals(1, reasoner.countQueryAnswers(query, false).getCount());
+			assertEquals(2, reasoner.getQueryResultCache().getEntryCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_sizeBound_evictsLeastRecentlyUsed() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.setQueryResultCacheSize(2 * QueryResultCache.ENTRY_SIZE);
+			reasoner.reason();
+			final QueryResultCache cache = reasoner.getQueryResultCache();
+
+			reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("path(a, ?X)"));
+			reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("path(b, ?X)"));
+			reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("path(a, ?X)"));
+			reasoner.countQueryAnswers(RuleParser.parsePositiveLiteral("path(c, ?X)"));
+			assertEquals(2, cache.getEntryCount());
+			assertEquals(1, cache.getEvictionCount());
+			assertTrue(cache.getSize() <= cache.getMaximumSize());
+
+			assertNull(cache.getCount(RuleParser.parsePositiveLiteral("path(b, ?X)"), true));
+			assertEquals(2, cache.getCount(RuleParser.parsePositiveLiteral("path(a, ?Y)"), true).getCount());
+
+			// answers exceeding the size bound are not cached
+			assertEquals(4, readAnswers(reasoner, "path(?X, ?Y)").size());
+			assertEquals(2, cache.getEntryCount());
+		}
+	}
+
+	@Test
+	public void setQueryResultCacheSize_zero_disabled() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			assertNull(reasoner.getQueryResultCache());
+			reasoner.setQueryResultCacheSize(1024);
+			assertFalse(reasoner.getQueryResultCache() == null);
+			reasoner.setQueryResultCacheSize(0);
+			assertNull(reasoner.getQueryResultCache());
+		}
+	}
+
+}
@@ -0,0 +1,131 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.QueryResult;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultPage;
+import org.semanticweb.rulewerk.core.reasoner.Reasoner;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class QueryResultPageTest {
+
+	private static final String KNOWLEDGE_BASE = "edge(e, a) . edge(d, b) . edge(c, c) . edge(b, d) . edge(a, e) .\n"
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- edge(?X, ?Y), path(?Y, ?Z) .\n";
+
+	private final Variable x = Expressions.makeUniversalVariable("X");
+	private final Variable y = Expressions.makeUniversalVariable("Y");
+	private final PositiveLiteral query = Expressions.makePositiveLiteral("path", this.x, this.y);
+
+	static List<QueryResult> readAllPages(final Reasoner reasoner, QueryResultPage page, final int pageSize) {
+		final List<QueryResult> results = new ArrayList<>(page.getQueryResults());
+		while (page.getCursor() != null) {
+			page = reasoner.getNextQueryResultPage(page.getCursor(), pageSize);
+			results.addAll(page.getQueryResults());
+		}
+		return results;
+	}
+
+	@Test
+	public void answerQuery_orderBy_sortsResults() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final List<String> sources = new ArrayList<>();
+			try (final QueryResultIterator answers = reasoner.answerQuery(this.query, Arrays.asList(this.x), true,
+					Arrays.asList(this.x), true)) {
+				answers.forEachRemaining(answer -> sources.add(answer.getTerms().get(0).getName()));
+			}
+
+			assertEquals(Arrays.asList("a", "b", "c", "d", "e"), sources);
+		}
+	}
+
+	@Test
+	public void answerQueryPage_allPages_sameAsSortedAnswers() throws ParsingException, IOException {
+		final List<Variable> variables = Arrays.asList(this.x, this.y);
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final List<QueryResult> expected = new ArrayList<>();
+			try (final QueryResultIterator answers = reasoner.answerQuery(this.query, variables, false, variables,
+					true)) {
+				answers.forEachRemaining(expected::add);
+			}
+			final QueryResultPage firstPage = reasoner.answerQueryPage(this.query, variables, false, variables, true,
+					2);
+
+			assertEquals(2, firstPage.getQueryResults().size());
+			assertEquals(expected, readAllPages(reasoner, firstPage, 2));
+		}
+	}
+
+	@Test
+	public void answerQueryPage_partitionedReasoner_readsAllPages() throws ParsingException, IOException {
+		try (final PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final QueryResultPage firstPage = reasoner.answerQueryPage(this.query, Arrays.asList(this.y), true,
+					Arrays.asList(this.y), true, 3);
+
+			assertEquals(5, readAllPages(reasoner, firstPage, 3).size());
+		}
+	}
+
+	@Test
+	public void answerQueryPage_smallResult_hasNoCursor() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+
+			final QueryResultPage page = reasoner.answerQueryPage(this.query, Arrays.asList(this.x), true,
+					Arrays.asList(), true, 10);
+
+			assertEquals(5, page.getQueryResults().size());
+			assertNull(page.getCursor());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getNextQueryResultPage_afterReasoning_fails() throws ParsingException, IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(KNOWLEDGE_BASE))) {
+			reasoner.reason();
+			final QueryResultPage page = reasoner.answerQueryPage(this.query, Arrays.asList(this.x, this.y), false,
+					Arrays.asList(this.x), true, 1);
+			reasoner.getKnowledgeBase().addStatement(RuleParser.parseFact("edge(f, a) ."));
+
+			reasoner.getNextQueryResultPage(page.getCursor(), 1);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.LogLevel;
+import org.semanticweb.rulewerk.core.reasoner.ReasoningStatistics;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class ReasoningStatisticsTest {
+
+	private static final Predicate predP = Expressions.makePredicate("p", 1);
+	private static final Predicate predQ = Expressions.makePredicate("q", 1);
+	private static final Predicate predR = Expressions.makePredicate("r", 2);
+
+	@Test
+	public void getReasoningStatistics_notLoaded_empty() throws IOException {
+		try (VLogReasoner reasoner = new VLogReasoner(new KnowledgeBase())) {
+			final ReasoningStatistics statistics = reasoner.getReasoningStatistics();
+
+			assertTrue(statistics.getPredicates().isEmpty());
+			assertEquals(0, statistics.getLoadingTime());
+			assertEquals(0, statistics.getMaterialisationTime());
+		}
+	}
+
+	@Test
+	public void getReasoningStatistics_afterReasoning_countsAssertedAndDerivedFacts()
+			throws ParsingException, IOException {
+		final KnowledgeBase kb = RuleParser.parse("p(a) . p(b) . q(c) . " //
+				+ "q(?X) :- p(?X) . " //
+				+ "r(?X, !Y) :- q(?X) .");
+
+		try (VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.reason();
+			final ReasoningStatistics statistics = reasoner.getReasoningStatistics();
+
+			assertEquals(new HashSet<>(Arrays.asList(predP, predQ, predR)), statistics.getPredicates());
+			assertEquals(2, statistics.getFactCount(predP));
+			assertEquals(2, statistics.getAssertedFactCount(predP));
+			assertEquals(0, statistics.getDerivedFactCount(predP));
+			assertEquals(3, statistics.getFactCount(predQ));
+			assertEquals(1, statistics.getAssertedFactCount(predQ));
+			assertEquals(2, statistics.getDerivedFactCount(predQ));
+			assertEquals(3, statistics.getFactCount(predR));
+			assertEquals(0, statistics.getAssertedFactCount(predR));
+			assertEquals(3, statistics.getDerivedFactCount(predR));
+			assertTrue(statistics.getLoadingTime() >= statistics.getConversionTime());
+			assertTrue(statistics.getMaterialisationTime() >= 0);
+		}
+	}
+
+	@Test
+	public void getReasoningStatistics_afterLoading_noFactCounts() throws ParsingException, IOException {
+		final KnowledgeBase kb = RuleParser.parse("p(a) . q(?X) :- p(?X) .");
+
+		try (VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.load();
+			final ReasoningStatistics statistics = reasoner.getReasoningStatistics();
+
+			assertTrue(statistics.getPredicates().isEmpty());
+			assertEquals(0, statistics.getMaterialisationTime());
+		}
+	}
+
+	@Test
+	public void getReasoningStatistics_ruleProfiling_countsRuleApplications() throws ParsingException, IOException {
+		final KnowledgeBase kb = RuleParser.parse("p(a) . p(b) . q(c) . " //
+				+ "q(?X) :- p(?X) .");
+		final Rule rule = RuleParser.parseRule("q(?X) :- p(?X) .");
+
+		try (VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.setRuleProfiling(true);
+			reasoner.reason();
+			final List<RuleStatistics> ruleStatistics = reasoner.getReasoningStatistics().getRuleStatistics();
+
+			// the rule of the knowledge base, and the rule copying facts of q into the IDB
+			// predicate q
+			assertEquals(2, ruleStatistics.size());
+			final RuleStatistics statistics = ruleStatistics.stream().filter(s -> s.getRule().equals(rule))
+					.findFirst().get();
+			assertEquals(1, statistics.getApplications());
+			assertEquals(2, statistics.getDerivedFacts());
+			assertEquals(3, ruleStatistics.stream().mapToLong(RuleStatistics::getDerivedFacts).sum());
+			assertEquals(LogLevel.WARNING, reasoner.getLogLevel());
+		}
+	}
+
+	@Test
+	public void getReasoningStatistics_partitionedRuleProfiling_profilesEachComponent()
+			throws ParsingException, IOException {
+		final KnowledgeBase kb = RuleParser.parse("q(?X) :- p(?X) . t(?X, ?Z) :- r(?X, ?Y), r(?Y, ?Z) .");
+		for (int i = 0; i < 1000; i++) {
+			kb.addStatement(Expressions.makeFact(predP, Expressions.makeAbstractConstant("p" + i)));
+			kb.addStatement(Expressions.makeFact(predR, Expressions.makeAbstractConstant("r" + i),
+					Expressions.makeAbstractConstant("r" + (i + 1))));
+		}
+		final Rule ruleQ = RuleParser.parseRule("q(?X) :- p(?X) .");
+		final Rule ruleT = RuleParser.parseRule("t(?X, ?Z) :- r(?X, ?Y), r(?Y, ?Z) .");
+
+		try (PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(kb)) {
+			reasoner.setNumberOfThreads(2);
+			reasoner.setRuleProfiling(true);
+			reasoner.reason();
+			assertEquals(2, reasoner.getPartitions().size());
+			final List<RuleStatistics> ruleStatistics = reasoner.getReasoningStatistics().getRuleStatistics();
+
+			assertEquals(1000, ruleStatistics.stream().filter(s -> s.getRule().equals(ruleQ)).findFirst().get()
+					.getDerivedFacts());
+			assertEquals(999, ruleStatistics.stream().filter(s -> s.getRule().equals(ruleT)).findFirst().get()
+					.getDerivedFacts());
+			for (final VLogReasoner partition : reasoner.getPartitions()) {
+				assertEquals(LogLevel.WARNING, partition.getLogLevel());
+			}
+		}
+	}
+
+	@Test
+	public void getReasoningStatistics_noRuleProfiling_emptyRuleStatistics() throws ParsingException, IOException {
+		final KnowledgeBase kb = RuleParser.parse("p(a) . q(?X) :- p(?X) .");
+
+		try (VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.reason();
+
+			assertTrue(reasoner.getReasoningStatistics().getRuleStatistics().isEmpty());
+		}
+	}
+
+	@Test
+	public void getReasoningStatistics_partitioned_mergesComponents() throws ParsingException, IOException {
+		final KnowledgeBase kb = RuleParser.parse("p(a) . q(?X) :- p(?X) . r(b, c) .");
+
+		try (PartitionedVLogReasoner reasoner = new PartitionedVLogReasoner(kb)) {
+			reasoner.reason();
+			final ReasoningStatistics statistics = reasoner.getReasoningStatistics();
+
+			assertEquals(new HashSet<>(Arrays.asList(predP, predQ, predR)), statistics.getPredicates());
+			assertEquals(1, statistics.getDerivedFactCount(predQ));
+			assertEquals(1, statistics.getAssertedFactCount(predR));
+		}
+	}
+
+}
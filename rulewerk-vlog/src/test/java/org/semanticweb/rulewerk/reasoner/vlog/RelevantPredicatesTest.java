@@ -0,0 +1,159 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class RelevantPredicatesTest {
+
+	private static final String MISSING_CSV_FILE = FileDataSourceTestUtils.INPUT_FOLDER + "missing.csv";
+
+	private static final String KNOWLEDGE_BASE = "@source unrelated[1] : load-csv(\"" + MISSING_CSV_FILE + "\") .\n" //
+			+ "edge(a, b) . edge(b, c) . label(a, \"A\") .\n" //
+			+ "path(?X, ?Y) :- edge(?X, ?Y) .\n" //
+			+ "path(?X, ?Z) :- path(?X, ?Y), edge(?Y, ?Z) .\n" //
+			+ "named(?X) :- label(?X, ?L) .\n" //
+			+ "other(?X) :- unrelated(?X) .\n";
+
+	private final Predicate path = Expressions.makePredicate("path", 2);
+	private final Predicate named = Expressions.makePredicate("named", 1);
+
+	@Test(expected = IOException.class)
+	public void reason_noRelevantPredicates_missingDataSourceLoaded() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			reasoner.reason();
+		}
+	}
+
+	@Test
+	public void answerQuery_relevantPredicate_irrelevantDataSourceNotLoaded() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			reasoner.setRelevantPredicates(Arrays.asList(this.path));
+			reasoner.reason();
+
+			final QueryResultIterator answers = reasoner.answerQuery(RuleParser.parsePositiveLiteral("path(a, ?X)"),
+					true);
+			assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+			assertEquals(2, QueryResultsUtils.collectQueryResults(answers).size());
+		}
+	}
+
+	@Test
+	public void answerQuery_irrelevantPredicate_soundButIncomplete() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			reasoner.setRelevantPredicates(Arrays.asList(this.path));
+			reasoner.reason();
+
+			final PositiveLiteral query = RuleParser.parsePositiveLiteral("named(?X)");
+			final QueryResultIterator answers = reasoner.answerQuery(query, true);
+			assertEquals(Correctness.SOUND_BUT_INCOMPLETE, answers.getCorrectness());
+			assertTrue(QueryResultsUtils.collectQueryResults(answers).isEmpty());
+
+			final QueryAnswerCount count = reasoner.countQueryAnswers(query);
+			assertEquals(Correctness.SOUND_BUT_INCOMPLETE, count.getCorrectness());
+			assertEquals(0, count.getCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_sameAnswersAsFullMaterialisation() throws ParsingException, IOException {
+		final String input = "person(alice) . person(bob) . knows(alice, bob) .\n" //
+				+ "parent(?X, !Y), female(!Y) :- person(?X) .\n" //
+				+ "mother(?X, ?Y) :- parent(?X, ?Y), female(?Y) .\n" //
+				+ "friend(?X, ?Y) :- knows(?X, ?Y), ~blocked(?X, ?Y) .\n" //
+				+ "blocked(?X, ?Y) :- knows(?Y, ?X) .\n";
+		final PositiveLiteral motherQuery = RuleParser.parsePositiveLiteral("mother(?X, ?Y)");
+		final PositiveLiteral friendQuery = RuleParser.parsePositiveLiteral("friend(?X, ?Y)");
+
+		final Set<List<Term>> expectedMothers;
+		final Set<List<Term>> expectedFriends;
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(input))) {
+			reasoner.reason();
+			expectedMothers = QueryResultsUtils.collectQueryResults(reasoner.answerQuery(motherQuery, false));
+			expectedFriends = QueryResultsUtils.collectQueryResults(reasoner.answerQuery(friendQuery, true));
+		}
+
+		try (final VLogReasoner reasoner = new VLogReasoner(RuleParser.parse(input))) {
+			reasoner.setRelevantPredicates(Arrays.asList(motherQuery.getPredicate(), friendQuery.getPredicate()));
+			reasoner.reason();
+			assertEquals(expectedMothers,
+					QueryResultsUtils.collectQueryResults(reasoner.answerQuery(motherQuery, false)));
+			assertEquals(expectedFriends,
+					QueryResultsUtils.collectQueryResults(reasoner.answerQuery(friendQuery, true)));
+		}
+	}
+
+	@Test
+	public void forEachInference_onlyRelevantPredicates() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse(KNOWLEDGE_BASE);
+		try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			reasoner.setRelevantPredicates(Arrays.asList(this.named));
+			reasoner.reason();
+
+			final Set<Predicate> predicates = new HashSet<>();
+			final Correctness correctness = reasoner.forEachInference((predicate, terms) -> predicates.add(predicate));
+			assertEquals(Correctness.SOUND_BUT_INCOMPLETE, correctness);
+			assertEquals(new HashSet<>(Arrays.asList(this.named, Expressions.makePredicate("label", 2))), predicates);
+		}
+	}
+
+	@Test
+	public void setRelevantPredicates_afterReasoning_reloadsKnowledgeBase() throws ParsingException, IOException {
+		final KnowledgeBase knowledgeBase = RuleParser.parse("p(a) . q(b) . r(?X) :- p(?X) . s(?X) :- q(?X) .");
+		final PositiveLiteral query = RuleParser.parsePositiveLiteral("s(?X)");
+		try (final VLogReasoner reasoner = new VLogReasoner(knowledgeBase)) {
+			reasoner.setRelevantPredicates(Arrays.asList(Expressions.makePredicate("r", 1)));
+			reasoner.reason();
+			assertEquals(0, reasoner.countQueryAnswers(query).getCount());
+
+			reasoner.setRelevantPredicates(null);
+			assertNull(reasoner.getRelevantPredicates());
+			reasoner.reason();
+			final QueryAnswerCount count = reasoner.countQueryAnswers(query);
+			assertEquals(Correctness.SOUND_AND_COMPLETE, count.getCorrectness());
+			assertEquals(1, count.getCount());
+		}
+	}
+
+}
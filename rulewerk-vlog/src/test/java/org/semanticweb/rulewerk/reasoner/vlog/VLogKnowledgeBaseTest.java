@@ -20,9 +20,12 @@ package org.semanticweb.rulewerk.reasoner.vlog;
  * #L%
  */
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
+
 import org.junit.Test;
 import org.semanticweb.rulewerk.core.model.api.AbstractConstant;
 import org.semanticweb.rulewerk.core.model.api.Fact;
@@ -30,6 +33,7 @@ import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
 import org.semanticweb.rulewerk.core.model.api.Predicate;
 import org.semanticweb.rulewerk.core.model.api.Rule;
 import org.semanticweb.rulewerk.core.model.api.UniversalVariable;
+import org.semanticweb.rulewerk.core.model.implementation.DataSourceDeclarationImpl;
 import org.semanticweb.rulewerk.core.model.implementation.Expressions;
 import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
 
@@ -72,4 +76,43 @@ public class VLogKnowledgeBaseTest {
 		VLogKnowledgeBase vKB = new VLogKnowledgeBase(knowledgeBase);
 		assertTrue(vKB.hasData());
 	}
+
+	@Test
+	public void hasRules_onlyIrrelevantRules_returnsFalse() {
+		knowledgeBase.addStatement(rule);
+		knowledgeBase.addStatement(fact);
+		knowledgeBase.addStatement(Expressions.makeFact(q, c));
+		VLogKnowledgeBase vKB = new VLogKnowledgeBase(knowledgeBase, Collections.singleton(q));
+		assertFalse(vKB.hasRules());
+		assertEquals(Collections.singleton(q), vKB.getEdbPredicates().keySet());
+	}
+
+	@Test
+	public void getRules_factsAndInMemorySource_noAlias() {
+		final VLogInMemoryDataSource dataSource = new VLogInMemoryDataSource(1, 1);
+		dataSource.addTuple("d");
+		knowledgeBase.addStatement(fact);
+		knowledgeBase.addStatement(new DataSourceDeclarationImpl(p, dataSource));
+		VLogKnowledgeBase vKB = new VLogKnowledgeBase(knowledgeBase);
+		assertTrue(vKB.getRules().isEmpty());
+		assertEquals(p, vKB.getAlias(p));
+		assertEquals(Collections.singletonList(dataSource), vKB.getInMemoryDataSources().get(p));
+	}
+
+	@Test
+	public void getRules_factsAndInMemorySourcesWithRule_singleCopyRule() {
+		final VLogInMemoryDataSource dataSource1 = new VLogInMemoryDataSource(1, 1);
+		dataSource1.addTuple("d");
+		final VLogInMemoryDataSource dataSource2 = new VLogInMemoryDataSource(1, 1);
+		dataSource2.addTuple("e");
+		knowledgeBase.addStatement(new DataSourceDeclarationImpl(p, dataSource1));
+		knowledgeBase.addStatement(rule);
+		knowledgeBase.addStatement(fact);
+		knowledgeBase.addStatement(new DataSourceDeclarationImpl(p, dataSource2));
+		VLogKnowledgeBase vKB = new VLogKnowledgeBase(knowledgeBase);
+		assertEquals(2, vKB.getRules().size());
+		assertEquals(1, vKB.getAliasesForEdbPredicates().size());
+		assertEquals("P##FACT", vKB.getAlias(p).getName());
+		assertEquals(2, vKB.getInMemoryDataSources().get(p).size());
+	}
 }
@@ -71,6 +71,31 @@ public class VLogReasonerBasics {
 		}
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void setNumberOfThreads_zero_fails() {
+		try (final Reasoner reasoner = new VLogReasoner(new KnowledgeBase())) {
+			reasoner.setNumberOfThreads(0);
+		}
+	}
+
+	@Test
+	public void testSimpleInferenceSeveralThreads() throws IOException {
+		final KnowledgeBase kb = new KnowledgeBase();
+		kb.addStatements(ruleBxAx, ruleCxBx);
+		final int factCount = 3 * ModelToVLogConverter.FACT_CHUNK_SIZE;
+		for (int i = 0; i < factCount; i++) {
+			kb.addStatement(Expressions.makeFact("A", Expressions.makeAbstractConstant("c" + i)));
+		}
+
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.setNumberOfThreads(4);
+			assertEquals(4, reasoner.getNumberOfThreads());
+			reasoner.reason();
+
+			assertEquals(factCount, reasoner.countQueryAnswers(atomCx).getCount());
+		}
+	}
+
 	@Test
 	public void testLoadRules() throws IOException {
 		final KnowledgeBase kb = new KnowledgeBase();
@@ -158,4 +158,37 @@ public class VLogReasonerCombinedInputs {
 		}
 	}
 
+	@Test
+	public void samePredicateFactsInMemorySource() throws IOException {
+		final VLogInMemoryDataSource inMemoryDataSource = new VLogInMemoryDataSource(1, 2);
+		inMemoryDataSource.addTuple("c1");
+		inMemoryDataSource.addTuple("c2");
+		final KnowledgeBase kb = new KnowledgeBase();
+		kb.addStatements(factQc, new DataSourceDeclarationImpl(q, inMemoryDataSource), factQd);
+
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.load();
+			final QueryResultIterator queryResultIterator = reasoner.answerQuery(queryQx, true);
+			final Set<List<Term>> queryResult = QueryResultsUtils.collectQueryResults(queryResultIterator);
+			assertEquals(resultsCC1C2D, queryResult);
+		}
+	}
+
+	@Test
+	public void samePredicateInMemorySourceFactRule() throws IOException {
+		final VLogInMemoryDataSource inMemoryDataSource = new VLogInMemoryDataSource(1, 2);
+		inMemoryDataSource.addTuple("c1");
+		inMemoryDataSource.addTuple("c2");
+		final KnowledgeBase kb = new KnowledgeBase();
+		kb.addStatements(new DataSourceDeclarationImpl(q, inMemoryDataSource), factQc, factPd, rulePimpliesQ);
+
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.load();
+			reasoner.reason();
+			final QueryResultIterator queryResultIterator = reasoner.answerQuery(queryQx, true);
+			final Set<List<Term>> queryResult = QueryResultsUtils.collectQueryResults(queryResultIterator);
+			assertEquals(resultsCC1C2D, queryResult);
+		}
+	}
+
 }
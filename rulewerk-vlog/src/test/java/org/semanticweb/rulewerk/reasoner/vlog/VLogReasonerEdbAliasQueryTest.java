@@ -0,0 +1,210 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Constant;
+import org.semanticweb.rulewerk.core.model.api.Fact;
+import org.semanticweb.rulewerk.core.model.api.PositiveLiteral;
+import org.semanticweb.rulewerk.core.model.api.Predicate;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.model.api.Term;
+import org.semanticweb.rulewerk.core.model.api.Variable;
+import org.semanticweb.rulewerk.core.model.implementation.DataSourceDeclarationImpl;
+import org.semanticweb.rulewerk.core.model.implementation.Expressions;
+import org.semanticweb.rulewerk.core.reasoner.Correctness;
+import org.semanticweb.rulewerk.core.reasoner.KnowledgeBase;
+import org.semanticweb.rulewerk.core.reasoner.QueryAnswerCount;
+import org.semanticweb.rulewerk.core.reasoner.QueryResultIterator;
+import org.semanticweb.rulewerk.core.reasoner.implementation.CsvFileDataSource;
+
+/**
+ * Tests for querying predicates with aliases, i.e., with several data sources
+ * or with both facts and rules, after loading and before reasoning.
+ */
+public class VLogReasonerEdbAliasQueryTest {
+
+	private static final Predicate p = Expressions.makePredicate("p", 1);
+	private static final Predicate q = Expressions.makePredicate("q", 1);
+	private static final Variable x = Expressions.makeUniversalVariable("x");
+	private static final Constant c = Expressions.makeAbstractConstant("c");
+	private static final Constant d = Expressions.makeAbstractConstant("d");
+	private static final Constant e = Expressions.makeAbstractConstant("e");
+
+	private static final PositiveLiteral px = Expressions.makePositiveLiteral(p, x);
+	private static final PositiveLiteral qx = Expressions.makePositiveLiteral(q, x);
+	private static final Rule ruleQxPx = Expressions.makeRule(qx, px);
+	private static final Fact factPc = Expressions.makeFact(p, c);
+	private static final Fact factQe = Expressions.makeFact(q, e);
+
+	private static final Set<List<Term>> answersCD = new HashSet<>(
+			Arrays.asList(Collections.singletonList(c), Collections.singletonList(d)));
+
+	private static KnowledgeBase makeKnowledgeBaseWithFactsAndDataSource() throws IOException {
+		final KnowledgeBase kb = new KnowledgeBase();
+		kb.addStatement(factPc);
+		kb.addStatement(new DataSourceDeclarationImpl(p,
+				new CsvFileDataSource(FileDataSourceTestUtils.INPUT_FOLDER + "unaryFactsCD.csv")));
+		return kb;
+	}
+
+	@Test
+	public void answerQuery_factsAndDataSourceAfterLoad_unionOfSources() throws IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+
+			try (final QueryResultIterator answers = reasoner.answerQuery(px, true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				assertEquals(answersCD, QueryResultsUtils.collectQueryResults(answers));
+			}
+		}
+	}
+
+	@Test
+	public void answerQuery_constantOverFactsAndDataSourceAfterLoad_matchingAnswers() throws IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+
+			try (final QueryResultIterator answers = reasoner.answerQuery(Expressions.makePositiveLiteral(p, c),
+					true)) {
+				assertEquals(Collections.singleton(Arrays.asList(c)), QueryResultsUtils.collectQueryResults(answers));
+			}
+			try (final QueryResultIterator answers = reasoner.answerQuery(Expressions.makePositiveLiteral(p, e),
+					true)) {
+				assertEquals(Collections.emptySet(), QueryResultsUtils.collectQueryResults(answers));
+			}
+		}
+	}
+
+	@Test
+	public void answerQuery_overlappingFactsAndDataSourceAfterLoad_noDuplicates() throws IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+
+			final List<List<Term>> answers = new ArrayList<>();
+			try (final QueryResultIterator iterator = reasoner.answerQuery(px, true)) {
+				iterator.forEachRemaining(answer -> answers.add(answer.getTerms()));
+			}
+			assertEquals(2, answers.size());
+			assertEquals(answersCD, new HashSet<>(answers));
+		}
+	}
+
+	@Test
+	public void countQueryAnswers_factsAndDataSourceAfterLoad_distinctAnswers() throws IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+
+			final QueryAnswerCount count = reasoner.countQueryAnswers(px, true);
+			assertEquals(Correctness.SOUND_AND_COMPLETE, count.getCorrectness());
+			assertEquals(2, count.getCount());
+			assertEquals(1, reasoner.countQueryAnswers(Expressions.makePositiveLiteral(p, d), true).getCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_factsAndDataSourceAfterReasoning_sameAnswers() throws IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+			reasoner.reason();
+
+			try (final QueryResultIterator answers = reasoner.answerQuery(px, true)) {
+				assertEquals(answersCD, QueryResultsUtils.collectQueryResults(answers));
+			}
+			assertEquals(2, reasoner.countQueryAnswers(px, true).getCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_factsAndRuleHeadAfterLoad_assertedFacts() throws IOException {
+		final KnowledgeBase kb = new KnowledgeBase();
+		kb.addStatements(factPc, factQe, ruleQxPx);
+
+		try (final VLogReasoner reasoner = new VLogReasoner(kb)) {
+			reasoner.load();
+
+			try (final QueryResultIterator answers = reasoner.answerQuery(qx, true)) {
+				assertEquals(Correctness.SOUND_BUT_INCOMPLETE, answers.getCorrectness());
+				assertEquals(Collections.singleton(Arrays.asList(e)), QueryResultsUtils.collectQueryResults(answers));
+			}
+			assertEquals(1, reasoner.countQueryAnswers(qx, true).getCount());
+
+			reasoner.reason();
+
+			try (final QueryResultIterator answers = reasoner.answerQuery(qx, true)) {
+				assertEquals(Correctness.SOUND_AND_COMPLETE, answers.getCorrectness());
+				assertEquals(new HashSet<>(Arrays.asList(Arrays.asList(c), Arrays.asList(e))),
+						QueryResultsUtils.collectQueryResults(answers));
+			}
+			assertEquals(2, reasoner.countQueryAnswers(qx, true).getCount());
+		}
+	}
+
+	@Test
+	public void answerQuery_projectionOverFactsAndDataSourceAfterLoad_unionOfSources() throws IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+
+			try (final QueryResultIterator answers = reasoner.answerQuery(px, Arrays.asList(x), true,
+					Collections.emptyList(), true)) {
+				assertEquals(answersCD, QueryResultsUtils.collectQueryResults(answers));
+			}
+		}
+	}
+
+	@Test
+	public void getInferences_factsAndDataSourceAfterLoad_unionOfSources() throws IOException {
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+
+			final Set<List<Term>> inferences = new HashSet<>();
+			final Correctness correctness = reasoner.forEachInference((predicate, terms) -> {
+				assertEquals(p, predicate);
+				inferences.add(terms);
+			});
+			assertEquals(Correctness.SOUND_AND_COMPLETE, correctness);
+			assertEquals(answersCD, inferences);
+		}
+	}
+
+	@Test
+	public void exportQueryAnswersToCsv_factsAndDataSourceAfterLoad_unionOfSources() throws IOException {
+		final String csvFilePath = FileDataSourceTestUtils.OUTPUT_FOLDER + "edbAliasAnswers.csv";
+		try (final VLogReasoner reasoner = new VLogReasoner(makeKnowledgeBaseWithFactsAndDataSource())) {
+			reasoner.load();
+
+			assertEquals(Correctness.SOUND_AND_COMPLETE, reasoner.exportQueryAnswersToCsv(px, csvFilePath, true));
+		}
+		assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("c"), Arrays.asList("d"))),
+				new HashSet<>(FileDataSourceTestUtils.getCSVContent(csvFilePath)));
+	}
+
+}
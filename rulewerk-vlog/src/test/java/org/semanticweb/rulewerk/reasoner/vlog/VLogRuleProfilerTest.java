@@ -0,0 +1,94 @@
+package org.semanticweb.rulewerk.reasoner.vlog;
+
+/*-
+ * #%L
+ * Rulewerk VLog Reasoner Support
+ * %%
+ * Copyright (C) 2018 - 2020 Rulewerk Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.rulewerk.core.model.api.Rule;
+import org.semanticweb.rulewerk.core.reasoner.RuleStatistics;
+import org.semanticweb.rulewerk.parser.ParsingException;
+import org.semanticweb.rulewerk.parser.RuleParser;
+
+public class VLogRuleProfilerTest {
+
+	private static final String LOG_PREFIX = "[0x1 2020-01-01 00:00:00] DEBUG  ";
+
+	@Test
+	public void toLogString_variablesNumberedByFirstOccurrence() throws ParsingException {
+		final Rule rule = RuleParser.parseRule("h(?Y, ?X, c) :- e(?X, ?Z), ~f(?Z, ?Y) .");
+
+		assertEquals("HEAD= h-3(?1,?2,c) BODY= e-2(?2,?3) ~f-2(?3,?1)",
+				VLogRuleProfiler.toLogString(ModelToVLogConverter.toVLogRule(rule)));
+	}
+
+	@Test
+	public void normalizeLogString_removesPredicateIdsAndAdornments() {
+		assertEquals("HEAD= h-3(?1,?2,c) BODY= e-2(?2,?3) ~f-2(?3,?1)",
+				VLogRuleProfiler.normalizeLogString("HEAD= h-3[1]ffb(?1,?2,c) BODY= e-2[0]ff(?2,?3) ~f-2[1]ff(?3,?1) "));
+	}
+
+	@Test
+	public void readProfile_sumsApplicationsPerRule() throws ParsingException, IOException {
+		final Rule rule1 = RuleParser.parseRule("q(?X) :- p(?X) .");
+		final Rule rule2 = RuleParser.parseRule("t(?X, ?Z) :- t(?X, ?Y), e(?Y, ?Z) .");
+		final Rule rule3 = RuleParser.parseRule("s(?X) :- q(?X) .");
+		final List<Rule> rules = Arrays.asList(rule1, rule2, rule3);
+		final VLogRuleProfiler profiler = new VLogRuleProfiler(rules, ModelToVLogConverter.toVLogRuleArray(rules));
+
+		final String log = LOG_PREFIX + "Iteration: 1 Rule: HEAD= q-1[1]f(?1) BODY= p-1[0]f(?1) \n" //
+				+ LOG_PREFIX + "Rule application: 1, derived 2 new tuple(s) using rule HEAD= q-1[1]f(?1) BODY= p-1[0]f(?1) \n" //
+				+ LOG_PREFIX + "Combinations 1, Processed IDB Tables=0, Total runtime 0.5ms, join 0.000000ms\n" //
+				+ LOG_PREFIX + "Rule application: 2, derived 3 new tuple(s) using rule "
+				+ "HEAD= t-2[1]ff(?1,?2) BODY= t-2[1]ff(?1,?3) e-2[0]ff(?3,?2) \n" //
+				+ LOG_PREFIX + "Combinations 1, Processed IDB Tables=0, Total runtime 1.25ms, join 0.2ms\n" //
+				+ LOG_PREFIX + "Rule application: 3, derived no new tuples using rule "
+				+ "HEAD= t-2[1]ff(?1,?2) BODY= t-2[1]ff(?1,?3) e-2[0]ff(?3,?2) \n" //
+				+ LOG_PREFIX + "Combinations 1, Processed IDB Tables=0, Total runtime 0.25ms, join 0.1ms\n" //
+				+ LOG_PREFIX + "Rule application: 4, rule HEAD= q-1[1]f(?1) BODY= p-1[0]f(?1)  skipped because "
+				+ "dependencies did not change since the previous application of this rule\n" //
+				+ LOG_PREFIX + "Rule application: 5, derived 7 new tuple(s) using rule HEAD= x-1[1]f(?1) BODY= y-1[0]f(?1) \n" //
+				+ LOG_PREFIX + "Combinations 1, Processed IDB Tables=0, Total runtime 9.0ms, join 0.1ms\n";
+
+		final List<RuleStatistics> profile = profiler.readProfile(new BufferedReader(new StringReader(log)));
+
+		assertEquals(3, profile.size());
+		assertEquals(rule1, profile.get(0).getRule());
+		assertEquals(1, profile.get(0).getApplications());
+		assertEquals(2, profile.get(0).getDerivedFacts());
+		assertEquals(0.5, profile.get(0).getTime(), 0);
+		assertEquals(rule2, profile.get(1).getRule());
+		assertEquals(2, profile.get(1).getApplications());
+		assertEquals(3, profile.get(1).getDerivedFacts());
+		assertEquals(1.5, profile.get(1).getTime(), 0);
+		assertEquals(rule3, profile.get(2).getRule());
+		assertEquals(0, profile.get(2).getApplications());
+		assertEquals(0, profile.get(2).getDerivedFacts());
+		assertEquals(0, profile.get(2).getTime(), 0);
+	}
+
+}